@@ -0,0 +1,131 @@
+package com.todoapp.archive;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.repository.TaskArchiveRepository;
+import com.todoapp.sharding.ShardExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Moves completed tasks older than {@code todoapp.archive.max-age-ms} from
+ * the hot tasks table to archived_tasks, one small chunk per transaction so
+ * row locks are short. Exposes {@code todoapp.archive.moved} (tasks moved)
+ * and {@code todoapp.archive.lag} (how far past the cutoff the oldest task
+ * still waiting to be moved is). Completed tasks without a completion time
+ * are dated with the time of the pass that finds them, rather than treated
+ * as old.
+ */
+@Slf4j
+@Component
+@ConditionalOnJpaStorage
+public class TaskArchiver {
+
+    @Autowired
+    private TaskArchiveRepository archiveRepository;
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todoapp.archive.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${todoapp.archive.max-age-ms:2592000000}")
+    private long maxAgeMs = 2_592_000_000L;
+
+    @Value("${todoapp.archive.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${todoapp.archive.max-chunks-per-run:100}")
+    private int maxChunksPerRun = 100;
+
+    private final LongSupplier clock;
+
+    private final AtomicLong lagMs = new AtomicLong();
+
+    private Counter moved;
+
+    public TaskArchiver() {
+        this(System::currentTimeMillis);
+    }
+
+    TaskArchiver(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        moved = Counter.builder("todoapp.archive.moved")
+            .description("Completed tasks moved to the archive")
+            .baseUnit("tasks")
+            .register(meterRegistry);
+        TimeGauge.builder("todoapp.archive.lag", lagMs, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+            .description("Age beyond the archive cutoff of the oldest completed task not yet archived")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.archive.interval-ms:60000}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /** Runs one pass over every shard and returns the number of tasks moved. */
+    public int archive() {
+        long now = clock.getAsLong();
+        long cutoff = now - maxAgeMs;
+        int total = 0;
+        long oldestPending = Long.MAX_VALUE;
+        for (int shard = 0; shard < shardExecutor.getShardCount(); shard++) {
+            int chunks = 0;
+            int count;
+            do {
+                count = shardExecutor.onShard(shard, false,
+                    () -> archiveRepository.backfillCompletedAt(now, chunkSize));
+            } while (count == chunkSize && ++chunks < maxChunksPerRun);
+
+            chunks = 0;
+            do {
+                count = shardExecutor.onShard(shard, false, () -> moveChunk(cutoff, now));
+                total += count;
+                moved.increment(count);
+            } while (count == chunkSize && ++chunks < maxChunksPerRun);
+
+            Long oldest = shardExecutor.onShard(shard, true,
+                () -> archiveRepository.findOldestArchivableCompletedAt(cutoff));
+            if (oldest != null) {
+                oldestPending = Math.min(oldestPending, oldest);
+            }
+        }
+        lagMs.set(oldestPending == Long.MAX_VALUE ? 0 : cutoff - oldestPending);
+        if (total > 0) {
+            log.info("Archived {} completed task(s), lag {} ms", total, lagMs.get());
+        }
+        return total;
+    }
+
+    private int moveChunk(long cutoff, long now) {
+        List<Long> ids = archiveRepository.lockArchivableIds(cutoff, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.copyFromTasks(ids, now);
+        archiveRepository.deleteRowsByIdIn(ids);
+        return ids.size();
+    }
+}
@@ -0,0 +1,148 @@
+package com.todoapp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hibernate second-level cache on an in-process Caffeine JCache. Every
+ * region gets its own bound and time-to-live from
+ * {@code todoapp.cache.regions.<region>.max-entries/ttl-ms}; the concurrency
+ * strategy is declared with {@code @Cache} on the entity. Caches are local to
+ * each instance, so the TTL also bounds how stale another instance's writes
+ * can look. Hit ratios are published as {@code todoapp.cache.hit-ratio}.
+ */
+@Configuration
+@ConditionalOnJpaStorage
+public class CacheConfig {
+
+    public static final String USERS_REGION = "users";
+    public static final String TASKS_REGION = "tasks";
+    public static final String TASKS_BY_USER_REGION = "tasks-by-user";
+    public static final String TASK_DESCRIPTIONS_REGION = "task-descriptions";
+
+    // Hibernate's own regions for query caching; timestamps must outlive every cached query result
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    private static final Map<String, RegionSettings> DEFAULT_REGIONS = Map.of(
+        USERS_REGION, new RegionSettings(10_000L, 600_000L),
+        TASKS_REGION, new RegionSettings(50_000L, 300_000L),
+        TASKS_BY_USER_REGION, new RegionSettings(10_000L, 60_000L),
+        TASK_DESCRIPTIONS_REGION, new RegionSettings(5_000L, 300_000L),
+        QUERY_RESULTS_REGION, new RegionSettings(1_000L, 60_000L));
+
+    @Value("${todoapp.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${todoapp.cache.statistics:true}")
+    private boolean statistics = true;
+
+    public record RegionSettings(Long maxEntries, Long ttlMs) {
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        Map<String, RegionSettings> regions = new LinkedHashMap<>(DEFAULT_REGIONS);
+        Binder.get(environment)
+            .bind("todoapp.cache.regions", Bindable.mapOf(String.class, RegionSettings.class))
+            .ifBound(configured -> configured.forEach((region, settings) ->
+                regions.merge(region, settings, CacheConfig::override)));
+
+        // A manager of its own, so several application contexts in one JVM do not share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("urn:todoapp:" + UUID.randomUUID()), getClass().getClassLoader());
+        regions.forEach((region, settings) -> cacheManager.createCache(region, caffeine(settings)));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", enabled);
+            properties.put("hibernate.cache.use_query_cache", enabled);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            properties.put("hibernate.generate_statistics", statistics);
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : new String[] {USERS_REGION, TASKS_REGION, TASKS_BY_USER_REGION,
+                    TASK_DESCRIPTIONS_REGION}) {
+                Gauge.builder("todoapp.cache.hit-ratio", stats, regionStat(region, CacheConfig::hitRatio))
+                    .description("Second-level cache hit ratio since startup")
+                    .tag("region", region)
+                    .register(registry);
+                FunctionCounter.builder("todoapp.cache.hits", stats,
+                        regionStat(region, regionStats -> regionStats.getHitCount()))
+                    .tag("region", region)
+                    .register(registry);
+                FunctionCounter.builder("todoapp.cache.misses", stats,
+                        regionStat(region, regionStats -> regionStats.getMissCount()))
+                    .tag("region", region)
+                    .register(registry);
+            }
+        };
+    }
+
+    private static ToDoubleFunction<Statistics> regionStat(String region,
+            ToDoubleFunction<CacheRegionStatistics> metric) {
+        return stats -> {
+            CacheRegionStatistics regionStats = stats.isStatisticsEnabled()
+                ? stats.getCacheRegionStatistics(region)
+                : null;
+            return regionStats != null ? metric.applyAsDouble(regionStats) : Double.NaN;
+        };
+    }
+
+    private static double hitRatio(CacheRegionStatistics stats) {
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) stats.getHitCount() / lookups;
+    }
+
+    private static RegionSettings override(RegionSettings defaults, RegionSettings configured) {
+        return new RegionSettings(
+            configured.maxEntries() != null ? configured.maxEntries() : defaults.maxEntries(),
+            configured.ttlMs() != null ? configured.ttlMs() : defaults.ttlMs());
+    }
+
+    private static CaffeineConfiguration<Object, Object> caffeine(RegionSettings settings) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (settings.maxEntries() != null) {
+            configuration.setMaximumSize(OptionalLong.of(settings.maxEntries()));
+        }
+        if (settings.ttlMs() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(settings.ttlMs())));
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,20 @@
+package com.todoapp.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks beans that need the database. They are left out when
+ * {@code todoapp.storage.engine=memory}, see {@link MemoryStorageConfig}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ConditionalOnProperty(name = "todoapp.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public @interface ConditionalOnJpaStorage {
+}
@@ -0,0 +1,21 @@
+package com.todoapp.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the beans of the reactive API, see {@link ReactiveApiConfig}. They
+ * exist only with {@code todoapp.reactive.enabled=true} on the JPA engine.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ConditionalOnJpaStorage
+@ConditionalOnProperty(name = "todoapp.reactive.enabled", havingValue = "true")
+public @interface ConditionalOnReactiveApi {
+}
@@ -0,0 +1,92 @@
+package com.todoapp.config;
+
+import com.todoapp.memory.InMemoryArchivedTaskRepository;
+import com.todoapp.memory.InMemoryChangeSequence;
+import com.todoapp.memory.InMemoryTaskRepository;
+import com.todoapp.memory.InMemoryTaskTombstoneRepository;
+import com.todoapp.memory.InMemoryTransactionManager;
+import com.todoapp.memory.InMemoryUserRepository;
+import com.todoapp.memory.StorePersistence;
+import com.todoapp.memory.TaskStore;
+import com.todoapp.repository.ArchivedTaskRepository;
+import com.todoapp.repository.ChangeSequence;
+import com.todoapp.repository.TaskRepository;
+import com.todoapp.repository.TaskTombstoneRepository;
+import com.todoapp.sharding.ShardRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Storage for edge deployments without a database: tasks and users live in
+ * this JVM, made durable by {@link StorePersistence} when
+ * {@code todoapp.storage.wal.enabled} is set. Selected by
+ * {@code todoapp.storage.engine=memory}; the {@code memory} profile sets it
+ * and switches off the DataSource and JPA auto-configuration. Beans that
+ * need the database are marked {@link ConditionalOnJpaStorage}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todoapp.storage.engine", havingValue = "memory")
+public class MemoryStorageConfig {
+
+    @Bean
+    public TaskStore taskStore(@Value("${todoapp.storage.stripes:64}") int stripes) {
+        return new TaskStore(stripes);
+    }
+
+    @Bean
+    public TaskRepository taskRepository(TaskStore taskStore) {
+        return new InMemoryTaskRepository(taskStore);
+    }
+
+    @Bean
+    public TaskTombstoneRepository taskTombstoneRepository(TaskStore taskStore, ChangeSequence changeSequence) {
+        return new InMemoryTaskTombstoneRepository(taskStore, changeSequence);
+    }
+
+    @Bean
+    public ArchivedTaskRepository archivedTaskRepository() {
+        return new InMemoryArchivedTaskRepository();
+    }
+
+    @Bean
+    public InMemoryUserRepository userRepository() {
+        return new InMemoryUserRepository();
+    }
+
+    @Bean
+    public InMemoryChangeSequence changeSequence() {
+        return new InMemoryChangeSequence();
+    }
+
+    // Recovers during context refresh, before runners and the web server can touch the store
+    @Bean(destroyMethod = "close")
+    public StorePersistence storePersistence(TaskStore taskStore, InMemoryUserRepository userRepository,
+            InMemoryChangeSequence changeSequence,
+            @Value("${todoapp.storage.wal.enabled:false}") boolean enabled,
+            @Value("${todoapp.storage.wal.dir:data/wal}") String directory,
+            @Value("${todoapp.storage.wal.segment-bytes:67108864}") int segmentBytes) throws IOException {
+        StorePersistence persistence = new StorePersistence(Path.of(directory), segmentBytes, taskStore,
+            userRepository, changeSequence);
+        if (enabled) {
+            persistence.open();
+        }
+        return persistence;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new InMemoryTransactionManager();
+    }
+
+    // A single shard, so ShardExecutor only marks transaction boundaries
+    @Bean
+    public ShardRing shardRing() {
+        return new ShardRing(1, 1);
+    }
+}
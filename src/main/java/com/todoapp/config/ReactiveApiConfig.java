@@ -0,0 +1,132 @@
+package com.todoapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.ratelimit.RateLimiter;
+import com.todoapp.reactive.ReactiveApiServer;
+import com.todoapp.reactive.ReactiveExceptionHandler;
+import com.todoapp.reactive.ReactiveRateLimitFilter;
+import com.todoapp.reactive.ReactiveTaskHandler;
+import com.todoapp.reactive.ReactiveUserHandler;
+import com.todoapp.sharding.ShardRing;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * The reactive API: the task and user endpoints on Reactor Netty, served on
+ * {@code todoapp.reactive.port} next to the servlet API, with R2DBC to the
+ * same database. Handlers never block a thread on I/O, and list endpoints
+ * stream rows as the client reads them. Bodies are JSON, and lists can be
+ * NDJSON; CBOR stays with the servlet API. Enabled by
+ * {@code todoapp.reactive.enabled=true}; it talks to the primary database
+ * only, so it refuses to start on a sharded deployment.
+ * <p>
+ * It is a narrower contract than the servlet API, not a second copy of it.
+ * Lists are always whole: {@code completed}, {@code titlePrefix},
+ * {@code sort}, {@code page} and {@code size} are refused with a 400, and
+ * clients that filter or page use the servlet API. Its SQL is its own, and
+ * ApiParityTest holds its writes to the servlet API's. Requests share the
+ * servlet API's rate limit per remote address, which honours forwarded
+ * headers when {@code server.forward-headers-strategy} is {@code native}.
+ */
+@Configuration
+@ConditionalOnReactiveApi
+public class ReactiveApiConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionFactory(
+            @Value("${todoapp.reactive.r2dbc.url}") String url,
+            @Value("${todoapp.reactive.r2dbc.username:}") String username,
+            @Value("${todoapp.reactive.r2dbc.password:}") String password,
+            @Value("${todoapp.reactive.r2dbc.pool.max-size:20}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .initialSize(Math.min(maxSize, 10))
+            .maxSize(maxSize)
+            .build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionPool reactiveConnectionFactory) {
+        return DatabaseClient.create(reactiveConnectionFactory);
+    }
+
+    // The transaction manager is not a bean: a second one would make @Transactional ambiguous
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionPool reactiveConnectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(reactiveConnectionFactory));
+    }
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ReactiveTaskHandler taskHandler, ReactiveUserHandler userHandler,
+            ObjectMapper objectMapper, ServerProperties serverProperties, ShardRing shardRing, RateLimiter rateLimiter,
+            @Value("${todoapp.reactive.port:8081}") int port,
+            @Value("${todoapp.rate-limit.enabled:true}") boolean rateLimitEnabled) {
+        if (shardRing.getShardCount() > 1) {
+            throw new IllegalStateException("The reactive API does not support sharding; set todoapp.reactive.enabled"
+                + "=false or run a single shard");
+        }
+        // Empty rather than the defaults, whose status exception handler would answer before the ApiError one
+        HandlerStrategies.Builder strategies = HandlerStrategies.empty()
+            .codecs(codecs -> {
+                codecs.registerDefaults(true);
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .exceptionHandler(new ReactiveExceptionHandler(objectMapper));
+        if (rateLimitEnabled) {
+            strategies.webFilter(new ReactiveRateLimitFilter(rateLimiter, objectMapper));
+        }
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(port);
+        factory.setCompression(serverProperties.getCompression());
+        factory.setUseForwardHeaders(
+            serverProperties.getForwardHeadersStrategy() == ServerProperties.ForwardHeadersStrategy.NATIVE);
+        return new ReactiveApiServer(factory,
+            RouterFunctions.toHttpHandler(routes(taskHandler, userHandler), strategies.build()));
+    }
+
+    private static RouterFunction<ServerResponse> routes(ReactiveTaskHandler tasks, ReactiveUserHandler users) {
+        return RouterFunctions.route()
+            .path("/api/tasks", builder -> builder
+                .POST("", tasks::createTask)
+                .GET("/batch", tasks::getTasksByIds)
+                .GET("/user/{userId}/changes", tasks::getTaskChanges)
+                .GET("/user/{userId}", RequestPredicates.queryParam("fields", fields -> true),
+                    tasks::getTaskFieldsByUserId)
+                .GET("/user/{userId}", tasks::getTasksByUserId)
+                .GET("/{id}", tasks::getTaskById)
+                .GET("", RequestPredicates.queryParam("fields", fields -> true), tasks::getAllTaskFields)
+                .GET("", tasks::getAllTasks)
+                .PUT("/{id}", tasks::updateTask)
+                .PATCH("/{id}/status", tasks::updateTaskStatus)
+                .PATCH("/{id}/position", tasks::moveTask)
+                .DELETE("/{id}", tasks::deleteTask))
+            .path("/api/users", builder -> builder
+                .POST("", users::createUser)
+                .GET("/batch", users::getUsersByIds)
+                .GET("/{id}", users::getUserById)
+                .GET("", users::getAllUsers)
+                .PUT("/{id}", users::updateUser)
+                .DELETE("/{id}", users::deleteUser))
+            .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.todoapp.config;
+
+import com.todoapp.sharding.ShardContext;
+import com.todoapp.sharding.ShardRing;
+import com.todoapp.sharding.ShardRoutingDataSource;
+import com.todoapp.sharding.ShardSchemaInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shard 0 is {@code spring.datasource}; every entry of
+ * {@code todoapp.sharding.shards} adds one more shard. The shard list is
+ * bound at runtime, so the same AOT-processed build serves any shard count;
+ * for the same reason the routing is switched on by the bean methods below
+ * rather than by bean conditions. With a single shard the application uses
+ * the primary pool directly, as it would without sharding.
+ */
+@Configuration
+@ConditionalOnJpaStorage
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties primary, Environment environment)
+            throws Exception {
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> shardProperties = new ArrayList<>();
+        shardProperties.add(primary);
+        shardProperties.addAll(binder.bind("todoapp.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+            .orElse(List.of()));
+
+        List<DataSource> shards = new ArrayList<>(shardProperties.size());
+        for (DataSourceProperties properties : shardProperties) {
+            if (properties != primary) {
+                properties.afterPropertiesSet();
+            }
+            HikariDataSource shard = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // Connections are fetched on the first statement, after ShardContext has picked the shard.
+    // Setting the defaults up front keeps the proxy from opening a connection just to read them.
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        if (shardRoutingDataSource.getShardCount() == 1) {
+            return shardRoutingDataSource.getShard(ShardContext.PRIMARY);
+        }
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    @Bean
+    public ShardRing shardRing(ShardRoutingDataSource shardRoutingDataSource,
+            @Value("${todoapp.sharding.virtual-nodes:128}") int virtualNodes) {
+        return new ShardRing(shardRoutingDataSource.getShardCount(), virtualNodes);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaInitializer shardSchemaInitializer) {
+        return properties -> properties.put("hibernate.integrator_provider",
+            (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+    }
+}
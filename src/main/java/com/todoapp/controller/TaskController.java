@@ -1,10 +1,18 @@
 package com.todoapp.controller;
 
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.dto.SparseTaskList;
+import com.todoapp.dto.TaskChangesDTO;
 import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.dto.TaskQuery;
+import com.todoapp.event.TaskChangeFeed;
+import com.todoapp.idempotency.IdempotencyService;
 import com.todoapp.service.TaskService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,8 +21,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -26,10 +37,25 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
     @PostMapping
-    public ResponseEntity<TaskDTO> createTask(@Valid @RequestBody TaskDTO taskDTO) {
-        TaskDTO createdTask = taskService.createTask(taskDTO);
-        return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
+    public ResponseEntity<TaskDTO> createTask(@Valid @RequestBody TaskDTO taskDTO,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("tasks", idempotencyKey, taskDTO, TaskDTO.class, () -> {
+            TaskDTO createdTask = taskService.createTask(taskDTO);
+            return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
+        });
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<BatchResultDTO<TaskDTO>> getTasksByIds(@RequestParam List<Long> ids) {
+        BatchResultDTO<TaskDTO> result = taskService.getTasksByIds(ids);
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping("/{id}")
@@ -39,17 +65,79 @@ public class TaskController {
     }
 
     @GetMapping
-    public ResponseEntity<List<TaskDTO>> getAllTasks() {
-        List<TaskDTO> tasks = taskService.getAllTasks();
+    public ResponseEntity<List<TaskDTO>> getAllTasks(
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        TaskQuery query = new TaskQuery(completed, titlePrefix, sort, page, size);
+        List<TaskDTO> tasks = query.isUnfiltered()
+            ? taskService.getAllTasks(includeArchived)
+            : taskService.getAllTasks(query, includeArchived);
+        return ResponseEntity.ok(tasks);
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<SparseTaskList> getAllTaskFields(
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        TaskQuery query = new TaskQuery(completed, titlePrefix, sort, page, size);
+        SparseTaskList tasks = taskService.getAllTaskFields(TaskField.parse(fields), query, includeArchived);
         return ResponseEntity.ok(tasks);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<TaskDTO>> getTasksByUserId(@PathVariable Long userId) {
-        List<TaskDTO> tasks = taskService.getTasksByUserId(userId);
+    public ResponseEntity<List<TaskDTO>> getTasksByUserId(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        TaskQuery query = new TaskQuery(completed, titlePrefix, sort, page, size);
+        List<TaskDTO> tasks = query.isUnfiltered()
+            ? taskService.getTasksByUserId(userId, includeArchived)
+            : taskService.getTasksByUserId(userId, query, includeArchived);
         return ResponseEntity.ok(tasks);
     }
 
+    @GetMapping(value = "/user/{userId}", params = "fields")
+    public ResponseEntity<SparseTaskList> getTaskFieldsByUserId(
+            @PathVariable Long userId,
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        TaskQuery query = new TaskQuery(completed, titlePrefix, sort, page, size);
+        SparseTaskList tasks = taskService.getTaskFieldsByUserId(userId, TaskField.parse(fields), query,
+            includeArchived);
+        return ResponseEntity.ok(tasks);
+    }
+
+    @GetMapping("/user/{userId}/changes")
+    public ResponseEntity<TaskChangesDTO> getTaskChanges(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") Long since) {
+        TaskChangesDTO changes = taskService.getTaskChanges(userId, since);
+        return ResponseEntity.ok(changes);
+    }
+
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskChanges(@PathVariable Long userId) {
+        return taskChangeFeed.subscribe(userId);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<TaskDTO> updateTask(
             @PathVariable Long id,
@@ -67,6 +155,14 @@ public class TaskController {
         return ResponseEntity.ok(updatedTask);
     }
 
+    @PatchMapping("/{id}/position")
+    public ResponseEntity<TaskDTO> moveTask(
+            @PathVariable Long id,
+            @RequestBody Map<String, Long> position) {
+        TaskDTO movedTask = taskService.moveTask(id, position.get("afterId"));
+        return ResponseEntity.ok(movedTask);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
         taskService.deleteTask(id);
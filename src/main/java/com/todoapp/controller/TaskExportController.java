@@ -0,0 +1,57 @@
+package com.todoapp.controller;
+
+import com.todoapp.dto.TaskExportDTO;
+import com.todoapp.export.ExportFormat;
+import com.todoapp.export.TaskExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/exports")
+public class TaskExportController {
+
+    @Autowired
+    private TaskExportService taskExportService;
+
+    /** Starts a background export; poll the returned location until it is DONE, then download its file. */
+    @PostMapping("/tasks")
+    public ResponseEntity<TaskExportDTO> startTaskExport(@RequestParam(defaultValue = "columnar") String format) {
+        TaskExportDTO export = taskExportService.startExport(ExportFormat.parse(format));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .location(URI.create("/api/exports/" + export.getId()))
+            .body(export);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<TaskExportDTO> getExport(@PathVariable String id) {
+        return ResponseEntity.ok(taskExportService.getExport(id));
+    }
+
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> getExportFile(@PathVariable String id) {
+        Map.Entry<ExportFormat, Path> file = taskExportService.getFile(id);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(file.getKey().getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("tasks-" + id + file.getKey().getExtension())
+                .build()
+                .toString())
+            .body(new FileSystemResource(file.getValue()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.todoapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.dto.TaskImportProgressDTO;
+import com.todoapp.imports.TaskCsvReader;
+import com.todoapp.imports.TaskImporter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bulk task import from CSV, see {@link TaskImporter}. The upload is read
+ * as it arrives and the response is newline-delimited JSON: a progress
+ * report after each chunk, then a final one with {@code done} set. Only a
+ * bad header fails the request itself.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+@ConditionalOnJpaStorage
+public class TaskImportController {
+
+    @Autowired
+    private TaskImporter taskImporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public void importTasks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Charset charset = request.getCharacterEncoding() != null
+            ? Charset.forName(request.getCharacterEncoding())
+            : StandardCharsets.UTF_8;
+        TaskCsvReader reader = new TaskCsvReader(new InputStreamReader(request.getInputStream(), charset));
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        TaskImportProgressDTO result = taskImporter.importTasks(reader, progress -> {
+            try {
+                writeLine(out, progress);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        writeLine(out, result);
+    }
+
+    private void writeLine(OutputStream out, TaskImportProgressDTO progress) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(progress));
+        out.write('\n');
+        out.flush();
+    }
+}
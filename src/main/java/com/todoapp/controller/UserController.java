@@ -1,6 +1,8 @@
 package com.todoapp.controller;
 
+import com.todoapp.dto.BatchResultDTO;
 import com.todoapp.dto.UserDTO;
+import com.todoapp.idempotency.IdempotencyService;
 import com.todoapp.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +14,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -24,10 +28,22 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
-    public ResponseEntity<UserDTO> createUser(@Valid @RequestBody UserDTO userDTO) {
-        UserDTO createdUser = userService.createUser(userDTO);
-        return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
+    public ResponseEntity<UserDTO> createUser(@Valid @RequestBody UserDTO userDTO,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("users", idempotencyKey, userDTO, UserDTO.class, () -> {
+            UserDTO createdUser = userService.createUser(userDTO);
+            return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
+        });
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<BatchResultDTO<UserDTO>> getUsersByIds(@RequestParam List<Long> ids) {
+        BatchResultDTO<UserDTO> result = userService.getUsersByIds(ids);
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,196 @@
+package com.todoapp.datagen;
+
+import com.todoapp.config.CacheConfig;
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.imports.TaskBulkWriter;
+import com.todoapp.sharding.ShardExecutor;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fills the database with a {@link SyntheticDataset}: {@code users} users
+ * and {@code tasks} tasks, written {@code chunk-size} rows at a time
+ * through {@link TaskBulkWriter} (COPY on PostgreSQL). Runs at startup when
+ * {@code todoapp.datagen.enabled=true}, before the application reports
+ * ready, so benchmarks and load tests can start right after. A seed that
+ * has already been loaded is skipped; completion is recorded in
+ * dataset_loads after the last chunk, and the rows of a load that was cut
+ * short are deleted before the seed is written again.
+ */
+@Slf4j
+@Component
+@ConditionalOnJpaStorage
+public class DatasetGenerator implements ApplicationRunner {
+
+    // Logged about this often while tasks are written
+    private static final long LOG_EVERY_TASKS = 1_000_000;
+
+    @Autowired
+    private TaskBulkWriter taskBulkWriter;
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${todoapp.datagen.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${todoapp.datagen.seed:42}")
+    private long seed = 42;
+
+    @Value("${todoapp.datagen.users:10000}")
+    private int users = 10_000;
+
+    @Value("${todoapp.datagen.tasks:1000000}")
+    private long tasks = 1_000_000;
+
+    @Value("${todoapp.datagen.skew:1.1}")
+    private double skew = 1.1;
+
+    @Value("${todoapp.datagen.completed-ratio:0.35}")
+    private double completedRatio = 0.35;
+
+    @Value("${todoapp.datagen.described-ratio:0.6}")
+    private double describedRatio = 0.6;
+
+    @Value("${todoapp.datagen.max-description-chars:65536}")
+    private int maxDescriptionChars = 65_536;
+
+    @Value("${todoapp.datagen.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            generate();
+        }
+    }
+
+    /** Writes the configured dataset and returns false if its seed was already loaded. */
+    public boolean generate() {
+        SyntheticDataset dataset = new SyntheticDataset(seed, users, skew, completedRatio, describedRatio,
+            maxDescriptionChars);
+        Integer loaded = shardExecutor.onPrimary(true, () -> jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM dataset_loads WHERE seed = ?", Integer.class, seed));
+        if (loaded != null && loaded > 0) {
+            log.info("Synthetic dataset with seed {} is already loaded", seed);
+            return false;
+        }
+        deletePartialLoad();
+        long start = System.nanoTime();
+        long[] userIds = insertUsers(dataset);
+        log.info("Generated {} user(s) in {} ms", users, (System.nanoTime() - start) / 1_000_000);
+
+        long written = 0;
+        while (written < tasks) {
+            int size = (int) Math.min(chunkSize, tasks - written);
+            Map<Integer, List<TaskDTO>> byShard = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                long userId = userIds[dataset.nextOwner()];
+                byShard.computeIfAbsent(shardExecutor.shardForUser(userId), shard -> new ArrayList<>())
+                    .add(dataset.nextTask(userId));
+            }
+            byShard.forEach((shard, chunk) -> shardExecutor.onShard(shard, false, () -> {
+                taskBulkWriter.write(chunk);
+                return null;
+            }));
+            if ((written + size) / LOG_EVERY_TASKS > written / LOG_EVERY_TASKS) {
+                log.info("Generated {} of {} task(s)", written + size, tasks);
+            }
+            written += size;
+        }
+        // Cached lists are checked against Hibernate's own table timestamps, which JDBC writes do not bump
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(CacheConfig.TASKS_BY_USER_REGION);
+        shardExecutor.onPrimary(false, () -> jdbcTemplate.update(
+            "INSERT INTO dataset_loads (seed, users, tasks, loaded_at) VALUES (?, ?, ?, ?)",
+            seed, users, tasks, System.currentTimeMillis()));
+        log.info("Generated {} user(s) and {} task(s) with seed {} in {} ms", users, tasks, seed,
+            (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    // Users of this seed without a completion marker are left from a run that stopped part way
+    private void deletePartialLoad() {
+        List<Long> userIds = shardExecutor.onPrimary(true, () -> jdbcTemplate.queryForList(
+            "SELECT id FROM users WHERE email LIKE ?", Long.class, "datagen-" + seed + "-%"));
+        if (userIds.isEmpty()) {
+            return;
+        }
+        log.warn("Deleting {} user(s) left by an unfinished load of seed {}", userIds.size(), seed);
+        for (int from = 0; from < userIds.size(); from += chunkSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+            String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            Object[] ids = chunk.toArray();
+            for (int shard = 0; shard < shardExecutor.getShardCount(); shard++) {
+                shardExecutor.onShard(shard, false, () -> {
+                    List<Long> descriptionIds = jdbcTemplate.queryForList("SELECT description_id FROM tasks"
+                        + " WHERE description_id IS NOT NULL AND user_id IN (" + in + ")", Long.class, ids);
+                    jdbcTemplate.update("DELETE FROM tasks WHERE user_id IN (" + in + ")", ids);
+                    for (int i = 0; i < descriptionIds.size(); i += chunkSize) {
+                        List<Long> part = descriptionIds.subList(i, Math.min(i + chunkSize, descriptionIds.size()));
+                        jdbcTemplate.update("DELETE FROM task_descriptions WHERE id IN ("
+                            + String.join(",", Collections.nCopies(part.size(), "?")) + ")", part.toArray());
+                    }
+                    return null;
+                });
+            }
+            shardExecutor.onPrimary(false,
+                () -> jdbcTemplate.update("DELETE FROM users WHERE id IN (" + in + ")", ids));
+        }
+        // Deleted rows may still be cached as entities
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private long[] insertUsers(SyntheticDataset dataset) {
+        long[] ids = new long[dataset.getUserCount()];
+        for (int from = 0; from < ids.length; from += chunkSize) {
+            int first = from;
+            int size = Math.min(chunkSize, ids.length - from);
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            shardExecutor.onPrimary(false, () -> jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement("INSERT INTO users (name, email) VALUES (?, ?)",
+                    new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        statement.setString(1, dataset.userName(first + i));
+                        statement.setString(2, dataset.userEmail(first + i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                },
+                keys));
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < size; i++) {
+                ids[first + i] = ((Number) generated.get(i).values().iterator().next()).longValue();
+            }
+        }
+        return ids;
+    }
+}
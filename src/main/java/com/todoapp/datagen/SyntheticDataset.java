@@ -0,0 +1,100 @@
+package com.todoapp.datagen;
+
+import com.todoapp.dto.TaskDTO;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The rows of a synthetic dataset, drawn from one seeded random stream:
+ * the same seed and settings give the same users and tasks, call for call.
+ *
+ * <p>Owners are drawn from a Zipf distribution over the users, so with the
+ * default exponent a few users hold many tasks and most hold a handful.
+ * Descriptions are missing on a share of tasks; the rest have log-normal
+ * lengths (median about 90 characters, one in a hundred over 3 KB) up to a
+ * cap, so some are long enough to be stored out of line.
+ */
+public final class SyntheticDataset {
+
+    private static final String[] VERBS = {"Buy", "Call", "Fix", "Review", "Write", "Plan", "Clean", "Book",
+        "Email", "Pay", "Update", "Prepare", "Check", "Send", "Schedule", "Renew"};
+
+    private static final String[] NOUNS = {"groceries", "report", "invoice", "car", "dentist", "budget", "slides",
+        "garden", "tickets", "taxes", "backup", "contract", "meeting", "laptop", "insurance", "newsletter"};
+
+    private static final String[] WORDS = {"the", "a", "to", "and", "of", "for", "with", "on", "before", "after",
+        "meeting", "team", "client", "notes", "draft", "deadline", "budget", "review", "call", "order", "list",
+        "remember", "check", "details", "friday", "monday", "morning", "project", "update", "send", "copy", "price"};
+
+    private static final double DESCRIPTION_LENGTH_MU = 4.5;
+    private static final double DESCRIPTION_LENGTH_SIGMA = 1.5;
+
+    private final SplittableRandom random;
+    private final long seed;
+    private final double[] ownerCdf;
+    private final double completedRatio;
+    private final double describedRatio;
+    private final int maxDescriptionChars;
+
+    public SyntheticDataset(long seed, int userCount, double skew, double completedRatio, double describedRatio,
+            int maxDescriptionChars) {
+        if (userCount <= 0) {
+            throw new IllegalArgumentException("At least one user is needed");
+        }
+        this.random = new SplittableRandom(seed);
+        this.seed = seed;
+        this.completedRatio = completedRatio;
+        this.describedRatio = describedRatio;
+        this.maxDescriptionChars = maxDescriptionChars;
+        ownerCdf = new double[userCount];
+        double total = 0;
+        for (int rank = 0; rank < userCount; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            ownerCdf[rank] = total;
+        }
+    }
+
+    public int getUserCount() {
+        return ownerCdf.length;
+    }
+
+    public String userName(int user) {
+        return "User " + user;
+    }
+
+    // The seed keeps datasets with different seeds from colliding on the unique email
+    public String userEmail(int user) {
+        return "datagen-" + seed + "-" + user + "@example.com";
+    }
+
+    /** Index of the user owning the next task; user 0 owns the most. */
+    public int nextOwner() {
+        double point = random.nextDouble() * ownerCdf[ownerCdf.length - 1];
+        int index = Arrays.binarySearch(ownerCdf, point);
+        return Math.min(index >= 0 ? index : -index - 1, ownerCdf.length - 1);
+    }
+
+    public TaskDTO nextTask(Long userId) {
+        String title = VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+            + " #" + random.nextInt(1_000);
+        String description = random.nextDouble() < describedRatio ? description() : null;
+        boolean completed = random.nextDouble() < completedRatio;
+        return new TaskDTO(null, title, description, completed, userId);
+    }
+
+    private String description() {
+        double gaussian = random.nextGaussian();
+        int length = (int) Math.min(maxDescriptionChars,
+            Math.max(1, Math.exp(DESCRIPTION_LENGTH_MU + DESCRIPTION_LENGTH_SIGMA * gaussian)));
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+}
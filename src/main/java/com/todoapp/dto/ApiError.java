@@ -0,0 +1,15 @@
+package com.todoapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Error response body. {@code timestamp} is written as an ISO local
+ * date-time and {@code errors} is only present for validation failures.
+ */
+public record ApiError(LocalDateTime timestamp, int status, String message, Map<String, String> errors) {
+
+    public static ApiError of(int status, String message) {
+        return new ApiError(LocalDateTime.now(), status, message, null);
+    }
+}
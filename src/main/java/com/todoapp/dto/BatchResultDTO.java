@@ -0,0 +1,16 @@
+package com.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO<T> {
+    private List<T> items;
+
+    private List<Long> missingIds;
+}
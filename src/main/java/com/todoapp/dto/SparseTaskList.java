@@ -0,0 +1,7 @@
+package com.todoapp.dto;
+
+import java.util.List;
+import java.util.Set;
+
+public record SparseTaskList(Set<TaskField> fields, List<TaskDTO> tasks) {
+}
@@ -0,0 +1,20 @@
+package com.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChangesDTO {
+    private List<TaskDTO> changed;
+
+    private List<Long> deletedTaskIds;
+
+    private Long watermark;
+
+    private Boolean hasMore;
+}
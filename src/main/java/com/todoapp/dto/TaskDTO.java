@@ -21,4 +21,11 @@ public class TaskDTO {
     
     @NotNull(message = "User ID is required")
     private Long userId;
+
+    // The task's key in its user's list order; set by the server and ignored in requests
+    private String position;
+
+    public TaskDTO(Long id, String title, String description, Boolean isCompleted, Long userId) {
+        this(id, title, description, isCompleted, userId, null);
+    }
 }
@@ -0,0 +1,26 @@
+package com.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskExportDTO {
+    private String id;
+
+    private String format;
+
+    /** RUNNING, DONE or FAILED. */
+    private String status;
+
+    private Long rows;
+
+    /** File size once done. */
+    private Long bytes;
+
+    private Long elapsedMs;
+
+    private String error;
+}
@@ -0,0 +1,56 @@
+package com.todoapp.dto;
+
+import com.todoapp.exception.InvalidRequestException;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+public enum TaskField {
+    ID("id"),
+    TITLE("title"),
+    DESCRIPTION("description"),
+    IS_COMPLETED("isCompleted"),
+    USER_ID("userId"),
+    POSITION("position");
+
+    private final String jsonName;
+
+    TaskField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public static Set<TaskField> parse(String fields) {
+        Set<TaskField> selected = EnumSet.of(ID);
+        if (fields == null || fields.isBlank()) {
+            return selected;
+        }
+        for (String name : fields.split(",")) {
+            selected.add(fromJsonName(name.trim()));
+        }
+        return selected;
+    }
+
+    /** The field of a sort property; task properties are named as their JSON fields. */
+    public static Optional<TaskField> fromProperty(String property) {
+        for (TaskField field : values()) {
+            if (field.jsonName.equals(property)) {
+                return Optional.of(field);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static TaskField fromJsonName(String name) {
+        for (TaskField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new InvalidRequestException("Unknown task field: " + name);
+    }
+}
@@ -0,0 +1,35 @@
+package com.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskImportProgressDTO {
+    private Long rowsRead;
+
+    private Long imported;
+
+    private Long rejected;
+
+    /** Rejected rows since the previous progress report, up to the reporting limit. */
+    private List<RowError> errors;
+
+    private Boolean done;
+
+    /** Set on the last report when the import stopped early; rows after the imported ones were not loaded. */
+    private String failure;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private Long line;
+
+        private String message;
+    }
+}
@@ -0,0 +1,91 @@
+package com.todoapp.dto;
+
+import com.todoapp.exception.InvalidRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Filter, sort and page parameters of a task list. {@code sort} is
+ * {@code field[,asc|desc]} over {@code id} or {@code title}; ties are always
+ * broken by id so pages are stable. Without it, the list's default order
+ * applies: {@link #USER_LIST_ORDER} for one user's tasks. {@code page} counts from 0 and only
+ * applies with a {@code size}, or the maximum page size when it is absent.
+ * Offset paging reads and skips every earlier row, on each shard, so pages
+ * may not start past a fixed offset.
+ */
+public record TaskQuery(Boolean completed, String titlePrefix, String sort, Integer page, Integer size) {
+
+    /** The order a user arranged their list in, with tasks that predate positions by id. */
+    public static final Sort USER_LIST_ORDER = Sort.by("position", "id");
+
+    /** No filter, sort or page: the whole list in its default order. */
+    public static final TaskQuery NONE = new TaskQuery(null, null, null, null, null);
+
+    private static final Set<String> SORT_FIELDS = Set.of("id", "title");
+
+    public boolean isUnfiltered() {
+        return completed == null && titlePrefix == null && sort == null && page == null && size == null;
+    }
+
+    public Pageable toPageable(int maxPageSize, int maxOffset, Sort defaultOrder) {
+        Sort order = parseSort(defaultOrder);
+        if (page == null && size == null) {
+            return Pageable.unpaged(order);
+        }
+        int pageSize = size != null ? size : maxPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidRequestException("size must be between 1 and " + maxPageSize);
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new InvalidRequestException("page must not be negative");
+        }
+        if ((long) pageNumber * pageSize > maxOffset) {
+            throw new InvalidRequestException("page * size must not exceed " + maxOffset);
+        }
+        return PageRequest.of(pageNumber, pageSize, order);
+    }
+
+    /**
+     * The order of a parsed {@code sort} for rows held in memory, such as
+     * pages merged across shards, given how to read their sort fields.
+     * Tasks without a position go last, as PostgreSQL sorts nulls.
+     */
+    public static <T> Comparator<T> comparator(Sort sort, Function<T, Long> id, Function<T, String> title,
+            Function<T, String> position) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> next = switch (order.getProperty()) {
+                case "title" -> Comparator.comparing(title);
+                case "position" -> Comparator.comparing(position, Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> Comparator.comparing(id);
+            };
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator != null ? comparator : Comparator.comparing(id);
+    }
+
+    private Sort parseSort(Sort defaultOrder) {
+        if (sort == null || sort.isBlank()) {
+            return defaultOrder;
+        }
+        String[] parts = sort.split(",");
+        String field = parts[0].trim();
+        if (!SORT_FIELDS.contains(field) || parts.length > 2) {
+            throw new InvalidRequestException("Unknown sort: " + sort);
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length == 2) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                .orElseThrow(() -> new InvalidRequestException("Unknown sort direction: " + parts[1].trim()));
+        }
+        Sort order = Sort.by(direction, field);
+        return "id".equals(field) ? order : order.and(Sort.by("id"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.todoapp.event;
+
+import com.todoapp.dto.TaskDTO;
+
+public record TaskChangeEvent(Type type, Long userId, Long taskId, TaskDTO task) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static TaskChangeEvent created(TaskDTO task) {
+        return new TaskChangeEvent(Type.CREATED, task.getUserId(), task.getId(), task);
+    }
+
+    public static TaskChangeEvent updated(TaskDTO task) {
+        return new TaskChangeEvent(Type.UPDATED, task.getUserId(), task.getId(), task);
+    }
+
+    public static TaskChangeEvent deleted(Long userId, Long taskId) {
+        return new TaskChangeEvent(Type.DELETED, userId, taskId, null);
+    }
+}
@@ -0,0 +1,145 @@
+package com.todoapp.event;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans task change events out to per-user SSE subscribers.
+ *
+ * <p>Idle subscribers hold no thread: the emitter lives on an async servlet
+ * response and events are written by short-lived dispatch tasks. Each
+ * subscriber has a bounded buffer; when a slow consumer overflows it the
+ * buffered events are dropped and a {@value #RESYNC_EVENT} event tells the
+ * client to reload its list instead.
+ */
+@Component
+public class TaskChangeFeed {
+
+    static final String RESYNC_EVENT = "resync";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final ExecutorService dispatcher;
+
+    @Value("${todoapp.events.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${todoapp.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs = 1_800_000L;
+
+    public TaskChangeFeed() {
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    TaskChangeFeed(ExecutorService dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        register(userId, emitter);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTaskChange(TaskChangeEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.userId());
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(event);
+            scheduleDrain(event.userId(), subscriber);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    void register(Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unregister(userId, subscriber));
+        emitter.onTimeout(() -> unregister(userId, subscriber));
+        emitter.onError(ex -> unregister(userId, subscriber));
+    }
+
+    private void unregister(Long userId, Subscriber subscriber) {
+        subscribers.computeIfPresent(userId, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void scheduleDrain(Long userId, Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(userId, subscriber));
+        }
+    }
+
+    private void drain(Long userId, Subscriber subscriber) {
+        try {
+            do {
+                if (subscriber.resyncRequired.getAndSet(false)) {
+                    subscriber.emitter.send(SseEmitter.event()
+                        .name(RESYNC_EVENT)
+                        .data(Map.of("userId", userId)));
+                }
+                TaskChangeEvent event;
+                while ((event = subscriber.buffer.poll()) != null) {
+                    subscriber.emitter.send(SseEmitter.event()
+                        .name(event.type().name().toLowerCase())
+                        .data(event));
+                }
+                subscriber.draining.set(false);
+            } while (subscriber.hasPending() && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException ex) {
+            unregister(userId, subscriber);
+            subscriber.emitter.completeWithError(ex);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<TaskChangeEvent> buffer;
+        private final AtomicBoolean resyncRequired = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(TaskChangeEvent event) {
+            if (!buffer.offer(event)) {
+                buffer.clear();
+                resyncRequired.set(true);
+            }
+        }
+
+        private boolean hasPending() {
+            return !buffer.isEmpty() || resyncRequired.get();
+        }
+    }
+}
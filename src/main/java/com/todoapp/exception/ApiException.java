@@ -0,0 +1,17 @@
+package com.todoapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base for the domain exceptions that map to a client error. These are
+ * control flow rather than bugs, so they skip stack trace capture and
+ * suppression bookkeeping.
+ */
+public abstract class ApiException extends RuntimeException {
+
+    protected ApiException(String message) {
+        super(message, null, false, false);
+    }
+
+    public abstract HttpStatus getStatus();
+}
@@ -1,7 +1,14 @@
 package com.todoapp.exception;
 
-public class DuplicateResourceException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class DuplicateResourceException extends ApiException {
     public DuplicateResourceException(String message) {
         super(message);
     }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.CONFLICT;
+    }
 }
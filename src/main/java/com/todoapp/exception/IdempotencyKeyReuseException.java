@@ -0,0 +1,14 @@
+package com.todoapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyReuseException extends ApiException {
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.UNPROCESSABLE_ENTITY;
+    }
+}
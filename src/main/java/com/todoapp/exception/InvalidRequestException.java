@@ -0,0 +1,14 @@
+package com.todoapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidRequestException extends ApiException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.BAD_REQUEST;
+    }
+}
@@ -0,0 +1,14 @@
+package com.todoapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class RequestTimeoutException extends ApiException {
+    public RequestTimeoutException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.SERVICE_UNAVAILABLE;
+    }
+}
@@ -0,0 +1,14 @@
+package com.todoapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ResourceBusyException extends ApiException {
+    public ResourceBusyException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.CONFLICT;
+    }
+}
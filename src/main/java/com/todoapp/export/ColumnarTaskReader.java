@@ -0,0 +1,112 @@
+package com.todoapp.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/** Reads files written by {@link ColumnarTaskWriter}, one row group at a time. */
+public class ColumnarTaskReader {
+
+    private final DataInputStream in;
+    private long totalRows = -1;
+
+    public ColumnarTaskReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        byte[] magic = new byte[ColumnarTaskWriter.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarTaskWriter.MAGIC)) {
+            throw new IOException("Not a columnar task export");
+        }
+    }
+
+    /** Row count from the end of the file; known once {@link #nextRowGroup} has returned null. */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /** The rows of the next row group, or null after the last one. */
+    public List<TaskExportRow> nextRowGroup() throws IOException {
+        int rows = in.readInt();
+        if (rows == 0) {
+            totalRows = in.readLong();
+            return null;
+        }
+        DataInputStream ids = column();
+        DataInputStream users = column();
+        DataInputStream titles = column();
+        DataInputStream descriptions = column();
+        BitSet completed = bits(column(), rows);
+        DataInputStream completedAts = column();
+
+        int dictionarySize = (int) readVarint(users);
+        long[] userIds = new long[dictionarySize];
+        String[] emails = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            userIds[i] = users.readLong();
+            emails[i] = readString(users);
+        }
+        int width = ColumnarTaskWriter.bitWidth(dictionarySize);
+        BitSet userIndexes = bits(users, rows * width);
+        BitSet described = bits(descriptions, rows);
+        BitSet completedAtPresent = bits(completedAts, rows);
+
+        List<TaskExportRow> group = new ArrayList<>(rows);
+        long id = 0;
+        for (int row = 0; row < rows; row++) {
+            id = row == 0 ? ids.readLong() : id + readVarint(ids);
+            int index = 0;
+            for (int bit = 0; bit < width; bit++) {
+                if (userIndexes.get(row * width + bit)) {
+                    index |= 1 << bit;
+                }
+            }
+            String description = described.get(row) ? readString(descriptions) : null;
+            Long completedAt = completedAtPresent.get(row) ? completedAts.readLong() : null;
+            group.add(new TaskExportRow(id, userIds[index], emails[index], readString(titles), description,
+                completed.get(row), completedAt));
+        }
+        return group;
+    }
+
+    private DataInputStream column() throws IOException {
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        Inflater inflater = new Inflater(true);
+        try (InflaterInputStream raw = new InflaterInputStream(new ByteArrayInputStream(compressed), inflater)) {
+            return new DataInputStream(new ByteArrayInputStream(raw.readAllBytes()));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static BitSet bits(DataInputStream column, int count) throws IOException {
+        byte[] packed = new byte[(count + 7) / 8];
+        column.readFully(packed);
+        return BitSet.valueOf(packed);
+    }
+
+    private static String readString(DataInputStream column) throws IOException {
+        byte[] bytes = new byte[(int) readVarint(column)];
+        column.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarint(DataInputStream column) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = column.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.todoapp.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes tasks column by column in row groups, so analytical readers scan
+ * only the columns they need and each column compresses on its own.
+ *
+ * <pre>
+ * file       = "TDCOL1\n\0" rowGroup* int 0 long totalRows
+ * rowGroup   = int rowCount, then per column: int length, raw DEFLATE bytes
+ * columns    = id, user, title, description, isCompleted, completedAt
+ * id         = long firstId, then per row the varint difference from the
+ *              previous id, wrapping like long arithmetic (ids mostly ascend)
+ * user       = varint size, (long userId, string email) per entry,
+ *              then per row its dictionary index in ceil(log2(size)) bits
+ * title      = string per row
+ * description, completedAt
+ *            = presence bit per row, then the value (string, long) per present row
+ * isCompleted = one bit per row
+ * </pre>
+ *
+ * Integers are big-endian, varints are unsigned LEB128, strings are a
+ * varint byte length and UTF-8, and bit columns are packed least
+ * significant bit first. Memory is bounded by one row group, which is
+ * written out after {@code maxRows} rows or once its columns hold
+ * {@code maxBytes}. {@link ColumnarTaskReader} reads the format back.
+ */
+public class ColumnarTaskWriter implements TaskRowWriter {
+
+    static final byte[] MAGIC = "TDCOL1\n\0".getBytes(StandardCharsets.US_ASCII);
+
+    private final DataOutputStream out;
+    private final int maxRows;
+    private final long maxBytes;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+
+    private final Column ids = new Column();
+    private final Column titles = new Column();
+    private final Column descriptions = new Column();
+    private final Column completedAts = new Column();
+    private final Map<Long, Integer> dictionary = new HashMap<>();
+    private final List<Long> dictionaryUserIds = new ArrayList<>();
+    private final List<String> dictionaryEmails = new ArrayList<>();
+    private final int[] userIndexes;
+    private final BitSet described = new BitSet();
+    private final BitSet completed = new BitSet();
+    private final BitSet completedAtPresent = new BitSet();
+    private int rows;
+    private long previousId;
+    private long totalRows;
+
+    public ColumnarTaskWriter(OutputStream out, int maxRows, long maxBytes) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.userIndexes = new int[maxRows];
+        this.out.write(MAGIC);
+    }
+
+    @Override
+    public void write(TaskExportRow row) throws IOException {
+        if (rows == 0) {
+            ids.data.writeLong(row.id());
+        } else {
+            writeVarint(ids.data, row.id() - previousId);
+        }
+        previousId = row.id();
+
+        Integer index = dictionary.get(row.userId());
+        if (index == null) {
+            index = dictionaryUserIds.size();
+            dictionary.put(row.userId(), index);
+            dictionaryUserIds.add(row.userId());
+            dictionaryEmails.add(row.userEmail() != null ? row.userEmail() : "");
+        }
+        userIndexes[rows] = index;
+
+        writeString(titles.data, row.title());
+        if (row.description() != null) {
+            described.set(rows);
+            writeString(descriptions.data, row.description());
+        }
+        completed.set(rows, row.isCompleted());
+        if (row.completedAt() != null) {
+            completedAtPresent.set(rows);
+            completedAts.data.writeLong(row.completedAt());
+        }
+        rows++;
+        totalRows++;
+        if (rows == maxRows || ids.size() + titles.size() + descriptions.size() + completedAts.size() >= maxBytes) {
+            flushRowGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        try {
+            flushRowGroup();
+            out.writeInt(0);
+            out.writeLong(totalRows);
+            out.flush();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.writeInt(rows);
+        writeColumn(ids.bytes.toByteArray());
+        writeColumn(userColumn());
+        writeColumn(titles.bytes.toByteArray());
+        writeColumn(withPresence(described, descriptions));
+        writeColumn(bits(completed, rows));
+        writeColumn(withPresence(completedAtPresent, completedAts));
+
+        ids.reset();
+        titles.reset();
+        descriptions.reset();
+        completedAts.reset();
+        dictionary.clear();
+        dictionaryUserIds.clear();
+        dictionaryEmails.clear();
+        described.clear();
+        completed.clear();
+        completedAtPresent.clear();
+        rows = 0;
+    }
+
+    private byte[] userColumn() throws IOException {
+        Column column = new Column();
+        writeVarint(column.data, dictionaryUserIds.size());
+        for (int i = 0; i < dictionaryUserIds.size(); i++) {
+            column.data.writeLong(dictionaryUserIds.get(i));
+            writeString(column.data, dictionaryEmails.get(i));
+        }
+        int width = bitWidth(dictionaryUserIds.size());
+        byte[] packed = new byte[(rows * width + 7) / 8];
+        for (int row = 0; row < rows; row++) {
+            for (int bit = 0; bit < width; bit++) {
+                if ((userIndexes[row] >>> bit & 1) != 0) {
+                    int position = row * width + bit;
+                    packed[position >>> 3] |= (byte) (1 << (position & 7));
+                }
+            }
+        }
+        column.data.write(packed);
+        return column.bytes.toByteArray();
+    }
+
+    private byte[] withPresence(BitSet present, Column values) throws IOException {
+        Column column = new Column();
+        column.data.write(bits(present, rows));
+        values.bytes.writeTo(column.data);
+        return column.bytes.toByteArray();
+    }
+
+    private void writeColumn(byte[] raw) throws IOException {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        while (!deflater.finished()) {
+            compressed.write(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+        }
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+    }
+
+    static int bitWidth(int dictionarySize) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(dictionarySize - 1));
+    }
+
+    // BitSet.toByteArray drops trailing zero bytes, so the array is sized from the row count
+    private static byte[] bits(BitSet bits, int count) {
+        byte[] packed = new byte[(count + 7) / 8];
+        byte[] set = bits.toByteArray();
+        System.arraycopy(set, 0, packed, 0, set.length);
+        return packed;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(data, bytes.length);
+        data.write(bytes);
+    }
+
+    private static void writeVarint(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    private static final class Column {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream data = new DataOutputStream(bytes);
+
+        int size() {
+            return bytes.size();
+        }
+
+        void reset() {
+            bytes.reset();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.todoapp.export;
+
+import com.todoapp.exception.InvalidRequestException;
+
+/** File formats of task exports. */
+public enum ExportFormat {
+    /** {@link ColumnarTaskWriter}'s format. */
+    COLUMNAR("columnar", ".tdc", "application/octet-stream"),
+    /** One JSON object per line, gzipped. */
+    NDJSON("ndjson", ".ndjson.gz", "application/gzip");
+
+    private final String name;
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String name, String extension, String contentType) {
+        this.name = name;
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat parse(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new InvalidRequestException("Unknown export format: " + name);
+    }
+}
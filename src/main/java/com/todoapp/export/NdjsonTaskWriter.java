@@ -0,0 +1,32 @@
+package com.todoapp.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/** Writes tasks as gzipped newline-delimited JSON, one {@link TaskExportRow} per line. */
+public class NdjsonTaskWriter implements TaskRowWriter {
+
+    private final GZIPOutputStream out;
+    private final ObjectWriter writer;
+
+    public NdjsonTaskWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.out = new GZIPOutputStream(out, 64 * 1024);
+        this.writer = objectMapper.writerFor(TaskExportRow.class);
+    }
+
+    @Override
+    public void write(TaskExportRow row) throws IOException {
+        out.write(writer.writeValueAsBytes(row));
+        out.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.finish();
+        out.flush();
+    }
+}
@@ -0,0 +1,17 @@
+package com.todoapp.export;
+
+import com.todoapp.model.Task;
+
+/** One exported task with its owner's email; also the line format of NDJSON exports. */
+public record TaskExportRow(Long id, Long userId, String userEmail, String title, String description,
+        boolean isCompleted, Long completedAt) {
+
+    static TaskExportRow of(Task task) {
+        return new TaskExportRow(task.getId(), task.getUser().getId(), null, task.getTitle(), task.getDescription(),
+            Boolean.TRUE.equals(task.getIsCompleted()), task.getCompletedAt());
+    }
+
+    TaskExportRow withUserEmail(String email) {
+        return new TaskExportRow(id, userId, email, title, description, isCompleted, completedAt);
+    }
+}
@@ -0,0 +1,272 @@
+package com.todoapp.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TaskExportDTO;
+import com.todoapp.exception.InvalidRequestException;
+import com.todoapp.exception.ResourceBusyException;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.repository.TaskRepository;
+import com.todoapp.repository.UserRepository;
+import com.todoapp.sharding.ShardExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Exports every live task to a file in the background. Tasks are read
+ * shard by shard in id order, {@code todoapp.export.chunk-size} at a time
+ * in short read-only transactions, and their owners' emails are looked up
+ * per chunk, so memory stays bounded whatever the table size. One export
+ * runs at a time and a request for another meanwhile is rejected; files are
+ * kept for {@code todoapp.export.ttl-ms}. Files left in the directory by an
+ * earlier process cannot be downloaded any more and are deleted at startup.
+ */
+@Slf4j
+@Service
+public class TaskExportService {
+
+    enum Status {
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${todoapp.export.dir:${java.io.tmpdir}/todoapp-exports}")
+    private String dir = System.getProperty("java.io.tmpdir") + "/todoapp-exports";
+
+    @Value("${todoapp.export.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${todoapp.export.row-group-rows:65536}")
+    private int rowGroupRows = 65_536;
+
+    @Value("${todoapp.export.row-group-bytes:33554432}")
+    private long rowGroupBytes = 33_554_432L;
+
+    @Value("${todoapp.export.ttl-ms:86400000}")
+    private long ttlMs = 86_400_000L;
+
+    private final Map<String, Export> exports = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // The id of the export being written, if any
+    private final AtomicReference<String> running = new AtomicReference<>();
+
+    public TaskExportDTO startExport(ExportFormat format) {
+        Export export = new Export(UUID.randomUUID().toString(), format, System.currentTimeMillis());
+        String current = running.compareAndExchange(null, export.id);
+        if (current != null) {
+            throw new ResourceBusyException("Export " + current + " is still running");
+        }
+        exports.put(export.id, export);
+        executor.execute(() -> run(export));
+        return export.toDTO();
+    }
+
+    public TaskExportDTO getExport(String id) {
+        return find(id).toDTO();
+    }
+
+    /** The finished file of an export, with its format. */
+    public Map.Entry<ExportFormat, Path> getFile(String id) {
+        Export export = find(id);
+        if (export.status != Status.DONE) {
+            throw new InvalidRequestException("Export " + id + " is " + export.status.name().toLowerCase());
+        }
+        return Map.entry(export.format, export.file);
+    }
+
+    /** Writes every live task to the stream and returns the number written. */
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        return export(format, out, rows -> { });
+    }
+
+    private long export(ExportFormat format, OutputStream out, LongConsumer progress) throws IOException {
+        TaskRowWriter writer = format == ExportFormat.COLUMNAR
+            ? new ColumnarTaskWriter(out, rowGroupRows, rowGroupBytes)
+            : new NdjsonTaskWriter(out, objectMapper);
+        long rows = 0;
+        for (int shard = 0; shard < shardExecutor.getShardCount(); shard++) {
+            long after = 0;
+            List<TaskExportRow> chunk;
+            do {
+                long from = after;
+                chunk = shardExecutor.onShard(shard, true, () -> taskRepository
+                    .findByIdGreaterThanOrderByIdAsc(from, Limit.of(chunkSize)).stream()
+                    .map(TaskExportRow::of)
+                    .toList());
+                Map<Long, String> emails = emails(chunk);
+                for (TaskExportRow row : chunk) {
+                    writer.write(row.withUserEmail(emails.get(row.userId())));
+                }
+                rows += chunk.size();
+                progress.accept(rows);
+                if (!chunk.isEmpty()) {
+                    after = chunk.get(chunk.size() - 1).id();
+                }
+            } while (chunk.size() == chunkSize);
+        }
+        writer.finish();
+        return rows;
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.export.eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        exports.values().removeIf(export -> {
+            if (export.status == Status.RUNNING || export.finishedAt > cutoff) {
+                return false;
+            }
+            delete(export);
+            return true;
+        });
+    }
+
+    @PostConstruct
+    void deleteOrphanedFiles() {
+        Path directory = Path.of(dir);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(TaskExportService::isExportFile).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ex) {
+                    log.warn("Could not delete export file {}", file, ex);
+                }
+            });
+        } catch (IOException ex) {
+            log.warn("Could not list export directory {}", directory, ex);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Export find(String id) {
+        Export export = exports.get(id);
+        if (export == null) {
+            throw new ResourceNotFoundException("Export", id);
+        }
+        return export;
+    }
+
+    private void run(Export export) {
+        Status outcome = Status.FAILED;
+        try {
+            Path directory = Files.createDirectories(Path.of(dir));
+            Path file = directory.resolve(export.id + export.format.getExtension());
+            export.file = file;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                export.rows = export(export.format, out, rows -> export.rows = rows);
+            }
+            export.bytes = Files.size(file);
+            export.finishedAt = System.currentTimeMillis();
+            outcome = Status.DONE;
+            log.info("Exported {} task(s) as {} ({} bytes) in {} ms", export.rows, export.format.getName(),
+                export.bytes, export.finishedAt - export.startedAt);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Task export {} failed", export.id, ex);
+            delete(export);
+            export.finishedAt = System.currentTimeMillis();
+            export.error = "Export failed";
+        } finally {
+            // Freed first, so a client that sees the outcome can start the next export at once
+            running.set(null);
+            export.status = outcome;
+        }
+    }
+
+    private Map<Long, String> emails(List<TaskExportRow> chunk) {
+        List<Long> userIds = chunk.stream().map(TaskExportRow::userId).distinct().toList();
+        Map<Long, String> emails = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            shardExecutor.onPrimary(true, () -> userRepository.findAllById(userIds))
+                .forEach(user -> emails.put(user.getId(), user.getEmail()));
+        }
+        return emails;
+    }
+
+    private static boolean isExportFile(Path file) {
+        String name = file.getFileName().toString();
+        for (ExportFormat format : ExportFormat.values()) {
+            if (name.endsWith(format.getExtension())) {
+                return Files.isRegularFile(file);
+            }
+        }
+        return false;
+    }
+
+    private static void delete(Export export) {
+        try {
+            if (export.file != null) {
+                Files.deleteIfExists(export.file);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not delete export file {}", export.file, ex);
+        }
+    }
+
+    // Written by the export thread, read by request threads
+    private static final class Export {
+        private final String id;
+        private final ExportFormat format;
+        private final long startedAt;
+        private volatile Status status = Status.RUNNING;
+        private volatile Path file;
+        private volatile long rows;
+        private volatile long bytes;
+        private volatile long finishedAt;
+        private volatile String error;
+
+        Export(String id, ExportFormat format, long startedAt) {
+            this.id = id;
+            this.format = format;
+            this.startedAt = startedAt;
+        }
+
+        TaskExportDTO toDTO() {
+            Status current = status;
+            long elapsed = (current == Status.RUNNING ? System.currentTimeMillis() : finishedAt) - startedAt;
+            return new TaskExportDTO(id, format.getName(), current.name(), rows,
+                current == Status.DONE ? bytes : null, elapsed, error);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.todoapp.export;
+
+import java.io.IOException;
+
+/** Encodes exported tasks into one file format. */
+public interface TaskRowWriter {
+
+    void write(TaskExportRow row) throws IOException;
+
+    /** Writes whatever is still buffered and the end of the file; the underlying stream stays open. */
+    void finish() throws IOException;
+}
@@ -0,0 +1,87 @@
+package com.todoapp.idempotency;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.model.IdempotencyKey;
+import com.todoapp.repository.IdempotencyKeyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Store shared by all instances. The primary key on idempotency_keys is
+ * what guarantees a single execution: of two instances racing on one key,
+ * only one INSERT succeeds.
+ */
+@Component("databaseIdempotencyStore")
+@ConditionalOnJpaStorage
+@SuppressWarnings("null")
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public boolean tryBegin(String key, String fingerprint, long now, long leaseExpiresAt) {
+        try {
+            return Boolean.TRUE.equals(newTransaction().execute(status -> {
+                repository.deleteIfExpired(key, now);
+                entityManager.persist(new IdempotencyKey(key, fingerprint, false, null, null, leaseExpiresAt));
+                entityManager.flush();
+                return true;
+            }));
+        } catch (DataIntegrityViolationException | ConstraintViolationException ex) {
+            // Only the key being taken counts as losing the race; any other failure reaches the caller
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<IdempotencyEntry> find(String key, long now) {
+        return newTransaction().execute(status -> repository.findById(key)
+            .filter(row -> row.getExpiresAt() > now)
+            .map(row -> new IdempotencyEntry(row.getFingerprint(), row.isCompleted(),
+                row.getResponseStatus() != null ? row.getResponseStatus() : 0,
+                row.getResponseBody(), row.getExpiresAt())));
+    }
+
+    @Override
+    public void complete(String key, int status, byte[] body, long expiresAt) {
+        newTransaction().executeWithoutResult(tx -> repository.findById(key).ifPresent(row -> {
+            row.setCompleted(true);
+            row.setResponseStatus(status);
+            row.setResponseBody(body);
+            row.setExpiresAt(expiresAt);
+        }));
+    }
+
+    @Override
+    public void release(String key) {
+        newTransaction().executeWithoutResult(tx -> repository.deleteLease(key));
+    }
+
+    @Override
+    public int evictExpired(long now) {
+        Integer evicted = newTransaction().execute(tx -> repository.deleteExpired(now));
+        return evicted != null ? evicted : 0;
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
@@ -0,0 +1,13 @@
+package com.todoapp.idempotency;
+
+/**
+ * What a store knows about one key. An entry that is not yet completed is
+ * a lease held by the request currently executing; {@code expiresAt} is
+ * the lease end for those and the retention end for completed ones.
+ */
+public record IdempotencyEntry(String fingerprint, boolean completed, int status, byte[] body, long expiresAt) {
+
+    public static IdempotencyEntry inProgress(String fingerprint, long expiresAt) {
+        return new IdempotencyEntry(fingerprint, false, 0, null, expiresAt);
+    }
+}
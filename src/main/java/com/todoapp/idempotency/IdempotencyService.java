@@ -0,0 +1,202 @@
+package com.todoapp.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.exception.IdempotencyKeyReuseException;
+import com.todoapp.exception.InvalidRequestException;
+import com.todoapp.exception.RequestTimeoutException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs a create at most once per Idempotency-Key. The first request claims
+ * the key in the store; retries with the same key and body wait for it and
+ * get its response replayed, marked with {@value #REPLAYED_HEADER}. A key
+ * reused with a different body is rejected. An attempt whose create fails
+ * releases the key so the client can retry. One whose create succeeded
+ * never does: a response that cannot be serialized is recorded as a 500,
+ * and if the store cannot record it at all, the lease blocks retries until
+ * {@code todoapp.idempotency.lease-ms} has passed. The lease must therefore
+ * outlast the slowest create, or a retry may run it a second time.
+ */
+@Component
+public class IdempotencyService {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final byte[] UNRECORDED_BODY = "null".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private Map<String, IdempotencyStore> stores;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${todoapp.idempotency.store:memory}")
+    private String storeType = "memory";
+
+    @Value("${todoapp.idempotency.ttl-ms:86400000}")
+    private long ttlMs = 86_400_000L;
+
+    @Value("${todoapp.idempotency.lease-ms:30000}")
+    private long leaseMs = 30_000L;
+
+    @Value("${todoapp.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs = 10_000L;
+
+    @Value("${todoapp.idempotency.poll-interval-ms:50}")
+    private long pollIntervalMs = 50L;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+
+    private IdempotencyStore store;
+
+    public IdempotencyService() {
+        this(System::currentTimeMillis);
+    }
+
+    IdempotencyService(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        store = stores.get(storeType + "IdempotencyStore");
+        if (store == null) {
+            throw new IllegalStateException("Unknown todoapp.idempotency.store: " + storeType);
+        }
+    }
+
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> responseType,
+            Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String storeKey = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        long deadline = clock.getAsLong() + waitTimeoutMs;
+        while (true) {
+            long now = clock.getAsLong();
+            Optional<IdempotencyEntry> entry = store.find(storeKey, now);
+            if (entry.isPresent()) {
+                if (!fingerprint.equals(entry.get().fingerprint())) {
+                    throw new IdempotencyKeyReuseException(
+                        KEY_HEADER + " " + key + " was already used with a different request body");
+                }
+                if (entry.get().completed()) {
+                    return replay(entry.get(), responseType);
+                }
+            } else if (store.tryBegin(storeKey, fingerprint, now, now + leaseMs)) {
+                return run(storeKey, action);
+            }
+            if (now >= deadline) {
+                throw new RequestTimeoutException("Timed out waiting for the first request with " + KEY_HEADER
+                    + " " + key);
+            }
+            awaitAttempt(storeKey, deadline - now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.idempotency.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        store.evictExpired(clock.getAsLong());
+    }
+
+    private <T> ResponseEntity<T> run(String storeKey, Supplier<ResponseEntity<T>> action) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        running.put(storeKey, done);
+        try {
+            ResponseEntity<T> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException ex) {
+                store.release(storeKey);
+                throw ex;
+            }
+            // The create has committed, so from here on the key is never released for a second run
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(response.getBody());
+            } catch (IOException ex) {
+                store.complete(storeKey, HttpStatus.INTERNAL_SERVER_ERROR.value(), UNRECORDED_BODY,
+                    clock.getAsLong() + ttlMs);
+                throw new UncheckedIOException(ex);
+            }
+            store.complete(storeKey, response.getStatusCode().value(), body, clock.getAsLong() + ttlMs);
+            return response;
+        } finally {
+            running.remove(storeKey, done);
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Attempts on this instance are awaited directly; one running on another
+     * instance is only visible through the store, so that case polls.
+     */
+    private void awaitAttempt(String storeKey, long remainingMs) {
+        CompletableFuture<Void> attempt = running.get(storeKey);
+        try {
+            if (attempt != null) {
+                attempt.get(remainingMs, TimeUnit.MILLISECONDS);
+            } else {
+                Thread.sleep(Math.min(pollIntervalMs, remainingMs));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RequestTimeoutException("Interrupted waiting for the first request with " + KEY_HEADER);
+        } catch (ExecutionException | TimeoutException ex) {
+            // Either way the store has the outcome; the caller re-reads it
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyEntry entry, Class<T> responseType) {
+        try {
+            T body = objectMapper.readValue(entry.body(), responseType);
+            return ResponseEntity.status(HttpStatus.valueOf(entry.status()))
+                .header(REPLAYED_HEADER, "true")
+                .body(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.todoapp.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Key-to-response storage behind {@link IdempotencyService}. Times are epoch
+ * milliseconds supplied by the caller; expired entries must behave as absent.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims the key for a new execution. Returns false if another request
+     * holds an unexpired lease or a completed response exists, and throws
+     * when the store has no room for another lease.
+     */
+    boolean tryBegin(String key, String fingerprint, long now, long leaseExpiresAt);
+
+    Optional<IdempotencyEntry> find(String key, long now);
+
+    void complete(String key, int status, byte[] body, long expiresAt);
+
+    /** Drops a lease after a failed execution so a retry may run again. */
+    void release(String key);
+
+    int evictExpired(long now);
+}
@@ -0,0 +1,94 @@
+package com.todoapp.idempotency;
+
+import com.todoapp.exception.RequestTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-instance store. Entries are kept in insertion order, which with a
+ * fixed TTL is also expiry order, so the eldest completed entries are the
+ * ones dropped when the store is full. A store full of in-flight leases
+ * refuses new keys with a 503 rather than growing.
+ */
+@Component("memoryIdempotencyStore")
+public class MemoryIdempotencyStore implements IdempotencyStore {
+
+    private final LinkedHashMap<String, IdempotencyEntry> entries = new LinkedHashMap<>();
+
+    @Value("${todoapp.idempotency.max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    @Override
+    public synchronized boolean tryBegin(String key, String fingerprint, long now, long leaseExpiresAt) {
+        IdempotencyEntry existing = entries.get(key);
+        if (existing != null && existing.expiresAt() > now) {
+            return false;
+        }
+        entries.remove(key);
+        if (entries.size() >= maxEntries) {
+            makeRoom(now);
+            if (entries.size() >= maxEntries) {
+                throw new RequestTimeoutException("Too many requests with an idempotency key in flight");
+            }
+        }
+        entries.put(key, IdempotencyEntry.inProgress(fingerprint, leaseExpiresAt));
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyEntry> find(String key, long now) {
+        IdempotencyEntry entry = entries.get(key);
+        if (entry == null || entry.expiresAt() <= now) {
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    @Override
+    public synchronized void complete(String key, int status, byte[] body, long expiresAt) {
+        IdempotencyEntry lease = entries.remove(key);
+        String fingerprint = lease != null ? lease.fingerprint() : null;
+        entries.put(key, new IdempotencyEntry(fingerprint, true, status, body, expiresAt));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        IdempotencyEntry entry = entries.get(key);
+        if (entry != null && !entry.completed()) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized int evictExpired(long now) {
+        int evicted = 0;
+        Iterator<IdempotencyEntry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt() <= now) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(long now) {
+        evictExpired(now);
+        // In-flight leases are never dropped: that would let a waiting retry execute a second time
+        Iterator<Map.Entry<String, IdempotencyEntry>> it = entries.entrySet().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            if (it.next().getValue().completed()) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.todoapp.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time: fields separated by commas,
+ * optionally quoted, with quotes inside quoted fields doubled and line
+ * breaks allowed inside quotes. Blank lines are skipped. Only the current
+ * record is held in memory.
+ */
+final class CsvReader {
+
+    /** Longest record accepted; anything longer is treated as a broken upload. */
+    static final int MAX_RECORD_CHARS = 4 * 1024 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Line on which the record last returned (or rejected) by {@link #next} starts. */
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * The next record, or null at the end of the input. A malformed record
+     * is read to its end and then rejected with an
+     * {@link IllegalArgumentException}, so reading can go on with the next.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        String error = null;
+        boolean quoted = false;
+        boolean closed = false;
+        int chars = 0;
+        while (true) {
+            if (++chars > MAX_RECORD_CHARS) {
+                throw new IllegalStateException("Record at line " + recordLine + " is longer than "
+                    + MAX_RECORD_CHARS + " characters");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        closed = true;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                closed = false;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                break;
+            } else if (closed) {
+                error = "Unexpected character after a closing quote";
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+}
@@ -0,0 +1,206 @@
+package com.todoapp.imports;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskDescription;
+import com.todoapp.model.TaskTombstone;
+import com.todoapp.ordering.PositionKeys;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts tasks in the current transaction without going through the
+ * persistence context. On PostgreSQL the rows are streamed with
+ * {@code COPY ... FROM STDIN}; other databases get one JDBC batch.
+ * Descriptions too long to stay inline are stored in task_descriptions
+ * first, as {@link Task#setDescription} would. Each task is appended to its
+ * user's list, in input order.
+ */
+@Component
+@ConditionalOnJpaStorage
+public class TaskBulkWriter {
+
+    private static final String COLUMNS =
+        "title, description, description_id, is_completed, completed_at, user_id, position, change_seq";
+
+    private static final String COPY_TASKS = "COPY tasks (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    // Sent to the server whenever this much CSV has built up
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile String insertSql;
+
+    /** Writes the tasks, which must already be valid and belong to existing users. */
+    public void write(List<TaskDTO> tasks) {
+        Long[] descriptionIds = storeLongDescriptions(tasks);
+        String[] positions = appendPositions(tasks);
+        long now = System.currentTimeMillis();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                copy(connection, tasks, descriptionIds, positions, now);
+            } else {
+                insert(connection, tasks, descriptionIds, positions, now);
+            }
+            return null;
+        });
+    }
+
+    private Long[] storeLongDescriptions(List<TaskDTO> tasks) {
+        Long[] ids = new Long[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            String description = tasks.get(i).getDescription();
+            if (description != null && description.length() > Task.INLINE_DESCRIPTION_LIMIT) {
+                TaskDescription stored = TaskDescription.of(description);
+                // The identity insert runs right away, so the id is known without a flush
+                entityManager.persist(stored);
+                entityManager.detach(stored);
+                ids[i] = stored.getId();
+            }
+        }
+        return ids;
+    }
+
+    // One query for the last key of every user in the chunk; two writers appending at once tie, broken by id
+    private String[] appendPositions(List<TaskDTO> tasks) {
+        Map<Long, String> last = new HashMap<>();
+        List<Long> userIds = tasks.stream().map(TaskDTO::getUserId).distinct().toList();
+        entityManager.createQuery("SELECT t.user.id, MAX(t.position) FROM Task t WHERE t.user.id IN :userIds"
+                + " GROUP BY t.user.id", Object[].class)
+            .setParameter("userIds", userIds)
+            .getResultList()
+            .forEach(row -> last.put((Long) row[0], (String) row[1]));
+        String[] positions = new String[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            positions[i] = PositionKeys.between(last.get(tasks.get(i).getUserId()), null);
+            last.put(tasks.get(i).getUserId(), positions[i]);
+        }
+        return positions;
+    }
+
+    private void copy(Connection connection, List<TaskDTO> tasks, Long[] descriptionIds, String[] positions,
+            long now) throws SQLException {
+        long[] changeSeqs = allocateChangeSeqs(connection, tasks.size());
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_TASKS);
+        try {
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_CHARS + 2048);
+            for (int i = 0; i < tasks.size(); i++) {
+                TaskDTO task = tasks.get(i);
+                boolean completed = Boolean.TRUE.equals(task.getIsCompleted());
+                appendQuoted(rows, task.getTitle()).append(',');
+                appendQuoted(rows, descriptionIds[i] == null ? task.getDescription() : null).append(',');
+                rows.append(descriptionIds[i] == null ? "" : descriptionIds[i]).append(',');
+                rows.append(completed).append(',');
+                rows.append(completed ? now : "").append(',');
+                rows.append(task.getUserId()).append(',');
+                rows.append(positions[i]).append(',');
+                rows.append(changeSeqs[i]).append('\n');
+                if (rows.length() >= COPY_BUFFER_CHARS) {
+                    send(copy, rows);
+                }
+            }
+            send(copy, rows);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    // One round trip for the whole chunk instead of one per row
+    private static long[] allocateChangeSeqs(Connection connection, int count) throws SQLException {
+        long[] values = new long[count];
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT nextval('" + TaskTombstone.CHANGE_SEQUENCE + "') FROM generate_series(1, ?)")) {
+            statement.setInt(1, count);
+            try (ResultSet result = statement.executeQuery()) {
+                for (int i = 0; i < count && result.next(); i++) {
+                    values[i] = result.getLong(1);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder rows, String value) {
+        if (value == null) {
+            return rows;
+        }
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        return rows.append('"');
+    }
+
+    private static void send(CopyIn copy, StringBuilder rows) throws SQLException {
+        if (rows.length() > 0) {
+            byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            rows.setLength(0);
+        }
+    }
+
+    private void insert(Connection connection, List<TaskDTO> tasks, Long[] descriptionIds, String[] positions,
+            long now) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(insertSql())) {
+            for (int i = 0; i < tasks.size(); i++) {
+                TaskDTO task = tasks.get(i);
+                boolean completed = Boolean.TRUE.equals(task.getIsCompleted());
+                statement.setString(1, task.getTitle());
+                statement.setObject(2, descriptionIds[i] == null ? task.getDescription() : null, Types.VARCHAR);
+                statement.setObject(3, descriptionIds[i], Types.BIGINT);
+                statement.setBoolean(4, completed);
+                statement.setObject(5, completed ? now : null, Types.BIGINT);
+                statement.setLong(6, task.getUserId());
+                statement.setString(7, positions[i]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // The change sequence is drawn by the database for each row, through the dialect's next-value expression
+    private String insertSql() {
+        String sql = insertSql;
+        if (sql == null) {
+            String nextChangeSeq = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceSupport()
+                .getSelectSequenceNextValString(TaskTombstone.CHANGE_SEQUENCE);
+            sql = "INSERT INTO tasks (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, " + nextChangeSeq + ")";
+            insertSql = sql;
+        }
+        return sql;
+    }
+}
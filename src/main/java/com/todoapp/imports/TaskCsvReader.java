@@ -0,0 +1,103 @@
+package com.todoapp.imports;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.exception.InvalidRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Turns the records of a task CSV into {@link TaskDTO}s. The first record
+ * is the header and names the columns by their TaskDTO property, in any
+ * order: title and userId are required, description and isCompleted
+ * optional. An empty description is null and an empty isCompleted false.
+ */
+public final class TaskCsvReader {
+
+    /** One data record: the task it holds, or why it could not be read. */
+    public record Row(long line, TaskDTO task, String error) {
+    }
+
+    private final CsvReader csv;
+    private final int columnCount;
+    private int title = -1;
+    private int description = -1;
+    private int isCompleted = -1;
+    private int userId = -1;
+
+    /** Reads the header; a missing, unknown or duplicate column is an {@link InvalidRequestException}. */
+    public TaskCsvReader(Reader reader) throws IOException {
+        csv = new CsvReader(reader);
+        List<String> header;
+        try {
+            header = csv.next();
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Invalid CSV header: " + ex.getMessage());
+        }
+        if (header == null) {
+            throw new InvalidRequestException("CSV header is required");
+        }
+        columnCount = header.size();
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a byte order mark
+            String name = i == 0 ? header.get(i).replace("\uFEFF", "").trim() : header.get(i).trim();
+            switch (name) {
+                case "title" -> title = column(title, i, name);
+                case "description" -> description = column(description, i, name);
+                case "isCompleted" -> isCompleted = column(isCompleted, i, name);
+                case "userId" -> userId = column(userId, i, name);
+                default -> throw new InvalidRequestException("Unknown CSV column: " + name);
+            }
+        }
+        if (title < 0 || userId < 0) {
+            throw new InvalidRequestException("CSV header must name the title and userId columns");
+        }
+    }
+
+    /** The next data record, or null at the end of the input. */
+    public Row next() throws IOException {
+        List<String> fields;
+        try {
+            fields = csv.next();
+        } catch (IllegalArgumentException ex) {
+            return new Row(csv.getRecordLine(), null, ex.getMessage());
+        }
+        if (fields == null) {
+            return null;
+        }
+        long line = csv.getRecordLine();
+        if (fields.size() != columnCount) {
+            return new Row(line, null, "Expected " + columnCount + " fields but found " + fields.size());
+        }
+        TaskDTO task = new TaskDTO();
+        task.setTitle(fields.get(title));
+        if (description >= 0 && !fields.get(description).isEmpty()) {
+            task.setDescription(fields.get(description));
+        }
+        if (isCompleted >= 0) {
+            String value = fields.get(isCompleted).trim();
+            if (value.equalsIgnoreCase("true")) {
+                task.setIsCompleted(true);
+            } else if (!value.isEmpty() && !value.equalsIgnoreCase("false")) {
+                return new Row(line, null, "Invalid isCompleted: " + value);
+            }
+        }
+        String value = fields.get(userId).trim();
+        if (!value.isEmpty()) {
+            try {
+                task.setUserId(Long.valueOf(value));
+            } catch (NumberFormatException ex) {
+                return new Row(line, null, "Invalid userId: " + value);
+            }
+        }
+        return new Row(line, task, null);
+    }
+
+    private static int column(int current, int index, String name) {
+        if (current >= 0) {
+            throw new InvalidRequestException("Duplicate CSV column: " + name);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,164 @@
+package com.todoapp.imports;
+
+import com.todoapp.config.CacheConfig;
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskImportProgressDTO;
+import com.todoapp.dto.TaskImportProgressDTO.RowError;
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import com.todoapp.service.BatchLookup;
+import com.todoapp.sharding.ShardExecutor;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Loads tasks from CSV, {@code todoapp.import.chunk-size} rows at a time.
+ * Rows are validated like {@code POST /api/tasks} and checked against the
+ * live users; a rejected row is reported and skipped rather than failing
+ * the import. Each chunk is written per shard in one transaction by
+ * {@link TaskBulkWriter}, so a failure part way keeps the chunks already
+ * reported as imported. Imported tasks take change sequence numbers and
+ * show up in delta sync, but are not pushed to the change feed.
+ */
+@Slf4j
+@Service
+@ConditionalOnJpaStorage
+public class TaskImporter {
+
+    // Users are looked up in slices of this many ids
+    private static final int USER_LOOKUP_CHUNK = 1000;
+
+    @Autowired
+    private TaskBulkWriter taskBulkWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${todoapp.import.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${todoapp.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    /**
+     * Imports every row of the CSV, handing a progress report to the
+     * listener after each chunk, and returns the final report.
+     */
+    public TaskImportProgressDTO importTasks(TaskCsvReader reader, Consumer<TaskImportProgressDTO> listener) {
+        Progress progress = new Progress();
+        List<TaskCsvReader.Row> chunk = new ArrayList<>();
+        try {
+            for (TaskCsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+                progress.rowsRead++;
+                String error = row.error() != null ? row.error() : violations(row.task());
+                if (error != null) {
+                    progress.reject(row.line(), error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    write(chunk, progress);
+                    chunk.clear();
+                    listener.accept(progress.report(false, null));
+                }
+            }
+            write(chunk, progress);
+            return progress.report(true, null);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Task import failed after {} row(s)", progress.rowsRead, ex);
+            return progress.report(true, "Import failed after " + progress.imported + " imported row(s)");
+        }
+    }
+
+    private String violations(TaskDTO task) {
+        Set<ConstraintViolation<TaskDTO>> violations = validator.validate(task);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private void write(List<TaskCsvReader.Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<Long> liveUsers = liveUsers(chunk.stream().map(row -> row.task().getUserId()).distinct().toList());
+        Map<Integer, List<TaskDTO>> byShard = new TreeMap<>();
+        for (TaskCsvReader.Row row : chunk) {
+            Long userId = row.task().getUserId();
+            if (liveUsers.contains(userId)) {
+                byShard.computeIfAbsent(shardExecutor.shardForUser(userId), shard -> new ArrayList<>()).add(row.task());
+            } else {
+                progress.reject(row.line(), "User not found with id: " + userId);
+            }
+        }
+        for (Map.Entry<Integer, List<TaskDTO>> shard : byShard.entrySet()) {
+            shardExecutor.onShard(shard.getKey(), false, () -> {
+                taskBulkWriter.write(shard.getValue());
+                return null;
+            });
+            progress.imported += shard.getValue().size();
+        }
+        // Cached lists are checked against Hibernate's own table timestamps, which JDBC writes do not bump
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(CacheConfig.TASKS_BY_USER_REGION);
+    }
+
+    private Set<Long> liveUsers(List<Long> userIds) {
+        Set<Long> found = new HashSet<>();
+        for (List<Long> ids : BatchLookup.chunks(userIds, USER_LOOKUP_CHUNK)) {
+            shardExecutor.onPrimary(true, () -> userRepository.findAllById(ids)).stream()
+                .map(User::getId)
+                .forEach(found::add);
+        }
+        return found;
+    }
+
+    private final class Progress {
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private int reported;
+        private List<RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (reported < maxReportedErrors) {
+                reported++;
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        TaskImportProgressDTO report(boolean done, String failure) {
+            TaskImportProgressDTO report = new TaskImportProgressDTO(rowsRead, imported, rejected, errors, done,
+                failure);
+            errors = new ArrayList<>();
+            return report;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.todoapp.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.todoapp.dto.ApiError;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+public class ApiErrorSerializer extends StdSerializer<ApiError> {
+
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString ERRORS = new SerializedString("errors");
+
+    public ApiErrorSerializer() {
+        super(ApiError.class);
+    }
+
+    @Override
+    public void serialize(ApiError error, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(error);
+        gen.writeFieldName(TIMESTAMP);
+        gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(error.timestamp()));
+        gen.writeFieldName(STATUS);
+        gen.writeNumber(error.status());
+        gen.writeFieldName(MESSAGE);
+        gen.writeString(error.message());
+        if (error.errors() != null) {
+            gen.writeFieldName(ERRORS);
+            gen.writeStartObject();
+            for (Map.Entry<String, String> entry : error.errors().entrySet()) {
+                gen.writeStringField(entry.getKey(), entry.getValue());
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+}
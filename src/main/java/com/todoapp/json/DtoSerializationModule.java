@@ -0,0 +1,18 @@
+package com.todoapp.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.todoapp.dto.ApiError;
+import com.todoapp.dto.SparseTaskList;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+
+public class DtoSerializationModule extends SimpleModule {
+
+    public DtoSerializationModule() {
+        super("DtoSerializationModule");
+        addSerializer(TaskDTO.class, new TaskDTOSerializer());
+        addSerializer(UserDTO.class, new UserDTOSerializer());
+        addSerializer(SparseTaskList.class, new SparseTaskListSerializer());
+        addSerializer(ApiError.class, new ApiErrorSerializer());
+    }
+}
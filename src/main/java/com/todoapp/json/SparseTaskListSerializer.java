@@ -0,0 +1,43 @@
+package com.todoapp.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.todoapp.dto.SparseTaskList;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Writes a task list as a JSON array containing only the requested fields.
+ */
+public class SparseTaskListSerializer extends StdSerializer<SparseTaskList> {
+
+    public SparseTaskListSerializer() {
+        super(SparseTaskList.class);
+    }
+
+    @Override
+    public void serialize(SparseTaskList list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        Set<TaskField> fields = list.fields();
+        gen.writeStartArray(list, list.tasks().size());
+        for (TaskDTO task : list.tasks()) {
+            gen.writeStartObject(task);
+            for (TaskField field : fields) {
+                gen.writeFieldName(field.getJsonName());
+                switch (field) {
+                    case ID -> JsonWrites.writeLong(gen, task.getId());
+                    case TITLE -> gen.writeString(task.getTitle());
+                    case DESCRIPTION -> gen.writeString(task.getDescription());
+                    case IS_COMPLETED -> JsonWrites.writeBoolean(gen, task.getIsCompleted());
+                    case USER_ID -> JsonWrites.writeLong(gen, task.getUserId());
+                    case POSITION -> gen.writeString(task.getPosition());
+                }
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
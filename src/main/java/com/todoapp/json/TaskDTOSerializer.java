@@ -0,0 +1,45 @@
+package com.todoapp.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.todoapp.dto.TaskDTO;
+
+import java.io.IOException;
+
+/**
+ * Streams {@link TaskDTO} without bean introspection. Produces the same
+ * property names and order as the reflective serializer.
+ */
+public class TaskDTOSerializer extends StdSerializer<TaskDTO> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString IS_COMPLETED = new SerializedString("isCompleted");
+    private static final SerializedString USER_ID = new SerializedString("userId");
+    private static final SerializedString POSITION = new SerializedString("position");
+
+    public TaskDTOSerializer() {
+        super(TaskDTO.class);
+    }
+
+    @Override
+    public void serialize(TaskDTO task, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(task);
+        gen.writeFieldName(ID);
+        JsonWrites.writeLong(gen, task.getId());
+        gen.writeFieldName(TITLE);
+        gen.writeString(task.getTitle());
+        gen.writeFieldName(DESCRIPTION);
+        gen.writeString(task.getDescription());
+        gen.writeFieldName(IS_COMPLETED);
+        JsonWrites.writeBoolean(gen, task.getIsCompleted());
+        gen.writeFieldName(USER_ID);
+        JsonWrites.writeLong(gen, task.getUserId());
+        gen.writeFieldName(POSITION);
+        gen.writeString(task.getPosition());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,36 @@
+package com.todoapp.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.todoapp.dto.UserDTO;
+
+import java.io.IOException;
+
+/**
+ * Streams {@link UserDTO} without bean introspection. Produces the same
+ * property names and order as the reflective serializer.
+ */
+public class UserDTOSerializer extends StdSerializer<UserDTO> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString EMAIL = new SerializedString("email");
+
+    public UserDTOSerializer() {
+        super(UserDTO.class);
+    }
+
+    @Override
+    public void serialize(UserDTO user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(user);
+        gen.writeFieldName(ID);
+        JsonWrites.writeLong(gen, user.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(user.getName());
+        gen.writeFieldName(EMAIL);
+        gen.writeString(user.getEmail());
+        gen.writeEndObject();
+    }
+}
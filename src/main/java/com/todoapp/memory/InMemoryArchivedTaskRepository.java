@@ -0,0 +1,56 @@
+package com.todoapp.memory;
+
+import com.todoapp.model.ArchivedTask;
+import com.todoapp.repository.ArchivedTaskRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The archive of the in-memory engine, which is always empty: the archiver
+ * only runs on the JPA engine, so every fallback from the hot tasks finds
+ * nothing.
+ */
+public class InMemoryArchivedTaskRepository implements ArchivedTaskRepository {
+
+    @Override
+    public Optional<ArchivedTask> findById(Long id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return false;
+    }
+
+    @Override
+    public List<ArchivedTask> findAll() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<ArchivedTask> findAllById(Iterable<Long> ids) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<ArchivedTask> findByUserId(Long userId) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public int copyToTasks(Long id) {
+        return 0;
+    }
+
+    @Override
+    public int deleteRowById(Long id) {
+        return 0;
+    }
+
+    @Override
+    public int softDeleteByUserId(Long userId, long now) {
+        return 0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.todoapp.memory;
+
+import com.todoapp.repository.ChangeSequence;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** The change sequence as a counter; recovery moves it past every value already handed out. */
+public class InMemoryChangeSequence implements ChangeSequence {
+
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public long next() {
+        return last.incrementAndGet();
+    }
+
+    @Override
+    public long[] next(int count) {
+        long first = last.getAndAdd(count) + 1;
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = first + i;
+        }
+        return values;
+    }
+
+    long current() {
+        return last.get();
+    }
+
+    void advanceTo(long value) {
+        last.accumulateAndGet(value, Math::max);
+    }
+}
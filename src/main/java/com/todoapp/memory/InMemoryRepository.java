@@ -0,0 +1,37 @@
+package com.todoapp.memory;
+
+import com.todoapp.repository.StorageRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The batch operations of {@link StorageRepository} on top of the single-row
+ * ones, for the in-memory engine.
+ */
+@SuppressWarnings("null")
+abstract class InMemoryRepository<T> implements StorageRepository<T> {
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<Long> ids) {
+        List<T> found = new ArrayList<>();
+        for (Long id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+}
@@ -0,0 +1,283 @@
+package com.todoapp.memory;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.dto.TaskQuery;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskTombstone;
+import com.todoapp.model.User;
+import com.todoapp.repository.TaskRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link TaskRepository} on a {@link TaskStore}. Entities are copied in and
+ * out, so like detached JPA entities they only change the store through
+ * {@link #save}. Deleted tasks are removed at once: memory has nothing to
+ * purge later, and archival does not apply. Every write records its undo
+ * with {@link InMemoryTransactionManager#onRollback}.
+ */
+@SuppressWarnings("null")
+public class InMemoryTaskRepository extends InMemoryRepository<Task> implements TaskRepository {
+
+    // Tasks without a position last, as PostgreSQL sorts nulls; there are no row locks to take
+    private static final Comparator<TaskRecord> LIST_ORDER = Comparator
+        .comparing(TaskRecord::position, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+        .thenComparingLong(TaskRecord::id);
+
+    private final TaskStore store;
+
+    public InMemoryTaskRepository(TaskStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public <S extends Task> S save(S task) {
+        TaskRecord previous = task.getId() != null ? store.get(task.getId()) : null;
+        TaskRecord saved = store.save(task.getId(), task.getUser().getId(), TaskRecord.of(task.getChangeSeq()),
+            TaskRecord.of(task.getCompletedAt()), task.getTitle(), task.getDescription(),
+            Boolean.TRUE.equals(task.getIsCompleted()), task.getPosition());
+        InMemoryTransactionManager.onRollback(
+            previous != null ? () -> store.reinstate(previous) : () -> store.remove(saved.id()));
+        task.setId(saved.id());
+        return task;
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        TaskRecord task = store.get(id);
+        return task != null ? Optional.of(toTask(task, owner(task.userId()))) : Optional.empty();
+    }
+
+    @Override
+    public List<Task> findAll() {
+        List<TaskRecord> records = store.getAll();
+        List<Task> tasks = new ArrayList<>(records.size());
+        for (TaskRecord task : records) {
+            tasks.add(toTask(task, owner(task.userId())));
+        }
+        return tasks;
+    }
+
+    @Override
+    public List<Task> findByUserId(Long userId) {
+        List<TaskRecord> tasks = store.getByUser(userId);
+        tasks.sort(LIST_ORDER);
+        return toTasks(tasks, userId);
+    }
+
+    @Override
+    public List<Task> lockByUserId(Long userId) {
+        return findByUserId(userId);
+    }
+
+    @Override
+    public Optional<Task> lockById(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public List<Task> lockByIdIn(List<Long> ids) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public List<Task> lockLastPositioned(Long userId, Limit limit) {
+        List<TaskRecord> tasks = store.getByUser(userId);
+        tasks.removeIf(task -> task.position() == null);
+        tasks.sort(LIST_ORDER.reversed());
+        return toTasks(limit(tasks, limit), userId);
+    }
+
+    @Override
+    public List<String> findPositionsAfter(Long userId, String position, Long excludedId, Limit limit) {
+        List<TaskRecord> tasks = store.getByUser(userId);
+        tasks.removeIf(task -> task.position() == null || task.position().compareTo(position) <= 0
+            || task.id() == excludedId);
+        tasks.sort(LIST_ORDER);
+        return limit(tasks, limit).stream().map(TaskRecord::position).toList();
+    }
+
+    @Override
+    public List<Task> lockWithoutChangeSeq(Limit limit) {
+        // Every record gets its change_seq when it is written
+        return List.of();
+    }
+
+    @Override
+    public List<Long> findUserIdsWithUnpositionedTasks(Limit limit) {
+        List<Long> userIds = store.getAll().stream()
+            .filter(task -> task.position() == null)
+            .map(TaskRecord::userId)
+            .distinct()
+            .toList();
+        return limit.isLimited() && userIds.size() > limit.max() ? userIds.subList(0, limit.max()) : userIds;
+    }
+
+    @Override
+    public List<Task> findByUserIdAndIsCompleted(Long userId, Boolean isCompleted) {
+        List<TaskRecord> tasks = store.getByUser(userId);
+        tasks.removeIf(task -> task.completed() != Boolean.TRUE.equals(isCompleted));
+        return toTasks(tasks, userId);
+    }
+
+    @Override
+    public List<Task> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        List<TaskRecord> tasks = store.getAll();
+        tasks.removeIf(task -> task.id() <= id);
+        tasks.sort(Comparator.comparingLong(TaskRecord::id));
+        List<Task> page = new ArrayList<>(tasks.size());
+        for (TaskRecord task : limit(tasks, limit)) {
+            page.add(toTask(task, owner(task.userId())));
+        }
+        return page;
+    }
+
+    @Override
+    public List<Task> findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(Long userId, Long changeSeq,
+            Pageable pageable) {
+        // Sequence values are drawn before the stripe lock, so insertion order is not change order
+        List<TaskRecord> tasks = store.getByUser(userId);
+        tasks.removeIf(task -> task.changeSeq() == TaskRecord.NONE || task.changeSeq() <= changeSeq);
+        tasks.sort(Comparator.comparingLong(TaskRecord::changeSeq));
+        if (pageable.isPaged() && tasks.size() > pageable.getPageSize()) {
+            tasks = tasks.subList(0, pageable.getPageSize());
+        }
+        return toTasks(tasks, userId);
+    }
+
+    @Override
+    public List<TaskDTO> findFields(Set<TaskField> fields) {
+        return toDTOs(store.getAll(), fields);
+    }
+
+    @Override
+    public List<TaskDTO> findFieldsByUserId(Long userId, Set<TaskField> fields) {
+        List<TaskRecord> tasks = store.getByUser(userId);
+        tasks.sort(LIST_ORDER);
+        return toDTOs(tasks, fields);
+    }
+
+    @Override
+    public List<Task> findFiltered(Long userId, Boolean completed, String titlePrefix, Pageable pageable) {
+        List<TaskRecord> tasks = filter(userId, completed, titlePrefix, pageable);
+        List<Task> page = new ArrayList<>(tasks.size());
+        for (TaskRecord task : tasks) {
+            page.add(toTask(task, owner(task.userId())));
+        }
+        return page;
+    }
+
+    @Override
+    public List<TaskDTO> findFilteredFields(Long userId, Set<TaskField> fields, Boolean completed,
+            String titlePrefix, Pageable pageable) {
+        // One shard, so there are no pages to merge and no sort fields to add
+        return toDTOs(filter(userId, completed, titlePrefix, pageable), fields);
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        remove(id);
+    }
+
+    @Override
+    public void deleteAll() {
+        store.clearTasks();
+    }
+
+    @Override
+    public int softDelete(Long id, long now) {
+        return remove(id) ? 1 : 0;
+    }
+
+    @Override
+    public int softDeleteByUserId(Long userId, long now) {
+        List<TaskRecord> tasks = store.getByUser(userId);
+        List<TaskTombstone> tombstones = store.getTombstonesByUser(userId);
+        int removed = store.removeByUser(userId);
+        InMemoryTransactionManager.onRollback(() -> {
+            tasks.forEach(store::reinstate);
+            tombstones.forEach(tombstone -> store.addTombstone(userId, tombstone.getTaskId(),
+                tombstone.getChangeSeq()));
+        });
+        return removed;
+    }
+
+    private List<TaskRecord> filter(Long userId, Boolean completed, String titlePrefix, Pageable pageable) {
+        List<TaskRecord> tasks = userId != null ? store.getByUser(userId) : store.getAll();
+        tasks.removeIf(task -> (completed != null && task.completed() != completed)
+            || (titlePrefix != null && !task.title().startsWith(titlePrefix)));
+        // Same order as the SQL, which TaskQuery always ends with the id
+        tasks.sort(TaskQuery.comparator(pageable.getSort(), TaskRecord::id, TaskRecord::title, TaskRecord::position));
+        if (pageable.isPaged()) {
+            int from = Math.toIntExact(Math.min(pageable.getOffset(), tasks.size()));
+            tasks = tasks.subList(from, Math.min(from + pageable.getPageSize(), tasks.size()));
+        }
+        return tasks;
+    }
+
+    private boolean remove(long id) {
+        TaskRecord removed = store.get(id);
+        if (removed == null || !store.remove(id)) {
+            return false;
+        }
+        InMemoryTransactionManager.onRollback(() -> store.reinstate(removed));
+        return true;
+    }
+
+    private static List<TaskRecord> limit(List<TaskRecord> tasks, Limit limit) {
+        return limit.isLimited() && tasks.size() > limit.max() ? tasks.subList(0, limit.max()) : tasks;
+    }
+
+    private static List<Task> toTasks(List<TaskRecord> records, Long userId) {
+        // All tasks of one user share the owner reference, as with a JPA proxy
+        User owner = owner(userId);
+        List<Task> tasks = new ArrayList<>(records.size());
+        for (TaskRecord task : records) {
+            tasks.add(toTask(task, owner));
+        }
+        return tasks;
+    }
+
+    private static Task toTask(TaskRecord task, User owner) {
+        // The constructor keeps the stored completion time; a long description simply stays inline
+        return new Task(task.id(), task.title(), task.description(), null, task.completed(), owner,
+            task.position(), TaskRecord.toLong(task.changeSeq()), TaskRecord.toLong(task.completedAt()), null);
+    }
+
+    private static User owner(long userId) {
+        User owner = new User();
+        owner.setId(userId);
+        return owner;
+    }
+
+    private static List<TaskDTO> toDTOs(List<TaskRecord> records, Set<TaskField> fields) {
+        List<TaskDTO> tasks = new ArrayList<>(records.size());
+        for (TaskRecord task : records) {
+            TaskDTO dto = new TaskDTO();
+            for (TaskField field : fields) {
+                switch (field) {
+                    case ID -> dto.setId(task.id());
+                    case TITLE -> dto.setTitle(task.title());
+                    case DESCRIPTION -> dto.setDescription(task.description());
+                    case IS_COMPLETED -> dto.setIsCompleted(task.completed());
+                    case USER_ID -> dto.setUserId(task.userId());
+                    case POSITION -> dto.setPosition(task.position());
+                }
+            }
+            tasks.add(dto);
+        }
+        return tasks;
+    }
+}
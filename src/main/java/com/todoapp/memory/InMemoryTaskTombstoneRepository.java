@@ -0,0 +1,55 @@
+package com.todoapp.memory;
+
+import com.todoapp.model.TaskTombstone;
+import com.todoapp.repository.ChangeSequence;
+import com.todoapp.repository.TaskTombstoneRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link TaskTombstoneRepository} on a {@link TaskStore}, which keeps each
+ * user's tombstones as primitive pairs next to its tasks. The change
+ * sequence value doubles as the id, as it does in task_tombstones.
+ */
+@SuppressWarnings("null")
+public class InMemoryTaskTombstoneRepository implements TaskTombstoneRepository {
+
+    private final TaskStore store;
+    private final ChangeSequence changeSequence;
+
+    public InMemoryTaskTombstoneRepository(TaskStore store, ChangeSequence changeSequence) {
+        this.store = store;
+        this.changeSequence = changeSequence;
+    }
+
+    @Override
+    public <S extends TaskTombstone> S save(S tombstone) {
+        if (tombstone.getChangeSeq() == null) {
+            tombstone.setChangeSeq(changeSequence.next());
+        }
+        long userId = tombstone.getUserId();
+        long changeSeq = tombstone.getChangeSeq();
+        store.addTombstone(userId, tombstone.getTaskId(), changeSeq);
+        InMemoryTransactionManager.onRollback(() -> store.removeTombstone(userId, changeSeq));
+        return tombstone;
+    }
+
+    @Override
+    public long count() {
+        return store.tombstoneCount();
+    }
+
+    @Override
+    public List<TaskTombstone> findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(Long userId, Long changeSeq,
+            Pageable pageable) {
+        List<TaskTombstone> tombstones = store.getTombstonesByUser(userId);
+        tombstones.removeIf(tombstone -> tombstone.getChangeSeq() <= changeSeq);
+        tombstones.sort(Comparator.comparingLong(TaskTombstone::getChangeSeq));
+        if (pageable.isPaged() && tombstones.size() > pageable.getPageSize()) {
+            return tombstones.subList(0, pageable.getPageSize());
+        }
+        return tombstones;
+    }
+}
@@ -0,0 +1,119 @@
+package com.todoapp.memory;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transaction boundaries for the in-memory engine. Propagation and
+ * synchronization behave as usual, so after-commit listeners still fire once
+ * the outermost transaction ends. Repository writes register their inverse
+ * with {@link #onRollback}, and a rollback runs those newest first, so a
+ * multi-step operation that fails part way leaves the store as it found it.
+ * There is no isolation: other threads see writes before the commit, and an
+ * undo puts back the state this transaction saw even if another one has
+ * written the same record since. Store-wide clears are not undone.
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    /**
+     * Records how to undo a write made in the current transaction; does
+     * nothing when there is none, as each repository call is atomic on its own.
+     */
+    public static void onRollback(Runnable undo) {
+        UndoLog log = (UndoLog) TransactionSynchronizationManager.getResource(UndoLog.class);
+        if (log != null && !log.closed) {
+            log.undos.add(undo);
+        }
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Transaction((UndoLog) TransactionSynchronizationManager.getResource(UndoLog.class));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((Transaction) transaction).log != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        UndoLog log = new UndoLog();
+        ((Transaction) transaction).log = log;
+        TransactionSynchronizationManager.bindResource(UndoLog.class, log);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((Transaction) transaction).log = null;
+        return TransactionSynchronizationManager.unbindResource(UndoLog.class);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(UndoLog.class, suspendedResources);
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((Transaction) status.getTransaction()).log.rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        UndoLog log = ((Transaction) status.getTransaction()).log;
+        // The undos write through the repositories too; those writes are not undone again
+        log.closed = true;
+        RuntimeException failure = null;
+        for (int i = log.undos.size() - 1; i >= 0; i--) {
+            try {
+                log.undos.get(i).run();
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(UndoLog.class);
+    }
+
+    private static final class UndoLog {
+        private final List<Runnable> undos = new ArrayList<>();
+        private boolean rollbackOnly;
+        private boolean closed;
+    }
+
+    private static final class Transaction implements SmartTransactionObject {
+        private UndoLog log;
+
+        private Transaction(UndoLog log) {
+            this.log = log;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return log != null && log.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.todoapp.memory;
+
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link UserRepository} for the in-memory engine. Users are few next to
+ * tasks, so one read-write lock guards them; the email index enforces the
+ * same uniqueness the users table does. Deleted users are removed at once,
+ * which also frees their email. Writes record their undo with
+ * {@link InMemoryTransactionManager#onRollback}.
+ */
+@SuppressWarnings("null")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongObjectMap<User> users = new LongObjectMap<>();
+    private final Map<String, Long> idsByEmail = new HashMap<>();
+    private long lastId;
+
+    private volatile StoreJournal journal = StoreJournal.NONE;
+
+    void attach(StoreJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        User current;
+        long id;
+        long position;
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            current = user.getId() != null ? users.get(user.getId()) : null;
+            Long owner = idsByEmail.get(user.getEmail());
+            if (owner != null && (current == null || owner.longValue() != current.getId())) {
+                throw new DataIntegrityViolationException("Duplicate email: " + user.getEmail());
+            }
+            id = current != null ? current.getId() : lastId + 1;
+            position = journal.userSaved(id, user.getName(), user.getEmail());
+            user.setId(id);
+            put(id, user.getName(), user.getEmail());
+        } finally {
+            write.unlock();
+        }
+        journal.sync(position);
+        // put() replaces the stored user, so current still holds the previous state
+        InMemoryTransactionManager.onRollback(current != null ? () -> reinstate(current) : () -> remove(id));
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return Optional.ofNullable(users.get(id)).map(InMemoryUserRepository::copy);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public User getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("User not found: " + id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            Long id = idsByEmail.get(email);
+            return id != null ? Optional.of(copy(users.get(id))) : Optional.empty();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return idsByEmail.containsKey(email);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            List<User> all = new ArrayList<>(users.size());
+            users.forEachValue(user -> all.add(copy(user)));
+            return all;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return users.size();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        remove(id);
+    }
+
+    @Override
+    public void deleteAll() {
+        long position;
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            position = journal.usersCleared();
+            users.clear();
+            idsByEmail.clear();
+        } finally {
+            write.unlock();
+        }
+        journal.sync(position);
+    }
+
+    // The stores hold no row locks; the read-write lock already orders each call
+    @Override
+    public Optional<User> lockSharedById(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public Optional<User> lockById(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public int softDelete(Long id, long now) {
+        return remove(id) ? 1 : 0;
+    }
+
+    @Override
+    public long countDeletedByEmail(String email) {
+        return 0;
+    }
+
+    @Override
+    public int releaseDeletedEmail(String email) {
+        return 0;
+    }
+
+    /** Puts a user back under its own id during recovery; replaying it twice is harmless. */
+    void restore(long id, String name, String email) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            put(id, name, email);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    void restoreLastId(long id) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            lastId = Math.max(lastId, id);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /** Hands the id counter and every user to the visitor under the read lock. */
+    void export(Visitor visitor) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            visitor.lastId(lastId);
+            users.forEachValue(visitor::user);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    interface Visitor {
+        void lastId(long lastId);
+
+        void user(User user);
+    }
+
+    boolean remove(long id) {
+        User removed;
+        long position;
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            removed = users.get(id);
+            if (removed == null) {
+                return false;
+            }
+            position = journal.userRemoved(id);
+            users.remove(id);
+            idsByEmail.remove(removed.getEmail(), id);
+        } finally {
+            write.unlock();
+        }
+        journal.sync(position);
+        InMemoryTransactionManager.onRollback(() -> reinstate(removed));
+        return true;
+    }
+
+    // Puts a user back as it was, when a rollback undoes a write; unlike restore() it is journaled
+    private void reinstate(User user) {
+        long position;
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            position = journal.userSaved(user.getId(), user.getName(), user.getEmail());
+            put(user.getId(), user.getName(), user.getEmail());
+        } finally {
+            write.unlock();
+        }
+        journal.sync(position);
+    }
+
+    private void put(long id, String name, String email) {
+        User current = users.get(id);
+        if (current != null) {
+            // Conditional: while replaying, another user may already hold the old email again
+            idsByEmail.remove(current.getEmail(), id);
+        }
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        users.put(id, user);
+        idsByEmail.put(email, id);
+        lastId = Math.max(lastId, id);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setName(user.getName());
+        copy.setEmail(user.getEmail());
+        return copy;
+    }
+}
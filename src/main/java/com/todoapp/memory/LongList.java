@@ -0,0 +1,68 @@
+package com.todoapp.memory;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive {@code long} values in insertion order. Grows
+ * by half its size, so on average about 9.6 bytes hold an 8-byte value.
+ * Not thread-safe.
+ */
+final class LongList {
+
+    private static final long[] EMPTY = {};
+    private static final int MIN_GROWTH = 4;
+
+    private long[] values = EMPTY;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return values[index];
+    }
+
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + Math.max(MIN_GROWTH, size >>> 1));
+        }
+        values[size++] = value;
+    }
+
+    /** The first index of {@code value} among every {@code stride}-th value from the start, or -1. */
+    int indexOf(long value, int stride) {
+        for (int i = 0; i < size; i += stride) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void removeRange(int from, int count) {
+        if (from < 0 || count < 0 || from + count > size) {
+            throw new IndexOutOfBoundsException(from + count);
+        }
+        System.arraycopy(values, from + count, values, from, size - from - count);
+        size -= count;
+    }
+
+    boolean remove(long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package com.todoapp.memory;
+
+/**
+ * Receives every mutation of the in-memory engine while the writer still
+ * holds its lock, so the journal sees each stripe's changes in the order
+ * they were applied. Each call returns a position to pass to {@link #sync}
+ * once the lock is released.
+ */
+interface StoreJournal {
+
+    StoreJournal NONE = new StoreJournal() {
+    };
+
+    default long taskSaved(TaskRecord task) {
+        return 0;
+    }
+
+    default long taskRemoved(long id) {
+        return 0;
+    }
+
+    default long userTasksRemoved(long userId) {
+        return 0;
+    }
+
+    default long tombstoneAdded(long userId, long taskId, long changeSeq) {
+        return 0;
+    }
+
+    default long tombstoneRemoved(long userId, long changeSeq) {
+        return 0;
+    }
+
+    default long tasksCleared(int stripe) {
+        return 0;
+    }
+
+    default long tombstonesCleared(int stripe) {
+        return 0;
+    }
+
+    default long userSaved(long id, String name, String email) {
+        return 0;
+    }
+
+    default long userRemoved(long id) {
+        return 0;
+    }
+
+    default long usersCleared() {
+        return 0;
+    }
+
+    /** Returns once everything up to {@code position} is durable. */
+    default void sync(long position) {
+    }
+}
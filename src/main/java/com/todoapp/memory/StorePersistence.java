@@ -0,0 +1,358 @@
+package com.todoapp.memory;
+
+import com.todoapp.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Makes the in-memory engine durable on a single node. Every mutation of
+ * the {@link TaskStore} and {@link InMemoryUserRepository} is appended to a
+ * {@link WriteAheadLog} under the writer's lock and synced, with group
+ * commit, before the call returns. On open the newest snapshot is loaded
+ * and the log after it replayed.
+ *
+ * <p>{@link #compact} rolls the log, writes a snapshot of the state and
+ * deletes the segments before the roll. Writes go on meanwhile, so the
+ * snapshot is fuzzy; but every record sets absolute state, so replaying
+ * the log from the roll over it ends in the same state.
+ */
+@Slf4j
+public class StorePersistence implements StoreJournal, Closeable {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x54534e31;
+
+    private static final byte TASK = 1;
+    private static final byte TASK_REMOVED = 2;
+    private static final byte USER_TASKS_REMOVED = 3;
+    private static final byte TOMBSTONE = 4;
+    private static final byte TASKS_CLEARED = 5;
+    private static final byte TOMBSTONES_CLEARED = 6;
+    private static final byte USER = 7;
+    private static final byte USER_REMOVED = 8;
+    private static final byte USERS_CLEARED = 9;
+    private static final byte TASK_SEQUENCE = 10;
+    private static final byte USER_SEQUENCE = 11;
+    private static final byte CHANGE_SEQUENCE = 12;
+    private static final byte TOMBSTONE_REMOVED = 13;
+
+    private final Path directory;
+    private final TaskStore tasks;
+    private final InMemoryUserRepository users;
+    private final InMemoryChangeSequence changeSequence;
+    private final WriteAheadLog wal;
+
+    private boolean open;
+    private long snapshotPosition;
+
+    public StorePersistence(Path directory, int segmentBytes, TaskStore tasks, InMemoryUserRepository users,
+            InMemoryChangeSequence changeSequence) {
+        this.directory = directory;
+        this.tasks = tasks;
+        this.users = users;
+        this.changeSequence = changeSequence;
+        this.wal = new WriteAheadLog(directory, segmentBytes, tasks.getStripeCount());
+    }
+
+    /** Recovers the store from disk and journals every later change. */
+    public synchronized void open() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Path> snapshots = snapshots();
+        long from = snapshots.isEmpty() ? 0 : loadSnapshot(snapshots.get(snapshots.size() - 1));
+        wal.open(from, this::apply);
+        snapshotPosition = from;
+        tasks.attach(this);
+        users.attach(this);
+        open = true;
+        log.info("Recovered {} tasks and {} users from {} in {} ms", tasks.size(), users.count(), directory,
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.storage.wal.compaction-interval-ms:600000}",
+        initialDelayString = "${todoapp.storage.wal.compaction-interval-ms:600000}")
+    public void compact() {
+        try {
+            snapshot();
+        } catch (IOException ex) {
+            log.warn("Log compaction failed; the log keeps growing until the next attempt", ex);
+        }
+    }
+
+    /** Writes a snapshot and drops the log before it; does nothing if nothing changed. */
+    synchronized void snapshot() throws IOException {
+        if (!open || wal.position() == snapshotPosition) {
+            return;
+        }
+        long position = wal.roll();
+        Path target = directory.resolve(snapshotName(position));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                 new CheckedOutputStream(Channels.newOutputStream(channel), crc)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(tasks.getStripeCount());
+            out.writeLong(position);
+            writeState(out);
+            out.writeInt(0);
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        for (Path snapshot : snapshots()) {
+            if (!snapshot.equals(target)) {
+                Files.delete(snapshot);
+            }
+        }
+        wal.deleteBefore(position);
+        snapshotPosition = position;
+    }
+
+    @Override
+    public synchronized void close() {
+        wal.close();
+        open = false;
+    }
+
+    @Override
+    public long taskSaved(TaskRecord task) {
+        return wal.append(encodeTask(task));
+    }
+
+    @Override
+    public long taskRemoved(long id) {
+        return wal.append(ByteBuffer.allocate(9).put(TASK_REMOVED).putLong(id).flip());
+    }
+
+    @Override
+    public long userTasksRemoved(long userId) {
+        return wal.append(ByteBuffer.allocate(9).put(USER_TASKS_REMOVED).putLong(userId).flip());
+    }
+
+    @Override
+    public long tombstoneAdded(long userId, long taskId, long changeSeq) {
+        return wal.append(encodeTombstone(userId, taskId, changeSeq));
+    }
+
+    @Override
+    public long tombstoneRemoved(long userId, long changeSeq) {
+        return wal.append(ByteBuffer.allocate(17).put(TOMBSTONE_REMOVED).putLong(userId).putLong(changeSeq).flip());
+    }
+
+    @Override
+    public long tasksCleared(int stripe) {
+        return wal.append(ByteBuffer.allocate(5).put(TASKS_CLEARED).putInt(stripe).flip());
+    }
+
+    @Override
+    public long tombstonesCleared(int stripe) {
+        return wal.append(ByteBuffer.allocate(5).put(TOMBSTONES_CLEARED).putInt(stripe).flip());
+    }
+
+    @Override
+    public long userSaved(long id, String name, String email) {
+        return wal.append(encodeUser(id, name, email));
+    }
+
+    @Override
+    public long userRemoved(long id) {
+        return wal.append(ByteBuffer.allocate(9).put(USER_REMOVED).putLong(id).flip());
+    }
+
+    @Override
+    public long usersCleared() {
+        return wal.append(ByteBuffer.allocate(1).put(USERS_CLEARED).flip());
+    }
+
+    @Override
+    public void sync(long position) {
+        wal.sync(position);
+    }
+
+    private void apply(ByteBuffer record) {
+        byte type = record.get();
+        switch (type) {
+            case TASK -> {
+                // Records from before positions existed end after the completed flag
+                TaskRecord task = new TaskRecord(record.getLong(), record.getLong(), record.getLong(),
+                    record.getLong(), readString(record), readString(record), record.get() != 0,
+                    record.hasRemaining() ? readString(record) : null);
+                tasks.restore(task);
+                if (task.changeSeq() != TaskRecord.NONE) {
+                    changeSequence.advanceTo(task.changeSeq());
+                }
+            }
+            case TASK_REMOVED -> tasks.remove(record.getLong());
+            case USER_TASKS_REMOVED -> tasks.removeByUser(record.getLong());
+            case TOMBSTONE -> {
+                long userId = record.getLong();
+                long taskId = record.getLong();
+                long changeSeq = record.getLong();
+                tasks.restoreTombstone(userId, taskId, changeSeq);
+                changeSequence.advanceTo(changeSeq);
+            }
+            case TOMBSTONE_REMOVED -> tasks.removeTombstone(record.getLong(), record.getLong());
+            case TASKS_CLEARED -> tasks.clearTasks(record.getInt());
+            case TOMBSTONES_CLEARED -> tasks.clearTombstones(record.getInt());
+            case USER -> users.restore(record.getLong(), readString(record), readString(record));
+            case USER_REMOVED -> users.remove(record.getLong());
+            case USERS_CLEARED -> users.deleteAll();
+            case TASK_SEQUENCE -> tasks.restoreSequence(record.getInt(), record.getLong());
+            case USER_SEQUENCE -> users.restoreLastId(record.getLong());
+            case CHANGE_SEQUENCE -> changeSequence.advanceTo(record.getLong());
+            default -> throw new IllegalStateException("Unknown log record type " + type);
+        }
+    }
+
+    private void writeState(DataOutputStream out) throws IOException {
+        List<ByteBuffer> pending = new ArrayList<>();
+        tasks.export(new TaskStore.Visitor() {
+            @Override
+            public void sequence(int stripe, long lastSequence) {
+                pending.add(ByteBuffer.allocate(13).put(TASK_SEQUENCE).putInt(stripe).putLong(lastSequence).flip());
+            }
+
+            @Override
+            public void task(TaskRecord task) {
+                pending.add(encodeTask(task));
+            }
+
+            @Override
+            public void tombstone(long userId, long taskId, long changeSeq) {
+                pending.add(encodeTombstone(userId, taskId, changeSeq));
+            }
+        });
+        users.export(new InMemoryUserRepository.Visitor() {
+            @Override
+            public void lastId(long lastId) {
+                pending.add(ByteBuffer.allocate(9).put(USER_SEQUENCE).putLong(lastId).flip());
+            }
+
+            @Override
+            public void user(User user) {
+                pending.add(encodeUser(user.getId(), user.getName(), user.getEmail()));
+            }
+        });
+        pending.add(ByteBuffer.allocate(9).put(CHANGE_SEQUENCE).putLong(changeSequence.current()).flip());
+        for (ByteBuffer record : pending) {
+            out.writeInt(record.remaining());
+            out.write(record.array(), record.position(), record.remaining());
+        }
+    }
+
+    private long loadSnapshot(Path snapshot) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot)), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != tasks.getStripeCount()) {
+                throw new IOException("Snapshot " + snapshot + " was written in another format");
+            }
+            long position = in.readLong();
+            for (int length = in.readInt(); length != 0; length = in.readInt()) {
+                byte[] record = new byte[length];
+                in.readFully(record);
+                apply(ByteBuffer.wrap(record));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Snapshot " + snapshot + " is corrupt");
+            }
+            return position;
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).forEach(snapshots::add);
+        }
+        // Zero-padded positions sort by name
+        snapshots.sort(null);
+        return snapshots;
+    }
+
+    private static String snapshotName(long position) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, position, SNAPSHOT_SUFFIX);
+    }
+
+    private static ByteBuffer encodeTask(TaskRecord task) {
+        byte[] title = bytes(task.title());
+        byte[] description = bytes(task.description());
+        byte[] position = bytes(task.position());
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 * 8 + 1 + length(title) + length(description) + length(position))
+            .put(TASK).putLong(task.id()).putLong(task.userId()).putLong(task.changeSeq()).putLong(task.completedAt());
+        putBytes(record, title);
+        putBytes(record, description);
+        record.put((byte) (task.completed() ? 1 : 0));
+        putBytes(record, position);
+        return record.flip();
+    }
+
+    private static ByteBuffer encodeTombstone(long userId, long taskId, long changeSeq) {
+        return ByteBuffer.allocate(25).put(TOMBSTONE).putLong(userId).putLong(taskId).putLong(changeSeq).flip();
+    }
+
+    private static ByteBuffer encodeUser(long id, String name, String email) {
+        byte[] nameBytes = bytes(name);
+        byte[] emailBytes = bytes(email);
+        ByteBuffer record = ByteBuffer.allocate(1 + 8 + length(nameBytes) + length(emailBytes)).put(USER).putLong(id);
+        putBytes(record, nameBytes);
+        putBytes(record, emailBytes);
+        return record.flip();
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return 4 + (value != null ? value.length : 0);
+    }
+
+    private static void putBytes(ByteBuffer record, byte[] value) {
+        if (value == null) {
+            record.putInt(-1);
+        } else {
+            record.putInt(value.length).put(value);
+        }
+    }
+
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        record.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,21 @@
+package com.todoapp.memory;
+
+/**
+ * One task as the in-memory engine holds it: 64 bytes with compressed oops,
+ * plus the title, description and position strings. Records are immutable; a write
+ * replaces the record, so a reader can use one after the lock is released.
+ * {@link #NONE} stands in for a missing change sequence or completion time.
+ */
+record TaskRecord(long id, long userId, long changeSeq, long completedAt, String title, String description,
+        boolean completed, String position) {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    static long of(Long value) {
+        return value != null ? value : NONE;
+    }
+
+    static Long toLong(long value) {
+        return value != NONE ? value : null;
+    }
+}
@@ -0,0 +1,442 @@
+package com.todoapp.memory;
+
+import com.todoapp.model.TaskTombstone;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The in-memory task engine. Users are spread over a power-of-two number of
+ * stripes, each with its own read-write lock, id counter and maps, so
+ * writers for users on different stripes never wait for each other. A
+ * stripe keeps tasks by id in a {@link LongObjectMap}, each user's task ids
+ * and tombstones in {@link LongList}s. Task ids carry their stripe in the
+ * low bits, so a lookup by id goes straight to the stripe that owns it.
+ *
+ * <p>Per task that is a 64-byte {@link TaskRecord}, about 16 bytes of id
+ * map and about 10 bytes of the owner's id list: about 90 bytes before the
+ * title, description and position themselves.
+ *
+ * <p>Mutations are handed to the attached {@link StoreJournal} before they
+ * are applied, and waited on after the stripe lock is released.
+ */
+public class TaskStore {
+
+    private final Stripe[] stripes;
+    private final int stripeBits;
+    private final int stripeMask;
+
+    private volatile StoreJournal journal = StoreJournal.NONE;
+
+    public TaskStore(int stripeCount) {
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(i);
+        }
+        stripeBits = Integer.numberOfTrailingZeros(stripeCount);
+        stripeMask = stripeCount - 1;
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    void attach(StoreJournal journal) {
+        this.journal = journal;
+    }
+
+    TaskRecord get(long id) {
+        Stripe stripe = stripes[(int) id & stripeMask];
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return stripe.tasks.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<TaskRecord> getByUser(long userId) {
+        Stripe stripe = stripeOfUser(userId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            LongList ids = stripe.tasksByUser.get(userId);
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            List<TaskRecord> tasks = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                tasks.add(stripe.tasks.get(ids.get(i)));
+            }
+            return tasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<TaskRecord> getAll() {
+        List<TaskRecord> tasks = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                stripe.tasks.forEachValue(tasks::add);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Replaces the task with the given id, or adds a new task under a fresh
+     * id when {@code id} is null or unknown. A task cannot change its user.
+     */
+    TaskRecord save(Long id, long userId, long changeSeq, long completedAt, String title, String description,
+            boolean completed, String position) {
+        Stripe stripe = stripeOfUser(userId);
+        if (id != null && ((int) (long) id & stripeMask) != stripe.index && get(id) != null) {
+            throw movedToAnotherUser(id);
+        }
+        TaskRecord task;
+        long journalPosition;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            TaskRecord current = id != null ? stripe.tasks.get(id) : null;
+            if (current != null && current.userId() != userId) {
+                throw movedToAnotherUser(id);
+            }
+            long taskId = current != null ? current.id() : (++stripe.lastSequence << stripeBits) | stripe.index;
+            task = new TaskRecord(taskId, userId, changeSeq, completedAt, title, description, completed, position);
+            journalPosition = journal.taskSaved(task);
+            put(stripe, task);
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(journalPosition);
+        return task;
+    }
+
+    boolean remove(long id) {
+        Stripe stripe = stripes[(int) id & stripeMask];
+        long position;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            TaskRecord removed = stripe.tasks.get(id);
+            if (removed == null) {
+                return false;
+            }
+            position = journal.taskRemoved(id);
+            stripe.tasks.remove(id);
+            LongList ids = stripe.tasksByUser.get(removed.userId());
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                stripe.tasksByUser.remove(removed.userId());
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(position);
+        return true;
+    }
+
+    /**
+     * Puts a task back exactly as it was, under its own id. How a rollback
+     * undoes a write; unlike {@link #restore} it is journaled.
+     */
+    void reinstate(TaskRecord task) {
+        Stripe stripe = stripes[(int) task.id() & stripeMask];
+        long position;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            position = journal.taskSaved(task);
+            put(stripe, task);
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(position);
+    }
+
+    /** Drops a user's tasks and its tombstones, which nobody can sync any more. */
+    int removeByUser(long userId) {
+        Stripe stripe = stripeOfUser(userId);
+        LongList ids;
+        long position;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            position = journal.userTasksRemoved(userId);
+            stripe.tombstonesByUser.remove(userId);
+            ids = stripe.tasksByUser.remove(userId);
+            if (ids != null) {
+                for (int i = 0; i < ids.size(); i++) {
+                    stripe.tasks.remove(ids.get(i));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(position);
+        return ids != null ? ids.size() : 0;
+    }
+
+    void addTombstone(long userId, long taskId, long changeSeq) {
+        Stripe stripe = stripeOfUser(userId);
+        long position;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            position = journal.tombstoneAdded(userId, taskId, changeSeq);
+            LongList tombstones = tombstonesOf(stripe, userId);
+            tombstones.add(changeSeq);
+            tombstones.add(taskId);
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(position);
+    }
+
+    List<TaskTombstone> getTombstonesByUser(long userId) {
+        Stripe stripe = stripeOfUser(userId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            List<TaskTombstone> result = new ArrayList<>();
+            LongList tombstones = stripe.tombstonesByUser.get(userId);
+            if (tombstones != null) {
+                for (int i = 0; i < tombstones.size(); i += 2) {
+                    result.add(new TaskTombstone(tombstones.get(i), tombstones.get(i + 1), userId));
+                }
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops one tombstone, when a rollback undoes the delete that added it. */
+    void removeTombstone(long userId, long changeSeq) {
+        Stripe stripe = stripeOfUser(userId);
+        long position;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            LongList tombstones = stripe.tombstonesByUser.get(userId);
+            int index = tombstones != null ? tombstones.indexOf(changeSeq, 2) : -1;
+            if (index < 0) {
+                return;
+            }
+            position = journal.tombstoneRemoved(userId, changeSeq);
+            tombstones.removeRange(index, 2);
+            if (tombstones.isEmpty()) {
+                stripe.tombstonesByUser.remove(userId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(position);
+    }
+
+    long tombstoneCount() {
+        long[] count = {0};
+        for (Stripe stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                stripe.tombstonesByUser.forEachValue(tombstones -> count[0] += tombstones.size() / 2);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return count[0];
+    }
+
+    long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                size += stripe.tasks.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /** Removes every task. Ids are not handed out again. */
+    void clearTasks() {
+        for (Stripe stripe : stripes) {
+            clearTasks(stripe.index);
+        }
+    }
+
+    void clearTasks(int index) {
+        Stripe stripe = stripes[index];
+        long position;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            position = journal.tasksCleared(index);
+            stripe.tasks.clear();
+            stripe.tasksByUser.clear();
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(position);
+    }
+
+    void clearTombstones(int index) {
+        Stripe stripe = stripes[index];
+        long position;
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            position = journal.tombstonesCleared(index);
+            stripe.tombstonesByUser.clear();
+        } finally {
+            lock.unlock();
+        }
+        journal.sync(position);
+    }
+
+    /**
+     * Puts a task back under its own id during recovery. Like every restore
+     * method it sets absolute state, so replaying a change twice is harmless.
+     */
+    void restore(TaskRecord task) {
+        Stripe stripe = stripes[(int) task.id() & stripeMask];
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            TaskRecord current = stripe.tasks.get(task.id());
+            if (current != null && current.userId() != task.userId()) {
+                throw movedToAnotherUser(task.id());
+            }
+            put(stripe, task);
+            stripe.lastSequence = Math.max(stripe.lastSequence, task.id() >>> stripeBits);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void restoreTombstone(long userId, long taskId, long changeSeq) {
+        Stripe stripe = stripeOfUser(userId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            LongList tombstones = tombstonesOf(stripe, userId);
+            for (int i = 0; i < tombstones.size(); i += 2) {
+                if (tombstones.get(i) == changeSeq) {
+                    return;
+                }
+            }
+            tombstones.add(changeSeq);
+            tombstones.add(taskId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void restoreSequence(int index, long lastSequence) {
+        Stripe stripe = stripes[index];
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            stripe.lastSequence = Math.max(stripe.lastSequence, lastSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands each stripe's id counter, tasks and tombstones to the visitor, one
+     * stripe at a time under its read lock. Stripes are not frozen against each
+     * other, so the result is only consistent together with the changes
+     * journaled meanwhile.
+     */
+    void export(Visitor visitor) {
+        for (Stripe stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                visitor.sequence(stripe.index, stripe.lastSequence);
+                stripe.tasks.forEachValue(visitor::task);
+                stripe.tombstonesByUser.forEach((userId, tombstones) -> {
+                    for (int i = 0; i < tombstones.size(); i += 2) {
+                        visitor.tombstone(userId, tombstones.get(i + 1), tombstones.get(i));
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    interface Visitor {
+        void sequence(int stripe, long lastSequence);
+
+        void task(TaskRecord task);
+
+        void tombstone(long userId, long taskId, long changeSeq);
+    }
+
+    private static void put(Stripe stripe, TaskRecord task) {
+        if (stripe.tasks.put(task.id(), task) == null) {
+            LongList ids = stripe.tasksByUser.get(task.userId());
+            if (ids == null) {
+                ids = new LongList();
+                stripe.tasksByUser.put(task.userId(), ids);
+            }
+            ids.add(task.id());
+        }
+    }
+
+    private static LongList tombstonesOf(Stripe stripe, long userId) {
+        LongList tombstones = stripe.tombstonesByUser.get(userId);
+        if (tombstones == null) {
+            tombstones = new LongList();
+            stripe.tombstonesByUser.put(userId, tombstones);
+        }
+        return tombstones;
+    }
+
+    // Murmur3's finalizer: independent of the Fibonacci hash the maps inside the stripe use
+    private Stripe stripeOfUser(long userId) {
+        long hash = userId;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return stripes[(int) hash & stripeMask];
+    }
+
+    private static IllegalArgumentException movedToAnotherUser(long id) {
+        return new IllegalArgumentException("Task " + id + " cannot move to another user");
+    }
+
+    private static final class Stripe {
+        private final int index;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongObjectMap<TaskRecord> tasks = new LongObjectMap<>();
+        private final LongObjectMap<LongList> tasksByUser = new LongObjectMap<>();
+        // Interleaved (change_seq, task id) pairs
+        private final LongObjectMap<LongList> tombstonesByUser = new LongObjectMap<>();
+        private long lastSequence;
+
+        private Stripe(int index) {
+            this.index = index;
+        }
+    }
+}
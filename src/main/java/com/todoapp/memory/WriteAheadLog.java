@@ -0,0 +1,296 @@
+package com.todoapp.memory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of opaque records in memory-mapped segment files, each
+ * named after the log position it starts at. A record is its length, a
+ * CRC32 of the payload and the payload; the length is written last, so a
+ * record cut short by a crash reads as the end of the log. Segments are
+ * zero-filled when created: writing into a sparse mapping on a full disk
+ * would crash the JVM instead of failing the append.
+ *
+ * <p>Appends only copy into the mapping. {@link #sync} makes them durable
+ * with group commit: the first waiter forces everything appended so far
+ * while later ones wait for it, so concurrent writers share each fsync.
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+
+    static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final int MAGIC = 0x54574c31;
+    private static final int SEGMENT_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+    private static final int FILL_CHUNK = 1 << 20;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int format;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+
+    private Segment active;
+    private long appended;
+    private long durable;
+    private boolean syncing;
+
+    /**
+     * @param format written into every segment header and checked on open,
+     *               so a log is never replayed by an incompatible store
+     */
+    WriteAheadLog(Path directory, int segmentBytes, int format) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.format = format;
+    }
+
+    /**
+     * Replays every record from {@code from} on and positions the log after
+     * the last intact one. Segments that end before {@code from} are deleted,
+     * and so is anything after a torn record.
+     */
+    void open(long from, Consumer<ByteBuffer> replay) throws IOException {
+        Files.createDirectories(directory);
+        long end = from;
+        boolean torn = false;
+        for (long base : segmentBases()) {
+            Path path = segmentPath(base);
+            if (torn || base < from) {
+                Files.delete(path);
+                continue;
+            }
+            if (base != end) {
+                throw new IOException("Log segment " + path + " does not continue at position " + end);
+            }
+            Segment segment = Segment.map(path, base, format);
+            torn = !segment.replay(replay);
+            active = segment;
+            end = segment.base + segment.position;
+            if (torn) {
+                log.warn("Log {} ends in a torn record at position {}; later records are dropped", path, end);
+                segment.zeroFrom(segment.position);
+                segment.buffer.force();
+            }
+        }
+        if (active == null) {
+            active = Segment.create(segmentPath(end), end, segmentBytes, format);
+        }
+        appended = end;
+        durable = end;
+    }
+
+    /** Copies the record into the log and returns the position after it; not yet durable. */
+    long append(ByteBuffer payload) {
+        int length = payload.remaining();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        lock.lock();
+        try {
+            if (active.buffer.capacity() - active.position < RECORD_HEADER + length) {
+                rollLocked(Math.max(segmentBytes, SEGMENT_HEADER + RECORD_HEADER + length));
+            }
+            int offset = active.position;
+            active.buffer.put(offset + RECORD_HEADER, payload, payload.position(), length);
+            active.buffer.putInt(offset + 4, (int) crc.getValue());
+            active.buffer.putInt(offset, length);
+            active.position = offset + RECORD_HEADER + length;
+            appended = active.base + active.position;
+            return appended;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns once every record up to {@code position} has been forced to disk. */
+    void sync(long position) {
+        lock.lock();
+        try {
+            while (durable < position) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                Segment segment = active;
+                long target = appended;
+                int from = (int) Math.max(0, durable - segment.base);
+                boolean forced = false;
+                lock.unlock();
+                try {
+                    segment.buffer.force(from, (int) (target - segment.base) - from);
+                    forced = true;
+                } finally {
+                    lock.lock();
+                    syncing = false;
+                    if (forced) {
+                        durable = Math.max(durable, target);
+                    }
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Starts a new segment and returns its position; everything before it is durable. */
+    long roll() throws IOException {
+        lock.lock();
+        try {
+            rollLocked(segmentBytes);
+            return active.base;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long position() {
+        lock.lock();
+        try {
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Deletes the segments that end at or before {@code position}. */
+    void deleteBefore(long position) throws IOException {
+        long activeBase;
+        lock.lock();
+        try {
+            activeBase = active.base;
+        } finally {
+            lock.unlock();
+        }
+        for (long base : segmentBases()) {
+            if (base < position && base < activeBase) {
+                Files.deleteIfExists(segmentPath(base));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (active != null) {
+                active.buffer.force();
+                durable = appended;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rollLocked(int capacity) throws IOException {
+        active.buffer.force();
+        durable = appended;
+        synced.signalAll();
+        active = Segment.create(segmentPath(appended), appended, capacity, format);
+    }
+
+    private List<Long> segmentBases() throws IOException {
+        List<Long> bases = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        bases.sort(null);
+        return bases;
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private static final class Segment {
+        private final long base;
+        private final MappedByteBuffer buffer;
+        private int position = SEGMENT_HEADER;
+
+        private Segment(long base, MappedByteBuffer buffer) {
+            this.base = base;
+            this.buffer = buffer;
+        }
+
+        // Filled and headed under a temporary name, so a crash never leaves a half-made segment behind
+        static Segment create(Path path, long base, int capacity, int format) throws IOException {
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer zeros = ByteBuffer.allocateDirect(Math.min(FILL_CHUNK, capacity));
+                long written = 0;
+                while (written < capacity) {
+                    zeros.clear().limit((int) Math.min(zeros.capacity(), capacity - written));
+                    written += channel.write(zeros, written);
+                }
+                channel.write(ByteBuffer.allocate(SEGMENT_HEADER).putInt(MAGIC).putInt(format).flip(), 0);
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            return map(path, base, format);
+        }
+
+        static Segment map(Path path, long base, int format) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                Segment segment = new Segment(base, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+                if (segment.buffer.getInt(0) != MAGIC || segment.buffer.getInt(4) != format) {
+                    throw new IOException("Log segment " + path + " was written in another format");
+                }
+                return segment;
+            }
+        }
+
+        // Replays intact records and stops after the last one; false if a torn record follows it
+        boolean replay(Consumer<ByteBuffer> replay) {
+            CRC32 crc = new CRC32();
+            while (buffer.capacity() - position >= RECORD_HEADER) {
+                int length = buffer.getInt(position);
+                if (length == 0) {
+                    return true;
+                }
+                if (length < 0 || length > buffer.capacity() - position - RECORD_HEADER) {
+                    return false;
+                }
+                ByteBuffer payload = buffer.slice(position + RECORD_HEADER, length).asReadOnlyBuffer();
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    return false;
+                }
+                replay.accept(payload);
+                position += RECORD_HEADER + length;
+            }
+            return true;
+        }
+
+        void zeroFrom(int offset) {
+            byte[] zeros = new byte[Math.min(FILL_CHUNK, buffer.capacity())];
+            for (int i = offset; i < buffer.capacity(); i += zeros.length) {
+                buffer.put(i, zeros, 0, Math.min(zeros.length, buffer.capacity() - i));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.todoapp.model;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.SQLRestriction;
+
+/**
+ * A completed task moved out of the hot tasks table by the archiver. The row
+ * keeps the task's id, position and change sequence value, and still points
+ * at its out-of-line description, so moving it back is a plain row copy.
+ */
+@Entity
+@Table(name = "archived_tasks", indexes = {
+    @Index(name = "idx_archived_tasks_user", columnList = "user_id")
+})
+@SQLRestriction("deleted_at IS NULL")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTask {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String inlineDescription;
+
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "description_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TaskDescription externalDescription;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "position", length = Task.MAX_POSITION_LENGTH)
+    private String position;
+
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "completed_at")
+    private Long completedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private Long archivedAt;
+
+    @Column(name = "deleted_at")
+    private Long deletedAt;
+
+    public String getDescription() {
+        if (inlineDescription != null) {
+            return inlineDescription;
+        }
+        return externalDescription != null ? externalDescription.getText() : null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.todoapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marks a synthetic dataset as fully written. The row is inserted after the
+ * last chunk, so a seed without one was never loaded or was cut short.
+ */
+@Entity
+@Table(name = "dataset_loads")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetLoad {
+
+    @Id
+    private Long seed;
+
+    @Column(nullable = false)
+    private int users;
+
+    @Column(nullable = false)
+    private long tasks;
+
+    @Column(name = "loaded_at", nullable = false)
+    private long loadedAt;
+}
@@ -1,26 +1,62 @@
 package com.todoapp.model;
 
+import com.todoapp.config.CacheConfig;
+import com.todoapp.ordering.PositionKeys;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 
 @Entity
-@Table(name = "tasks")
+// The (user_id, change_seq) index is partial on PostgreSQL, see ShardSchemaInitializer
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_completed_at", columnList = "is_completed, completed_at"),
+    @Index(name = "idx_tasks_user_completed_title", columnList = "user_id, is_completed, title"),
+    // The id breaks ties between equal keys from concurrent moves, so lists are read in index order
+    @Index(name = "idx_tasks_user_position", columnList = "user_id, position, id")
+})
+@SQLRestriction("deleted_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.TASKS_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
 
+    /**
+     * Descriptions up to this many characters stay inline on the tasks row;
+     * longer ones move to task_descriptions and are only loaded on access.
+     */
+    public static final int INLINE_DESCRIPTION_LIMIT = 1024;
+
+    /** The tasks.user_id foreign key; only the primary holds users, so other shards drop it. */
+    public static final String USER_FOREIGN_KEY = "fk_tasks_user";
+
+    /** Longest position key the column holds; a list is rebalanced before a move goes past it. */
+    public static final int MAX_POSITION_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,13 +65,78 @@ public class Task {
     @Column(nullable = false)
     private String title;
 
-    @Column(columnDefinition = "TEXT")
-    private String description;
+    @Column(name = "description", columnDefinition = "TEXT")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String inlineDescription;
+
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "description_id")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TaskDescription externalDescription;
 
     @Column(name = "is_completed", nullable = false)
+    @Setter(AccessLevel.NONE)
     private Boolean isCompleted = false;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = USER_FOREIGN_KEY))
     private User user;
+
+    /** The task's place in its user's list, a {@link PositionKeys} key. */
+    @Column(name = "position", length = MAX_POSITION_LENGTH)
+    private String position;
+
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    /** Epoch millis of the last transition to completed; drives archival. */
+    @Column(name = "completed_at")
+    private Long completedAt;
+
+    /** Epoch millis of the soft delete; the row is purged once retention has passed. */
+    @Column(name = "deleted_at")
+    private Long deletedAt;
+
+    /** A missing status counts as not completed, as in the reactive API. */
+    public void setIsCompleted(Boolean isCompleted) {
+        completedAt = completedAt(this.isCompleted, completedAt, isCompleted, System.currentTimeMillis());
+        this.isCompleted = Boolean.TRUE.equals(isCompleted);
+    }
+
+    /**
+     * The completed_at of a task after a write setting its status to
+     * {@code nowCompleted}: kept while it stays completed, {@code now} when
+     * it becomes completed, cleared otherwise. Shared with the reactive API,
+     * which writes the column itself.
+     */
+    public static Long completedAt(Boolean wasCompleted, Long completedAt, Boolean nowCompleted, long now) {
+        if (!Boolean.TRUE.equals(nowCompleted)) {
+            return null;
+        }
+        return Boolean.TRUE.equals(wasCompleted) ? completedAt : Long.valueOf(now);
+    }
+
+    public String getDescription() {
+        if (inlineDescription != null) {
+            return inlineDescription;
+        }
+        return externalDescription != null ? externalDescription.getText() : null;
+    }
+
+    public void setDescription(String description) {
+        if (description == null || description.length() <= INLINE_DESCRIPTION_LIMIT) {
+            inlineDescription = description;
+            externalDescription = null;
+        } else if (externalDescription == null) {
+            inlineDescription = null;
+            externalDescription = TaskDescription.of(description);
+        } else {
+            inlineDescription = null;
+            externalDescription.setText(description);
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package com.todoapp.model;
+
+import com.todoapp.config.CacheConfig;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Out-of-line storage for long task descriptions. Bodies are deflated at rest
+ * whenever that makes them smaller, and are cached in that form, so a cache
+ * hit still inflates but skips the database.
+ */
+@Entity
+@Table(name = "task_descriptions")
+@BatchSize(size = 100)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.TASK_DESCRIPTIONS_REGION)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDescription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARBINARY)
+    @Column(nullable = false)
+    private byte[] content;
+
+    @Column(nullable = false)
+    private Boolean compressed = false;
+
+    @Column(name = "raw_length", nullable = false)
+    private Integer rawLength;
+
+    public static TaskDescription of(String text) {
+        TaskDescription description = new TaskDescription();
+        description.setText(text);
+        return description;
+    }
+
+    public String getText() {
+        return decode(content, compressed, rawLength);
+    }
+
+    public void setText(String text) {
+        if (content != null && text.equals(getText())) {
+            return;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        byte[] deflated = deflate(raw);
+        compressed = deflated.length < raw.length;
+        content = compressed ? deflated : raw;
+        rawLength = raw.length;
+    }
+
+    public static String decode(byte[] content, Boolean compressed, Integer rawLength) {
+        if (content == null) {
+            return null;
+        }
+        byte[] raw = Boolean.TRUE.equals(compressed) ? inflate(content, rawLength) : content;
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] deflated, int rawLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(deflated);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (!inflater.finished()) {
+                int count = inflater.inflate(raw, length, raw.length - length);
+                if (count == 0 && (inflater.needsInput() || length == raw.length)) {
+                    throw new IllegalStateException("Corrupt task description");
+                }
+                length += count;
+            }
+            return raw;
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt task description", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.todoapp.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.todoapp.config.CacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -14,12 +16,18 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "users")
+@SQLRestriction("deleted_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.USERS_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,6 +46,11 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    /** Epoch millis of the soft delete; the row is purged once retention has passed. */
+    @Column(name = "deleted_at")
+    @JsonIgnore
+    private Long deletedAt;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<Task> tasks = new ArrayList<>();
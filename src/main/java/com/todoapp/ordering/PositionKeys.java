@@ -0,0 +1,157 @@
+package com.todoapp.ordering;
+
+/**
+ * Fractional position keys: strings whose plain order is the order of a
+ * list, with room for a key between any two others, so moving an item only
+ * rewrites that item's key.
+ *
+ * <p>A key is an integer part and an optional fraction, in the digits
+ * {@code 0-9a-z}, which sort the same under every database collation. The
+ * first character of the integer part gives its length: {@code n} to
+ * {@code z} head 1 to 13 digits counting up from {@link #FIRST}, {@code m}
+ * to {@code a} head 1 to 13 digits counting down below it. Appending or
+ * prepending steps the integer part, so a list built that way keeps keys of
+ * a few characters. Only inserts into one gap grow the fraction, by about a
+ * character per five inserts. A fraction never ends in {@code 0}, so there
+ * is always room after it.
+ */
+public final class PositionKeys {
+
+    /** The key of the only item of a list. */
+    public static final String FIRST = "n0";
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final String SMALLEST_INTEGER = "a" + "0".repeat(13);
+
+    private PositionKeys() {
+    }
+
+    /**
+     * A key sorting strictly between {@code before} and {@code after}; null
+     * stands for the start or the end of the list.
+     */
+    public static String between(String before, String after) {
+        if (before != null) {
+            validate(before);
+        }
+        if (after != null) {
+            validate(after);
+        }
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Position " + before + " does not sort before " + after);
+        }
+        if (before == null && after == null) {
+            return FIRST;
+        }
+        if (before == null) {
+            String integer = integerPart(after);
+            if (integer.equals(SMALLEST_INTEGER)) {
+                return integer + midpoint("", after.substring(integer.length()));
+            }
+            return integer.length() < after.length() ? integer : decrement(integer);
+        }
+        String integer = integerPart(before);
+        String fraction = before.substring(integer.length());
+        if (after == null) {
+            String next = increment(integer);
+            return next != null ? next : integer + midpoint(fraction, null);
+        }
+        String afterInteger = integerPart(after);
+        if (integer.equals(afterInteger)) {
+            return integer + midpoint(fraction, after.substring(afterInteger.length()));
+        }
+        String next = increment(integer);
+        return next.compareTo(after) < 0 ? next : integer + midpoint(fraction, null);
+    }
+
+    // A fraction strictly between two fractions; after is null for the end of the range
+    private static String midpoint(String before, String after) {
+        if (after != null) {
+            int common = 0;
+            while (common < after.length()
+                && (common < before.length() ? before.charAt(common) : '0') == after.charAt(common)) {
+                common++;
+            }
+            if (common > 0) {
+                return after.substring(0, common)
+                    + midpoint(before.substring(Math.min(common, before.length())), after.substring(common));
+            }
+        }
+        int low = before.isEmpty() ? 0 : DIGITS.indexOf(before.charAt(0));
+        int high = after != null ? DIGITS.indexOf(after.charAt(0)) : BASE;
+        if (high - low > 1) {
+            return String.valueOf(DIGITS.charAt((low + high + 1) / 2));
+        }
+        if (after != null && after.length() > 1) {
+            return after.substring(0, 1);
+        }
+        return DIGITS.charAt(low) + midpoint(before.isEmpty() ? "" : before.substring(1), null);
+    }
+
+    // The next integer part, or null above the largest
+    private static String increment(String integer) {
+        char head = integer.charAt(0);
+        char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) + 1;
+            if (digit < BASE) {
+                digits[i] = DIGITS.charAt(digit);
+                return head + new String(digits);
+            }
+            digits[i] = '0';
+        }
+        if (head == 'z') {
+            return null;
+        }
+        if (head == 'm') {
+            return FIRST;
+        }
+        // Past the last value of a length: one digit longer counting up, one shorter counting down
+        char next = (char) (head + 1);
+        return next + "0".repeat(next > 'n' ? digits.length + 1 : digits.length - 1);
+    }
+
+    // The previous integer part; never called on the smallest
+    private static String decrement(String integer) {
+        char head = integer.charAt(0);
+        char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) - 1;
+            if (digit >= 0) {
+                digits[i] = DIGITS.charAt(digit);
+                return head + new String(digits);
+            }
+            digits[i] = 'z';
+        }
+        if (head == 'n') {
+            return "mz";
+        }
+        char previous = (char) (head - 1);
+        return previous + "z".repeat(previous < 'm' ? digits.length + 1 : digits.length - 1);
+    }
+
+    private static String integerPart(String key) {
+        return key.substring(0, integerLength(key.charAt(0)));
+    }
+
+    private static int integerLength(char head) {
+        return head >= 'n' ? head - 'n' + 2 : 'm' - head + 2;
+    }
+
+    private static void validate(String key) {
+        if (key.isEmpty() || key.charAt(0) < 'a' || key.charAt(0) > 'z'
+            || key.length() < integerLength(key.charAt(0))) {
+            throw new IllegalArgumentException("Invalid position: " + key);
+        }
+        for (int i = 1; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                throw new IllegalArgumentException("Invalid position: " + key);
+            }
+        }
+        if (key.equals(SMALLEST_INTEGER)
+            || (key.length() > integerLength(key.charAt(0)) && key.charAt(key.length() - 1) == '0')) {
+            throw new IllegalArgumentException("Invalid position: " + key);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.todoapp.ordering;
+
+import com.todoapp.model.Task;
+import com.todoapp.repository.TaskRepository;
+import com.todoapp.sharding.ShardExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rewrites a user's position keys to short, evenly spaced ones in the
+ * current list order. Moves ask for this when they leave a key longer than
+ * {@code todoapp.ordering.max-key-length}, and a pass every
+ * {@code todoapp.ordering.rebalance-interval-ms} handles those users plus any
+ * whose tasks predate positions. Each user is rewritten in one transaction
+ * holding the locks on all of their tasks.
+ */
+@Slf4j
+@Component
+public class PositionRebalancer {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Value("${todoapp.ordering.max-key-length:32}")
+    private int maxKeyLength = 32;
+
+    @Value("${todoapp.ordering.max-users-per-run:100}")
+    private int maxUsersPerRun = 100;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    /** Whether a key is long enough that its user's list should be rebalanced. */
+    public boolean isTooLong(String position) {
+        return position.length() > maxKeyLength;
+    }
+
+    /** Queues a user's list for the next rebalance pass. */
+    public void request(Long userId) {
+        pending.add(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.ordering.rebalance-interval-ms:60000}")
+    public void scheduledRebalance() {
+        rebalancePending();
+    }
+
+    /**
+     * Rebalances the queued users and those with tasks that have no position
+     * yet, up to {@code todoapp.ordering.max-users-per-run}, and returns the
+     * number of keys rewritten.
+     */
+    public int rebalancePending() {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext() && userIds.size() < maxUsersPerRun; ) {
+            userIds.add(it.next());
+            it.remove();
+        }
+        for (int shard = 0; shard < shardExecutor.getShardCount() && userIds.size() < maxUsersPerRun; shard++) {
+            Limit limit = Limit.of(maxUsersPerRun - userIds.size());
+            userIds.addAll(shardExecutor.onShard(shard, true,
+                () -> taskRepository.findUserIdsWithUnpositionedTasks(limit)));
+        }
+
+        int total = 0;
+        for (Long userId : userIds) {
+            total += rebalance(userId);
+        }
+        if (total > 0) {
+            log.info("Rebalanced {} position key(s) of {} user(s)", total, userIds.size());
+        }
+        return total;
+    }
+
+    /**
+     * Gives a user's tasks consecutive keys from {@link PositionKeys#FIRST},
+     * keeping their order; tasks without a key go last, oldest first. Joins
+     * the caller's transaction on the user's shard, if there is one, and
+     * returns the number of keys rewritten.
+     */
+    public int rebalance(Long userId) {
+        return shardExecutor.forUser(userId, false, () -> {
+            List<Task> tasks = new ArrayList<>(taskRepository.lockByUserId(userId));
+            tasks.sort(Comparator.comparing(Task::getPosition, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                .thenComparing(Task::getId));
+            int rewritten = 0;
+            String position = null;
+            for (Task task : tasks) {
+                position = PositionKeys.between(position, null);
+                if (!position.equals(task.getPosition())) {
+                    task.setPosition(position);
+                    taskRepository.save(task);
+                    rewritten++;
+                }
+            }
+            return rewritten;
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.todoapp.purge;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.sharding.ShardContext;
+import com.todoapp.sharding.ShardExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Hard-deletes soft-deleted rows once {@code todoapp.purge.retention-ms}
+ * has passed. Runs off-peak on {@code todoapp.purge.cron}, in batches of
+ * {@code todoapp.purge.batch-size} rows per transaction with a pause in
+ * between, so the purge never holds many locks or floods the WAL. The
+ * batches and pauses run on a thread of the purger's own, so a run does not
+ * hold up the other scheduled jobs; a run due while one is going is skipped.
+ * Purged
+ * rows are counted in {@code todoapp.purge.purged}, tagged by table. A
+ * purged task takes its tombstones with it, so a client whose changes-feed
+ * watermark is older than the retention must fetch its list in full again.
+ */
+@Slf4j
+@Component
+@ConditionalOnJpaStorage
+public class SoftDeletePurger {
+
+    enum Target {
+        TASKS("tasks", true, ""),
+        ARCHIVED_TASKS("archived_tasks", true, ""),
+        // Task rows on the primary reference their user, so a user waits until those are purged
+        USERS("users", false, " AND NOT EXISTS (SELECT 1 FROM tasks t WHERE t.user_id = users.id)");
+
+        final String table;
+        // Rows with descriptions and tombstones
+        final boolean holdsTasks;
+        final String condition;
+
+        Target(String table, boolean holdsTasks, String condition) {
+            this.table = table;
+            this.holdsTasks = holdsTasks;
+            this.condition = condition;
+        }
+    }
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todoapp.purge.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${todoapp.purge.retention-ms:604800000}")
+    private long retentionMs = 604_800_000L;
+
+    @Value("${todoapp.purge.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${todoapp.purge.max-batches-per-run:200}")
+    private int maxBatchesPerRun = 200;
+
+    @Value("${todoapp.purge.batch-pause-ms:100}")
+    private long batchPauseMs = 100;
+
+    private final LongSupplier clock;
+
+    private final Map<Target, Counter> purged = new EnumMap<>(Target.class);
+
+    private final Map<Target, Timer> batchTimers = new EnumMap<>(Target.class);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private NamedParameterJdbcTemplate jdbc;
+
+    public SoftDeletePurger() {
+        this(System::currentTimeMillis);
+    }
+
+    SoftDeletePurger(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        jdbc = new NamedParameterJdbcTemplate(dataSource);
+        for (Target target : Target.values()) {
+            purged.put(target, Counter.builder("todoapp.purge.purged")
+                .description("Soft-deleted rows removed by the purger")
+                .baseUnit("rows")
+                .tag("table", target.table)
+                .register(meterRegistry));
+            batchTimers.put(target, Timer.builder("todoapp.purge.batch")
+                .description("Time spent purging one batch")
+                .tag("table", target.table)
+                .register(meterRegistry));
+        }
+    }
+
+    @Scheduled(cron = "${todoapp.purge.cron:0 */10 1-5 * * *}")
+    public void scheduledPurge() {
+        if (enabled && running.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    purge();
+                } catch (RuntimeException ex) {
+                    log.error("Purge failed", ex);
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Runs one pass over every shard and returns the number of rows purged. */
+    public int purge() {
+        long cutoff = clock.getAsLong() - retentionMs;
+        int total = 0;
+        for (int shard = 0; shard < shardExecutor.getShardCount(); shard++) {
+            total += purge(shard, Target.TASKS, cutoff);
+            total += purge(shard, Target.ARCHIVED_TASKS, cutoff);
+        }
+        total += purge(ShardContext.PRIMARY, Target.USERS, cutoff);
+        if (total > 0) {
+            log.info("Purged {} soft-deleted row(s)", total);
+        }
+        return total;
+    }
+
+    private int purge(int shard, Target target, long cutoff) {
+        int total = 0;
+        int batches = 0;
+        int count;
+        do {
+            count = batchTimers.get(target).record(
+                () -> shardExecutor.onShard(shard, false, () -> purgeBatch(target, cutoff)));
+            total += count;
+            purged.get(target).increment(count);
+        } while (count == batchSize && ++batches < maxBatchesPerRun && pause());
+        return total;
+    }
+
+    private int purgeBatch(Target target, long cutoff) {
+        List<Long> ids = jdbc.queryForList(
+            "SELECT id FROM " + target.table + " WHERE deleted_at < :cutoff" + target.condition
+                + " ORDER BY id LIMIT :limit",
+            new MapSqlParameterSource("cutoff", cutoff).addValue("limit", batchSize), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource batch = new MapSqlParameterSource("ids", ids);
+        List<Long> descriptionIds = target.holdsTasks
+            ? jdbc.queryForList("SELECT description_id FROM " + target.table
+                + " WHERE id IN (:ids) AND description_id IS NOT NULL", batch, Long.class)
+            : List.of();
+        jdbc.update("DELETE FROM " + target.table + " WHERE id IN (:ids)", batch);
+        if (target.holdsTasks) {
+            jdbc.update("DELETE FROM task_tombstones WHERE task_id IN (:ids)", batch);
+        }
+        if (!descriptionIds.isEmpty()) {
+            jdbc.update("DELETE FROM task_descriptions WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", descriptionIds));
+        }
+        return ids.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.todoapp.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets. Lookups go through a {@link ConcurrentHashMap},
+ * whose reads are lock-free and whose writes lock a single bin, so hot
+ * clients never contend on a shared lock. At most
+ * {@code todoapp.rate-limit.max-buckets} clients are tracked; beyond that,
+ * new clients share one overflow bucket until the eviction job has dropped
+ * idle ones, so a flood of new addresses cannot grow the map without bound
+ * or make requests scan it.
+ */
+@Component
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private volatile TokenBucket overflow;
+
+    private final LongSupplier clock;
+
+    @Value("${todoapp.rate-limit.requests-per-second:100}")
+    private double requestsPerSecond = 100;
+
+    @Value("${todoapp.rate-limit.burst:200}")
+    private int burst = 200;
+
+    @Value("${todoapp.rate-limit.max-buckets:100000}")
+    private int maxBuckets = 100_000;
+
+    @Value("${todoapp.rate-limit.idle-timeout-ms:300000}")
+    private long idleTimeoutMs = 300_000L;
+
+    private long emissionIntervalNanos;
+    private long burstToleranceNanos;
+
+    public RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    RateLimiter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        emissionIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        overflow = new TokenBucket(clock.getAsLong());
+    }
+
+    /**
+     * Returns 0 when the client may proceed, otherwise the nanoseconds it
+     * should wait before retrying.
+     */
+    public long tryAcquire(String clientKey) {
+        long now = clock.getAsLong();
+        TokenBucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            // Idle buckets are only dropped by the scheduled job, never on the request path
+            bucket = buckets.size() < maxBuckets
+                ? buckets.computeIfAbsent(clientKey, key -> new TokenBucket(now))
+                : overflow;
+        }
+        return bucket.tryAcquire(now, emissionIntervalNanos, burstToleranceNanos);
+    }
+
+    /** The Retry-After value for a wait from {@link #tryAcquire}, rounded up to whole seconds. */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = clock.getAsLong() - TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        buckets.values().removeIf(bucket -> bucket.isIdleSince(cutoff));
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,39 @@
+package com.todoapp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is the theoretical
+ * arrival time of the next request, updated with a single CAS. A bucket whose
+ * arrival time is in the past is full, so dropping it loses nothing.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Returns 0 when the request is admitted, otherwise the nanoseconds until
+     * a token becomes available.
+     */
+    long tryAcquire(long nowNanos, long emissionIntervalNanos, long burstToleranceNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, nowNanos);
+            long backlog = arrival - nowNanos;
+            if (backlog > burstToleranceNanos) {
+                return backlog - burstToleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    boolean isIdleSince(long cutoffNanos) {
+        return theoreticalArrival.get() - cutoffNanos <= 0;
+    }
+}
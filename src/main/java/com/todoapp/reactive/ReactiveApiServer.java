@@ -0,0 +1,47 @@
+package com.todoapp.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+
+/**
+ * The Reactor Netty server of the reactive API. It runs next to the servlet
+ * server on its own port, started after the application context is ready and
+ * stopped before it closes.
+ */
+@Slf4j
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final WebServer webServer;
+
+    private volatile boolean running;
+
+    public ReactiveApiServer(NettyReactiveWebServerFactory factory, HttpHandler httpHandler) {
+        this.webServer = factory.getWebServer(httpHandler);
+    }
+
+    @Override
+    public void start() {
+        webServer.start();
+        running = true;
+        log.info("Reactive API started on port {}", webServer.getPort());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        webServer.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** The bound port, which differs from the configured one when that is 0. */
+    public int getPort() {
+        return webServer.getPort();
+    }
+}
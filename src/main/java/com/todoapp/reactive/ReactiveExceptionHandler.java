@@ -0,0 +1,71 @@
+package com.todoapp.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.ApiError;
+import com.todoapp.exception.ApiException;
+import com.todoapp.exception.GlobalExceptionHandler;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Writes failures of the reactive API as the {@link ApiError} bodies {@link GlobalExceptionHandler} produces. */
+@Slf4j
+public class ReactiveExceptionHandler implements WebExceptionHandler {
+
+    private final ObjectMapper objectMapper;
+
+    public ReactiveExceptionHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            // Mid-stream the status is already sent; the client sees the connection end early
+            return Mono.error(ex);
+        }
+        HttpStatusCode status;
+        ApiError error;
+        if (ex instanceof ApiException apiException) {
+            status = apiException.getStatus();
+            error = ApiError.of(status.value(), ex.getMessage());
+        } else if (ex instanceof ConstraintViolationException validation) {
+            Map<String, String> errors = new HashMap<>();
+            for (ConstraintViolation<?> violation : validation.getConstraintViolations()) {
+                errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+            status = HttpStatus.BAD_REQUEST;
+            error = new ApiError(LocalDateTime.now(), status.value(), "Validation failed", errors);
+        } else if (ex instanceof ResponseStatusException statusException) {
+            status = statusException.getStatusCode();
+            error = ApiError.of(status.value(), status.value() == HttpStatus.NOT_FOUND.value()
+                ? "Not found" : statusException.getReason());
+        } else {
+            log.error("Unhandled exception", ex);
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            error = ApiError.of(status.value(), "Internal server error");
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(error);
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException writeFailure) {
+            return Mono.error(writeFailure);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.todoapp.reactive;
+
+import com.todoapp.exception.InvalidRequestException;
+import com.todoapp.idempotency.IdempotencyService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/** Request binding and response writing shared by the reactive handlers. */
+final class ReactiveRequests {
+
+    private static final List<String> LIST_QUERY_PARAMS = List.of("completed", "titlePrefix", "sort", "page", "size");
+
+    private ReactiveRequests() {
+    }
+
+    /** The request body, checked against its bean validation constraints as {@code @Valid} does. */
+    static <T> Mono<T> body(ServerRequest request, Class<T> type, Validator validator) {
+        return request.bodyToMono(type)
+            .switchIfEmpty(Mono.error(() -> new InvalidRequestException("Request body is required")))
+            .flatMap(body -> {
+                Set<ConstraintViolation<T>> violations = validator.validate(body);
+                return violations.isEmpty() ? Mono.just(body) : Mono.error(new ConstraintViolationException(violations));
+            });
+    }
+
+    static Long id(ServerRequest request, String name) {
+        String value = request.pathVariable(name);
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid " + name + ": " + value);
+        }
+    }
+
+    static boolean flag(ServerRequest request, String name) {
+        return request.queryParam(name).map(Boolean::parseBoolean).orElse(false);
+    }
+
+    // The reactive lists are streamed whole; answering these with every row would be wrong, not just slow
+    static void rejectListQuery(ServerRequest request) {
+        for (String name : LIST_QUERY_PARAMS) {
+            if (request.queryParam(name).isPresent()) {
+                throw new InvalidRequestException(name + " is not supported by the reactive API");
+            }
+        }
+    }
+
+    // Both ids=1,2,3 and ids=1&ids=2, like @RequestParam List<Long>
+    static List<Long> ids(ServerRequest request) {
+        List<Long> ids = new ArrayList<>();
+        for (String param : request.queryParams().getOrDefault("ids", List.of())) {
+            for (String id : param.split(",")) {
+                try {
+                    ids.add(Long.valueOf(id.trim()));
+                } catch (NumberFormatException ex) {
+                    throw new InvalidRequestException("Invalid id: " + id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Streams a list as newline-delimited JSON when the client accepts it,
+     * otherwise as one JSON array; either way items are encoded as they
+     * arrive from the database.
+     */
+    static <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> items, Class<T> type) {
+        boolean ndjson = request.headers().accept().stream()
+            .anyMatch(accepted -> accepted.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                && !accepted.isWildcardType());
+        MediaType contentType = ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(items, type);
+    }
+
+    /**
+     * Runs a create through {@link IdempotencyService}. It waits on the store
+     * between polls, so it runs on the bounded elastic scheduler rather than
+     * an event loop.
+     */
+    static <T> Mono<ServerResponse> created(ServerRequest request, IdempotencyService idempotencyService,
+            String scope, T body, Class<T> type, Supplier<Mono<T>> create) {
+        String key = request.headers().firstHeader(IdempotencyService.KEY_HEADER);
+        if (key == null) {
+            return create.get().flatMap(created -> ServerResponse.status(HttpStatus.CREATED).bodyValue(created));
+        }
+        return Mono.fromCallable(() -> idempotencyService.execute(scope, key, body, type,
+                () -> new ResponseEntity<>(create.get().block(), HttpStatus.CREATED)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(response -> ServerResponse.status(response.getStatusCode())
+                .headers(headers -> headers.addAll(response.getHeaders()))
+                .bodyValue(response.getBody()));
+    }
+}
@@ -0,0 +1,128 @@
+package com.todoapp.reactive;
+
+import com.todoapp.config.ConditionalOnReactiveApi;
+import com.todoapp.controller.TaskController;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.exception.InvalidRequestException;
+import com.todoapp.idempotency.IdempotencyService;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/** The endpoints of {@link TaskController} on the reactive API, without the SSE event stream. */
+@Component
+@ConditionalOnReactiveApi
+public class ReactiveTaskHandler {
+
+    private static final ParameterizedTypeReference<Map<String, Boolean>> STATUS_TYPE =
+        new ParameterizedTypeReference<>() {
+        };
+
+    private static final ParameterizedTypeReference<Map<String, Long>> POSITION_TYPE =
+        new ParameterizedTypeReference<>() {
+        };
+
+    @Autowired
+    private ReactiveTaskService reactiveTaskService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private Validator validator;
+
+    public Mono<ServerResponse> createTask(ServerRequest request) {
+        return ReactiveRequests.body(request, TaskDTO.class, validator)
+            .flatMap(taskDTO -> ReactiveRequests.created(request, idempotencyService, "tasks", taskDTO, TaskDTO.class,
+                () -> reactiveTaskService.createTask(taskDTO)));
+    }
+
+    public Mono<ServerResponse> getTasksByIds(ServerRequest request) {
+        return Mono.fromSupplier(() -> ReactiveRequests.ids(request))
+            .flatMap(reactiveTaskService::getTasksByIds)
+            .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    public Mono<ServerResponse> getTaskById(ServerRequest request) {
+        return reactiveTaskService.getTaskById(ReactiveRequests.id(request, "id"))
+            .flatMap(task -> ServerResponse.ok().bodyValue(task));
+    }
+
+    public Mono<ServerResponse> getAllTasks(ServerRequest request) {
+        ReactiveRequests.rejectListQuery(request);
+        return ReactiveRequests.list(request,
+            reactiveTaskService.getAllTasks(ReactiveRequests.flag(request, "includeArchived")), TaskDTO.class);
+    }
+
+    public Mono<ServerResponse> getAllTaskFields(ServerRequest request) {
+        ReactiveRequests.rejectListQuery(request);
+        return reactiveTaskService.getAllTaskFields(TaskField.parse(request.queryParam("fields").orElseThrow()))
+            .flatMap(tasks -> ServerResponse.ok().bodyValue(tasks));
+    }
+
+    public Mono<ServerResponse> getTasksByUserId(ServerRequest request) {
+        ReactiveRequests.rejectListQuery(request);
+        Long userId = ReactiveRequests.id(request, "userId");
+        boolean includeArchived = ReactiveRequests.flag(request, "includeArchived");
+        // Checked before the response is committed, so an unknown user is still a 404
+        return reactiveTaskService.requireUser(userId)
+            .then(ReactiveRequests.list(request, reactiveTaskService.getTasksByUserId(userId, includeArchived),
+                TaskDTO.class));
+    }
+
+    public Mono<ServerResponse> getTaskFieldsByUserId(ServerRequest request) {
+        ReactiveRequests.rejectListQuery(request);
+        return reactiveTaskService.getTaskFieldsByUserId(ReactiveRequests.id(request, "userId"),
+                TaskField.parse(request.queryParam("fields").orElseThrow()))
+            .flatMap(tasks -> ServerResponse.ok().bodyValue(tasks));
+    }
+
+    public Mono<ServerResponse> getTaskChanges(ServerRequest request) {
+        Long since = request.queryParam("since").map(ReactiveTaskHandler::since).orElse(0L);
+        return reactiveTaskService.getTaskChanges(ReactiveRequests.id(request, "userId"), since)
+            .flatMap(changes -> ServerResponse.ok().bodyValue(changes));
+    }
+
+    public Mono<ServerResponse> updateTask(ServerRequest request) {
+        Long id = ReactiveRequests.id(request, "id");
+        return ReactiveRequests.body(request, TaskDTO.class, validator)
+            .flatMap(taskDTO -> reactiveTaskService.updateTask(id, taskDTO))
+            .flatMap(task -> ServerResponse.ok().bodyValue(task));
+    }
+
+    public Mono<ServerResponse> updateTaskStatus(ServerRequest request) {
+        Long id = ReactiveRequests.id(request, "id");
+        return request.bodyToMono(STATUS_TYPE)
+            .defaultIfEmpty(Map.of())
+            .flatMap(status -> reactiveTaskService.updateTaskStatus(id, status.get("isCompleted")))
+            .flatMap(task -> ServerResponse.ok().bodyValue(task));
+    }
+
+    public Mono<ServerResponse> moveTask(ServerRequest request) {
+        Long id = ReactiveRequests.id(request, "id");
+        return request.bodyToMono(POSITION_TYPE)
+            .defaultIfEmpty(Map.of())
+            .flatMap(position -> reactiveTaskService.moveTask(id, position.get("afterId")))
+            .flatMap(task -> ServerResponse.ok().bodyValue(task));
+    }
+
+    public Mono<ServerResponse> deleteTask(ServerRequest request) {
+        return reactiveTaskService.deleteTask(ReactiveRequests.id(request, "id"))
+            .then(ServerResponse.noContent().build());
+    }
+
+    private static Long since(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid since: " + value);
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package com.todoapp.reactive;
+
+import com.todoapp.config.ConditionalOnReactiveApi;
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.dto.SparseTaskList;
+import com.todoapp.dto.TaskChangesDTO;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.event.TaskChangeEvent;
+import com.todoapp.event.TaskChangeFeed;
+import com.todoapp.exception.InvalidRequestException;
+import com.todoapp.exception.RequestTimeoutException;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskDescription;
+import com.todoapp.model.TaskTombstone;
+import com.todoapp.ordering.PositionKeys;
+import com.todoapp.ordering.PositionRebalancer;
+import com.todoapp.service.BatchLookup;
+import com.todoapp.service.TaskService;
+import com.todoapp.sharding.ShardContext;
+import com.todoapp.sync.ChangeWatermarks;
+import com.todoapp.sync.TaskChanges;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The task operations of {@link TaskService} over R2DBC. Same tables and
+ * rules: soft deletes, tombstones and the change sequence, the archive as
+ * fallback for reads by id, and writes moving an archived task back. Lists
+ * are streamed, fetched {@code todoapp.reactive.fetch-size} rows at a time
+ * as the client reads them. After commit, writes evict the servlet API's
+ * second-level cache entries and go to {@link TaskChangeFeed} subscribers.
+ */
+@Service
+@ConditionalOnReactiveApi
+@SuppressWarnings("null")
+public class ReactiveTaskService {
+
+    private static final String SELECT_TASKS = "SELECT t.id, t.title, t.description, t.is_completed, t.user_id,"
+        + " t.position, t.change_seq, d.content, d.compressed, d.raw_length FROM tasks t"
+        + " LEFT JOIN task_descriptions d ON d.id = t.description_id WHERE t.deleted_at IS NULL";
+
+    private static final String SELECT_ARCHIVED_TASKS = "SELECT t.id, t.title, t.description, TRUE AS is_completed,"
+        + " t.user_id, t.position, t.change_seq, d.content, d.compressed, d.raw_length FROM archived_tasks t"
+        + " LEFT JOIN task_descriptions d ON d.id = t.description_id WHERE t.deleted_at IS NULL";
+
+    private static final String LOCK_TASK = "SELECT id, user_id, is_completed, completed_at, description_id"
+        + " FROM tasks WHERE id = :id AND deleted_at IS NULL FOR UPDATE";
+
+    // The same row copy as ArchivedTaskRepository.copyToTasks
+    private static final String UNARCHIVE_TASK = "INSERT INTO tasks"
+        + " (id, title, description, description_id, is_completed, user_id, position, change_seq, completed_at)"
+        + " SELECT id, title, description, description_id, TRUE, user_id, position, change_seq, completed_at"
+        + " FROM archived_tasks WHERE id = :id AND deleted_at IS NULL";
+
+    private static final String LOCK_LAST_POSITIONED = "SELECT position FROM tasks WHERE user_id = :userId"
+        + " AND position IS NOT NULL AND deleted_at IS NULL ORDER BY position DESC, id DESC LIMIT 1 FOR UPDATE";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private SecondLevelCacheEviction cacheEviction;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
+    @Autowired
+    private PositionRebalancer positionRebalancer;
+
+    @Autowired
+    private ChangeWatermarks changeWatermarks;
+
+    @Value("${todoapp.reactive.fetch-size:256}")
+    private int fetchSize = 256;
+
+    @Value("${todoapp.sync.max-changes:500}")
+    private int maxChanges = 500;
+
+    @Value("${todoapp.multi-get.max-ids:500}")
+    private int multiGetMaxIds = 500;
+
+    @Value("${todoapp.multi-get.chunk-size:100}")
+    private int multiGetChunkSize = 100;
+
+    private volatile String nextChangeSeqSql;
+
+    public Mono<TaskDTO> createTask(TaskDTO taskDTO) {
+        Long userId = taskDTO.getUserId();
+        boolean completed = Boolean.TRUE.equals(taskDTO.getIsCompleted());
+        Mono<TaskDTO> create = lockUser(userId)
+            .then(Mono.zip(storeDescription(null, taskDTO.getDescription()), nextChangeSeq(), nextPosition(userId)))
+            .flatMap(stored -> {
+                GenericExecuteSpec insert = databaseClient.sql("INSERT INTO tasks (title, description,"
+                        + " description_id, is_completed, completed_at, user_id, position, change_seq) VALUES (:title,"
+                        + " :description, :descriptionId, :completed, :completedAt, :userId, :position, :changeSeq)")
+                    .bind("title", taskDTO.getTitle())
+                    .bind("completed", completed)
+                    .bind("userId", userId)
+                    .bind("position", stored.getT3())
+                    .bind("changeSeq", stored.getT2());
+                insert = bind(insert, "description", inline(taskDTO.getDescription()), String.class);
+                insert = bind(insert, "descriptionId", stored.getT1().orElse(null), Long.class);
+                insert = bind(insert, "completedAt", Task.completedAt(false, null, completed, System.currentTimeMillis()),
+                    Long.class);
+                return insert.filter(statement -> statement.returnGeneratedValues("id"))
+                    .map(row -> new TaskDTO(row.get("id", Long.class), taskDTO.getTitle(), taskDTO.getDescription(),
+                        completed, userId, stored.getT3()))
+                    .one();
+            });
+        return transactionalOperator.transactional(create)
+            .doOnNext(created -> changed(TaskChangeEvent.created(created)));
+    }
+
+    public Mono<TaskDTO> getTaskById(Long id) {
+        return findOne(SELECT_TASKS + " AND t.id = :id", id)
+            .switchIfEmpty(findOne(SELECT_ARCHIVED_TASKS + " AND t.id = :id", id))
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Task", id)));
+    }
+
+    public Mono<BatchResultDTO<TaskDTO>> getTasksByIds(List<Long> ids) {
+        return Mono.fromSupplier(() -> BatchLookup.uniqueIds(ids, multiGetMaxIds))
+            .flatMap(uniqueIds -> Flux.fromIterable(BatchLookup.chunks(uniqueIds, multiGetChunkSize))
+                .concatMap(this::loadTasks)
+                .collectMap(TaskDTO::getId)
+                .map(found -> BatchLookup.inRequestOrder(uniqueIds, found)));
+    }
+
+    public Flux<TaskDTO> getAllTasks(boolean includeArchived) {
+        Flux<TaskDTO> tasks = stream(databaseClient.sql(SELECT_TASKS));
+        return includeArchived ? tasks.concatWith(stream(databaseClient.sql(SELECT_ARCHIVED_TASKS))) : tasks;
+    }
+
+    /** Streams a user's tasks; callers check the user with {@link #requireUser} before the response starts. */
+    public Flux<TaskDTO> getTasksByUserId(Long userId, boolean includeArchived) {
+        Flux<TaskDTO> tasks = stream(databaseClient
+            .sql(SELECT_TASKS + " AND t.user_id = :userId ORDER BY t.position, t.id")
+            .bind("userId", userId));
+        if (!includeArchived) {
+            return tasks;
+        }
+        return tasks.concatWith(stream(databaseClient.sql(SELECT_ARCHIVED_TASKS + " AND t.user_id = :userId")
+            .bind("userId", userId)));
+    }
+
+    // The sparse wrapper serializes as one object, so these are collected rather than streamed
+    public Mono<SparseTaskList> getAllTaskFields(Set<TaskField> fields) {
+        return getAllTasks(false).collectList().map(tasks -> new SparseTaskList(fields, tasks));
+    }
+
+    public Mono<SparseTaskList> getTaskFieldsByUserId(Long userId, Set<TaskField> fields) {
+        return requireUser(userId)
+            .then(getTasksByUserId(userId, false).collectList())
+            .map(tasks -> new SparseTaskList(fields, tasks));
+    }
+
+    public Mono<TaskChangesDTO> getTaskChanges(Long userId, Long since) {
+        long watermark = since != null ? since : 0L;
+        // Taken before the rows are read, as in TaskService
+        long safeBound = changeWatermarks.safeBound(ShardContext.PRIMARY);
+        Mono<List<ChangedTask>> changedTasks = databaseClient.sql(SELECT_TASKS
+                + " AND t.user_id = :userId AND t.change_seq > :since ORDER BY t.change_seq LIMIT :limit")
+            .bind("userId", userId)
+            .bind("since", watermark)
+            .bind("limit", maxChanges + 1)
+            .map(row -> new ChangedTask(row.get("change_seq", Long.class), toDTO(row)))
+            .all()
+            .collectList();
+        Mono<List<TaskTombstone>> tombstones = databaseClient.sql("SELECT change_seq, task_id FROM task_tombstones"
+                + " WHERE user_id = :userId AND change_seq > :since ORDER BY change_seq LIMIT :limit")
+            .bind("userId", userId)
+            .bind("since", watermark)
+            .bind("limit", maxChanges + 1)
+            .map(row -> new TaskTombstone(row.get("change_seq", Long.class), row.get("task_id", Long.class), userId))
+            .all()
+            .collectList();
+        return requireUser(userId)
+            .then(Mono.zip(changedTasks, tombstones))
+            .map(changes -> TaskChanges.merge(changes.getT1(), ChangedTask::changeSeq, ChangedTask::task,
+                changes.getT2(), watermark, safeBound, maxChanges));
+    }
+
+    public Mono<TaskDTO> updateTask(Long id, TaskDTO taskDTO) {
+        boolean completed = Boolean.TRUE.equals(taskDTO.getIsCompleted());
+        // Paired with the description row the update may have rewritten in place, whose cached body is then stale
+        Mono<Tuple2<TaskDTO, Optional<Long>>> update = lockTask(id).flatMap(current ->
+            storeDescription(current.descriptionId(), taskDTO.getDescription())
+                .zipWith(nextChangeSeq())
+                .flatMap(stored -> {
+                    GenericExecuteSpec statement = databaseClient.sql("UPDATE tasks SET title = :title,"
+                            + " description = :description, description_id = :descriptionId, is_completed = :completed,"
+                            + " completed_at = :completedAt, change_seq = :changeSeq WHERE id = :id")
+                        .bind("id", id)
+                        .bind("title", taskDTO.getTitle())
+                        .bind("completed", completed)
+                        .bind("changeSeq", stored.getT2());
+                    statement = bind(statement, "description", inline(taskDTO.getDescription()), String.class);
+                    statement = bind(statement, "descriptionId", stored.getT1().orElse(null), Long.class);
+                    statement = bind(statement, "completedAt", current.completedAt(completed), Long.class);
+                    return statement.then().then(dropDescription(current.descriptionId(), stored.getT1()));
+                })
+                .then(findOne(SELECT_TASKS + " AND t.id = :id", id))
+                .zipWith(Mono.just(Optional.ofNullable(current.descriptionId()))));
+        return transactionalOperator.transactional(update)
+            .doOnNext(updated -> {
+                updated.getT2().ifPresent(cacheEviction::description);
+                changed(TaskChangeEvent.updated(updated.getT1()));
+            })
+            .map(Tuple2::getT1);
+    }
+
+    public Mono<TaskDTO> updateTaskStatus(Long id, Boolean isCompleted) {
+        boolean completed = Boolean.TRUE.equals(isCompleted);
+        Mono<TaskDTO> update = lockTask(id).flatMap(current -> nextChangeSeq()
+            .flatMap(changeSeq -> bind(databaseClient.sql("UPDATE tasks SET is_completed = :completed,"
+                        + " completed_at = :completedAt, change_seq = :changeSeq WHERE id = :id")
+                    .bind("id", id)
+                    .bind("completed", completed)
+                    .bind("changeSeq", changeSeq), "completedAt", current.completedAt(completed), Long.class)
+                .then())
+            .then(findOne(SELECT_TASKS + " AND t.id = :id", id)));
+        return transactionalOperator.transactional(update)
+            .doOnNext(updated -> changed(TaskChangeEvent.updated(updated)));
+    }
+
+    /**
+     * {@link TaskService#moveTask}. A move that needs its list rebalanced
+     * first queues the rebalance and is refused until it has run.
+     */
+    public Mono<TaskDTO> moveTask(Long id, Long afterId) {
+        if (id.equals(afterId)) {
+            return Mono.error(new InvalidRequestException("A task cannot be moved after itself"));
+        }
+        Mono<TaskDTO> move = lockTask(id).flatMap(current -> lockAnchor(afterId, current.userId())
+            .flatMap(before -> databaseClient.sql("SELECT position FROM tasks WHERE user_id = :userId"
+                    + " AND position > :position AND id <> :id AND deleted_at IS NULL ORDER BY position LIMIT 1")
+                .bind("userId", current.userId())
+                .bind("position", before.orElse(""))
+                .bind("id", id)
+                .map(row -> row.get("position", String.class))
+                .one()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(after -> PositionKeys.between(before.orElse(null), after.orElse(null))))
+            .filter(position -> position.length() <= Task.MAX_POSITION_LENGTH)
+            .switchIfEmpty(Mono.error(() -> {
+                positionRebalancer.request(current.userId());
+                return new RequestTimeoutException("Tasks of user " + current.userId() + " are being reordered,"
+                    + " retry the move");
+            }))
+            .doOnNext(position -> {
+                if (positionRebalancer.isTooLong(position)) {
+                    positionRebalancer.request(current.userId());
+                }
+            })
+            .zipWith(nextChangeSeq())
+            .flatMap(update -> databaseClient.sql("UPDATE tasks SET position = :position, change_seq = :changeSeq"
+                    + " WHERE id = :id")
+                .bind("position", update.getT1())
+                .bind("changeSeq", update.getT2())
+                .bind("id", id)
+                .then())
+            .then(findOne(SELECT_TASKS + " AND t.id = :id", id)));
+        return transactionalOperator.transactional(move)
+            .doOnNext(moved -> changed(TaskChangeEvent.updated(moved)));
+    }
+
+    public Mono<Void> deleteTask(Long id) {
+        Mono<LockedTask> delete = lockTask(id).flatMap(current -> databaseClient
+            .sql("UPDATE tasks SET deleted_at = :now WHERE id = :id AND deleted_at IS NULL")
+            .bind("now", System.currentTimeMillis())
+            .bind("id", id)
+            .then()
+            .then(nextChangeSeq())
+            .flatMap(changeSeq -> databaseClient
+                .sql("INSERT INTO task_tombstones (change_seq, task_id, user_id) VALUES (:changeSeq, :taskId, :userId)")
+                .bind("changeSeq", changeSeq)
+                .bind("taskId", id)
+                .bind("userId", current.userId())
+                .then())
+            .thenReturn(current));
+        return transactionalOperator.transactional(delete)
+            .doOnNext(deleted -> changed(TaskChangeEvent.deleted(deleted.userId(), id)))
+            .then();
+    }
+
+    /** Soft-deletes a user's tasks, hot and archived; runs in the caller's transaction. */
+    Mono<Void> deleteTasksOfUser(Long userId, long now) {
+        return databaseClient.sql("UPDATE tasks SET deleted_at = :now WHERE user_id = :userId AND deleted_at IS NULL")
+            .bind("now", now)
+            .bind("userId", userId)
+            .then()
+            .then(databaseClient
+                .sql("UPDATE archived_tasks SET deleted_at = :now WHERE user_id = :userId AND deleted_at IS NULL")
+                .bind("now", now)
+                .bind("userId", userId)
+                .then());
+    }
+
+    public Mono<Void> requireUser(Long userId) {
+        return databaseClient.sql("SELECT id FROM users WHERE id = :id AND deleted_at IS NULL")
+            .bind("id", userId)
+            .map(row -> row.get("id", Long.class))
+            .first()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", userId)))
+            .then();
+    }
+
+    // Share-locks the user as TaskService.createTask does, so a concurrent deleteUser cannot miss the new task
+    private Mono<Void> lockUser(Long userId) {
+        boolean postgres = "PostgreSQL".equals(connectionFactory.getMetadata().getName());
+        return databaseClient.sql("SELECT id FROM users WHERE id = :id AND deleted_at IS NULL"
+                + (postgres ? " FOR SHARE" : " FOR UPDATE"))
+            .bind("id", userId)
+            .map(row -> row.get("id", Long.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", userId)))
+            .then();
+    }
+
+    private Flux<TaskDTO> loadTasks(List<Long> ids) {
+        return stream(databaseClient.sql(SELECT_TASKS + " AND t.id IN (:ids)").bind("ids", ids))
+            .collectList()
+            .flatMapMany(tasks -> {
+                Set<Long> found = tasks.stream().map(TaskDTO::getId).collect(Collectors.toSet());
+                List<Long> missing = ids.stream().filter(id -> !found.contains(id)).toList();
+                if (missing.isEmpty()) {
+                    return Flux.fromIterable(tasks);
+                }
+                return Flux.fromIterable(tasks).concatWith(stream(databaseClient
+                    .sql(SELECT_ARCHIVED_TASKS + " AND t.id IN (:ids)").bind("ids", missing)));
+            });
+    }
+
+    // Locks the task row for writing, moving it back from the archive first if needed
+    private Mono<LockedTask> lockTask(Long id) {
+        Mono<LockedTask> lock = databaseClient.sql(LOCK_TASK)
+            .bind("id", id)
+            .map(row -> new LockedTask(row.get("user_id", Long.class), row.get("is_completed", Boolean.class),
+                row.get("completed_at", Long.class), row.get("description_id", Long.class)))
+            .one();
+        Mono<Void> unarchive = databaseClient.sql(UNARCHIVE_TASK)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated()
+            .filter(copied -> copied > 0)
+            .flatMap(copied -> databaseClient.sql("DELETE FROM archived_tasks WHERE id = :id").bind("id", id).then());
+        return lock.switchIfEmpty(unarchive.then(lock))
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Task", id)));
+    }
+
+    // The locked position of the task a move goes after; empty when it has none, which needs a rebalance
+    private Mono<Optional<String>> lockAnchor(Long afterId, Long userId) {
+        if (afterId == null) {
+            return Mono.just(Optional.empty());
+        }
+        return databaseClient.sql("SELECT position FROM tasks WHERE id = :id AND user_id = :userId"
+                + " AND deleted_at IS NULL FOR UPDATE")
+            .bind("id", afterId)
+            .bind("userId", userId)
+            .map(row -> Optional.ofNullable(row.get("position", String.class)))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Task", afterId)))
+            .filter(Optional::isPresent);
+    }
+
+    // Locking the last task makes concurrent appends to one list take distinct keys
+    private Mono<String> nextPosition(Long userId) {
+        return databaseClient.sql(LOCK_LAST_POSITIONED)
+            .bind("userId", userId)
+            .map(row -> PositionKeys.between(row.get("position", String.class), null))
+            .one()
+            .defaultIfEmpty(PositionKeys.FIRST);
+    }
+
+    /**
+     * Puts a description that is too long to stay inline into its own row,
+     * reusing the task's current one; empty when it stays inline.
+     */
+    private Mono<Optional<Long>> storeDescription(Long currentId, String description) {
+        if (description == null || description.length() <= Task.INLINE_DESCRIPTION_LIMIT) {
+            return Mono.just(Optional.empty());
+        }
+        TaskDescription encoded = TaskDescription.of(description);
+        if (currentId != null) {
+            return databaseClient.sql("UPDATE task_descriptions SET content = :content, compressed = :compressed,"
+                    + " raw_length = :rawLength WHERE id = :id")
+                .bind("content", encoded.getContent())
+                .bind("compressed", encoded.getCompressed())
+                .bind("rawLength", encoded.getRawLength())
+                .bind("id", currentId)
+                .then()
+                .thenReturn(Optional.of(currentId));
+        }
+        return databaseClient.sql("INSERT INTO task_descriptions (content, compressed, raw_length)"
+                + " VALUES (:content, :compressed, :rawLength)")
+            .bind("content", encoded.getContent())
+            .bind("compressed", encoded.getCompressed())
+            .bind("rawLength", encoded.getRawLength())
+            .filter(statement -> statement.returnGeneratedValues("id"))
+            .map(row -> Optional.of(row.get("id", Long.class)))
+            .one();
+    }
+
+    // Deletes the description row the task stopped using, as orphan removal does for the entity
+    private Mono<Void> dropDescription(Long currentId, Optional<Long> stored) {
+        if (currentId == null || stored.isPresent()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql("DELETE FROM task_descriptions WHERE id = :id").bind("id", currentId).then();
+    }
+
+    private Mono<Long> nextChangeSeq() {
+        return databaseClient.sql(nextChangeSeqSql())
+            .map(row -> row.get(0, Long.class))
+            .one();
+    }
+
+    private String nextChangeSeqSql() {
+        String sql = nextChangeSeqSql;
+        if (sql == null) {
+            sql = "PostgreSQL".equals(connectionFactory.getMetadata().getName())
+                ? "SELECT nextval('" + TaskTombstone.CHANGE_SEQUENCE + "')"
+                : "SELECT NEXT VALUE FOR " + TaskTombstone.CHANGE_SEQUENCE;
+            nextChangeSeqSql = sql;
+        }
+        return sql;
+    }
+
+    private Mono<TaskDTO> findOne(String sql, Long id) {
+        return databaseClient.sql(sql).bind("id", id).map(ReactiveTaskService::toDTO).one();
+    }
+
+    private Flux<TaskDTO> stream(GenericExecuteSpec query) {
+        return query.filter(statement -> statement.fetchSize(fetchSize))
+            .map(ReactiveTaskService::toDTO)
+            .all();
+    }
+
+    private void changed(TaskChangeEvent event) {
+        cacheEviction.task(event.taskId());
+        taskChangeFeed.onTaskChange(event);
+    }
+
+    private static TaskDTO toDTO(Readable row) {
+        String description = row.get("description", String.class);
+        if (description == null) {
+            ByteBuffer content = row.get("content", ByteBuffer.class);
+            if (content != null) {
+                byte[] bytes = new byte[content.remaining()];
+                content.get(bytes);
+                description = TaskDescription.decode(bytes, row.get("compressed", Boolean.class),
+                    row.get("raw_length", Integer.class));
+            }
+        }
+        return new TaskDTO(row.get("id", Long.class), row.get("title", String.class), description,
+            row.get("is_completed", Boolean.class), row.get("user_id", Long.class), row.get("position", String.class));
+    }
+
+    private static String inline(String description) {
+        return description != null && description.length() <= Task.INLINE_DESCRIPTION_LIMIT ? description : null;
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private record ChangedTask(long changeSeq, TaskDTO task) {
+    }
+
+    private record LockedTask(Long userId, Boolean completed, Long completedAt, Long descriptionId) {
+
+        Long completedAt(boolean nowCompleted) {
+            return Task.completedAt(completed, completedAt, nowCompleted, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.todoapp.reactive;
+
+import com.todoapp.config.ConditionalOnReactiveApi;
+import com.todoapp.controller.UserController;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.idempotency.IdempotencyService;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/** The endpoints of {@link UserController} on the reactive API. */
+@Component
+@ConditionalOnReactiveApi
+public class ReactiveUserHandler {
+
+    @Autowired
+    private ReactiveUserService reactiveUserService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private Validator validator;
+
+    public Mono<ServerResponse> createUser(ServerRequest request) {
+        return ReactiveRequests.body(request, UserDTO.class, validator)
+            .flatMap(userDTO -> ReactiveRequests.created(request, idempotencyService, "users", userDTO, UserDTO.class,
+                () -> reactiveUserService.createUser(userDTO)));
+    }
+
+    public Mono<ServerResponse> getUsersByIds(ServerRequest request) {
+        return Mono.fromSupplier(() -> ReactiveRequests.ids(request))
+            .flatMap(reactiveUserService::getUsersByIds)
+            .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        return reactiveUserService.getUserById(ReactiveRequests.id(request, "id"))
+            .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    public Mono<ServerResponse> getAllUsers(ServerRequest request) {
+        return ReactiveRequests.list(request, reactiveUserService.getAllUsers(), UserDTO.class);
+    }
+
+    public Mono<ServerResponse> updateUser(ServerRequest request) {
+        Long id = ReactiveRequests.id(request, "id");
+        return ReactiveRequests.body(request, UserDTO.class, validator)
+            .flatMap(userDTO -> reactiveUserService.updateUser(id, userDTO))
+            .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    public Mono<ServerResponse> deleteUser(ServerRequest request) {
+        return reactiveUserService.deleteUser(ReactiveRequests.id(request, "id"))
+            .then(ServerResponse.noContent().build());
+    }
+}
@@ -0,0 +1,151 @@
+package com.todoapp.reactive;
+
+import com.todoapp.config.ConditionalOnReactiveApi;
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.exception.DuplicateResourceException;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.service.BatchLookup;
+import com.todoapp.service.UserService;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/** The user operations of {@link UserService} over R2DBC. */
+@Service
+@ConditionalOnReactiveApi
+@SuppressWarnings("null")
+public class ReactiveUserService {
+
+    private static final String SELECT_USERS = "SELECT id, name, email FROM users WHERE deleted_at IS NULL";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ReactiveTaskService reactiveTaskService;
+
+    @Autowired
+    private SecondLevelCacheEviction cacheEviction;
+
+    @Value("${todoapp.reactive.fetch-size:256}")
+    private int fetchSize = 256;
+
+    @Value("${todoapp.multi-get.max-ids:500}")
+    private int multiGetMaxIds = 500;
+
+    @Value("${todoapp.multi-get.chunk-size:100}")
+    private int multiGetChunkSize = 100;
+
+    public Mono<UserDTO> createUser(UserDTO userDTO) {
+        Mono<UserDTO> create = rejectTakenEmail(userDTO.getEmail())
+            .then(releaseDeletedEmail(userDTO.getEmail()))
+            .then(databaseClient.sql("INSERT INTO users (name, email) VALUES (:name, :email)")
+                .bind("name", userDTO.getName())
+                .bind("email", userDTO.getEmail())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one())
+            .map(id -> new UserDTO(id, userDTO.getName(), userDTO.getEmail()));
+        return transactionalOperator.transactional(create)
+            .onErrorMap(DataIntegrityViolationException.class, ex -> duplicate(userDTO.getEmail()));
+    }
+
+    public Mono<UserDTO> getUserById(Long id) {
+        return databaseClient.sql(SELECT_USERS + " AND id = :id")
+            .bind("id", id)
+            .map(ReactiveUserService::toDTO)
+            .one()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", id)));
+    }
+
+    public Mono<BatchResultDTO<UserDTO>> getUsersByIds(List<Long> ids) {
+        return Mono.fromSupplier(() -> BatchLookup.uniqueIds(ids, multiGetMaxIds))
+            .flatMap(uniqueIds -> Flux.fromIterable(BatchLookup.chunks(uniqueIds, multiGetChunkSize))
+                .concatMap(chunk -> databaseClient.sql(SELECT_USERS + " AND id IN (:ids)")
+                    .bind("ids", chunk)
+                    .map(ReactiveUserService::toDTO)
+                    .all())
+                .collectMap(UserDTO::getId)
+                .map(found -> BatchLookup.inRequestOrder(uniqueIds, found)));
+    }
+
+    public Flux<UserDTO> getAllUsers() {
+        return databaseClient.sql(SELECT_USERS)
+            .filter(statement -> statement.fetchSize(fetchSize))
+            .map(ReactiveUserService::toDTO)
+            .all();
+    }
+
+    public Mono<UserDTO> updateUser(Long id, UserDTO userDTO) {
+        Mono<UserDTO> update = databaseClient.sql("SELECT email FROM users WHERE id = :id AND deleted_at IS NULL"
+                + " FOR UPDATE")
+            .bind("id", id)
+            .map(row -> row.get("email", String.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", id)))
+            .flatMap(email -> email.equals(userDTO.getEmail())
+                ? Mono.empty()
+                : rejectTakenEmail(userDTO.getEmail()).then(releaseDeletedEmail(userDTO.getEmail())))
+            .then(databaseClient.sql("UPDATE users SET name = :name, email = :email WHERE id = :id")
+                .bind("name", userDTO.getName())
+                .bind("email", userDTO.getEmail())
+                .bind("id", id)
+                .then())
+            .thenReturn(new UserDTO(id, userDTO.getName(), userDTO.getEmail()));
+        return transactionalOperator.transactional(update)
+            .onErrorMap(DataIntegrityViolationException.class, ex -> duplicate(userDTO.getEmail()))
+            .doOnNext(updated -> cacheEviction.user(id));
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        long now = System.currentTimeMillis();
+        // Locked as in UserService.deleteUser, so it waits for task inserts holding the user's share lock
+        Mono<Void> delete = databaseClient.sql("SELECT id FROM users WHERE id = :id AND deleted_at IS NULL FOR UPDATE")
+            .bind("id", id)
+            .map(row -> row.get("id", Long.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", id)))
+            .then(reactiveTaskService.deleteTasksOfUser(id, now))
+            .then(databaseClient.sql("UPDATE users SET deleted_at = :now WHERE id = :id AND deleted_at IS NULL")
+                .bind("now", now)
+                .bind("id", id)
+                .then());
+        return transactionalOperator.transactional(delete)
+            .doOnSuccess(done -> cacheEviction.tasksAndUser(id));
+    }
+
+    private Mono<Void> rejectTakenEmail(String email) {
+        return databaseClient.sql("SELECT COUNT(*) FROM users WHERE email = :email AND deleted_at IS NULL")
+            .bind("email", email)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .flatMap(count -> count > 0 ? Mono.error(duplicate(email)) : Mono.<Void>empty());
+    }
+
+    // A soft-deleted user still holds its unique email until purged; a new owner takes it over
+    private Mono<Void> releaseDeletedEmail(String email) {
+        return databaseClient.sql("DELETE FROM users WHERE email = :email AND deleted_at IS NOT NULL")
+            .bind("email", email)
+            .then();
+    }
+
+    private static DuplicateResourceException duplicate(String email) {
+        return new DuplicateResourceException("User with email " + email + " already exists");
+    }
+
+    private static UserDTO toDTO(Readable row) {
+        return new UserDTO(row.get("id", Long.class), row.get("name", String.class), row.get("email", String.class));
+    }
+}
@@ -0,0 +1,48 @@
+package com.todoapp.reactive;
+
+import com.todoapp.config.CacheConfig;
+import com.todoapp.config.ConditionalOnReactiveApi;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskDescription;
+import com.todoapp.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops what a reactive write made stale from the Hibernate second-level
+ * cache, which the servlet API in the same process would otherwise keep
+ * serving until the entries expire. Called after commit.
+ */
+@Component
+@ConditionalOnReactiveApi
+class SecondLevelCacheEviction {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    void task(Long id) {
+        entityManagerFactory.getCache().evict(Task.class, id);
+        tasksByUser();
+    }
+
+    void tasksAndUser(Long userId) {
+        entityManagerFactory.getCache().evict(Task.class);
+        entityManagerFactory.getCache().evict(User.class, userId);
+        tasksByUser();
+    }
+
+    void description(Long id) {
+        entityManagerFactory.getCache().evict(TaskDescription.class, id);
+    }
+
+    void user(Long id) {
+        entityManagerFactory.getCache().evict(User.class, id);
+    }
+
+    // Cached lists are checked against Hibernate's own table timestamps, which R2DBC writes do not bump
+    private void tasksByUser() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(CacheConfig.TASKS_BY_USER_REGION);
+    }
+}
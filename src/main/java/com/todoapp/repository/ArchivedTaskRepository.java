@@ -0,0 +1,48 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.ArchivedTask;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads of the archive, and the writes that bring a task back from it. Tasks
+ * only go into the archive through {@link TaskArchiveRepository}.
+ */
+@Repository
+public interface ArchivedTaskRepository extends org.springframework.data.repository.Repository<ArchivedTask, Long> {
+
+    Optional<ArchivedTask> findById(Long id);
+
+    boolean existsById(Long id);
+
+    List<ArchivedTask> findAll();
+
+    List<ArchivedTask> findAllById(Iterable<Long> ids);
+
+    List<ArchivedTask> findByUserId(Long userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tasks"))
+    @Query(value = "INSERT INTO tasks"
+        + " (id, title, description, description_id, is_completed, user_id, position, change_seq, completed_at)"
+        + " SELECT id, title, description, description_id, TRUE, user_id, position, change_seq, completed_at"
+        + " FROM archived_tasks WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int copyToTasks(@Param("id") Long id);
+
+    // Bulk delete: leaves the description row alone for the restored task to keep using
+    @Modifying
+    @Query("DELETE FROM ArchivedTask a WHERE a.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE ArchivedTask a SET a.deletedAt = :now WHERE a.userId = :userId AND a.deletedAt IS NULL")
+    int softDeleteByUserId(@Param("userId") Long userId, @Param("now") long now);
+}
@@ -0,0 +1,18 @@
+package com.todoapp.repository;
+
+/**
+ * Hands out values of the shared task change sequence. Task rows and
+ * tombstones draw from the same sequence so a single watermark orders both.
+ */
+public interface ChangeSequence {
+    long next();
+
+    /** The next count values, drawn in one round trip where the store allows it. */
+    default long[] next(int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = next();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,81 @@
+package com.todoapp.repository;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.model.TaskTombstone;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The change sequence as a database sequence, read through the dialect's
+ * next-value statement. Blocks of values come from one query over a row
+ * generator on PostgreSQL and H2.
+ */
+@Component
+@ConditionalOnJpaStorage
+public class JpaChangeSequence implements ChangeSequence {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String nextValueSql;
+
+    private volatile String nextValuesSql;
+
+    @Override
+    public long next() {
+        Number value = (Number) entityManager.createNativeQuery(nextValueSql()).getSingleResult();
+        return value.longValue();
+    }
+
+    @Override
+    public long[] next(int count) {
+        String sql = nextValuesSql();
+        if (sql.isEmpty()) {
+            return ChangeSequence.super.next(count);
+        }
+        List<?> rows = entityManager.createNativeQuery(sql).setParameter(1, count).getResultList();
+        long[] values = new long[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((Number) rows.get(i)).longValue();
+        }
+        return values;
+    }
+
+    private String nextValueSql() {
+        String sql = nextValueSql;
+        if (sql == null) {
+            sql = dialect().getSequenceSupport().getSequenceNextValString(TaskTombstone.CHANGE_SEQUENCE);
+            nextValueSql = sql;
+        }
+        return sql;
+    }
+
+    // Empty when the database has no row generator this knows of
+    private String nextValuesSql() {
+        String sql = nextValuesSql;
+        if (sql == null) {
+            Dialect dialect = dialect();
+            String rows = dialect instanceof PostgreSQLDialect ? "generate_series(1, ?1)"
+                : dialect instanceof H2Dialect ? "system_range(1, ?1)"
+                : null;
+            sql = rows == null ? "" : "SELECT " + dialect.getSequenceSupport()
+                .getSelectSequenceNextValString(TaskTombstone.CHANGE_SEQUENCE) + " FROM " + rows;
+            nextValuesSql = sql;
+        }
+        return sql;
+    }
+
+    private Dialect dialect() {
+        return entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect();
+    }
+}
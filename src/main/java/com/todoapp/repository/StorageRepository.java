@@ -0,0 +1,35 @@
+package com.todoapp.repository;
+
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The CRUD operations the services use, served by Spring Data JPA and by the
+ * in-memory engine alike. Repositories that both engines implement extend
+ * this rather than JpaRepository, whose sorting, paging and query by example
+ * the in-memory engine could only refuse.
+ */
+@NoRepositoryBean
+public interface StorageRepository<T> extends Repository<T, Long> {
+
+    <S extends T> S save(S entity);
+
+    <S extends T> List<S> saveAll(Iterable<S> entities);
+
+    Optional<T> findById(Long id);
+
+    boolean existsById(Long id);
+
+    List<T> findAll();
+
+    List<T> findAllById(Iterable<Long> ids);
+
+    long count();
+
+    void deleteById(Long id);
+
+    void deleteAll();
+}
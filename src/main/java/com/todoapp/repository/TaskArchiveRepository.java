@@ -0,0 +1,49 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.ArchivedTask;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The statements of {@link com.todoapp.archive.TaskArchiver}, which moves
+ * old completed tasks into the archive. JPA only: the in-memory engine
+ * keeps no archive.
+ */
+@Repository
+public interface TaskArchiveRepository extends org.springframework.data.repository.Repository<ArchivedTask, Long> {
+
+    // Locks the chunk so a concurrent status change waits until the move has committed
+    @Query(value = "SELECT id FROM tasks WHERE is_completed = TRUE AND completed_at < :cutoff"
+        + " AND deleted_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("cutoff") long cutoff, @Param("limit") int limit);
+
+    // Completed before completed_at existed: dated when first seen, so they are archived a full max age later
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tasks"))
+    @Query(value = "UPDATE tasks SET completed_at = :now WHERE id IN (SELECT id FROM tasks WHERE is_completed = TRUE"
+        + " AND completed_at IS NULL AND deleted_at IS NULL ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int backfillCompletedAt(@Param("now") long now, @Param("limit") int limit);
+
+    @Query("SELECT MIN(t.completedAt) FROM Task t WHERE t.isCompleted = true AND t.completedAt < :cutoff")
+    Long findOldestArchivableCompletedAt(@Param("cutoff") long cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids")
+    int deleteRowsByIdIn(@Param("ids") List<Long> ids);
+
+    // Native writes name the tables they touch; otherwise Hibernate clears the whole second-level cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_tasks"))
+    @Query(value = "INSERT INTO archived_tasks"
+        + " (id, title, description, description_id, user_id, position, change_seq, completed_at, archived_at)"
+        + " SELECT id, title, description, description_id, user_id, position, change_seq, completed_at, :now"
+        + " FROM tasks WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromTasks(@Param("ids") List<Long> ids, @Param("now") long now);
+}
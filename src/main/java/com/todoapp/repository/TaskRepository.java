@@ -1,13 +1,84 @@
 package com.todoapp.repository;
 
+import com.todoapp.config.CacheConfig;
 import com.todoapp.model.Task;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Long descriptions stay lazy in every query here. A list that reads them
+ * loads them in batches of 100 from the second-level cache or the database,
+ * so one that does not, or whose bodies are cached, never pays for them.
+ */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByUserId(Long userId);
+public interface TaskRepository extends StorageRepository<Task>, TaskRepositoryCustom {
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.TASKS_BY_USER_REGION)
+    })
+    // The user's list order, read straight from idx_tasks_user_position
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId ORDER BY t.position, t.id")
+    List<Task> findByUserId(@Param("userId") Long userId);
+
     List<Task> findByUserIdAndIsCompleted(Long userId, Boolean isCompleted);
+
+    // Position writes lock the rows whose keys they read, so a move or append never interleaves with a rebalance
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId ORDER BY t.position, t.id")
+    List<Task> lockByUserId(@Param("userId") Long userId);
+
+    // Writes lock the row before reading it, so one racing the archiver finds the task in whichever table it ended up
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.id = :id")
+    Optional<Task> lockById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.id IN :ids")
+    List<Task> lockByIdIn(@Param("ids") List<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.position IS NOT NULL"
+        + " ORDER BY t.position DESC, t.id DESC")
+    List<Task> lockLastPositioned(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT t.position FROM Task t WHERE t.user.id = :userId AND t.position > :position AND t.id <> :excludedId"
+        + " ORDER BY t.position")
+    List<String> findPositionsAfter(@Param("userId") Long userId, @Param("position") String position,
+        @Param("excludedId") Long excludedId, Limit limit);
+
+    // Tasks from before positions existed
+    @Query("SELECT DISTINCT t.user.id FROM Task t WHERE t.position IS NULL")
+    List<Long> findUserIdsWithUnpositionedTasks(Limit limit);
+
+    // Tasks from before change_seq existed, which the changes feed cannot return until they get a value
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.changeSeq IS NULL ORDER BY t.id")
+    List<Task> lockWithoutChangeSeq(Limit limit);
+
+    // Keyset paging for full scans; a scan would otherwise push every task through the second-level cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    List<Task> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Task> findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(
+        Long userId, Long changeSeq, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Task t SET t.deletedAt = :now WHERE t.id = :id AND t.deletedAt IS NULL")
+    int softDelete(@Param("id") Long id, @Param("now") long now);
+
+    @Modifying
+    @Query("UPDATE Task t SET t.deletedAt = :now WHERE t.user.id = :userId AND t.deletedAt IS NULL")
+    int softDeleteByUserId(@Param("userId") Long userId, @Param("now") long now);
 }
@@ -0,0 +1,24 @@
+package com.todoapp.repository;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.model.Task;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+public interface TaskRepositoryCustom {
+    List<TaskDTO> findFields(Set<TaskField> fields);
+    List<TaskDTO> findFieldsByUserId(Long userId, Set<TaskField> fields);
+
+    /** Tasks matching every given criterion, a null one matching all; sorted and paged in SQL. */
+    List<Task> findFiltered(Long userId, Boolean completed, String titlePrefix, Pageable pageable);
+
+    /**
+     * {@link #findFiltered} reading only the given fields. Fields the sort
+     * orders by are read too, so pages from several shards can be merged.
+     */
+    List<TaskDTO> findFilteredFields(Long userId, Set<TaskField> fields, Boolean completed, String titlePrefix,
+        Pageable pageable);
+}
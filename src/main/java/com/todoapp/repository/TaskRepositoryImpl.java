@@ -0,0 +1,162 @@
+package com.todoapp.repository;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskDescription;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects only the requested task columns, so unrequested ones (notably the
+ * description body) are never read from the database. Descriptions are
+ * resolved from the inline column or, when long, from task_descriptions.
+ * Filtered lists compose {@link TaskSpecifications} into one query.
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    private static final String EXTERNAL_CONTENT = "externalContent";
+    private static final String EXTERNAL_COMPRESSED = "externalCompressed";
+    private static final String EXTERNAL_RAW_LENGTH = "externalRawLength";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskDTO> findFields(Set<TaskField> fields) {
+        return findFields(null, fields);
+    }
+
+    @Override
+    public List<TaskDTO> findFieldsByUserId(Long userId, Set<TaskField> fields) {
+        return findFields(userId, fields);
+    }
+
+    @Override
+    public List<Task> findFiltered(Long userId, Boolean completed, String titlePrefix, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> task = query.from(Task.class);
+        filter(query, task, cb, userId, completed, titlePrefix, pageable);
+        return page(entityManager.createQuery(query), pageable).getResultList();
+    }
+
+    @Override
+    public List<TaskDTO> findFilteredFields(Long userId, Set<TaskField> fields, Boolean completed,
+            String titlePrefix, Pageable pageable) {
+        Set<TaskField> read = EnumSet.copyOf(fields);
+        for (Sort.Order order : pageable.getSort()) {
+            TaskField.fromProperty(order.getProperty()).ifPresent(read::add);
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> task = query.from(Task.class);
+        select(query, task, read);
+        filter(query, task, cb, userId, completed, titlePrefix, pageable);
+        return toDTOs(page(entityManager.createQuery(query), pageable).getResultList(), read);
+    }
+
+    private static void filter(CriteriaQuery<?> query, Root<Task> task, CriteriaBuilder cb, Long userId,
+            Boolean completed, String titlePrefix, Pageable pageable) {
+        Specification<Task> specification = Specification.where(TaskSpecifications.ofUser(userId))
+            .and(TaskSpecifications.completed(completed))
+            .and(TaskSpecifications.titleStartsWith(titlePrefix));
+        Predicate predicate = specification.toPredicate(task, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), task, cb));
+    }
+
+    private static <T> TypedQuery<T> page(TypedQuery<T> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    private List<TaskDTO> findFields(Long userId, Set<TaskField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> task = query.from(Task.class);
+        select(query, task, fields);
+        if (userId != null) {
+            query.where(cb.equal(task.get("user").get("id"), userId));
+            query.orderBy(cb.asc(task.get("position")), cb.asc(task.get("id")));
+        }
+        return toDTOs(entityManager.createQuery(query).getResultList(), fields);
+    }
+
+    private static void select(CriteriaQuery<Tuple> query, Root<Task> task, Set<TaskField> fields) {
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (TaskField field : fields) {
+            selections.add(path(task, field).alias(field.name()));
+        }
+        if (fields.contains(TaskField.DESCRIPTION)) {
+            Join<Task, TaskDescription> external = task.join("externalDescription", JoinType.LEFT);
+            selections.add(external.get("content").alias(EXTERNAL_CONTENT));
+            selections.add(external.get("compressed").alias(EXTERNAL_COMPRESSED));
+            selections.add(external.get("rawLength").alias(EXTERNAL_RAW_LENGTH));
+        }
+        query.multiselect(selections);
+    }
+
+    private static List<TaskDTO> toDTOs(List<Tuple> rows, Set<TaskField> fields) {
+        List<TaskDTO> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(toDTO(row, fields));
+        }
+        return result;
+    }
+
+    private static Path<?> path(Root<Task> task, TaskField field) {
+        return switch (field) {
+            case ID -> task.get("id");
+            case TITLE -> task.get("title");
+            case DESCRIPTION -> task.get("inlineDescription");
+            case IS_COMPLETED -> task.get("isCompleted");
+            case USER_ID -> task.get("user").get("id");
+            case POSITION -> task.get("position");
+        };
+    }
+
+    private static TaskDTO toDTO(Tuple row, Set<TaskField> fields) {
+        TaskDTO dto = new TaskDTO();
+        for (TaskField field : fields) {
+            Object value = row.get(field.name());
+            switch (field) {
+                case ID -> dto.setId((Long) value);
+                case TITLE -> dto.setTitle((String) value);
+                case DESCRIPTION -> dto.setDescription(value != null ? (String) value
+                    : TaskDescription.decode(row.get(EXTERNAL_CONTENT, byte[].class),
+                        row.get(EXTERNAL_COMPRESSED, Boolean.class),
+                        row.get(EXTERNAL_RAW_LENGTH, Integer.class)));
+                case IS_COMPLETED -> dto.setIsCompleted((Boolean) value);
+                case USER_ID -> dto.setUserId((Long) value);
+                case POSITION -> dto.setPosition((String) value);
+            }
+        }
+        return dto;
+    }
+}
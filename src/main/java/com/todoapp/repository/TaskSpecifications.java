@@ -0,0 +1,48 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicates of filtered task lists. Each one is null when its parameter is
+ * absent, so {@link Specification#where} composes only those the request
+ * uses. Together they line up with the (user_id, is_completed, title)
+ * index: the title prefix is a LIKE with a fixed start, which the index can
+ * range-scan.
+ */
+public final class TaskSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> ofUser(Long userId) {
+        return userId == null ? null : (task, query, cb) -> cb.equal(task.get("user").get("id"), userId);
+    }
+
+    public static Specification<Task> completed(Boolean completed) {
+        return completed == null ? null : (task, query, cb) -> cb.equal(task.get("isCompleted"), completed);
+    }
+
+    /** Case-sensitive, so the comparison stays on the index. */
+    public static Specification<Task> titleStartsWith(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        String pattern = escapeLike(prefix) + "%";
+        return (task, query, cb) -> cb.like(task.get("title"), pattern, ESCAPE);
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE || c == '%' || c == '_') {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
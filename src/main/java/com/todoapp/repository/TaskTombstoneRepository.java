@@ -0,0 +1,17 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.TaskTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskTombstoneRepository extends org.springframework.data.repository.Repository<TaskTombstone, Long> {
+    <S extends TaskTombstone> S save(S tombstone);
+
+    long count();
+
+    List<TaskTombstone> findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(
+        Long userId, Long changeSeq, Pageable pageable);
+}
@@ -1,13 +1,47 @@
 package com.todoapp.repository;
 
 import com.todoapp.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends StorageRepository<User> {
+    User getReferenceById(Long id);
+
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Task inserts share-lock their user and deletes lock it exclusively, so a delete never misses a new task
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockSharedById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.deletedAt = :now WHERE u.id = :id AND u.deletedAt IS NULL")
+    int softDelete(@Param("id") Long id, @Param("now") long now);
+
+    // A soft-deleted user still holds its unique email until purged; a new owner takes it over
+    @Query(value = "SELECT COUNT(*) FROM users WHERE email = :email AND deleted_at IS NOT NULL", nativeQuery = true)
+    long countDeletedByEmail(@Param("email") String email);
+
+    // Renamed rather than deleted: its task rows still reference it until the purger removes them.
+    // The new value has no @, so no live user can hold it.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET email = CONCAT('deleted:', id) WHERE email = :email AND deleted_at IS NOT NULL",
+        nativeQuery = true)
+    int releaseDeletedEmail(@Param("email") String email);
 }
@@ -0,0 +1,76 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.exception.InvalidRequestException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs a multi-get as chunked id lookups and lays the results out in request
+ * order, reporting ids that were not found. The validation and layout steps
+ * are public for the reactive API, which runs the lookups itself.
+ */
+public final class BatchLookup {
+
+    private BatchLookup() {
+    }
+
+    static <E, D> BatchResultDTO<D> fetch(List<Long> ids, int maxIds, int chunkSize,
+            Function<List<Long>, List<E>> loader, Function<E, Long> idOf, Function<E, D> converter) {
+        List<Long> uniqueIds = uniqueIds(ids, maxIds);
+        Map<Long, D> found = new HashMap<>(uniqueIds.size() * 2);
+        for (List<Long> chunk : chunks(uniqueIds, chunkSize)) {
+            for (E entity : loader.apply(chunk)) {
+                found.put(idOf.apply(entity), converter.apply(entity));
+            }
+        }
+        return inRequestOrder(uniqueIds, found);
+    }
+
+    /**
+     * The requested ids without duplicates, in request order; rejects empty
+     * and null requests and those listing more than maxIds ids, duplicates
+     * included.
+     */
+    public static List<Long> uniqueIds(List<Long> ids, int maxIds) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidRequestException("At least one id is required");
+        }
+        // Checked before deduplicating, so an oversized request is rejected without hashing all of it
+        if (ids.size() > maxIds) {
+            throw new InvalidRequestException("Too many ids requested: " + ids.size() + " (maximum " + maxIds + ")");
+        }
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (uniqueIds.contains(null)) {
+            throw new InvalidRequestException("Ids must not be null");
+        }
+        return uniqueIds;
+    }
+
+    public static List<List<Long>> chunks(List<Long> ids, int chunkSize) {
+        List<List<Long>> chunks = new ArrayList<>((ids.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    public static <D> BatchResultDTO<D> inRequestOrder(List<Long> uniqueIds, Map<Long, D> found) {
+        List<D> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            D item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchResultDTO<>(items, missingIds);
+    }
+}
@@ -1,18 +1,59 @@
 package com.todoapp.service;
 
+import com.todoapp.concurrent.SingleFlight;
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.dto.SparseTaskList;
+import com.todoapp.dto.TaskChangesDTO;
 import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.dto.TaskQuery;
+import com.todoapp.event.TaskChangeEvent;
+import com.todoapp.exception.InvalidRequestException;
 import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.model.ArchivedTask;
 import com.todoapp.model.Task;
+import com.todoapp.model.TaskTombstone;
 import com.todoapp.model.User;
+import com.todoapp.ordering.PositionKeys;
+import com.todoapp.ordering.PositionRebalancer;
+import com.todoapp.repository.ArchivedTaskRepository;
+import com.todoapp.repository.ChangeSequence;
 import com.todoapp.repository.TaskRepository;
+import com.todoapp.repository.TaskTombstoneRepository;
 import com.todoapp.repository.UserRepository;
+import com.todoapp.sharding.ShardContext;
+import com.todoapp.sharding.ShardExecutor;
+import com.todoapp.sync.ChangeWatermarks;
+import com.todoapp.sync.TaskChanges;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Task reads and writes. Tasks live on the shard that owns their user:
+ * {@link ShardExecutor} runs the work on that shard, joining the
+ * transaction declared here when it is the primary, which is always the
+ * case with a single shard. User checks run against the primary. Lists
+ * only read the hot tasks table unless archived tasks are asked for;
+ * lookups by id fall back to the archive, and writes move an archived task
+ * back.
+ */
 @Service
 @Transactional
 @SuppressWarnings("null")
@@ -24,68 +65,375 @@ public class TaskService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Autowired
+    private PositionRebalancer positionRebalancer;
+
+    @Autowired
+    private ChangeWatermarks changeWatermarks;
+
+    @Value("${todoapp.sync.max-changes:500}")
+    private int maxChanges = 500;
+
+    @Value("${todoapp.single-flight.timeout-ms:5000}")
+    private long lookupTimeoutMs = 5000;
+
+    @Value("${todoapp.multi-get.max-ids:500}")
+    private int multiGetMaxIds = 500;
+
+    @Value("${todoapp.multi-get.chunk-size:100}")
+    private int multiGetChunkSize = 100;
+
+    @Value("${todoapp.list.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    @Value("${todoapp.list.max-offset:10000}")
+    private int maxOffset = 10_000;
+
+    private final SingleFlight<Long, TaskDTO> taskLookups = new SingleFlight<>();
+
+    /**
+     * Creates a task for a live user. When the user's tasks live on the
+     * primary, the insert share-locks the user row in its own transaction, so
+     * a concurrent {@link UserService#deleteUser} either waits and then deletes
+     * the new task too, or commits first and the insert finds the user gone.
+     * On another shard the two writes cannot share a transaction: the user is
+     * locked again once the insert has committed, and a task whose user was
+     * deleted in between is deleted as well.
+     */
     public TaskDTO createTask(TaskDTO taskDTO) {
-        User user = userRepository.findById(taskDTO.getUserId())
-            .orElseThrow(() -> new ResourceNotFoundException(
-                "User not found with id: " + taskDTO.getUserId()));
-        
-        Task task = new Task();
-        task.setTitle(taskDTO.getTitle());
-        task.setDescription(taskDTO.getDescription());
-        task.setIsCompleted(taskDTO.getIsCompleted() != null ? taskDTO.getIsCompleted() : false);
-        task.setUser(user);
-        
-        Task savedTask = taskRepository.save(task);
-        return convertToDTO(savedTask);
+        Long userId = taskDTO.getUserId();
+        boolean onPrimary = shardExecutor.shardForUser(userId) == ShardContext.PRIMARY;
+        if (!onPrimary) {
+            requireUser(userId);
+        }
+
+        TaskDTO created = shardExecutor.forUser(userId, false, () -> {
+            if (onPrimary && userRepository.lockSharedById(userId).isEmpty()) {
+                throw new ResourceNotFoundException("User", userId);
+            }
+            Task task = new Task();
+            task.setTitle(taskDTO.getTitle());
+            task.setDescription(taskDTO.getDescription());
+            task.setIsCompleted(taskDTO.getIsCompleted() != null ? taskDTO.getIsCompleted() : false);
+            task.setUser(userRepository.getReferenceById(userId));
+            // Locking the last task makes concurrent appends to one list take distinct keys
+            List<Task> last = taskRepository.lockLastPositioned(userId, Limit.of(1));
+            task.setPosition(PositionKeys.between(last.isEmpty() ? null : last.get(0).getPosition(), null));
+            task.setChangeSeq(changeSequence.next());
+
+            Task savedTask = taskRepository.save(task);
+            TaskDTO dto = convertToDTO(savedTask);
+            eventPublisher.publishEvent(TaskChangeEvent.created(dto));
+            return dto;
+        });
+
+        // Waits for an in-flight delete of the user, which may have missed the new task
+        if (!onPrimary && shardExecutor.onPrimary(false, () -> userRepository.lockSharedById(userId)).isEmpty()) {
+            deleteTask(created.getId());
+            throw new ResourceNotFoundException("User", userId);
+        }
+        return created;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public TaskDTO getTaskById(Long id) {
-        Task task = taskRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
-        return convertToDTO(task);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadTask(id);
+        }
+        return taskLookups.execute(id, Duration.ofMillis(lookupTimeoutMs), () -> loadTask(id));
     }
 
-    public List<TaskDTO> getAllTasks() {
-        return taskRepository.findAll().stream()
+    private TaskDTO loadTask(Long id) {
+        return shardExecutor.forTask(id, true, () -> taskRepository.findById(id)
+            .map(this::convertToDTO)
+            .or(() -> archivedTaskRepository.findById(id).map(this::convertToDTO))
+            .orElseThrow(() -> new ResourceNotFoundException("Task", id)));
+    }
+
+    @Transactional(readOnly = true)
+    public BatchResultDTO<TaskDTO> getTasksByIds(List<Long> ids) {
+        return BatchLookup.fetch(ids, multiGetMaxIds, multiGetChunkSize,
+            chunk -> shardExecutor.scatter(true, () -> loadTasks(chunk)),
+            TaskDTO::getId, Function.identity());
+    }
+
+    private List<TaskDTO> loadTasks(List<Long> ids) {
+        List<TaskDTO> tasks = taskRepository.findAllById(ids).stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
+        if (tasks.size() < ids.size()) {
+            Set<Long> found = tasks.stream().map(TaskDTO::getId).collect(Collectors.toSet());
+            List<Long> missing = ids.stream().filter(id -> !found.contains(id)).toList();
+            archivedTaskRepository.findAllById(missing).forEach(task -> tasks.add(convertToDTO(task)));
+        }
+        return tasks;
+    }
+
+    public List<TaskDTO> getAllTasks() {
+        return getAllTasks(false);
+    }
+
+    public List<TaskDTO> getAllTasks(boolean includeArchived) {
+        return shardExecutor.scatter(true, () -> {
+            List<TaskDTO> tasks = taskRepository.findAll().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+            if (includeArchived) {
+                archivedTaskRepository.findAll().forEach(task -> tasks.add(convertToDTO(task)));
+            }
+            return tasks;
+        });
     }
 
     public List<TaskDTO> getTasksByUserId(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new ResourceNotFoundException("User not found with id: " + userId);
+        return getTasksByUserId(userId, false);
+    }
+
+    public List<TaskDTO> getTasksByUserId(Long userId, boolean includeArchived) {
+        requireUser(userId);
+        return shardExecutor.forUser(userId, true, () -> {
+            List<TaskDTO> tasks = taskRepository.findByUserId(userId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+            if (includeArchived) {
+                archivedTaskRepository.findByUserId(userId).forEach(task -> tasks.add(convertToDTO(task)));
+            }
+            return tasks;
+        });
+    }
+
+    /** A filtered, sorted and optionally paged list over all shards. */
+    public List<TaskDTO> getAllTasks(TaskQuery query, boolean includeArchived) {
+        Pageable pageable = toPageable(query, includeArchived, Sort.by("id"));
+        return scatterPage(pageable, shardPage -> findFiltered(null, query, shardPage));
+    }
+
+    public List<TaskDTO> getTasksByUserId(Long userId, TaskQuery query, boolean includeArchived) {
+        Pageable pageable = toPageable(query, includeArchived, TaskQuery.USER_LIST_ORDER);
+        requireUser(userId);
+        return shardExecutor.forUser(userId, true, () -> findFiltered(userId, query, pageable));
+    }
+
+    public SparseTaskList getAllTaskFields(Set<TaskField> fields) {
+        return getAllTaskFields(fields, TaskQuery.NONE, false);
+    }
+
+    /** Like {@link #getAllTasks(TaskQuery, boolean)}, reading only the given fields; archived tasks have none. */
+    @Transactional(readOnly = true)
+    public SparseTaskList getAllTaskFields(Set<TaskField> fields, TaskQuery query, boolean includeArchived) {
+        rejectArchivedFields(includeArchived);
+        if (query.isUnfiltered()) {
+            return new SparseTaskList(fields, shardExecutor.scatter(true, () -> taskRepository.findFields(fields)));
         }
-        return taskRepository.findByUserId(userId).stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        Pageable pageable = query.toPageable(maxPageSize, maxOffset, Sort.by("id"));
+        return new SparseTaskList(fields, scatterPage(pageable, shardPage -> taskRepository.findFilteredFields(
+            null, fields, query.completed(), query.titlePrefix(), shardPage)));
+    }
+
+    public SparseTaskList getTaskFieldsByUserId(Long userId, Set<TaskField> fields) {
+        return getTaskFieldsByUserId(userId, fields, TaskQuery.NONE, false);
+    }
+
+    @Transactional(readOnly = true)
+    public SparseTaskList getTaskFieldsByUserId(Long userId, Set<TaskField> fields, TaskQuery query,
+            boolean includeArchived) {
+        rejectArchivedFields(includeArchived);
+        Pageable pageable = query.toPageable(maxPageSize, maxOffset, TaskQuery.USER_LIST_ORDER);
+        requireUser(userId);
+        return new SparseTaskList(fields, shardExecutor.forUser(userId, true, () -> query.isUnfiltered()
+            ? taskRepository.findFieldsByUserId(userId, fields)
+            : taskRepository.findFilteredFields(userId, fields, query.completed(), query.titlePrefix(), pageable)));
+    }
+
+    @Transactional(readOnly = true)
+    public TaskChangesDTO getTaskChanges(Long userId, Long since) {
+        requireUser(userId);
+        return shardExecutor.forUser(userId, true, () -> loadTaskChanges(userId, since));
+    }
+
+    private TaskChangesDTO loadTaskChanges(Long userId, Long since) {
+        long watermark = since != null ? since : 0L;
+        // Read before the rows, so everything at or below it has committed by the time they are read
+        long safeBound = changeWatermarks.safeBound(shardExecutor.shardForUser(userId));
+        Pageable window = PageRequest.of(0, maxChanges + 1);
+        List<Task> changedTasks = taskRepository
+            .findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(userId, watermark, window);
+        List<TaskTombstone> tombstones = taskTombstoneRepository
+            .findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(userId, watermark, window);
+        return TaskChanges.merge(changedTasks, Task::getChangeSeq, this::convertToDTO, tombstones, watermark,
+            safeBound, maxChanges);
     }
 
     public TaskDTO updateTask(Long id, TaskDTO taskDTO) {
-        Task task = taskRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
-        
-        task.setTitle(taskDTO.getTitle());
-        task.setDescription(taskDTO.getDescription());
-        task.setIsCompleted(taskDTO.getIsCompleted());
-        
-        Task updatedTask = taskRepository.save(task);
-        return convertToDTO(updatedTask);
+        return shardExecutor.forTask(id, false, () -> {
+            Task task = findTask(id);
+            task.setTitle(taskDTO.getTitle());
+            task.setDescription(taskDTO.getDescription());
+            task.setIsCompleted(taskDTO.getIsCompleted());
+            task.setChangeSeq(changeSequence.next());
+
+            Task updatedTask = taskRepository.save(task);
+            TaskDTO updated = convertToDTO(updatedTask);
+            eventPublisher.publishEvent(TaskChangeEvent.updated(updated));
+            return updated;
+        });
     }
 
     public TaskDTO updateTaskStatus(Long id, Boolean isCompleted) {
-        Task task = taskRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
-        
-        task.setIsCompleted(isCompleted);
-        Task updatedTask = taskRepository.save(task);
-        return convertToDTO(updatedTask);
+        return shardExecutor.forTask(id, false, () -> {
+            Task task = findTask(id);
+            task.setIsCompleted(isCompleted);
+            task.setChangeSeq(changeSequence.next());
+            Task updatedTask = taskRepository.save(task);
+            TaskDTO updated = convertToDTO(updatedTask);
+            eventPublisher.publishEvent(TaskChangeEvent.updated(updated));
+            return updated;
+        });
+    }
+
+    /**
+     * Moves a task to just after another task of its user, or to the top of
+     * the list when {@code afterId} is null. Only the moved row is written,
+     * unless the anchor has no key yet or the gap has run out of room.
+     */
+    public TaskDTO moveTask(Long id, Long afterId) {
+        if (id.equals(afterId)) {
+            throw new InvalidRequestException("A task cannot be moved after itself");
+        }
+        return shardExecutor.forTask(id, false, () -> {
+            Task task = findTask(id);
+            Long userId = task.getUser().getId();
+            List<Task> locked = taskRepository.lockByIdIn(afterId != null ? List.of(id, afterId) : List.of(id));
+            Task anchor = afterId == null ? null : locked.stream()
+                .filter(other -> other.getId().equals(afterId) && other.getUser().getId().equals(userId))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Task", afterId));
+
+            String position = positionAfter(userId, id, anchor);
+            if (position == null) {
+                positionRebalancer.rebalance(userId);
+                position = positionAfter(userId, id, anchor);
+            } else if (positionRebalancer.isTooLong(position)) {
+                positionRebalancer.request(userId);
+            }
+            task.setPosition(position);
+            task.setChangeSeq(changeSequence.next());
+            TaskDTO moved = convertToDTO(taskRepository.save(task));
+            eventPublisher.publishEvent(TaskChangeEvent.updated(moved));
+            return moved;
+        });
+    }
+
+    // Null when the anchor has no key yet or the new key would not fit the column
+    private String positionAfter(Long userId, Long id, Task anchor) {
+        String before = anchor != null ? anchor.getPosition() : null;
+        if (anchor != null && before == null) {
+            return null;
+        }
+        List<String> next = taskRepository.findPositionsAfter(userId, before != null ? before : "", id, Limit.of(1));
+        String position = PositionKeys.between(before, next.isEmpty() ? null : next.get(0));
+        return position.length() <= Task.MAX_POSITION_LENGTH ? position : null;
     }
 
     public void deleteTask(Long id) {
-        if (!taskRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Task not found with id: " + id);
+        shardExecutor.forTask(id, false, () -> {
+            Task task = findTask(id);
+            taskRepository.softDelete(id, System.currentTimeMillis());
+            taskTombstoneRepository.save(new TaskTombstone(null, id, task.getUser().getId()));
+            eventPublisher.publishEvent(TaskChangeEvent.deleted(task.getUser().getId(), id));
+            return null;
+        });
+    }
+
+    /**
+     * Soft-deletes a user's tasks on its shard. Called before the user row is
+     * deleted, since the users table lives on the primary and cannot cascade
+     * to other shards.
+     */
+    public void deleteTasksOfUser(Long userId) {
+        long now = System.currentTimeMillis();
+        shardExecutor.forUser(userId, false, () -> {
+            taskRepository.softDeleteByUserId(userId, now);
+            archivedTaskRepository.softDeleteByUserId(userId, now);
+            return null;
+        });
+    }
+
+    private List<TaskDTO> findFiltered(Long userId, TaskQuery query, Pageable pageable) {
+        return taskRepository.findFiltered(userId, query.completed(), query.titlePrefix(), pageable).stream()
+            .map(this::convertToDTO)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * A page over all shards. Each shard returns its own first
+     * {@code offset + size} rows, and the page is cut from their merge.
+     */
+    private List<TaskDTO> scatterPage(Pageable pageable, Function<Pageable, List<TaskDTO>> shardPage) {
+        if (shardExecutor.getShardCount() <= 1) {
+            return shardExecutor.scatter(true, () -> shardPage.apply(pageable));
+        }
+        Pageable perShard = pageable.isPaged()
+            ? PageRequest.of(0, Math.toIntExact(pageable.getOffset()) + pageable.getPageSize(), pageable.getSort())
+            : pageable;
+        List<TaskDTO> tasks = shardExecutor.scatter(true, () -> shardPage.apply(perShard));
+        // Titles merge in Java string order, which can differ from the database collation across shards
+        tasks.sort(TaskQuery.comparator(pageable.getSort(), TaskDTO::getId, TaskDTO::getTitle, TaskDTO::getPosition));
+        if (pageable.isUnpaged()) {
+            return tasks;
+        }
+        int from = Math.toIntExact(Math.min(pageable.getOffset(), tasks.size()));
+        return new ArrayList<>(tasks.subList(from, Math.min(from + pageable.getPageSize(), tasks.size())));
+    }
+
+    // Sparse lists select columns of the hot table, which the archive does not share
+    private static void rejectArchivedFields(boolean includeArchived) {
+        if (includeArchived) {
+            throw new InvalidRequestException("includeArchived cannot be combined with fields");
+        }
+    }
+
+    // Filters run on the hot table only; paging across it and the archive would need a union of both
+    private Pageable toPageable(TaskQuery query, boolean includeArchived, Sort defaultOrder) {
+        if (includeArchived) {
+            throw new InvalidRequestException("includeArchived cannot be combined with filtering, sorting or paging");
         }
-        taskRepository.deleteById(id);
+        return query.toPageable(maxPageSize, maxOffset, defaultOrder);
+    }
+
+    private void requireUser(Long userId) {
+        // A primary-key load, so the check is served from the users cache region
+        if (shardExecutor.onPrimary(true, () -> userRepository.findById(userId)).isEmpty()) {
+            throw new ResourceNotFoundException("User", userId);
+        }
+    }
+
+    // Finds and locks a task for writing, moving it back from the archive first if needed
+    private Task findTask(Long id) {
+        return taskRepository.lockById(id)
+            .or(() -> {
+                if (archivedTaskRepository.copyToTasks(id) == 0) {
+                    return Optional.empty();
+                }
+                archivedTaskRepository.deleteRowById(id);
+                return taskRepository.lockById(id);
+            })
+            .orElseThrow(() -> new ResourceNotFoundException("Task", id));
     }
 
     private TaskDTO convertToDTO(Task task) {
@@ -95,6 +443,18 @@ public class TaskService {
         dto.setDescription(task.getDescription());
         dto.setIsCompleted(task.getIsCompleted());
         dto.setUserId(task.getUser().getId());
+        dto.setPosition(task.getPosition());
+        return dto;
+    }
+
+    private TaskDTO convertToDTO(ArchivedTask task) {
+        TaskDTO dto = new TaskDTO();
+        dto.setId(task.getId());
+        dto.setTitle(task.getTitle());
+        dto.setDescription(task.getDescription());
+        dto.setIsCompleted(true);
+        dto.setUserId(task.getUserId());
+        dto.setPosition(task.getPosition());
         return dto;
     }
 }
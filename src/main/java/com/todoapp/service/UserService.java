@@ -1,14 +1,20 @@
 package com.todoapp.service;
 
+import com.todoapp.concurrent.SingleFlight;
+import com.todoapp.dto.BatchResultDTO;
 import com.todoapp.dto.UserDTO;
 import com.todoapp.exception.DuplicateResourceException;
 import com.todoapp.exception.ResourceNotFoundException;
 import com.todoapp.model.User;
 import com.todoapp.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,12 +26,27 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TaskService taskService;
+
+    @Value("${todoapp.single-flight.timeout-ms:5000}")
+    private long lookupTimeoutMs = 5000;
+
+    @Value("${todoapp.multi-get.max-ids:500}")
+    private int multiGetMaxIds = 500;
+
+    @Value("${todoapp.multi-get.chunk-size:100}")
+    private int multiGetChunkSize = 100;
+
+    private final SingleFlight<Long, UserDTO> userLookups = new SingleFlight<>();
+
     public UserDTO createUser(UserDTO userDTO) {
         if (userRepository.existsByEmail(userDTO.getEmail())) {
             throw new DuplicateResourceException(
                 "User with email " + userDTO.getEmail() + " already exists");
         }
-        
+        releaseDeletedEmail(userDTO.getEmail());
+
         User user = new User();
         user.setName(userDTO.getName());
         user.setEmail(userDTO.getEmail());
@@ -34,12 +55,26 @@ public class UserService {
         return convertToDTO(savedUser);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDTO getUserById(Long id) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadUser(id);
+        }
+        return userLookups.execute(id, Duration.ofMillis(lookupTimeoutMs), () -> loadUser(id));
+    }
+
+    private UserDTO loadUser(Long id) {
         User user = userRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+            .orElseThrow(() -> new ResourceNotFoundException("User", id));
         return convertToDTO(user);
     }
 
+    @Transactional(readOnly = true)
+    public BatchResultDTO<UserDTO> getUsersByIds(List<Long> ids) {
+        return BatchLookup.fetch(ids, multiGetMaxIds, multiGetChunkSize,
+            userRepository::findAllById, User::getId, this::convertToDTO);
+    }
+
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
             .map(this::convertToDTO)
@@ -48,13 +83,16 @@ public class UserService {
 
     public UserDTO updateUser(Long id, UserDTO userDTO) {
         User user = userRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+            .orElseThrow(() -> new ResourceNotFoundException("User", id));
         
         if (!user.getEmail().equals(userDTO.getEmail()) 
             && userRepository.existsByEmail(userDTO.getEmail())) {
             throw new DuplicateResourceException(
                 "User with email " + userDTO.getEmail() + " already exists");
         }
+        if (!user.getEmail().equals(userDTO.getEmail())) {
+            releaseDeletedEmail(userDTO.getEmail());
+        }
         
         user.setName(userDTO.getName());
         user.setEmail(userDTO.getEmail());
@@ -63,11 +101,21 @@ public class UserService {
         return convertToDTO(updatedUser);
     }
 
+    // The user stays locked until this commits: a task insert for it either finishes first and
+    // has its task deleted below, or waits and finds the user gone (see TaskService.createTask)
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
+        if (userRepository.lockById(id).isEmpty()) {
+            throw new ResourceNotFoundException("User", id);
+        }
+        userRepository.softDelete(id, System.currentTimeMillis());
+        taskService.deleteTasksOfUser(id);
+    }
+
+    // Checked first because a native delete invalidates the users cache region
+    private void releaseDeletedEmail(String email) {
+        if (userRepository.countDeletedByEmail(email) > 0) {
+            userRepository.releaseDeletedEmail(email);
         }
-        userRepository.deleteById(id);
     }
 
     private UserDTO convertToDTO(User user) {
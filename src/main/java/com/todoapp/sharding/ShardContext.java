@@ -0,0 +1,57 @@
+package com.todoapp.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's next transaction should use. Unset means
+ * shard 0, the primary, which also holds the users table.
+ */
+public final class ShardContext {
+
+    public static final int PRIMARY = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : PRIMARY;
+    }
+
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    public static <T> T on(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs work with every shard lookup resolved to the transaction already
+     * open on this thread, e.g. a rollback-only warm-up on the primary.
+     */
+    public static <T> T pinned(Supplier<T> work) {
+        boolean wasPinned = isPinned();
+        PINNED.set(true);
+        try {
+            return work.get();
+        } finally {
+            if (!wasPinned) {
+                PINNED.remove();
+            }
+        }
+    }
+}
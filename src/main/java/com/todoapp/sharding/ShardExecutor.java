@@ -0,0 +1,135 @@
+package com.todoapp.sharding;
+
+import com.todoapp.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs task work in a transaction on the right shard. A transaction already
+ * open on this thread is joined when it is on the same shard; otherwise the
+ * work gets its own transaction on the target shard. With a single shard
+ * this is just a transaction boundary.
+ */
+@Component
+public class ShardExecutor {
+
+    private final ShardRing ring;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardExecutor(ShardRing ring, PlatformTransactionManager transactionManager) {
+        this.ring = ring;
+        this.transactionManager = transactionManager;
+    }
+
+    public int getShardCount() {
+        return ring.getShardCount();
+    }
+
+    public int shardForUser(Long userId) {
+        return ring.shardForUser(userId);
+    }
+
+    public <T> T forUser(Long userId, boolean readOnly, Supplier<T> work) {
+        return onShard(ring.shardForUser(userId), readOnly, work);
+    }
+
+    public <T> T onPrimary(boolean readOnly, Supplier<T> work) {
+        return onShard(ShardContext.PRIMARY, readOnly, work);
+    }
+
+    /**
+     * Tries the shard the id was allocated on first. Tasks of rebalanced
+     * users live elsewhere, so a miss falls back to the other shards.
+     */
+    public <T> T forTask(Long taskId, boolean readOnly, Supplier<T> work) {
+        int origin = ring.originShardOfTaskId(taskId);
+        try {
+            return onShard(origin, readOnly, work);
+        } catch (ResourceNotFoundException ex) {
+            if (!isRouting()) {
+                throw ex;
+            }
+            for (int shard = 0; shard < ring.getShardCount(); shard++) {
+                if (shard == origin) {
+                    continue;
+                }
+                try {
+                    return onShard(shard, readOnly, work);
+                } catch (ResourceNotFoundException missing) {
+                    // keep looking
+                }
+            }
+            throw ex;
+        }
+    }
+
+    /** Runs work on every shard in parallel and concatenates the results in shard order. */
+    public <T> List<T> scatter(boolean readOnly, Supplier<List<T>> work) {
+        if (!isRouting()) {
+            return onShard(ShardContext.current(), readOnly, work);
+        }
+        List<Future<List<T>>> parts = new ArrayList<>(ring.getShardCount());
+        for (int shard = 0; shard < ring.getShardCount(); shard++) {
+            int target = shard;
+            parts.add(scatterExecutor.submit(() -> onShard(target, readOnly, work)));
+        }
+        List<T> results = new ArrayList<>();
+        for (Future<List<T>> part : parts) {
+            results.addAll(await(part));
+        }
+        return results;
+    }
+
+    public <T> T onShard(int shard, boolean readOnly, Supplier<T> work) {
+        boolean join = !isRouting()
+            || (TransactionSynchronizationManager.isActualTransactionActive() && ShardContext.current() == shard);
+        if (join) {
+            return template(readOnly, TransactionDefinition.PROPAGATION_REQUIRED).execute(status -> work.get());
+        }
+        return ShardContext.on(shard, () -> template(readOnly, TransactionDefinition.PROPAGATION_REQUIRES_NEW)
+            .execute(status -> work.get()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+
+    private boolean isRouting() {
+        return ring.getShardCount() > 1 && !ShardContext.isPinned();
+    }
+
+    private TransactionTemplate template(boolean readOnly, int propagation) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        template.setPropagationBehavior(propagation);
+        return template;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for shard results", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
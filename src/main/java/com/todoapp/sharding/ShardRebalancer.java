@@ -0,0 +1,218 @@
+package com.todoapp.sharding;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.model.TaskTombstone;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Offline tool that moves every user's tasks, archived tasks, descriptions
+ * and tombstones to the shard the ring assigns it, e.g. after a shard was added. Task ids
+ * are kept; change sequence values are re-stamped on the target shard in
+ * their original order, above anything the source handed out, so delta
+ * sync clients keep working; archived rows keep theirs. Soft-deleted rows
+ * are not copied, they are dropped with the rest of the source rows. A user is copied in one transaction on the
+ * target and then removed in one transaction on the source, so an
+ * interrupted run can simply be started again.
+ *
+ * <p>Run with the new shard list and no traffic:
+ * <pre>java -jar todo-app.jar --todoapp.sharding.rebalance=true
+ *     --spring.main.web-application-type=none --todoapp.warmup.enabled=false</pre>
+ * The process exits when the rebalance is done.
+ */
+@Slf4j
+@Component
+@ConditionalOnJpaStorage
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRebalancer implements ApplicationRunner {
+
+    private static final String USERS_ON_SHARD =
+        "SELECT user_id FROM tasks UNION SELECT user_id FROM task_tombstones"
+            + " UNION SELECT user_id FROM archived_tasks";
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private ShardRing ring;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${todoapp.sharding.rebalance:false}")
+    private boolean rebalanceOnStartup = false;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rebalanceOnStartup) {
+            rebalance();
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    /** Returns the number of users that were moved. */
+    public int rebalance() {
+        int moved = 0;
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            for (Long userId : jdbc(shard).queryForList(USERS_ON_SHARD, Long.class)) {
+                int target = ring.shardForUser(userId);
+                if (target != shard) {
+                    moveUser(userId, shard, target);
+                    moved++;
+                }
+            }
+        }
+        log.info("Rebalance finished: {} user(s) moved across {} shard(s)", moved, shards.getShardCount());
+        return moved;
+    }
+
+    private void moveUser(long userId, int source, int target) {
+        JdbcTemplate from = jdbc(source);
+        JdbcTemplate to = jdbc(target);
+
+        List<Change> changes = new ArrayList<>(from.query(
+            "SELECT t.id, t.title, t.description, t.is_completed, t.position, t.change_seq, d.content, d.compressed,"
+                + " d.raw_length FROM tasks t LEFT JOIN task_descriptions d ON d.id = t.description_id"
+                + " WHERE t.user_id = ? AND t.deleted_at IS NULL",
+            (rs, row) -> new Change(rs.getObject("change_seq", Long.class), rs.getLong("id"), rs.getString("title"),
+                rs.getString("description"), rs.getBoolean("is_completed"), rs.getString("position"),
+                rs.getBytes("content"), rs.getObject("compressed", Boolean.class),
+                rs.getObject("raw_length", Integer.class)),
+            userId));
+        changes.addAll(from.query("SELECT change_seq, task_id FROM task_tombstones WHERE user_id = ?",
+            (rs, row) -> Change.tombstone(rs.getLong("change_seq"), rs.getLong("task_id")), userId));
+        List<ArchivedRow> archived = from.query(
+            "SELECT a.id, a.title, a.description, a.position, a.change_seq, a.completed_at, a.archived_at,"
+                + " d.content, d.compressed, d.raw_length"
+                + " FROM archived_tasks a LEFT JOIN task_descriptions d ON d.id = a.description_id"
+                + " WHERE a.user_id = ? AND a.deleted_at IS NULL",
+            (rs, row) -> new ArchivedRow(new Change(rs.getObject("change_seq", Long.class), rs.getLong("id"),
+                rs.getString("title"), rs.getString("description"), true, rs.getString("position"),
+                rs.getBytes("content"), rs.getObject("compressed", Boolean.class),
+                rs.getObject("raw_length", Integer.class)),
+                rs.getObject("completed_at", Long.class), rs.getLong("archived_at")),
+            userId);
+        changes.sort(Comparator.comparing(Change::changeSeq, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        advanceChangeSequence(to, changes.stream()
+            .map(Change::changeSeq)
+            .filter(seq -> seq != null)
+            .max(Long::compare)
+            .orElse(0L));
+
+        transaction(target).executeWithoutResult(status -> {
+            deleteUserRows(to, userId);
+            for (Change change : changes) {
+                long changeSeq = nextChangeSeq(to);
+                if (change.title() == null) {
+                    to.update("INSERT INTO task_tombstones (change_seq, task_id, user_id) VALUES (?, ?, ?)",
+                        changeSeq, change.taskId(), userId);
+                } else {
+                    to.update("INSERT INTO tasks (id, title, description, is_completed, user_id, position,"
+                            + " change_seq, description_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                        change.taskId(), change.title(), change.description(), change.completed(), userId,
+                        change.position(), changeSeq, insertDescription(to, change));
+                }
+            }
+            for (ArchivedRow row : archived) {
+                Change task = row.task();
+                to.update("INSERT INTO archived_tasks (id, title, description, user_id, position, change_seq,"
+                        + " completed_at, archived_at, description_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    task.taskId(), task.title(), task.description(), userId, task.position(), task.changeSeq(),
+                    row.completedAt(), row.archivedAt(), insertDescription(to, task));
+            }
+        });
+        transaction(source).executeWithoutResult(status -> deleteUserRows(from, userId));
+        log.info("Moved user {} ({} change(s), {} archived) from shard {} to shard {}", userId, changes.size(),
+            archived.size(), source, target);
+    }
+
+    private static Long insertDescription(JdbcTemplate jdbc, Change change) {
+        if (change.content() == null) {
+            return null;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO task_descriptions (content, compressed, raw_length) VALUES (?, ?, ?)",
+                new String[] {"id"});
+            statement.setBytes(1, change.content());
+            statement.setBoolean(2, Boolean.TRUE.equals(change.compressed()));
+            statement.setInt(3, change.rawLength());
+            return statement;
+        }, keys);
+        return keys.getKeyAs(Number.class).longValue();
+    }
+
+    private static void deleteUserRows(JdbcTemplate jdbc, long userId) {
+        List<Long> descriptionIds = jdbc.queryForList(
+            "SELECT description_id FROM tasks WHERE user_id = ? AND description_id IS NOT NULL"
+                + " UNION SELECT description_id FROM archived_tasks WHERE user_id = ? AND description_id IS NOT NULL",
+            Long.class, userId, userId);
+        jdbc.update("DELETE FROM task_tombstones WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM tasks WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM archived_tasks WHERE user_id = ?", userId);
+        for (Long descriptionId : descriptionIds) {
+            jdbc.update("DELETE FROM task_descriptions WHERE id = ?", descriptionId);
+        }
+    }
+
+    // DDL may commit implicitly, so this runs before the copy transaction opens
+    private void advanceChangeSequence(JdbcTemplate jdbc, long highestMoved) {
+        if (nextChangeSeq(jdbc) <= highestMoved) {
+            jdbc.execute("ALTER SEQUENCE " + TaskTombstone.CHANGE_SEQUENCE + " RESTART WITH " + (highestMoved + 1));
+        }
+    }
+
+    private long nextChangeSeq(JdbcTemplate jdbc) {
+        String sql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+            .getSequenceSupport()
+            .getSequenceNextValString(TaskTombstone.CHANGE_SEQUENCE);
+        return jdbc.queryForObject(sql, Long.class);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shards.getShard(shard));
+    }
+
+    private TransactionTemplate transaction(int shard) {
+        return new TransactionTemplate(new DataSourceTransactionManager(shards.getShard(shard)));
+    }
+
+    /** A task row to copy, or a tombstone when {@code title} is null. */
+    private record Change(Long changeSeq, long taskId, String title, String description, boolean completed,
+            String position, byte[] content, Boolean compressed, Integer rawLength) {
+
+        static Change tombstone(long changeSeq, long taskId) {
+            return new Change(changeSeq, taskId, null, null, false, null, null, null, null);
+        }
+    }
+
+    private record ArchivedRow(Change task, Long completedAt, long archivedAt) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.todoapp.sharding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Consistent-hash placement of users on shards. Each shard owns
+ * {@code virtualNodes} points on a 64-bit ring and a user belongs to the
+ * first point at or after the hash of its id, so adding a shard moves only
+ * about 1/N of the users.
+ *
+ * <p>Task ids are drawn from a per-shard identity range of
+ * 2^{@value #TASK_ID_SHARD_SHIFT} values, so the shard a task was created
+ * on can be read back from its id.
+ */
+public class ShardRing {
+
+    public static final int TASK_ID_SHARD_SHIFT = 40;
+
+    private final int shardCount;
+    private final long[] points;
+    private final int[] owners;
+
+    public ShardRing(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("Need at least one shard and one virtual node");
+        }
+        this.shardCount = shardCount;
+        long[][] nodes = new long[shardCount * virtualNodes][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                nodes[shard * virtualNodes + node] = new long[] {pointOf(shard, node), shard};
+            }
+        }
+        Arrays.sort(nodes, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[nodes.length];
+        owners = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            points[i] = nodes[i][0];
+            owners[i] = (int) nodes[i][1];
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardForUser(long userId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(points, mix(userId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /** The shard whose identity range the id belongs to; falls back to 0 for ids outside any range. */
+    public int originShardOfTaskId(long taskId) {
+        long shard = taskId >>> TASK_ID_SHARD_SHIFT;
+        return shard < shardCount ? (int) shard : 0;
+    }
+
+    public static long firstTaskId(int shard) {
+        return Math.max(1L, (long) shard << TASK_ID_SHARD_SHIFT);
+    }
+
+    private static long pointOf(int shard, int node) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5")
+                .digest(("shard-" + shard + "#" + node).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // MurmurHash3 finalizer: spreads sequential ids evenly over the ring
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,109 @@
+package com.todoapp.sharding;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.model.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hibernate only manages the schema of the connection it sees at boot,
+ * which is the primary. This applies the same schema action to every
+ * other shard, drops the tasks-to-users foreign key there since users only
+ * live on the primary, then moves each shard's task identity to its own id
+ * range so ids stay unique across shards. On PostgreSQL it also maintains
+ * the partial indexes JPA cannot express.
+ */
+@Slf4j
+@Component
+@ConditionalOnJpaStorage
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+
+    // Live-row indexes skip soft-deleted rows; the deleted_at indexes only hold rows awaiting purge
+    private static final List<String> POSTGRES_PARTIAL_INDEXES = List.of(
+        "DROP INDEX IF EXISTS idx_tasks_user_change_seq",
+        "CREATE INDEX IF NOT EXISTS idx_tasks_live_user_change_seq ON tasks (user_id, change_seq)"
+            + " WHERE deleted_at IS NULL",
+        "CREATE INDEX IF NOT EXISTS idx_tasks_deleted_at ON tasks (deleted_at) WHERE deleted_at IS NOT NULL",
+        "CREATE INDEX IF NOT EXISTS idx_tasks_unpositioned ON tasks (user_id)"
+            + " WHERE position IS NULL AND deleted_at IS NULL",
+        "CREATE INDEX IF NOT EXISTS idx_archived_tasks_deleted_at ON archived_tasks (deleted_at)"
+            + " WHERE deleted_at IS NOT NULL",
+        "CREATE INDEX IF NOT EXISTS idx_users_deleted_at ON users (deleted_at) WHERE deleted_at IS NOT NULL");
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    private volatile Metadata metadata;
+
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+            SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        metadata = null;
+        this.sessionFactory = null;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            return;
+        }
+        for (int shard = 1; shard < shards.getShardCount(); shard++) {
+            ShardContext.on(shard, () -> {
+                // Shards other than the primary are never dropped on shutdown
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                    sessionFactory.getProperties(), action -> { });
+                return null;
+            });
+            if (managesSchema()) {
+                new JdbcTemplate(shards.getShard(shard))
+                    .execute("ALTER TABLE tasks DROP CONSTRAINT IF EXISTS " + Task.USER_FOREIGN_KEY);
+            }
+            positionTaskIds(shard);
+        }
+        if (shards.getShardCount() > 1) {
+            log.info("Schema applied to {} additional shard(s)", shards.getShardCount() - 1);
+        }
+        if (managesSchema() && sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect) {
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                JdbcTemplate jdbc = new JdbcTemplate(shards.getShard(shard));
+                POSTGRES_PARTIAL_INDEXES.forEach(jdbc::execute);
+            }
+        }
+    }
+
+    private boolean managesSchema() {
+        Object action = sessionFactory.getProperties().get(AvailableSettings.HBM2DDL_AUTO);
+        return action != null && !"none".equals(action.toString()) && !"validate".equals(action.toString());
+    }
+
+    private void positionTaskIds(int shard) {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.getShard(shard));
+        long first = ShardRing.firstTaskId(shard);
+        Integer inRange = jdbc.queryForObject("SELECT COUNT(*) FROM tasks WHERE id >= ? AND id < ?",
+            Integer.class, first, ShardRing.firstTaskId(shard + 1));
+        if (inRange != null && inRange == 0) {
+            jdbc.execute("ALTER TABLE tasks ALTER COLUMN id RESTART WITH " + first);
+        }
+    }
+}
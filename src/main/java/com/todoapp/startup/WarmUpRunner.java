@@ -0,0 +1,118 @@
+package com.todoapp.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import com.todoapp.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Drives representative service and Jackson calls before the application
+ * reports readiness, so the JIT has compiled the hot paths by the time real
+ * traffic arrives. Spring Boot only switches readiness to ACCEPTING_TRAFFIC
+ * after all runners have completed. Every iteration runs in its own
+ * rollback-only transaction and also deletes what it created, so no data is
+ * left behind even by the in-memory engine, which cannot roll back; shard
+ * routing is pinned to that transaction so task work cannot escape to
+ * another shard.
+ */
+@Slf4j
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    @Value("${todoapp.warmup.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${todoapp.warmup.iterations:200}")
+    private int iterations = 200;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+        StartupStep step = applicationStartup.start("todoapp.warmup");
+        step.tag("iterations", String.valueOf(iterations));
+        long start = System.nanoTime();
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            ShardContext.pinned(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    int iteration = i;
+                    template.executeWithoutResult(status -> {
+                        status.setRollbackOnly();
+                        exercise(iteration);
+                    });
+                }
+                return null;
+            });
+            log.info("Warm-up finished: {} iterations in {} ms", iterations, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            // A failed warm-up only costs latency; it must never keep the instance from starting
+            step.tag("failed", ex.getClass().getSimpleName());
+            log.warn("Warm-up aborted", ex);
+        } finally {
+            step.end();
+        }
+    }
+
+    void exercise(int iteration) {
+        try {
+            UserDTO user = userService.createUser(
+                    new UserDTO(null, "Warm-up " + iteration, "warmup-" + iteration + "@warmup.invalid"));
+            userService.getUserById(user.getId());
+
+            TaskDTO task = taskService.createTask(
+                    new TaskDTO(null, "Warm-up task " + iteration, "Warm-up description", false, user.getId()));
+            taskService.getTaskById(task.getId());
+            task.setTitle("Warm-up task " + iteration + " (updated)");
+            taskService.updateTask(task.getId(), task);
+            taskService.updateTaskStatus(task.getId(), true);
+
+            List<TaskDTO> tasks = taskService.getTasksByUserId(user.getId());
+            taskService.getTaskFieldsByUserId(user.getId(), EnumSet.of(TaskField.TITLE, TaskField.IS_COMPLETED));
+            taskService.getTaskChanges(user.getId(), 0L);
+            taskService.getTasksByIds(List.of(task.getId()));
+
+            byte[] json = objectMapper.writeValueAsBytes(tasks);
+            objectMapper.readValue(json, TaskDTO[].class);
+            objectMapper.readValue(objectMapper.writeValueAsBytes(user), UserDTO.class);
+
+            taskService.deleteTask(task.getId());
+            userService.deleteUser(user.getId());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Warm-up serialization failed", ex);
+        }
+    }
+}
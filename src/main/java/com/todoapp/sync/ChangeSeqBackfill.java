@@ -0,0 +1,77 @@
+package com.todoapp.sync;
+
+import com.todoapp.config.ConditionalOnJpaStorage;
+import com.todoapp.model.Task;
+import com.todoapp.repository.ChangeSequence;
+import com.todoapp.repository.TaskRepository;
+import com.todoapp.sharding.ShardExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Gives tasks from before change_seq existed a value, so the changes feed
+ * returns them; until then clients only see them in full lists. Runs every
+ * {@code todoapp.sync.backfill-interval-ms}, locking
+ * {@code todoapp.sync.backfill-chunk-size} tasks per transaction and drawing
+ * their values in one block. A run stops after
+ * {@code todoapp.sync.backfill-max-chunks-per-run} chunks per shard, so a
+ * large table is worked through over several runs.
+ */
+@Slf4j
+@Component
+@ConditionalOnJpaStorage
+public class ChangeSeqBackfill {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Value("${todoapp.sync.backfill-chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${todoapp.sync.backfill-max-chunks-per-run:100}")
+    private int maxChunksPerRun = 100;
+
+    @Scheduled(fixedDelayString = "${todoapp.sync.backfill-interval-ms:600000}")
+    public void scheduledBackfill() {
+        backfill();
+    }
+
+    /** Runs one pass over every shard and returns the number of tasks given a value. */
+    public int backfill() {
+        int total = 0;
+        for (int shard = 0; shard < shardExecutor.getShardCount(); shard++) {
+            int count;
+            int chunks = 0;
+            do {
+                count = shardExecutor.onShard(shard, false, this::backfillChunk);
+                total += count;
+            } while (count == chunkSize && ++chunks < maxChunksPerRun);
+        }
+        if (total > 0) {
+            log.info("Assigned change_seq to {} task(s)", total);
+        }
+        return total;
+    }
+
+    private int backfillChunk() {
+        List<Task> tasks = taskRepository.lockWithoutChangeSeq(Limit.of(chunkSize));
+        long[] changeSeqs = changeSequence.next(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setChangeSeq(changeSeqs[i]);
+        }
+        taskRepository.saveAll(tasks);
+        return tasks.size();
+    }
+}
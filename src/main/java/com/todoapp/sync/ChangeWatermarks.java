@@ -0,0 +1,113 @@
+package com.todoapp.sync;
+
+import com.todoapp.repository.ChangeSequence;
+import com.todoapp.sharding.ShardExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Tells how far a changes-feed watermark may advance on each shard. A
+ * change_seq value is drawn before its transaction commits, so a row with a
+ * smaller value can become visible after one with a larger value, and a
+ * watermark already past it would skip it for good. Every
+ * {@code todoapp.sync.sample-interval-ms} this draws a value on each shard:
+ * every smaller value was drawn earlier, so once
+ * {@code todoapp.sync.safety-window-ms} has passed, their transactions have
+ * ended, as long as no task write runs longer than the window. A window of 0
+ * turns the bound off.
+ */
+@Slf4j
+@Component
+public class ChangeWatermarks {
+
+    @Autowired
+    private ShardExecutor shardExecutor;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Value("${todoapp.sync.safety-window-ms:30000}")
+    private long safetyWindowMs = 30_000;
+
+    private final LongSupplier clock;
+
+    private final Map<Integer, Deque<Sample>> samples = new ConcurrentHashMap<>();
+
+    public ChangeWatermarks() {
+        this(System::currentTimeMillis);
+    }
+
+    ChangeWatermarks(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.sync.sample-interval-ms:1000}")
+    public void sample() {
+        if (safetyWindowMs <= 0) {
+            return;
+        }
+        for (int shard = 0; shard < shardExecutor.getShardCount(); shard++) {
+            try {
+                long value = shardExecutor.onShard(shard, false, changeSequence::next);
+                record(shard, value);
+            } catch (RuntimeException ex) {
+                log.warn("Could not sample the change sequence of shard {}", shard, ex);
+            }
+        }
+    }
+
+    /**
+     * The highest change_seq that no running transaction on the shard can
+     * still commit below, or 0 until a sample is old enough.
+     */
+    public long safeBound(int shard) {
+        if (safetyWindowMs <= 0) {
+            return Long.MAX_VALUE;
+        }
+        Deque<Sample> shardSamples = samples.get(shard);
+        if (shardSamples == null) {
+            return 0L;
+        }
+        long cutoff = clock.getAsLong() - safetyWindowMs;
+        synchronized (shardSamples) {
+            for (Iterator<Sample> it = shardSamples.descendingIterator(); it.hasNext(); ) {
+                Sample sample = it.next();
+                if (sample.time() <= cutoff) {
+                    return sample.value() - 1;
+                }
+            }
+        }
+        return 0L;
+    }
+
+    void record(int shard, long value) {
+        // Taken after the draw, so every smaller value was drawn before this time
+        long now = clock.getAsLong();
+        Deque<Sample> shardSamples = samples.computeIfAbsent(shard, key -> new ArrayDeque<>());
+        synchronized (shardSamples) {
+            shardSamples.addLast(new Sample(now, value));
+            // Only the newest sample older than the window is ever read again
+            long cutoff = now - safetyWindowMs;
+            while (shardSamples.size() > 1) {
+                Sample oldest = shardSamples.pollFirst();
+                if (shardSamples.peekFirst().time() > cutoff) {
+                    shardSamples.addFirst(oldest);
+                    break;
+                }
+            }
+        }
+    }
+
+    private record Sample(long time, long value) {
+    }
+}
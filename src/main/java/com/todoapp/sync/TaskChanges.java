@@ -0,0 +1,59 @@
+package com.todoapp.sync;
+
+import com.todoapp.dto.TaskChangesDTO;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.model.TaskTombstone;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Builds a page of the changes feed, shared by the blocking and reactive
+ * APIs.
+ */
+public final class TaskChanges {
+
+    private TaskChanges() {
+    }
+
+    /**
+     * Merges changed tasks and tombstones, each read in change_seq order with
+     * up to {@code maxChanges + 1} rows, into at most {@code maxChanges}
+     * changes. The watermark only advances over changes at or below
+     * {@code safeBound} (see {@link ChangeWatermarks}); newer ones are still
+     * returned, and returned again on the next poll. {@code hasMore} stays
+     * false while the watermark cannot advance, so clients fall back to
+     * their normal polling instead of fetching the same page in a loop.
+     */
+    public static <T> TaskChangesDTO merge(List<T> changedTasks, ToLongFunction<T> changeSeq,
+            Function<T, TaskDTO> toDTO, List<TaskTombstone> tombstones, long since, long safeBound,
+            int maxChanges) {
+        List<TaskDTO> changed = new ArrayList<>();
+        List<Long> deletedTaskIds = new ArrayList<>();
+        long watermark = since;
+        int taskIndex = 0;
+        int tombstoneIndex = 0;
+        while (changed.size() + deletedTaskIds.size() < maxChanges
+            && (taskIndex < changedTasks.size() || tombstoneIndex < tombstones.size())) {
+            T task = taskIndex < changedTasks.size() ? changedTasks.get(taskIndex) : null;
+            TaskTombstone tombstone = tombstoneIndex < tombstones.size() ? tombstones.get(tombstoneIndex) : null;
+            long seq;
+            if (tombstone == null || (task != null && changeSeq.applyAsLong(task) < tombstone.getChangeSeq())) {
+                changed.add(toDTO.apply(task));
+                seq = changeSeq.applyAsLong(task);
+                taskIndex++;
+            } else {
+                deletedTaskIds.add(tombstone.getTaskId());
+                seq = tombstone.getChangeSeq();
+                tombstoneIndex++;
+            }
+            if (seq <= safeBound) {
+                watermark = Math.max(watermark, seq);
+            }
+        }
+        boolean hasMore = changedTasks.size() + tombstones.size() > maxChanges && watermark > since;
+        return new TaskChangesDTO(changed, deletedTaskIds, watermark, hasMore);
+    }
+}
@@ -0,0 +1,135 @@
+package com.todoapp.archive;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.model.Task;
+import com.todoapp.repository.ArchivedTaskRepository;
+import com.todoapp.repository.TaskRepository;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SuppressWarnings("null")
+class TaskArchiverTest {
+
+    private static final long DAY_MS = 86_400_000L;
+
+    @Autowired
+    private TaskArchiver taskArchiver;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taskArchiver, "chunkSize", 500);
+        ReflectionTestUtils.setField(taskArchiver, "maxChunksPerRun", 100);
+        taskArchiver.archive();
+        String name = UUID.randomUUID().toString();
+        userId = userService.createUser(new UserDTO(null, name, name + "@example.com")).getId();
+    }
+
+    @Test
+    void testOnlyOldCompletedTasksAreArchived() {
+        TaskDTO old = createTask("Old", true, 40);
+        TaskDTO recent = createTask("Recent", true, 1);
+        TaskDTO open = createTask("Open", false, 0);
+        double movedBefore = movedCount();
+
+        assertEquals(1, taskArchiver.archive());
+
+        assertFalse(taskRepository.existsById(old.getId()));
+        assertTrue(archivedTaskRepository.existsById(old.getId()));
+        assertEquals(1.0, movedCount() - movedBefore);
+        assertEquals(List.of(recent.getId(), open.getId()), ids(taskService.getTasksByUserId(userId)));
+        assertEquals(3, taskService.getTasksByUserId(userId, true).size());
+        assertEquals(old, taskService.getTaskById(old.getId()));
+        assertEquals(List.of(old.getId()), ids(taskService.getTasksByIds(List.of(old.getId())).getItems()));
+    }
+
+    @Test
+    void testWritingAnArchivedTaskMovesItBack() {
+        TaskDTO old = createTask("Old", true, 40);
+        taskArchiver.archive();
+
+        TaskDTO reopened = taskService.updateTaskStatus(old.getId(), false);
+
+        assertFalse(reopened.getIsCompleted());
+        assertFalse(archivedTaskRepository.existsById(old.getId()));
+        assertNull(taskRepository.findById(old.getId()).orElseThrow().getCompletedAt());
+        assertEquals(List.of(old.getId()), ids(taskService.getTasksByUserId(userId)));
+    }
+
+    @Test
+    void testTasksWithoutCompletionTimeAreDatedNotArchived() {
+        TaskDTO undated = createTask("Undated", true, 0);
+        Task entity = taskRepository.findById(undated.getId()).orElseThrow();
+        entity.setCompletedAt(null);
+        taskRepository.save(entity);
+        long before = System.currentTimeMillis();
+
+        assertEquals(0, taskArchiver.archive());
+
+        Long completedAt = taskRepository.findById(undated.getId()).orElseThrow().getCompletedAt();
+        assertNotNull(completedAt);
+        assertTrue(completedAt >= before);
+    }
+
+    @Test
+    void testRunsAreBoundedAndReportLag() {
+        createTask("Old 1", true, 40);
+        createTask("Old 2", true, 35);
+        ReflectionTestUtils.setField(taskArchiver, "chunkSize", 1);
+        ReflectionTestUtils.setField(taskArchiver, "maxChunksPerRun", 1);
+
+        assertEquals(1, taskArchiver.archive());
+        assertTrue(meterRegistry.get("todoapp.archive.lag").timeGauge().value(TimeUnit.DAYS) >= 4);
+
+        assertEquals(1, taskArchiver.archive());
+        assertEquals(0.0, meterRegistry.get("todoapp.archive.lag").timeGauge().value());
+    }
+
+    private TaskDTO createTask(String title, boolean completed, int completedDaysAgo) {
+        TaskDTO task = taskService.createTask(new TaskDTO(null, title, "Description", completed, userId));
+        if (completed) {
+            Task entity = taskRepository.findById(task.getId()).orElseThrow();
+            entity.setCompletedAt(System.currentTimeMillis() - completedDaysAgo * DAY_MS);
+            taskRepository.save(entity);
+        }
+        return task;
+    }
+
+    private double movedCount() {
+        return meterRegistry.get("todoapp.archive.moved").counter().count();
+    }
+
+    private static List<Long> ids(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getId).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.todoapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.json.DtoSerializationModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU per response for a 10k-task list, reflective vs. streaming serializers,
+ * with and without gzip. Bytes on the wire are printed once per trial.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=DtoSerializationBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoSerializationBenchmark {
+
+    @Param({"10000"})
+    private int taskCount;
+
+    private List<TaskDTO> tasks;
+    private ObjectMapper reflective;
+    private ObjectMapper streaming;
+
+    @Setup
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        tasks = new ArrayList<>(taskCount);
+        for (long i = 1; i <= taskCount; i++) {
+            String description = "Note ".repeat(random.nextInt(0, 40));
+            tasks.add(new TaskDTO(i, "Task number " + i, description, random.nextBoolean(), 1 + i % 100));
+        }
+        reflective = new ObjectMapper();
+        streaming = new ObjectMapper().registerModule(new DtoSerializationModule());
+
+        byte[] json = streaming.writeValueAsBytes(tasks);
+        System.out.printf("%n%d tasks: %d bytes identity, %d bytes gzip%n",
+            taskCount, json.length, gzip(json).length);
+    }
+
+    @Benchmark
+    public byte[] reflectiveJson() throws IOException {
+        return reflective.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] streamingJson() throws IOException {
+        return streaming.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] streamingJsonGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            streaming.writeValue(gzip, tasks);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
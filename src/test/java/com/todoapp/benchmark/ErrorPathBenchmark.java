@@ -0,0 +1,121 @@
+package com.todoapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.todoapp.dto.ApiError;
+import com.todoapp.exception.GlobalExceptionHandler;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.json.DtoSerializationModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of one 404 from throw to response bytes: the previous pipeline
+ * (stack trace, eager message, HashMap body with LocalDateTime) vs. the
+ * stackless exception and {@link ApiError}. The exception is thrown
+ * {@code stackDepth} frames deep to approximate a servlet call stack.
+ * Bytes allocated per operation are printed after each iteration.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ErrorPathBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ErrorPathBenchmark {
+
+    @Param({"120"})
+    private int stackDepth;
+
+    private ObjectMapper legacyMapper;
+    private ObjectMapper leanMapper;
+    private GlobalExceptionHandler handler;
+    private long id;
+
+    private com.sun.management.ThreadMXBean threads;
+    private long allocatedAtStart;
+    private long operations;
+
+    @Setup
+    public void setUp() {
+        legacyMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        leanMapper = new ObjectMapper().registerModule(new DtoSerializationModule());
+        handler = new GlobalExceptionHandler();
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        operations = 0;
+        allocatedAtStart = threads.getCurrentThreadAllocatedBytes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedAtStart;
+        System.out.printf("%n  %d bytes allocated per 404%n", allocated / Math.max(1, operations));
+    }
+
+    @Benchmark
+    public byte[] legacy() throws IOException {
+        operations++;
+        try {
+            throwFrom(stackDepth, () -> new LegacyNotFoundException("Task not found with id: " + (++id)));
+            return null;
+        } catch (LegacyNotFoundException ex) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("timestamp", LocalDateTime.now());
+            error.put("message", ex.getMessage());
+            error.put("status", 404);
+            return legacyMapper.writeValueAsBytes(error);
+        }
+    }
+
+    @Benchmark
+    public byte[] lean() throws IOException {
+        operations++;
+        try {
+            throwFrom(stackDepth, () -> new ResourceNotFoundException("Task", ++id));
+            return null;
+        } catch (ResourceNotFoundException ex) {
+            return leanMapper.writeValueAsBytes(handler.handleApiException(ex).getBody());
+        }
+    }
+
+    private static void throwFrom(int depth, Supplier<RuntimeException> exception) {
+        if (depth <= 0) {
+            throw exception.get();
+        }
+        throwFrom(depth - 1, exception);
+    }
+
+    /** The exception as it was before: a plain RuntimeException with a full stack trace. */
+    private static class LegacyNotFoundException extends RuntimeException {
+        LegacyNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.todoapp.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.json.DtoSerializationModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode time of a task list as JSON vs. CBOR. Payload sizes are
+ * printed once per trial.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PayloadEncodingBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadEncodingBenchmark {
+
+    private static final TypeReference<List<TaskDTO>> TASK_LIST = new TypeReference<>() { };
+
+    @Param({"100", "10000"})
+    private int taskCount;
+
+    private List<TaskDTO> tasks;
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private byte[] jsonPayload;
+    private byte[] cborPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        tasks = new ArrayList<>(taskCount);
+        for (long i = 1; i <= taskCount; i++) {
+            String description = "Note ".repeat(random.nextInt(0, 40));
+            tasks.add(new TaskDTO(i, "Task number " + i, description, random.nextBoolean(), 1 + i % 100));
+        }
+        json = new ObjectMapper().registerModule(new DtoSerializationModule());
+        cbor = new ObjectMapper(new CBORFactory()).registerModule(new DtoSerializationModule());
+        jsonPayload = json.writeValueAsBytes(tasks);
+        cborPayload = cbor.writeValueAsBytes(tasks);
+        System.out.printf("%n%d tasks: %d bytes JSON, %d bytes CBOR%n",
+            taskCount, jsonPayload.length, cborPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return json.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+        return cbor.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<TaskDTO> decodeJson() throws IOException {
+        return json.readValue(jsonPayload, TASK_LIST);
+    }
+
+    @Benchmark
+    public List<TaskDTO> decodeCbor() throws IOException {
+        return cbor.readValue(cborPayload, TASK_LIST);
+    }
+}
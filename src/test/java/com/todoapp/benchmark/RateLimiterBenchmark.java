@@ -0,0 +1,58 @@
+package com.todoapp.benchmark;
+
+import com.todoapp.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request admission overhead: bucket lookup plus CAS, across many clients
+ * and threads. Target is well below one microsecond per call.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RateLimiterBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    @Param({"1000", "100000"})
+    private int clientCount;
+
+    private RateLimiter rateLimiter;
+    private String[] clientKeys;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "requestsPerSecond", 1_000_000.0);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "init");
+        clientKeys = new String[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clientKeys[i] = "client-" + i;
+            rateLimiter.tryAcquire(clientKeys[i]);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return rateLimiter.tryAcquire(clientKeys[ThreadLocalRandom.current().nextInt(clientCount)]);
+    }
+}
@@ -0,0 +1,141 @@
+package com.todoapp.benchmark;
+
+import com.todoapp.TodoAppApplication;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.memory.InMemoryTaskRepository;
+import com.todoapp.memory.TaskStore;
+import com.todoapp.model.Task;
+import com.todoapp.model.User;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task reads and writes through {@link TaskService} on the JPA engine (H2)
+ * and on the in-memory engine: get by id, list by user and a status update.
+ * For the in-memory engine the retained heap per task, not counting title
+ * and description, is printed once at setup.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=StorageEngineBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StorageEngineBenchmark {
+
+    private static final int FOOTPRINT_TASKS = 1_000_000;
+    private static final int FOOTPRINT_USERS = 10_000;
+
+    @Param({"jpa", "memory"})
+    private String engine;
+
+    @Param({"200"})
+    private int userCount;
+
+    @Param({"50"})
+    private int tasksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private long[] userIds;
+    private long[] taskIds;
+
+    @Setup
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TodoAppApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("spring.datasource.url=jdbc:h2:mem:storage-engine-benchmark", "logging.level.root=WARN");
+        if ("memory".equals(engine)) {
+            builder.profiles("memory");
+            reportFootprint();
+        }
+        // The engine alone, without its write-ahead log
+        context = builder.run("--todoapp.storage.wal.enabled=false");
+        taskService = context.getBean(TaskService.class);
+        UserService userService = context.getBean(UserService.class);
+
+        userIds = new long[userCount];
+        List<Long> ids = new ArrayList<>(userCount * tasksPerUser);
+        for (int u = 0; u < userCount; u++) {
+            userIds[u] = userService.createUser(
+                new UserDTO(null, "User " + u, "user" + u + "@example.com")).getId();
+            for (int t = 0; t < tasksPerUser; t++) {
+                ids.add(taskService.createTask(
+                    new TaskDTO(null, "Task " + t, "Description of task " + t, false, userIds[u])).getId());
+            }
+        }
+        taskIds = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TaskDTO getTask() {
+        return taskService.getTaskById(taskIds[ThreadLocalRandom.current().nextInt(taskIds.length)]);
+    }
+
+    @Benchmark
+    public List<TaskDTO> listByUser() {
+        return taskService.getTasksByUserId(userIds[ThreadLocalRandom.current().nextInt(userIds.length)]);
+    }
+
+    @Benchmark
+    public TaskDTO updateStatus() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return taskService.updateTaskStatus(taskIds[random.nextInt(taskIds.length)], random.nextBoolean());
+    }
+
+    // One shared title string and no description, so only the engine's own structures are counted
+    private static void reportFootprint() {
+        long before = usedHeap();
+        InMemoryTaskRepository repository = new InMemoryTaskRepository(new TaskStore(64));
+        User owner = new User();
+        Task task = new Task();
+        task.setTitle("Task");
+        task.setUser(owner);
+        for (int i = 0; i < FOOTPRINT_TASKS; i++) {
+            owner.setId((long) (i % FOOTPRINT_USERS) + 1);
+            task.setId(null);
+            task.setChangeSeq((long) i + 1);
+            repository.save(task);
+        }
+        long retained = usedHeap() - before;
+        Reference.reachabilityFence(repository);
+        System.out.printf("%n  %d bytes retained per task by the in-memory engine%n", retained / FOOTPRINT_TASKS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,91 @@
+package com.todoapp.benchmark;
+
+import com.todoapp.TodoAppApplication;
+import com.todoapp.datagen.DatasetGenerator;
+import com.todoapp.export.ExportFormat;
+import com.todoapp.export.TaskExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to export a synthetic dataset of {@value #TASKS} tasks as a columnar
+ * file against gzipped NDJSON. The file size of each format is printed once
+ * at setup. Both read the same rows, so the difference is the encoding.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TaskExportBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskExportBenchmark {
+
+    private static final int TASKS = 100_000;
+
+    @Param({"columnar", "ndjson"})
+    private String format;
+
+    private ConfigurableApplicationContext context;
+    private TaskExportService taskExportService;
+    private ExportFormat exportFormat;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(TodoAppApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("spring.datasource.url=jdbc:h2:mem:task-export-benchmark", "logging.level.root=WARN",
+                "spring.jpa.show-sql=false", "todoapp.datagen.users=1000", "todoapp.datagen.tasks=" + TASKS,
+                "todoapp.datagen.max-description-chars=2000")
+            .run();
+        context.getBean(DatasetGenerator.class).generate();
+        taskExportService = context.getBean(TaskExportService.class);
+        exportFormat = ExportFormat.parse(format);
+
+        CountingOutputStream out = new CountingOutputStream();
+        long rows = taskExportService.export(exportFormat, out);
+        System.out.printf("%n%s export of %d task(s): %d bytes%n", format, rows, out.count);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return taskExportService.export(exportFormat, OutputStream.nullOutputStream());
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.todoapp.benchmark;
+
+import com.todoapp.TodoAppApplication;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskImportProgressDTO;
+import com.todoapp.imports.TaskCsvReader;
+import com.todoapp.imports.TaskImporter;
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import com.todoapp.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second loaded by the CSV import against the same rows created
+ * one at a time through {@link TaskService}. On H2 this measures the
+ * batched-insert path; point {@code spring.datasource.url} at PostgreSQL
+ * (in the JVM arguments of the forked run) to measure COPY.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TaskImportBenchmark</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskImportBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    private ConfigurableApplicationContext context;
+    private TaskImporter taskImporter;
+    private TaskService taskService;
+    private Long userId;
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoAppApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("spring.datasource.url=jdbc:h2:mem:task-import-benchmark", "logging.level.root=WARN",
+                "spring.jpa.show-sql=false")
+            .run();
+        taskImporter = context.getBean(TaskImporter.class);
+        taskService = context.getBean(TaskService.class);
+
+        User user = new User();
+        user.setName("Benchmark User");
+        user.setEmail("import-benchmark@example.com");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder rows = new StringBuilder("title,description,isCompleted,userId\n");
+        for (int i = 0; i < ROWS; i++) {
+            rows.append("Task ").append(i).append(",\"")
+                .append("word ".repeat(random.nextInt(0, 40)))
+                .append("\",").append(random.nextBoolean()).append(',').append(userId).append('\n');
+        }
+        csv = rows.toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public TaskImportProgressDTO csvImport() throws IOException {
+        return taskImporter.importTasks(new TaskCsvReader(new StringReader(csv)), progress -> { });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long createOneByOne() {
+        long id = 0;
+        for (int i = 0; i < ROWS; i++) {
+            id = taskService.createTask(new TaskDTO(null, "Task " + i, "word word", false, userId)).getId();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,116 @@
+package com.todoapp.benchmark;
+
+import com.todoapp.TodoAppApplication;
+import com.todoapp.dto.SparseTaskList;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.model.Task;
+import com.todoapp.model.User;
+import com.todoapp.repository.TaskRepository;
+import com.todoapp.repository.UserRepository;
+import com.todoapp.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List latency for one user's tasks on H2 with a skewed description size
+ * mix: 70% under 200 chars, 25% between 1 and 20 KB, 5% between 100 KB
+ * and 1 MB.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TaskListBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskListBenchmark {
+
+    private static final Set<TaskField> LIST_VIEW_FIELDS = TaskField.parse("title,isCompleted");
+
+    @Param({"500"})
+    private int taskCount;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoAppApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("spring.datasource.url=jdbc:h2:mem:task-list-benchmark", "logging.level.root=WARN")
+            .run();
+        taskService = context.getBean(TaskService.class);
+        TaskRepository taskRepository = context.getBean(TaskRepository.class);
+
+        User user = new User();
+        user.setName("Benchmark User");
+        user.setEmail("benchmark@example.com");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setDescription(randomDescription(random));
+            task.setIsCompleted(random.nextBoolean());
+            task.setUser(user);
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskDTO> fullList() {
+        return taskService.getTasksByUserId(userId);
+    }
+
+    @Benchmark
+    public SparseTaskList listViewFields() {
+        return taskService.getTaskFieldsByUserId(userId, LIST_VIEW_FIELDS);
+    }
+
+    private static String randomDescription(SplittableRandom random) {
+        int bucket = random.nextInt(100);
+        int length;
+        if (bucket < 70) {
+            length = random.nextInt(0, 200);
+        } else if (bucket < 95) {
+            length = random.nextInt(1_024, 20_480);
+        } else {
+            length = random.nextInt(100_000, 1_000_000);
+        }
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append("word").append(random.nextInt(5_000)).append(' ');
+        }
+        return text.substring(0, length);
+    }
+}
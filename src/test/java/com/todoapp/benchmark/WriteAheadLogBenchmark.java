@@ -0,0 +1,99 @@
+package com.todoapp.benchmark;
+
+import com.todoapp.TodoAppApplication;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained status updates through {@link TaskService} on the in-memory
+ * engine, with and without the write-ahead log, from one writer and from
+ * eight. With the log every update is durable before it returns, so the
+ * eight-writer case shows how much group commit shares each fsync.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WriteAheadLogBenchmark</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteAheadLogBenchmark {
+
+    @Param({"false", "true"})
+    private boolean wal;
+
+    @Param({"10000"})
+    private int taskCount;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private long[] taskIds;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal-benchmark");
+        context = new SpringApplicationBuilder(TodoAppApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("memory")
+            .properties("logging.level.root=WARN")
+            // Arguments, as default properties would lose to the profile's own settings
+            .run("--todoapp.storage.wal.enabled=" + wal, "--todoapp.storage.wal.dir=" + directory);
+        taskService = context.getBean(TaskService.class);
+        long userId = context.getBean(UserService.class)
+            .createUser(new UserDTO(null, "Writer", "writer@example.com")).getId();
+        taskIds = new long[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            taskIds[i] = taskService.createTask(new TaskDTO(null, "Task " + i, null, false, userId)).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TaskDTO updateStatusOneWriter() {
+        return updateStatus();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TaskDTO updateStatusEightWriters() {
+        return updateStatus();
+    }
+
+    private TaskDTO updateStatus() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return taskService.updateTaskStatus(taskIds[random.nextInt(taskIds.length)], random.nextBoolean());
+    }
+}
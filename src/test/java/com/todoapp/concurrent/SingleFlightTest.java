@@ -0,0 +1,127 @@
+package com.todoapp.concurrent;
+
+import com.todoapp.exception.RequestTimeoutException;
+import com.todoapp.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testThunderingHerdSharesOneLoad() throws Exception {
+        int callers = 200;
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return singleFlight.execute(1L, TIMEOUT, () -> {
+                        queries.incrementAndGet();
+                        sleep(100);
+                        return "task-1";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("task-1", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(queries.get() <= callers / 10,
+            "expected coalescing, but " + queries.get() + " queries ran for " + callers + " callers");
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void testFailurePropagatesToEveryWaiter() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> singleFlight.execute(1L, TIMEOUT, () -> {
+                loading.countDown();
+                await(release);
+                throw new ResourceNotFoundException("Task not found with id: 1");
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+            Future<String> waiter = pool.submit(() -> singleFlight.execute(1L, TIMEOUT, () -> "unexpected"));
+            sleep(50);
+            release.countDown();
+
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception waiterFailure = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, leaderFailure.getCause());
+            assertInstanceOf(ResourceNotFoundException.class, waiterFailure.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testWaiterTimesOut() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> singleFlight.execute(1L, TIMEOUT, () -> {
+                loading.countDown();
+                await(release);
+                return "slow";
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+
+            assertThrows(RequestTimeoutException.class,
+                () -> singleFlight.execute(1L, Duration.ofMillis(20), () -> "unexpected"));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSequentialCallsAreNotCached() {
+        AtomicInteger queries = new AtomicInteger();
+
+        singleFlight.execute(1L, TIMEOUT, () -> "v" + queries.incrementAndGet());
+        String second = singleFlight.execute(1L, TIMEOUT, () -> "v" + queries.incrementAndGet());
+
+        assertEquals("v2", second);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.todoapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.dto.SparseTaskList;
 import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.dto.TaskQuery;
+import com.todoapp.json.DtoSerializationModule;
+import com.todoapp.event.TaskChangeFeed;
+import com.todoapp.idempotency.IdempotencyService;
 import com.todoapp.service.TaskService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,16 +18,22 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +50,12 @@ class TaskControllerTest {
     @Mock
     private TaskService taskService;
 
+    @Mock
+    private TaskChangeFeed taskChangeFeed;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private TaskController taskController;
 
@@ -50,8 +69,11 @@ class TaskControllerTest {
         TaskDTO taskDTO = new TaskDTO(1L, "Test Task", "Description", false, 1L);
 
         when(taskService.createTask(any(TaskDTO.class))).thenReturn(taskDTO);
+        when(idempotencyService.execute(eq("tasks"), eq("retry-1"), any(), eq(TaskDTO.class), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
 
         mockMvc.perform(post("/api/tasks")
+                .header(IdempotencyService.KEY_HEADER, "retry-1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(taskDTO)))
                 .andExpect(status().isCreated())
@@ -81,14 +103,33 @@ class TaskControllerTest {
         TaskDTO task1 = new TaskDTO(1L, "Task 1", "Desc 1", false, 1L);
         TaskDTO task2 = new TaskDTO(2L, "Task 2", "Desc 2", true, 1L);
 
-        when(taskService.getTasksByUserId(anyLong())).thenReturn(Arrays.asList(task1, task2));
+        when(taskService.getTasksByUserId(anyLong(), eq(false))).thenReturn(Arrays.asList(task1, task2));
 
         mockMvc.perform(get("/api/tasks/user/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].title").value("Task 1"))
                 .andExpect(jsonPath("$[1].title").value("Task 2"));
 
-        verify(taskService, times(1)).getTasksByUserId(1L);
+        verify(taskService, times(1)).getTasksByUserId(1L, false);
+    }
+
+    @Test
+    void testGetTasksByUserIdWithFilters() throws Exception {
+        TaskDTO task = new TaskDTO(2L, "Buy milk", null, false, 1L);
+        TaskQuery query = new TaskQuery(false, "Buy", "title,desc", 1, 20);
+
+        when(taskService.getTasksByUserId(1L, query, false)).thenReturn(List.of(task));
+
+        mockMvc.perform(get("/api/tasks/user/1")
+                .param("completed", "false")
+                .param("titlePrefix", "Buy")
+                .param("sort", "title,desc")
+                .param("page", "1")
+                .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Buy milk"));
+
+        verify(taskService, never()).getTasksByUserId(anyLong(), anyBoolean());
     }
 
     @Test
@@ -117,4 +158,94 @@ class TaskControllerTest {
 
         verify(taskService, times(1)).deleteTask(1L);
     }
+
+    @Test
+    void testStreamTaskChanges() throws Exception {
+        when(taskChangeFeed.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/tasks/user/1/events")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(taskChangeFeed, times(1)).subscribe(1L);
+    }
+
+    @Test
+    void testGetTasksByIds() throws Exception {
+        TaskDTO task = new TaskDTO(2L, "Task 2", "Desc 2", false, 1L);
+
+        when(taskService.getTasksByIds(List.of(2L, 9L)))
+            .thenReturn(new BatchResultDTO<>(List.of(task), List.of(9L)));
+
+        mockMvc.perform(get("/api/tasks/batch").param("ids", "2,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2))
+                .andExpect(jsonPath("$.missingIds[0]").value(9));
+
+        verify(taskService, times(1)).getTasksByIds(List.of(2L, 9L));
+    }
+
+    @Test
+    void testGetTaskFieldsByUserId() throws Exception {
+        TaskDTO task = new TaskDTO(1L, "Task 1", null, true, null);
+        EnumSet<TaskField> fields = EnumSet.of(TaskField.ID, TaskField.TITLE, TaskField.IS_COMPLETED);
+        when(taskService.getTaskFieldsByUserId(eq(1L), eq(fields), eq(TaskQuery.NONE), eq(false)))
+            .thenReturn(new SparseTaskList(fields, List.of(task)));
+
+        sparseMockMvc().perform(get("/api/tasks/user/1").param("fields", "title,isCompleted"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].title").value("Task 1"))
+                .andExpect(jsonPath("$[0].isCompleted").value(true))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].userId").doesNotExist());
+
+        verify(taskService, never()).getTasksByUserId(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testGetTaskFieldsByUserIdIsFilteredAndPaged() throws Exception {
+        TaskDTO task = new TaskDTO(4L, "Buy milk", null, true, null);
+        EnumSet<TaskField> fields = EnumSet.of(TaskField.ID, TaskField.TITLE);
+        TaskQuery query = new TaskQuery(true, "Buy", "title,desc", 1, 20);
+        when(taskService.getTaskFieldsByUserId(eq(1L), eq(fields), eq(query), eq(false)))
+            .thenReturn(new SparseTaskList(fields, List.of(task)));
+
+        sparseMockMvc().perform(get("/api/tasks/user/1")
+                .param("fields", "title")
+                .param("completed", "true")
+                .param("titlePrefix", "Buy")
+                .param("sort", "title,desc")
+                .param("page", "1")
+                .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(4))
+                .andExpect(jsonPath("$[0].title").value("Buy milk"))
+                .andExpect(jsonPath("$[0].isCompleted").doesNotExist());
+
+        verify(taskService, never()).getTaskFieldsByUserId(anyLong(), any());
+    }
+
+    @Test
+    void testGetAllTaskFieldsPassesTheQuery() throws Exception {
+        EnumSet<TaskField> fields = EnumSet.of(TaskField.ID);
+        TaskQuery query = new TaskQuery(false, null, null, 0, 5);
+        when(taskService.getAllTaskFields(eq(fields), eq(query), eq(false)))
+            .thenReturn(new SparseTaskList(fields, List.of()));
+
+        sparseMockMvc().perform(get("/api/tasks")
+                .param("fields", "id")
+                .param("completed", "false")
+                .param("page", "0")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    private MockMvc sparseMockMvc() {
+        return MockMvcBuilders.standaloneSetup(taskController)
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(
+                new ObjectMapper().registerModule(new DtoSerializationModule())))
+            .build();
+    }
 }
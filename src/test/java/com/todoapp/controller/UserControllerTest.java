@@ -1,7 +1,9 @@
 package com.todoapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.BatchResultDTO;
 import com.todoapp.dto.UserDTO;
+import com.todoapp.idempotency.IdempotencyService;
 import com.todoapp.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,9 +17,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +40,9 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private UserController userController;
 
@@ -47,6 +56,8 @@ class UserControllerTest {
         UserDTO userDTO = new UserDTO(1L, "John Doe", "john@example.com");
 
         when(userService.createUser(any(UserDTO.class))).thenReturn(userDTO);
+        when(idempotencyService.execute(eq("users"), isNull(), any(), eq(UserDTO.class), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
 
         mockMvc.perform(post("/api/users")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -97,4 +108,19 @@ class UserControllerTest {
 
         verify(userService, times(1)).deleteUser(1L);
     }
+
+    @Test
+    void testGetUsersByIds() throws Exception {
+        UserDTO user = new UserDTO(1L, "John Doe", "john@example.com");
+
+        when(userService.getUsersByIds(List.of(1L)))
+            .thenReturn(new BatchResultDTO<>(List.of(user), List.of()));
+
+        mockMvc.perform(get("/api/users/batch").param("ids", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("john@example.com"))
+                .andExpect(jsonPath("$.missingIds").isEmpty());
+
+        verify(userService, times(1)).getUsersByIds(List.of(1L));
+    }
 }
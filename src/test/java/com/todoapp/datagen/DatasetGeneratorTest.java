@@ -0,0 +1,82 @@
+package com.todoapp.datagen;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DatasetGeneratorTest {
+
+    @Autowired
+    private DatasetGenerator datasetGenerator;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long seed;
+
+    @BeforeEach
+    void setUp() {
+        seed = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        ReflectionTestUtils.setField(datasetGenerator, "seed", seed);
+        ReflectionTestUtils.setField(datasetGenerator, "users", 20);
+        ReflectionTestUtils.setField(datasetGenerator, "tasks", 1_000L);
+        ReflectionTestUtils.setField(datasetGenerator, "chunkSize", 300);
+    }
+
+    @Test
+    void testDatasetIsWrittenOncePerSeed() {
+        assertTrue(datasetGenerator.generate());
+        assertFalse(datasetGenerator.generate());
+        assertDatasetLoaded();
+    }
+
+    @Test
+    void testUnfinishedLoadIsReplaced() {
+        assertTrue(datasetGenerator.generate());
+        // As if the run had stopped before recording completion
+        jdbcTemplate.update("DELETE FROM dataset_loads WHERE seed = ?", seed);
+
+        assertTrue(datasetGenerator.generate());
+        assertFalse(datasetGenerator.generate());
+        assertDatasetLoaded();
+    }
+
+    private void assertDatasetLoaded() {
+        SyntheticDataset expected = new SyntheticDataset(seed, 20, 1.1, 0.35, 0.6, 65_536);
+        List<UserDTO> users = userService.getAllUsers().stream()
+            .filter(user -> user.getEmail().startsWith("datagen-" + seed + "-"))
+            .toList();
+        assertEquals(20, users.size());
+
+        int total = 0;
+        int heaviest = 0;
+        for (UserDTO user : users) {
+            List<TaskDTO> tasks = taskService.getTasksByUserId(user.getId());
+            total += tasks.size();
+            if (user.getEmail().equals(expected.userEmail(0))) {
+                heaviest = tasks.size();
+            }
+        }
+        assertEquals(1_000, total);
+        assertTrue(heaviest > 1_000 / 20, "user 0 owns " + heaviest);
+    }
+}
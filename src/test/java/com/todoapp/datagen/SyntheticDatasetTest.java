@@ -0,0 +1,64 @@
+package com.todoapp.datagen;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDatasetTest {
+
+    @Test
+    void testSameSeedGivesSameRows() {
+        assertEquals(rows(7), rows(7));
+        assertNotEquals(rows(7), rows(8));
+    }
+
+    @Test
+    void testTasksPerUserAreSkewed() {
+        SyntheticDataset dataset = new SyntheticDataset(1, 1000, 1.1, 0.35, 0.6, 65_536);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 100_000; i++) {
+            counts[dataset.nextOwner()]++;
+        }
+
+        int topTen = 0;
+        for (int user = 0; user < 10; user++) {
+            topTen += counts[user];
+        }
+        assertTrue(topTen > 30_000, "top 1% of users own " + topTen);
+        assertTrue(counts[0] > 10 * counts[99]);
+    }
+
+    @Test
+    void testDescriptionLengthsHaveALongTail() {
+        SyntheticDataset dataset = new SyntheticDataset(1, 10, 1.1, 0.35, 0.6, 8_000);
+        int missing = 0;
+        int outOfLine = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String description = dataset.nextTask(1L).getDescription();
+            if (description == null) {
+                missing++;
+            } else {
+                assertTrue(description.length() <= 8_000);
+                if (description.length() > Task.INLINE_DESCRIPTION_LIMIT) {
+                    outOfLine++;
+                }
+            }
+        }
+        assertEquals(0.4, missing / 20_000.0, 0.02);
+        assertTrue(outOfLine > 50 && outOfLine < 1_000, outOfLine + " out-of-line descriptions");
+    }
+
+    private static List<TaskDTO> rows(long seed) {
+        SyntheticDataset dataset = new SyntheticDataset(seed, 50, 1.1, 0.35, 0.6, 65_536);
+        List<TaskDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(dataset.nextTask((long) dataset.nextOwner()));
+        }
+        return rows;
+    }
+}
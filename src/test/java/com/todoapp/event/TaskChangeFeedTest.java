@@ -0,0 +1,108 @@
+package com.todoapp.event;
+
+import com.todoapp.dto.TaskDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskChangeFeedTest {
+
+    private ExecutorService dispatcher;
+    private TaskChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = Executors.newSingleThreadExecutor();
+        feed = new TaskChangeFeed(dispatcher);
+        ReflectionTestUtils.setField(feed, "bufferSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdownNow();
+    }
+
+    @Test
+    void testEventsAreDeliveredOnlyToTheOwningUser() throws Exception {
+        RecordingEmitter alice = new RecordingEmitter();
+        RecordingEmitter bob = new RecordingEmitter();
+        feed.register(1L, alice);
+        feed.register(2L, bob);
+
+        feed.onTaskChange(TaskChangeEvent.created(new TaskDTO(10L, "Task", null, false, 1L)));
+        feed.onTaskChange(TaskChangeEvent.deleted(1L, 10L));
+        drainDispatcher();
+
+        assertEquals(2, alice.sent.size());
+        assertEquals(0, bob.sent.size());
+        assertEquals(2, feed.getSubscriberCount());
+    }
+
+    @Test
+    void testSlowConsumerOverflowTriggersResync() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.execute(() -> awaitQuietly(release));
+
+        RecordingEmitter slow = new RecordingEmitter();
+        feed.register(1L, slow);
+        for (long id = 1; id <= 5; id++) {
+            feed.onTaskChange(TaskChangeEvent.updated(new TaskDTO(id, "Task", null, false, 1L)));
+        }
+        release.countDown();
+        drainDispatcher();
+
+        assertTrue(slow.sent.size() <= 3);
+        assertTrue(slow.sent.get(0).stream()
+            .anyMatch(part -> part.getData().toString().contains("event:" + TaskChangeFeed.RESYNC_EVENT)));
+    }
+
+    @Test
+    void testFailedSubscriberIsRemoved() throws Exception {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failOnSend = true;
+        feed.register(1L, broken);
+
+        feed.onTaskChange(TaskChangeEvent.deleted(1L, 10L));
+        drainDispatcher();
+
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    private void drainDispatcher() throws Exception {
+        dispatcher.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Set<DataWithMediaType>> sent = new ArrayList<>();
+        private boolean failOnSend;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failOnSend) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build());
+        }
+    }
+}
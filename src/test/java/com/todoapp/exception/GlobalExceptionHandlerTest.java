@@ -0,0 +1,44 @@
+package com.todoapp.exception;
+
+import com.todoapp.dto.ApiError;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void testDomainExceptionsAreStackless() {
+        ResourceNotFoundException ex = new ResourceNotFoundException("Task", 42L);
+
+        assertEquals(0, ex.getStackTrace().length);
+        ex.addSuppressed(new IllegalStateException());
+        assertEquals(0, ex.getSuppressed().length);
+        assertEquals("Task not found with id: 42", ex.getMessage());
+    }
+
+    @Test
+    void testApiExceptionMapsToItsStatus() {
+        ResponseEntity<ApiError> notFound = handler.handleApiException(new ResourceNotFoundException("User", 7L));
+        ResponseEntity<ApiError> conflict = handler.handleApiException(new DuplicateResourceException("taken"));
+
+        assertEquals(404, notFound.getStatusCode().value());
+        assertEquals(404, notFound.getBody().status());
+        assertEquals("User not found with id: 7", notFound.getBody().message());
+        assertNull(notFound.getBody().errors());
+        assertEquals(409, conflict.getStatusCode().value());
+        assertEquals("taken", conflict.getBody().message());
+    }
+
+    @Test
+    void testGenericExceptionDoesNotLeakMessage() {
+        ResponseEntity<ApiError> response = handler.handleGenericException(
+            new IllegalStateException("connection to db-primary:5432 refused"));
+
+        assertEquals(500, response.getStatusCode().value());
+        assertEquals("Internal server error", response.getBody().message());
+    }
+}
@@ -0,0 +1,71 @@
+package com.todoapp.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskWriterTest {
+
+    @Test
+    void testRowsRoundTripAcrossRowGroups() throws IOException {
+        List<TaskExportRow> rows = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            long userId = i % 3 + 100;
+            rows.add(new TaskExportRow(i * 7 + 1, userId, "user" + userId + "@example.com", "Task ñ " + i,
+                i % 2 == 0 ? "Description " + i : null, i % 4 == 0, i % 4 == 0 ? 1_700_000_000_000L + i : null));
+        }
+        // Ids that step back must survive the delta encoding
+        rows.add(new TaskExportRow(3L, 100L, "user100@example.com", "", "", false, null));
+
+        List<List<TaskExportRow>> groups = new ArrayList<>();
+        ColumnarTaskReader reader = new ColumnarTaskReader(new ByteArrayInputStream(write(rows, 4)));
+        for (List<TaskExportRow> group = reader.nextRowGroup(); group != null; group = reader.nextRowGroup()) {
+            groups.add(group);
+        }
+
+        assertEquals(List.of(4, 4, 3), groups.stream().map(List::size).toList());
+        assertEquals(rows, groups.stream().flatMap(List::stream).toList());
+        assertEquals(11, reader.getTotalRows());
+    }
+
+    @Test
+    void testEmptyExportHasNoRowGroups() throws IOException {
+        ColumnarTaskReader reader = new ColumnarTaskReader(new ByteArrayInputStream(write(List.of(), 4)));
+
+        assertNull(reader.nextRowGroup());
+        assertEquals(0, reader.getTotalRows());
+    }
+
+    @Test
+    void testBitWidthFitsEveryDictionaryIndex() {
+        assertEquals(1, ColumnarTaskWriter.bitWidth(1));
+        assertEquals(1, ColumnarTaskWriter.bitWidth(2));
+        assertEquals(2, ColumnarTaskWriter.bitWidth(3));
+        assertEquals(8, ColumnarTaskWriter.bitWidth(256));
+        assertEquals(9, ColumnarTaskWriter.bitWidth(257));
+    }
+
+    @Test
+    void testOtherFilesAreRejected() {
+        byte[] csv = "title,description\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> new ColumnarTaskReader(new ByteArrayInputStream(csv)));
+    }
+
+    private static byte[] write(List<TaskExportRow> rows, int maxRows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ColumnarTaskWriter writer = new ColumnarTaskWriter(out, maxRows, Long.MAX_VALUE);
+        for (TaskExportRow row : rows) {
+            writer.write(row);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+}
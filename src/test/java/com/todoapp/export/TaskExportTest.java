@@ -0,0 +1,186 @@
+package com.todoapp.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskExportDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"todoapp.export.chunk-size=2", "todoapp.export.row-group-rows=3"})
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+class TaskExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskExportService taskExportService;
+
+    private Long userId;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString();
+        email = name + "@example.com";
+        userId = userService.createUser(new UserDTO(null, name, email)).getId();
+        taskService.createTask(new TaskDTO(null, "First", null, false, userId));
+        taskService.createTask(new TaskDTO(null, "Second", "Notes", false, userId));
+        Long third = taskService.createTask(new TaskDTO(null, "Third", null, false, userId)).getId();
+        taskService.updateTaskStatus(third, true);
+    }
+
+    @Test
+    void testColumnarExportRunsInTheBackgroundAndIsDownloadable() throws Exception {
+        TaskExportDTO export = finish(start("columnar"));
+        assertEquals("DONE", export.getStatus());
+        assertTrue(export.getRows() >= 3);
+
+        byte[] file = mockMvc.perform(get("/api/exports/" + export.getId() + "/file"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/octet-stream"))
+            .andExpect(header().string("Content-Disposition",
+                "attachment; filename=\"tasks-" + export.getId() + ".tdc\""))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(export.getBytes(), (long) file.length);
+
+        List<TaskExportRow> rows = new ArrayList<>();
+        ColumnarTaskReader reader = new ColumnarTaskReader(new ByteArrayInputStream(file));
+        for (List<TaskExportRow> group = reader.nextRowGroup(); group != null; group = reader.nextRowGroup()) {
+            assertTrue(group.size() <= 3);
+            rows.addAll(group);
+        }
+        assertEquals((long) export.getRows(), reader.getTotalRows());
+        assertEquals(export.getRows(), (long) rows.size());
+        List<TaskExportRow> mine = rows.stream().filter(row -> row.userId().equals(userId)).toList();
+        assertEquals(List.of("First", "Second", "Third"), mine.stream().map(TaskExportRow::title).toList());
+        assertTrue(mine.stream().allMatch(row -> email.equals(row.userEmail())));
+        assertEquals("Notes", mine.get(1).description());
+        assertTrue(mine.get(2).isCompleted());
+        assertNotNull(mine.get(2).completedAt());
+    }
+
+    @Test
+    void testNdjsonExportHasOneGzippedLinePerTask() throws Exception {
+        TaskExportDTO export = finish(start("ndjson"));
+        assertEquals("DONE", export.getStatus());
+
+        byte[] file = mockMvc.perform(get("/api/exports/" + export.getId() + "/file"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/gzip"))
+            .andReturn().getResponse().getContentAsByteArray();
+        List<TaskExportRow> rows = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(file)), StandardCharsets.UTF_8))) {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                rows.add(objectMapper.readValue(line, TaskExportRow.class));
+            }
+        }
+        assertEquals(export.getRows(), (long) rows.size());
+        assertEquals(3, rows.stream().filter(row -> row.userId().equals(userId)).count());
+    }
+
+    @Test
+    void testUnknownFormatAndExportAreRejected() throws Exception {
+        mockMvc.perform(post("/api/exports/tasks").param("format", "parquet"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unknown export format: parquet"));
+        mockMvc.perform(get("/api/exports/" + UUID.randomUUID()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testSecondExportIsRejectedWhileOneIsQueued() throws Exception {
+        // Holds the export thread so the first export stays queued
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(taskExportService, "executor");
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        TaskExportDTO first;
+        try {
+            first = start("ndjson");
+            mockMvc.perform(post("/api/exports/tasks").param("format", "columnar"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Export " + first.getId() + " is still running"));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("DONE", finish(first).getStatus());
+        assertEquals("DONE", finish(start("columnar")).getStatus());
+    }
+
+    @Test
+    void testFilesOfEarlierProcessesAreDeleted() throws Exception {
+        String dir = (String) ReflectionTestUtils.getField(taskExportService, "dir");
+        Path directory = Files.createDirectories(Path.of(dir));
+        Path stale = Files.writeString(directory.resolve(UUID.randomUUID() + ".tdc"), "stale");
+        Path other = Files.writeString(directory.resolve(UUID.randomUUID() + ".txt"), "other");
+
+        taskExportService.deleteOrphanedFiles();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(other));
+        Files.delete(other);
+    }
+
+    private TaskExportDTO start(String format) throws Exception {
+        String body = mockMvc.perform(post("/api/exports/tasks").param("format", format))
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists("Location"))
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, TaskExportDTO.class);
+    }
+
+    private TaskExportDTO finish(TaskExportDTO export) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ("RUNNING".equals(export.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            String body = mockMvc.perform(get("/api/exports/" + export.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            export = objectMapper.readValue(body, TaskExportDTO.class);
+        }
+        return export;
+    }
+}
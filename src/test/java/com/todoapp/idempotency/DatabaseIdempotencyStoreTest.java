@@ -0,0 +1,67 @@
+package com.todoapp.idempotency;
+
+import com.todoapp.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(DatabaseIdempotencyStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseIdempotencyStoreTest {
+
+    @Autowired
+    private DatabaseIdempotencyStore store;
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testOnlyOneAttemptClaimsKey() {
+        assertTrue(store.tryBegin("tasks:key-1", "abc", 1_000L, 31_000L));
+        assertFalse(store.tryBegin("tasks:key-1", "abc", 2_000L, 32_000L));
+
+        IdempotencyEntry lease = store.find("tasks:key-1", 2_000L).orElseThrow();
+        assertFalse(lease.completed());
+        assertEquals("abc", lease.fingerprint());
+    }
+
+    @Test
+    void testCompletedResponseIsReturned() {
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        store.tryBegin("tasks:key-1", "abc", 1_000L, 31_000L);
+        store.complete("tasks:key-1", 201, body, 100_000L);
+
+        IdempotencyEntry entry = store.find("tasks:key-1", 50_000L).orElseThrow();
+        assertTrue(entry.completed());
+        assertEquals(201, entry.status());
+        assertArrayEquals(body, entry.body());
+        assertFalse(store.tryBegin("tasks:key-1", "abc", 50_000L, 80_000L));
+    }
+
+    @Test
+    void testReleaseAndExpiryFreeTheKey() {
+        store.tryBegin("tasks:key-1", "abc", 1_000L, 31_000L);
+        store.release("tasks:key-1");
+        assertTrue(store.tryBegin("tasks:key-1", "abc", 2_000L, 32_000L));
+
+        assertTrue(store.find("tasks:key-1", 40_000L).isEmpty());
+        assertTrue(store.tryBegin("tasks:key-1", "abc", 40_000L, 70_000L));
+
+        assertEquals(1, store.evictExpired(100_000L));
+        assertEquals(0, repository.count());
+    }
+}
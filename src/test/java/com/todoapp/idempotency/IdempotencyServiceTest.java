@@ -0,0 +1,193 @@
+package com.todoapp.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.exception.IdempotencyKeyReuseException;
+import com.todoapp.exception.InvalidRequestException;
+import com.todoapp.exception.RequestTimeoutException;
+import com.todoapp.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final MemoryIdempotencyStore store = new MemoryIdempotencyStore();
+    private final IdempotencyService service = new IdempotencyService(now::get);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final TaskDTO request = new TaskDTO(null, "Buy milk", null, false, 1L);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "stores", Map.of("memoryIdempotencyStore", store));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        service.init();
+    }
+
+    @Test
+    void testRetryReplaysFirstResponse() {
+        ResponseEntity<TaskDTO> first = create("key-1", request);
+        ResponseEntity<TaskDTO> retry = create("key-1", request);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testRequestsWithoutKeyAlwaysExecute() {
+        create(null, request);
+        create(null, request);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testConcurrentRetriesExecuteOnce() throws Exception {
+        int retries = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(retries);
+        try {
+            List<Future<ResponseEntity<TaskDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < retries; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return service.execute("tasks", "key-1", request, TaskDTO.class, () -> {
+                        sleep(100);
+                        return respond();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<ResponseEntity<TaskDTO>> result : results) {
+                assertEquals(1L, result.get(10, TimeUnit.SECONDS).getBody().getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testKeyReusedWithDifferentBodyIsRejected() {
+        create("key-1", request);
+
+        TaskDTO other = new TaskDTO(null, "Buy bread", null, false, 1L);
+        assertThrows(IdempotencyKeyReuseException.class, () -> create("key-1", other));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testFailedAttemptReleasesKey() {
+        assertThrows(ResourceNotFoundException.class, () -> service.execute("tasks", "key-1", request,
+            TaskDTO.class, () -> {
+                throw new ResourceNotFoundException("User", 1L);
+            }));
+
+        create("key-1", request);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testUnrecordedResponseKeepsTheKey() {
+        MemoryIdempotencyStore failing = new MemoryIdempotencyStore() {
+            @Override
+            public void complete(String key, int status, byte[] body, long expiresAt) {
+                throw new IllegalStateException("store unavailable");
+            }
+        };
+        ReflectionTestUtils.setField(service, "stores", Map.of("memoryIdempotencyStore", failing));
+        ReflectionTestUtils.setField(service, "waitTimeoutMs", 0L);
+        service.init();
+
+        assertThrows(IllegalStateException.class, () -> create("key-1", request));
+        assertThrows(RequestTimeoutException.class, () -> create("key-1", request));
+        assertEquals(1, executions.get());
+
+        now.addAndGet(30_000L);
+        assertThrows(IllegalStateException.class, () -> create("key-1", request));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testExpiredKeyExecutesAgain() {
+        create("key-1", request);
+        now.addAndGet(86_400_000L);
+
+        create("key-1", request);
+        assertEquals(2, executions.get());
+
+        now.addAndGet(86_400_000L);
+        service.evictExpired();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testInvalidKeyIsRejected() {
+        assertThrows(InvalidRequestException.class, () -> create(" ", request));
+        assertThrows(InvalidRequestException.class, () -> create("k".repeat(256), request));
+    }
+
+    @Test
+    void testFullStoreDropsEldestCompletedEntries() {
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+        create("key-1", request);
+        create("key-2", request);
+        create("key-3", request);
+
+        assertEquals(2, store.size());
+        assertTrue(store.find("tasks:key-1", now.get()).isEmpty());
+        assertTrue(store.find("tasks:key-3", now.get()).isPresent());
+    }
+
+    @Test
+    void testStoreFullOfLeasesRefusesNewKeys() {
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+        assertTrue(store.tryBegin("tasks:key-1", "abc", now.get(), now.get() + 30_000L));
+        assertTrue(store.tryBegin("tasks:key-2", "abc", now.get(), now.get() + 30_000L));
+
+        RequestTimeoutException ex = assertThrows(RequestTimeoutException.class, () -> create("key-3", request));
+
+        assertEquals(503, ex.getStatus().value());
+        assertEquals(0, executions.get());
+        assertEquals(2, store.size());
+    }
+
+    private ResponseEntity<TaskDTO> create(String key, TaskDTO body) {
+        return service.execute("tasks", key, body, TaskDTO.class, this::respond);
+    }
+
+    private ResponseEntity<TaskDTO> respond() {
+        long id = executions.incrementAndGet();
+        return new ResponseEntity<>(new TaskDTO(id, request.getTitle(), null, false, 1L), HttpStatus.CREATED);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.todoapp.imports;
+
+import com.todoapp.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCsvReaderTest {
+
+    @Test
+    void testQuotedFieldsAndLineNumbers() throws IOException {
+        TaskCsvReader reader = reader("\uFEFFuserId,title,description,isCompleted\r\n"
+            + "1,Plain,,\r\n"
+            + "\r\n"
+            + "2,\"Comma, \"\"quoted\"\"\",\"Two\nlines\",TRUE\n"
+            + "3,Last,x,false");
+
+        TaskCsvReader.Row plain = reader.next();
+        assertEquals(2, plain.line());
+        assertEquals("Plain", plain.task().getTitle());
+        assertNull(plain.task().getDescription());
+        assertFalse(plain.task().getIsCompleted());
+        assertEquals(1L, plain.task().getUserId());
+
+        TaskCsvReader.Row quoted = reader.next();
+        assertEquals(4, quoted.line());
+        assertEquals("Comma, \"quoted\"", quoted.task().getTitle());
+        assertEquals("Two\nlines", quoted.task().getDescription());
+        assertTrue(quoted.task().getIsCompleted());
+
+        assertEquals(6, reader.next().line());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testBadRowsAreReportedAndReadingGoesOn() throws IOException {
+        TaskCsvReader reader = reader("title,userId,isCompleted\n"
+            + "A,x,false\n"
+            + "B,1,maybe\n"
+            + "C,1\n"
+            + "\"D\"x,1,true\n"
+            + "E,1,true\n"
+            + "\"F,1,true\n");
+
+        assertEquals("Invalid userId: x", reader.next().error());
+        assertEquals("Invalid isCompleted: maybe", reader.next().error());
+        assertEquals("Expected 3 fields but found 2", reader.next().error());
+        assertEquals("Unexpected character after a closing quote", reader.next().error());
+        assertEquals("E", reader.next().task().getTitle());
+        TaskCsvReader.Row unterminated = reader.next();
+        assertEquals(7, unterminated.line());
+        assertEquals("Unterminated quoted field", unterminated.error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testHeaderIsChecked() {
+        assertThrows(InvalidRequestException.class, () -> reader(""));
+        assertThrows(InvalidRequestException.class, () -> reader("title,description\nA,B"));
+        assertThrows(InvalidRequestException.class, () -> reader("title,userId,owner\n"));
+        assertThrows(InvalidRequestException.class, () -> reader("title,userId,title\n"));
+    }
+
+    private static TaskCsvReader reader(String csv) throws IOException {
+        return new TaskCsvReader(new StringReader(csv));
+    }
+}
@@ -0,0 +1,102 @@
+package com.todoapp.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskImportProgressDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "todoapp.import.chunk-size=2")
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+class TaskImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString();
+        userId = userService.createUser(new UserDTO(null, name, name + "@example.com")).getId();
+    }
+
+    @Test
+    void testRowsAreImportedInChunksAndBadRowsReported() throws Exception {
+        String longDescription = "Long \"quoted\" description, ".repeat(100);
+        assertTrue(taskService.getTasksByUserId(userId).isEmpty());
+
+        List<TaskImportProgressDTO> reports = importCsv("title,description,isCompleted,userId\n"
+            + "First,,false," + userId + "\n"
+            + ",No title,false," + userId + "\n"
+            + "Second,\"" + longDescription.replace("\"", "\"\"") + "\",true," + userId + "\n"
+            + "Third,Short,," + userId + "\n"
+            + "Orphan,,false," + Long.MAX_VALUE + "\n"
+            + "Fourth,,true," + userId + "\n");
+
+        assertEquals(3, reports.size());
+        TaskImportProgressDTO last = reports.get(2);
+        assertTrue(last.getDone());
+        assertNull(last.getFailure());
+        assertEquals(6L, last.getRowsRead());
+        assertEquals(4L, last.getImported());
+        assertEquals(2L, last.getRejected());
+        List<TaskImportProgressDTO.RowError> errors = new ArrayList<>();
+        reports.forEach(report -> errors.addAll(report.getErrors()));
+        assertEquals(List.of(new TaskImportProgressDTO.RowError(3L, "Title is required"),
+            new TaskImportProgressDTO.RowError(6L, "User not found with id: " + Long.MAX_VALUE)), errors);
+
+        List<TaskDTO> tasks = new ArrayList<>(taskService.getTasksByUserId(userId));
+        tasks.sort(Comparator.comparing(TaskDTO::getId));
+        assertEquals(List.of("First", "Second", "Third", "Fourth"), tasks.stream().map(TaskDTO::getTitle).toList());
+        assertEquals(longDescription, tasks.get(1).getDescription());
+        assertTrue(tasks.get(1).getIsCompleted());
+        assertFalse(tasks.get(2).getIsCompleted());
+        assertEquals(4, taskService.getTaskChanges(userId, 0L).getChanged().size());
+    }
+
+    @Test
+    void testBadHeaderFailsTheRequest() throws Exception {
+        mockMvc.perform(post("/api/tasks/import").contentType("text/csv").content("title,owner\nA,1\n"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unknown CSV column: owner"));
+    }
+
+    private List<TaskImportProgressDTO> importCsv(String csv) throws Exception {
+        String body = mockMvc.perform(post("/api/tasks/import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+        List<TaskImportProgressDTO> reports = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            reports.add(objectMapper.readValue(line, TaskImportProgressDTO.class));
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,126 @@
+package com.todoapp.integration;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.todoapp.integration.ReadCoalescingTest$SlowSelects")
+@SuppressWarnings("null")
+class ReadCoalescingTest {
+
+    private static final int READERS = 16;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private UserDTO user;
+
+    private TaskDTO task;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String name = UUID.randomUUID().toString();
+        user = userService.createUser(new UserDTO(null, name, name + "@example.com"));
+        task = taskService.createTask(new TaskDTO(null, "Hot task", null, false, user.getId()));
+        SlowSelects.enabled = true;
+    }
+
+    @AfterEach
+    void tearDown() {
+        SlowSelects.enabled = false;
+    }
+
+    @Test
+    void testConcurrentColdTaskReadsShareOneLoad() throws Exception {
+        long single = statementsForColdReads(1, () -> taskService.getTaskById(task.getId()));
+
+        long concurrent = statementsForColdReads(READERS, () -> taskService.getTaskById(task.getId()));
+
+        assertTrue(single > 0);
+        assertEquals(single, concurrent);
+    }
+
+    @Test
+    void testConcurrentColdUserReadsShareOneLoad() throws Exception {
+        long single = statementsForColdReads(1, () -> userService.getUserById(user.getId()));
+
+        long concurrent = statementsForColdReads(READERS, () -> userService.getUserById(user.getId()));
+
+        assertTrue(single > 0);
+        assertEquals(single, concurrent);
+    }
+
+    // Empties the second-level cache, releases the readers together and counts the statements they prepared
+    private long statementsForColdReads(int readers, Supplier<Object> read) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return read.get();
+                }));
+            }
+            start.countDown();
+            Object first = results.get(0).get();
+            for (Future<Object> result : results) {
+                assertEquals(first, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    /** Holds every select long enough for the other readers to arrive while it is in flight. */
+    public static class SlowSelects implements StatementInspector {
+
+        static volatile boolean enabled;
+
+        @Override
+        public String inspect(String sql) {
+            if (enabled && sql.regionMatches(true, 0, "select", 0, 6)) {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.todoapp.integration;
+
+import com.todoapp.config.CacheConfig;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.model.Task;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SuppressWarnings("null")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private UserDTO user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String name = UUID.randomUUID().toString();
+        user = userService.createUser(new UserDTO(null, name, name + "@example.com"));
+    }
+
+    @Test
+    void testRepeatedUserReadsAreServedFromTheCache() {
+        userService.getUserById(user.getId());
+        long hits = region(CacheConfig.USERS_REGION).getHitCount();
+
+        userService.getUserById(user.getId());
+        // Task reads check the user through the cache; inserts lock its row instead
+        taskService.getTaskChanges(user.getId(), null);
+
+        assertEquals(hits + 2, region(CacheConfig.USERS_REGION).getHitCount());
+        double hitRatio = meterRegistry.get("todoapp.cache.hit-ratio").tag("region", CacheConfig.USERS_REGION)
+            .gauge().value();
+        assertTrue(hitRatio > 0 && hitRatio <= 1, "hit ratio " + hitRatio);
+    }
+
+    @Test
+    void testUpdateUserIsVisibleToLaterReads() {
+        userService.getUserById(user.getId());
+
+        userService.updateUser(user.getId(), new UserDTO(null, "Renamed", user.getEmail()));
+
+        assertEquals("Renamed", userService.getUserById(user.getId()).getName());
+    }
+
+    @Test
+    void testDeleteUserEvictsItFromTheCache() {
+        userService.getUserById(user.getId());
+        taskService.getTasksByUserId(user.getId());
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(user.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> taskService.getTasksByUserId(user.getId()));
+        assertThrows(ResourceNotFoundException.class,
+            () -> taskService.createTask(new TaskDTO(null, "Task", null, false, user.getId())));
+    }
+
+    @Test
+    void testTasksByUserQueryIsCachedAndInvalidatedByWrites() {
+        TaskDTO first = taskService.createTask(new TaskDTO(null, "First", null, false, user.getId()));
+        taskService.getTasksByUserId(user.getId());
+        long hits = statistics.getQueryRegionStatistics(CacheConfig.TASKS_BY_USER_REGION).getHitCount();
+
+        assertEquals(1, taskService.getTasksByUserId(user.getId()).size());
+        assertEquals(hits + 1, statistics.getQueryRegionStatistics(CacheConfig.TASKS_BY_USER_REGION).getHitCount());
+
+        taskService.createTask(new TaskDTO(null, "Second", null, false, user.getId()));
+        assertEquals(2, taskService.getTasksByUserId(user.getId()).size());
+
+        taskService.updateTask(first.getId(), new TaskDTO(null, "First (edited)", null, true, user.getId()));
+        assertEquals("First (edited)", taskService.getTasksByUserId(user.getId()).get(0).getTitle());
+
+        taskService.deleteTask(first.getId());
+        assertEquals(1, taskService.getTasksByUserId(user.getId()).size());
+    }
+
+    @Test
+    void testLongDescriptionsInListsAreServedFromTheCache() {
+        String longDescription = "Notes. ".repeat(Task.INLINE_DESCRIPTION_LIMIT);
+        for (String title : new String[] {"First", "Second"}) {
+            taskService.createTask(new TaskDTO(null, title, longDescription, false, user.getId()));
+        }
+        taskService.getTasksByUserId(user.getId());
+        long hits = region(CacheConfig.TASK_DESCRIPTIONS_REGION).getHitCount();
+
+        assertTrue(taskService.getTasksByUserId(user.getId()).stream()
+            .allMatch(task -> longDescription.equals(task.getDescription())));
+        assertEquals(hits + 2, region(CacheConfig.TASK_DESCRIPTIONS_REGION).getHitCount());
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return statistics.getDomainDataRegionStatistics(name);
+    }
+}
@@ -1,24 +1,32 @@
 package com.todoapp.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.todoapp.dto.TaskDTO;
 import com.todoapp.dto.UserDTO;
+import com.todoapp.idempotency.IdempotencyService;
 import com.todoapp.model.Task;
 import com.todoapp.model.User;
 import com.todoapp.repository.TaskRepository;
+import com.todoapp.repository.TaskTombstoneRepository;
 import com.todoapp.repository.UserRepository;
+import com.todoapp.startup.WarmUpRunner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,9 +48,20 @@ class TodoAppE2ETest {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private WarmUpRunner warmUpRunner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         taskRepository.deleteAll();
+        // Soft-deleted tasks are invisible to the repository but still reference their users
+        jdbcTemplate.update("DELETE FROM tasks");
         userRepository.deleteAll();
     }
 
@@ -148,11 +167,175 @@ class TodoAppE2ETest {
         assertEquals(0, taskRepository.count());
     }
 
+    @Test
+    void testDeltaSyncReturnsOnlyChangesAfterWatermark() throws Exception {
+        User user = new User();
+        user.setName("Carol White");
+        user.setEmail("carol@example.com");
+        Long userId = userRepository.save(user).getId();
+
+        TaskDTO first = new TaskDTO(null, "First", "One", false, userId);
+        TaskDTO second = new TaskDTO(null, "Second", "Two", false, userId);
+        TaskDTO createdFirst = objectMapper.readValue(mockMvc.perform(post("/api/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(first)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), TaskDTO.class);
+        TaskDTO createdSecond = objectMapper.readValue(mockMvc.perform(post("/api/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(second)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), TaskDTO.class);
+
+        MvcResult initialSync = mockMvc.perform(get("/api/tasks/user/" + userId + "/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()").value(2))
+                .andExpect(jsonPath("$.deletedTaskIds.length()").value(0))
+                .andReturn();
+        long watermark = objectMapper.readTree(initialSync.getResponse().getContentAsString())
+                .get("watermark").asLong();
+
+        mockMvc.perform(delete("/api/tasks/" + createdFirst.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(patch("/api/tasks/" + createdSecond.getId() + "/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"isCompleted\":true}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/user/" + userId + "/changes").param("since", String.valueOf(watermark)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()").value(1))
+                .andExpect(jsonPath("$.changed[0].isCompleted").value(true))
+                .andExpect(jsonPath("$.deletedTaskIds[0]").value(createdFirst.getId()))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void testCborContentNegotiation() throws Exception {
+        MediaType cbor = MediaType.valueOf("application/cbor");
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        UserDTO newUser = new UserDTO(null, "Dave Brown", "dave@example.com");
+
+        MvcResult created = mockMvc.perform(post("/api/users")
+                .contentType(cbor)
+                .accept(cbor)
+                .content(cborMapper.writeValueAsBytes(newUser)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(cbor))
+                .andReturn();
+        UserDTO createdUser = cborMapper.readValue(created.getResponse().getContentAsByteArray(), UserDTO.class);
+        assertEquals("dave@example.com", createdUser.getEmail());
+
+        mockMvc.perform(get("/api/users/" + createdUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name").value("Dave Brown"));
+
+        TaskDTO invalidTask = new TaskDTO(null, "", null, false, createdUser.getId());
+        mockMvc.perform(post("/api/tasks")
+                .contentType(cbor)
+                .accept(cbor)
+                .content(cborMapper.writeValueAsBytes(invalidTask)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSparseFieldsetShrinksListResponse() throws Exception {
+        User user = new User();
+        user.setName("Erin Green");
+        user.setEmail("erin@example.com");
+        user = userRepository.save(user);
+        for (int i = 0; i < 20; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setDescription("Long notes ".repeat(200));
+            task.setIsCompleted(i % 2 == 0);
+            task.setUser(user);
+            taskRepository.save(task);
+        }
+
+        int fullSize = mockMvc.perform(get("/api/tasks/user/" + user.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray().length;
+        int sparseSize = mockMvc.perform(get("/api/tasks/user/" + user.getId()).param("fields", "title,isCompleted"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(20))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andReturn().getResponse().getContentAsByteArray().length;
+
+        assertTrue(sparseSize * 10 < fullSize, "sparse " + sparseSize + " bytes vs full " + fullSize);
+
+        mockMvc.perform(get("/api/tasks").param("fields", "title,owner"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown task field: owner"));
+    }
+
+    @Test
+    void testRetriedCreateWithIdempotencyKeyIsReplayed() throws Exception {
+        User user = new User();
+        user.setName("Retry User");
+        user.setEmail("retry@example.com");
+        user = userRepository.save(user);
+        TaskDTO task = new TaskDTO(null, "Pay rent", null, false, user.getId());
+        String body = objectMapper.writeValueAsString(task);
+
+        String first = mockMvc.perform(post("/api/tasks")
+                .header(IdempotencyService.KEY_HEADER, "b7e1c2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        String retry = mockMvc.perform(post("/api/tasks")
+                .header(IdempotencyService.KEY_HEADER, "b7e1c2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retry);
+        assertEquals(1, taskRepository.count());
+
+        task.setTitle("Pay rent twice");
+        mockMvc.perform(post("/api/tasks")
+                .header(IdempotencyService.KEY_HEADER, "b7e1c2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(task)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testWarmUpLeavesNoDataBehind() throws Exception {
+        long tombstones = taskTombstoneRepository.count();
+        ReflectionTestUtils.setField(warmUpRunner, "enabled", true);
+        ReflectionTestUtils.setField(warmUpRunner, "iterations", 3);
+        try {
+            warmUpRunner.run(new DefaultApplicationArguments());
+        } finally {
+            ReflectionTestUtils.setField(warmUpRunner, "enabled", false);
+        }
+
+        assertEquals(0, userRepository.count());
+        assertEquals(0, taskRepository.count());
+        assertEquals(tombstones, taskTombstoneRepository.count());
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     void testErrorHandling() throws Exception {
         mockMvc.perform(get("/api/users/9999"))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.message").value("User not found with id: 9999"));
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.timestamp").value(matchesPattern("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.*")))
+                .andExpect(jsonPath("$.message").value("User not found with id: 9999"))
+                .andExpect(jsonPath("$.errors").doesNotExist());
+
+        mockMvc.perform(get("/api/no-such-endpoint"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Not found"));
 
         mockMvc.perform(get("/api/tasks/9999"))
                 .andExpect(status().isNotFound())
@@ -187,5 +370,19 @@ class TodoAppE2ETest {
                 .content(objectMapper.writeValueAsString(user2)))
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.message").value("User with email bob@example.com already exists"));
+
+        mockMvc.perform(get("/api/tasks/not-a-number"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value for parameter 'id'"));
+
+        mockMvc.perform(get("/api/tasks/batch"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Missing parameter 'ids'"));
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Malformed request body"));
     }
 }
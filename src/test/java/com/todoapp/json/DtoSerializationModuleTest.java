@@ -0,0 +1,62 @@
+package com.todoapp.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.todoapp.dto.ApiError;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoSerializationModuleTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2023, 11, 14, 22, 13);
+
+    private final ObjectMapper reflective = new ObjectMapper().registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectMapper streaming = new ObjectMapper().registerModule(new DtoSerializationModule());
+
+    @Test
+    void testTaskListMatchesReflectiveOutput() throws Exception {
+        List<TaskDTO> tasks = Arrays.asList(
+            new TaskDTO(1L, "Buy \"milk\"", "Line one\nline two", false, 7L),
+            new TaskDTO(2L, "Ünïcode ✓", null, true, 7L),
+            new TaskDTO(null, "Draft", "", null, null));
+
+        assertEquals(reflective.writeValueAsString(tasks), streaming.writeValueAsString(tasks));
+    }
+
+    @Test
+    void testUserMatchesReflectiveOutput() throws Exception {
+        UserDTO user = new UserDTO(3L, "Jane <Doe>", "jane@example.com");
+
+        assertEquals(reflective.writeValueAsString(user), streaming.writeValueAsString(user));
+    }
+
+    @Test
+    void testOutputRoundTripsThroughDefaultDeserializer() throws Exception {
+        TaskDTO task = new TaskDTO(5L, "Task", "Description", true, 9L);
+
+        TaskDTO result = reflective.readValue(streaming.writeValueAsBytes(task), TaskDTO.class);
+
+        assertEquals(task, result);
+    }
+
+    @Test
+    void testApiErrorMatchesReflectiveOutputWithoutNulls() throws Exception {
+        ObjectMapper nonNull = reflective.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        ApiError notFound = new ApiError(TIMESTAMP, 404, "Task not found with id: 9", null);
+        ApiError invalid = new ApiError(TIMESTAMP, 400, "Validation failed", Map.of("title", "Title is required"));
+
+        assertEquals(nonNull.writeValueAsString(notFound), streaming.writeValueAsString(notFound));
+        assertEquals(nonNull.writeValueAsString(invalid), streaming.writeValueAsString(invalid));
+    }
+}
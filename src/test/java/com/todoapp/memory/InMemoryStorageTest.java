@@ -0,0 +1,152 @@
+package com.todoapp.memory;
+
+import com.todoapp.dto.TaskChangesDTO;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
+import com.todoapp.dto.TaskQuery;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.exception.DuplicateResourceException;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.repository.TaskRepository;
+import com.todoapp.repository.TaskTombstoneRepository;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The log is covered by StorePersistenceTest; here state must not outlive the context
+@SpringBootTest(properties = "todoapp.storage.wal.enabled=false")
+@ActiveProfiles("memory")
+@SuppressWarnings("null")
+class InMemoryStorageTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void testRunsWithoutADatabase() {
+        assertInstanceOf(InMemoryTaskRepository.class, taskRepository);
+        assertTrue(context.getBeansOfType(DataSource.class).isEmpty());
+    }
+
+    @Test
+    void testTaskLifecycle() {
+        UserDTO user = newUser();
+        TaskDTO task = taskService.createTask(new TaskDTO(null, "Write", "x".repeat(2_000), false, user.getId()));
+        TaskDTO other = taskService.createTask(new TaskDTO(null, "Read", null, false, user.getId()));
+
+        taskService.updateTaskStatus(task.getId(), true);
+        TaskDTO loaded = taskService.getTaskById(task.getId());
+
+        assertTrue(loaded.getIsCompleted());
+        assertEquals(2_000, loaded.getDescription().length());
+        assertEquals(List.of("Write", "Read"),
+            taskService.getTasksByUserId(user.getId()).stream().map(TaskDTO::getTitle).toList());
+        assertEquals(List.of("Write", "Read"), taskService.getTaskFieldsByUserId(user.getId(),
+            TaskField.parse("title")).tasks().stream().map(TaskDTO::getTitle).toList());
+
+        taskService.deleteTask(task.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.getTaskById(task.getId()));
+        assertEquals(List.of(task.getId()),
+            taskService.getTasksByIds(List.of(other.getId(), task.getId())).getMissingIds());
+    }
+
+    @Test
+    void testFilteredListsAreSortedAndPaged() {
+        UserDTO user = newUser();
+        for (String title : List.of("Buy milk", "Call mom", "Buy bread", "Buy eggs")) {
+            taskService.createTask(new TaskDTO(null, title, null, title.endsWith("eggs"), user.getId()));
+        }
+
+        List<TaskDTO> page = taskService.getTasksByUserId(user.getId(), new TaskQuery(false, "Buy", "title,desc", 0, 1),
+            false);
+        List<TaskDTO> next = taskService.getTasksByUserId(user.getId(), new TaskQuery(false, "Buy", "title,desc", 1, 1),
+            false);
+
+        assertEquals(List.of("Buy milk"), page.stream().map(TaskDTO::getTitle).toList());
+        assertEquals(List.of("Buy bread"), next.stream().map(TaskDTO::getTitle).toList());
+    }
+
+    @Test
+    void testChangesIncludeUpdatesAndDeletesInOrder() {
+        UserDTO user = newUser();
+        TaskDTO first = taskService.createTask(new TaskDTO(null, "First", null, false, user.getId()));
+        TaskDTO second = taskService.createTask(new TaskDTO(null, "Second", null, false, user.getId()));
+        long watermark = taskService.getTaskChanges(user.getId(), 0L).getWatermark();
+
+        taskService.updateTaskStatus(second.getId(), true);
+        taskService.deleteTask(first.getId());
+        TaskChangesDTO changes = taskService.getTaskChanges(user.getId(), watermark);
+
+        assertEquals(List.of(second.getId()), changes.getChanged().stream().map(TaskDTO::getId).toList());
+        assertEquals(List.of(first.getId()), changes.getDeletedTaskIds());
+        assertFalse(changes.getHasMore());
+    }
+
+    @Test
+    void testDeletedUserReleasesItsEmailAndTasks() {
+        UserDTO user = newUser();
+        TaskDTO task = taskService.createTask(new TaskDTO(null, "Task", null, false, user.getId()));
+        assertThrows(DuplicateResourceException.class,
+            () -> userService.createUser(new UserDTO(null, "Copy", user.getEmail())));
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.getTaskById(task.getId()));
+        assertNotEquals(user.getId(),
+            userService.createUser(new UserDTO(null, "Again", user.getEmail())).getId());
+    }
+
+    @Test
+    void testFailedTransactionIsUndone() {
+        UserDTO user = newUser();
+        TaskDTO task = taskService.createTask(new TaskDTO(null, "Keep", null, false, user.getId()));
+        long tombstones = taskTombstoneRepository.count();
+
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> {
+                taskService.updateTaskStatus(task.getId(), true);
+                taskService.createTask(new TaskDTO(null, "Extra", null, false, user.getId()));
+                taskService.deleteTask(task.getId());
+                throw new IllegalStateException("fail after the writes");
+            }));
+
+        TaskDTO restored = taskService.getTaskById(task.getId());
+        assertFalse(restored.getIsCompleted());
+        assertEquals(List.of("Keep"),
+            taskService.getTasksByUserId(user.getId()).stream().map(TaskDTO::getTitle).toList());
+        assertEquals(tombstones, taskTombstoneRepository.count());
+    }
+
+    private UserDTO newUser() {
+        String name = UUID.randomUUID().toString();
+        return userService.createUser(new UserDTO(null, name, name + "@example.com"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.todoapp.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    void testPutGetAndReplace() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertNull(map.put(7L, "a"));
+        assertEquals("a", map.put(7L, "b"));
+
+        assertEquals("b", map.get(7L));
+        assertNull(map.get(8L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testGrowsAndKeepsEveryEntry() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key * 2);
+        }
+
+        assertEquals(10_000, map.size());
+        assertTrue(map.capacity() >= 10_000 * 4 / 3);
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals(key * 2, map.get(key));
+        }
+    }
+
+    @Test
+    void testRemoveKeepsProbeChainsIntact() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextLong(1, 2_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key < 2_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void testKeyZeroIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectMap<String>().put(0L, "x"));
+    }
+}
@@ -0,0 +1,221 @@
+package com.todoapp.memory;
+
+import com.todoapp.model.TaskTombstone;
+import com.todoapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorePersistenceTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testReopenRecoversTasksUsersAndSequences() throws IOException {
+        Node node = Node.open(directory, SEGMENT_BYTES);
+        User alice = node.users.save(new User(null, "Alice", "alice@example.com", null, new ArrayList<>()));
+        User bob = node.users.save(new User(null, "Bob", "bob@example.com", null, new ArrayList<>()));
+        TaskRecord first = node.tasks.save(null, alice.getId(), node.sequence.next(), TaskRecord.NONE, "First", null,
+            false, null);
+        TaskRecord second = node.tasks.save(null, alice.getId(), node.sequence.next(), TaskRecord.NONE, "Second",
+            "Text", false, null);
+        node.tasks.save(second.id(), alice.getId(), node.sequence.next(), 1_000L, "Second", "Done", true, "n1");
+        node.tasks.save(null, bob.getId(), node.sequence.next(), TaskRecord.NONE, "Bob's", null, false, null);
+        assertTrue(node.tasks.remove(first.id()));
+        long undone = node.sequence.next();
+        node.tasks.addTombstone(alice.getId(), second.id(), undone);
+        node.tasks.addTombstone(alice.getId(), first.id(), node.sequence.next());
+        node.tasks.removeTombstone(alice.getId(), undone);
+        node.users.save(new User(alice.getId(), "Alice B.", "alice.b@example.com", null, new ArrayList<>()));
+        assertEquals(1, node.tasks.removeByUser(bob.getId()));
+        node.users.deleteById(bob.getId());
+        Set<TaskRecord> tasks = new HashSet<>(node.tasks.getAll());
+        Set<User> users = new HashSet<>(node.users.findAll());
+        long lastChange = node.sequence.current();
+        node.close();
+
+        Node recovered = Node.open(directory, SEGMENT_BYTES);
+
+        assertEquals(tasks, new HashSet<>(recovered.tasks.getAll()));
+        assertEquals(users, new HashSet<>(recovered.users.findAll()));
+        assertEquals(List.of(new TaskTombstone(lastChange, first.id(), alice.getId())),
+            recovered.tasks.getTombstonesByUser(alice.getId()));
+        assertTrue(recovered.users.findByEmail("alice@example.com").isEmpty());
+        assertTrue(recovered.sequence.next() > lastChange);
+        TaskRecord next = recovered.tasks.save(null, alice.getId(), 1L, TaskRecord.NONE, "Next", null, false, null);
+        assertTrue(tasks.stream().noneMatch(task -> task.id() == next.id()));
+        User carol = recovered.users.save(new User(null, "Carol", "carol@example.com", null, new ArrayList<>()));
+        assertTrue(carol.getId() > bob.getId());
+        recovered.close();
+    }
+
+    @Test
+    void testCompactionSnapshotsStateAndDropsOldSegments() throws IOException {
+        Node node = Node.open(directory, SEGMENT_BYTES);
+        for (int i = 0; i < 500; i++) {
+            node.tasks.save(null, i % 7 + 1, node.sequence.next(), TaskRecord.NONE, "Task " + i, null, false, null);
+        }
+        assertTrue(files(".wal").size() > 1);
+
+        node.persistence.snapshot();
+
+        assertEquals(1, files(".wal").size());
+        assertEquals(1, files(".snap").size());
+        node.tasks.removeByUser(3L);
+        node.tasks.save(null, 8L, node.sequence.next(), TaskRecord.NONE, "After snapshot", null, false, null);
+        node.persistence.snapshot();
+        node.tasks.save(null, 9L, node.sequence.next(), TaskRecord.NONE, "After second snapshot", null, false, null);
+        Set<TaskRecord> tasks = new HashSet<>(node.tasks.getAll());
+        node.close();
+
+        assertEquals(1, files(".snap").size());
+        Node recovered = Node.open(directory, SEGMENT_BYTES);
+        assertEquals(tasks, new HashSet<>(recovered.tasks.getAll()));
+        recovered.close();
+    }
+
+    @Test
+    void testTornRecordIsDroppedAndLogContinues() throws IOException {
+        Node node = Node.open(directory, SEGMENT_BYTES);
+        TaskRecord first = node.tasks.save(null, 1L, node.sequence.next(), TaskRecord.NONE, "First", null, false, null);
+        TaskRecord second = node.tasks.save(null, 1L, node.sequence.next(), TaskRecord.NONE, "Second", null, false,
+            null);
+        node.tasks.save(null, 1L, node.sequence.next(), TaskRecord.NONE, "Torn", null, false, null);
+        node.close();
+        corruptLastRecord(files(".wal").get(0));
+
+        Node recovered = Node.open(directory, SEGMENT_BYTES);
+        assertEquals(Set.of(first, second), new HashSet<>(recovered.tasks.getAll()));
+        TaskRecord third = recovered.tasks.save(null, 1L, recovered.sequence.next(), TaskRecord.NONE, "Third", null,
+            false, null);
+        recovered.close();
+
+        Node reopened = Node.open(directory, SEGMENT_BYTES);
+        assertEquals(Set.of(first, second, third), new HashSet<>(reopened.tasks.getAll()));
+        reopened.close();
+    }
+
+    @Test
+    void testAcknowledgedWritesSurviveKill() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            Writer.class.getName(), directory.toString())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        Set<Long> acknowledged = new HashSet<>();
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8))) {
+            while (acknowledged.size() < 5_000) {
+                String line = out.readLine();
+                assertNotNull(line, "writer exited early");
+                acknowledge(line, acknowledged);
+            }
+            // Killed while its threads are mid-append; acks still in the pipe are not checked
+            writer.destroyForcibly().waitFor();
+        } finally {
+            writer.destroyForcibly();
+        }
+
+        Node recovered = Node.open(directory, Writer.SEGMENT_BYTES);
+        for (long id : acknowledged) {
+            TaskRecord task = recovered.tasks.get(id);
+            assertNotNull(task, "acknowledged task " + id + " was lost");
+            assertEquals("Task " + id, task.title());
+        }
+        assertTrue(recovered.tasks.size() >= acknowledged.size());
+        recovered.close();
+    }
+
+    // The writer's log output shares stdout
+    private static void acknowledge(String line, Set<Long> acknowledged) {
+        if (!line.isEmpty() && line.chars().allMatch(Character::isDigit)) {
+            acknowledged.add(Long.parseLong(line));
+        }
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    // Flips a payload byte of the last record, as if the crash hit while it was being copied
+    private static void corruptLastRecord(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            long offset = 8;
+            long last = -1;
+            while (true) {
+                channel.read(header.clear(), offset);
+                int length = header.flip().getInt();
+                if (length == 0) {
+                    break;
+                }
+                last = offset;
+                offset += 8 + length;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(1);
+            channel.read(payload, last + 8);
+            channel.write(payload.put(0, (byte) ~payload.get(0)).clear(), last + 8);
+        }
+    }
+
+    private record Node(TaskStore tasks, InMemoryUserRepository users, InMemoryChangeSequence sequence,
+            StorePersistence persistence) {
+
+        static Node open(Path directory, int segmentBytes) throws IOException {
+            TaskStore tasks = new TaskStore(8);
+            InMemoryUserRepository users = new InMemoryUserRepository();
+            InMemoryChangeSequence sequence = new InMemoryChangeSequence();
+            StorePersistence persistence = new StorePersistence(directory, segmentBytes, tasks, users, sequence);
+            persistence.open();
+            return new Node(tasks, users, sequence, persistence);
+        }
+
+        void close() {
+            persistence.close();
+        }
+    }
+
+    /** Writes tasks from several threads until killed, printing each id once its save has returned. */
+    public static final class Writer {
+
+        static final int SEGMENT_BYTES = 1 << 16;
+
+        public static void main(String[] args) throws IOException {
+            Node node = Node.open(Path.of(args[0]), SEGMENT_BYTES);
+            for (int t = 0; t < 4; t++) {
+                long userId = t + 1;
+                Thread thread = new Thread(() -> {
+                    while (true) {
+                        TaskRecord task = node.tasks.save(null, userId, node.sequence.next(), TaskRecord.NONE,
+                            "", null, false, null);
+                        node.tasks.save(task.id(), userId, node.sequence.next(), TaskRecord.NONE,
+                            "Task " + task.id(), null, false, null);
+                        System.out.println(task.id());
+                    }
+                });
+                thread.start();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.todoapp.memory;
+
+import com.todoapp.model.TaskTombstone;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskStoreTest {
+
+    @Test
+    void testSaveAssignsIdsAndReplacesExistingTasks() {
+        TaskStore store = new TaskStore(8);
+
+        TaskRecord created = store.save(null, 1L, 1L, TaskRecord.NONE, "Task", null, false, null);
+        TaskRecord updated = store.save(created.id(), 1L, 2L, 500L, "Renamed", "Text", true, null);
+
+        assertEquals(created.id(), updated.id());
+        assertEquals(updated, store.get(created.id()));
+        assertEquals(List.of(updated), store.getByUser(1L));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testTaskCannotMoveToAnotherUser() {
+        TaskStore store = new TaskStore(1);
+        TaskRecord task = store.save(null, 1L, 1L, TaskRecord.NONE, "Task", null, false, null);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> store.save(task.id(), 2L, 2L, TaskRecord.NONE, "Task", null, false, null));
+    }
+
+    @Test
+    void testRemoveByUserDropsTasksAndTombstones() {
+        TaskStore store = new TaskStore(4);
+        TaskRecord kept = store.save(null, 2L, 1L, TaskRecord.NONE, "Other", null, false, null);
+        TaskRecord first = store.save(null, 1L, 2L, TaskRecord.NONE, "First", null, false, null);
+        store.save(null, 1L, 3L, TaskRecord.NONE, "Second", null, false, null);
+        assertTrue(store.remove(first.id()));
+        store.addTombstone(1L, first.id(), 4L);
+
+        assertEquals(List.of(new TaskTombstone(4L, first.id(), 1L)), store.getTombstonesByUser(1L));
+        assertEquals(1, store.removeByUser(1L));
+
+        assertTrue(store.getByUser(1L).isEmpty());
+        assertTrue(store.getTombstonesByUser(1L).isEmpty());
+        assertEquals(kept, store.get(kept.id()));
+    }
+
+    @Test
+    void testConcurrentWritersOnManyUsers() throws Exception {
+        TaskStore store = new TaskStore(16);
+        int threads = 8;
+        int tasksPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < tasksPerThread; i++) {
+                        long userId = thread * 100 + i % 100 + 1;
+                        TaskRecord task = store.save(null, userId, i, TaskRecord.NONE, "Task", null, false, null);
+                        if (i % 10 == 0) {
+                            store.remove(task.id());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * tasksPerThread * 9 / 10, store.size());
+        assertTrue(store.getByUser(1L).isEmpty());
+        assertEquals(tasksPerThread / 100, store.getByUser(2L).size());
+        assertEquals(store.size(), store.getAll().stream().map(TaskRecord::id).distinct().count());
+    }
+}
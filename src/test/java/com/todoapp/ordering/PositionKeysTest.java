@@ -0,0 +1,80 @@
+package com.todoapp.ordering;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionKeysTest {
+
+    @Test
+    void testAppendsAndPrependsStayShort() {
+        List<String> keys = new ArrayList<>(List.of(PositionKeys.FIRST));
+        for (int i = 0; i < 10_000; i++) {
+            keys.add(PositionKeys.between(keys.get(keys.size() - 1), null));
+            keys.add(0, PositionKeys.between(null, keys.get(0)));
+        }
+
+        assertSorted(keys);
+        assertTrue(keys.stream().allMatch(key -> key.length() <= 4), "longest " + longest(keys));
+    }
+
+    @Test
+    void testCarriesAcrossIntegerLengths() {
+        assertEquals("o00", PositionKeys.between("nz", null));
+        assertEquals("nz", PositionKeys.between(null, "o00"));
+        assertEquals("mz", PositionKeys.between(null, "n0"));
+        assertEquals("n0", PositionKeys.between("mz", null));
+        assertEquals("lzz", PositionKeys.between(null, "m0"));
+        assertEquals("m0", PositionKeys.between("lzz", null));
+    }
+
+    @Test
+    void testInsertsIntoOneGapGrowSlowly() {
+        String low = "n5";
+        String high = "n6";
+        for (int i = 0; i < 100; i++) {
+            String middle = PositionKeys.between(low, high);
+            assertTrue(low.compareTo(middle) < 0 && middle.compareTo(high) < 0, low + " < " + middle + " < " + high);
+            high = middle;
+        }
+        assertTrue(high.length() <= 24, high);
+    }
+
+    @Test
+    void testRandomMovesKeepTheOrder() {
+        SplittableRandom random = new SplittableRandom(7);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int index = random.nextInt(keys.size() + 1);
+            String before = index > 0 ? keys.get(index - 1) : null;
+            String after = index < keys.size() ? keys.get(index) : null;
+            keys.add(index, PositionKeys.between(before, after));
+        }
+
+        assertSorted(keys);
+    }
+
+    @Test
+    void testBadKeysAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PositionKeys.between("n1", "n1"));
+        assertThrows(IllegalArgumentException.class, () -> PositionKeys.between("n2", "n1"));
+        assertThrows(IllegalArgumentException.class, () -> PositionKeys.between("n10", null));
+        assertThrows(IllegalArgumentException.class, () -> PositionKeys.between("o1", null));
+        assertThrows(IllegalArgumentException.class, () -> PositionKeys.between("N0", null));
+        assertThrows(IllegalArgumentException.class, () -> PositionKeys.between(null, ""));
+    }
+
+    private static void assertSorted(List<String> keys) {
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, keys.get(i - 1) + " >= " + keys.get(i));
+        }
+    }
+
+    private static String longest(List<String> keys) {
+        return keys.stream().max((a, b) -> Integer.compare(a.length(), b.length())).orElseThrow();
+    }
+}
@@ -0,0 +1,168 @@
+package com.todoapp.ordering;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "todoapp.ordering.max-key-length=4")
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+class TaskPositionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PositionRebalancer positionRebalancer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString();
+        userId = userService.createUser(new UserDTO(null, name, name + "@example.com")).getId();
+    }
+
+    @Test
+    void testMovesRewriteOnlyTheMovedTask() throws Exception {
+        List<Long> ids = createTasks("A", "B", "C", "D");
+        assertEquals(List.of("A", "B", "C", "D"), titles());
+        List<String> before = positions(ids);
+
+        move(ids.get(3), ids.get(0));
+        assertEquals(List.of("A", "D", "B", "C"), titles());
+        List<String> after = positions(ids);
+        assertEquals(before.subList(0, 3), after.subList(0, 3));
+        assertNotEquals(before.get(3), after.get(3));
+
+        move(ids.get(2), null);
+        assertEquals(List.of("C", "A", "D", "B"), titles());
+        assertEquals(after.subList(0, 2), positions(ids).subList(0, 2));
+    }
+
+    @Test
+    void testFilteredListsAndMovesCarryTheOrder() throws Exception {
+        List<Long> ids = createTasks("A", "B", "C");
+
+        mockMvc.perform(patch("/api/tasks/" + ids.get(0) + "/position")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"afterId\": " + ids.get(2) + "}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.position").value(positions(ids).get(0)));
+
+        String body = mockMvc.perform(get("/api/tasks/user/" + userId).param("completed", "false"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        List<TaskDTO> filtered = List.of(objectMapper.readValue(body, TaskDTO[].class));
+        assertEquals(List.of("B", "C", "A"), filtered.stream().map(TaskDTO::getTitle).toList());
+        assertEquals(positions(List.of(ids.get(1), ids.get(2), ids.get(0))),
+            filtered.stream().map(TaskDTO::getPosition).toList());
+    }
+
+    @Test
+    void testBadMovesAreRejected() throws Exception {
+        Long id = createTasks("A").get(0);
+        String name = UUID.randomUUID().toString();
+        Long otherUserId = userService.createUser(new UserDTO(null, name, name + "@example.com")).getId();
+        Long otherTaskId = taskService.createTask(new TaskDTO(null, "Other", null, false, otherUserId)).getId();
+
+        mockMvc.perform(patch("/api/tasks/" + id + "/position")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"afterId\": " + id + "}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/tasks/" + id + "/position")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"afterId\": " + otherTaskId + "}"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testLongKeysAreRebalancedInOrder() throws Exception {
+        List<Long> ids = createTasks("A", "B", "C");
+        for (int i = 0; i < 14; i++) {
+            move(ids.get(2 - i % 2), ids.get(0));
+        }
+        List<String> order = titles();
+        assertTrue(positions(ids).stream().anyMatch(positionRebalancer::isTooLong));
+
+        positionRebalancer.rebalancePending();
+
+        assertEquals(order, titles());
+        assertTrue(positions(ids).stream().noneMatch(positionRebalancer::isTooLong));
+    }
+
+    @Test
+    void testTasksWithoutPositionsAreBackfilled() throws Exception {
+        List<Long> ids = createTasks("A", "B", "C");
+        jdbcTemplate.update("UPDATE tasks SET position = NULL WHERE user_id = ?", userId);
+
+        // The anchor has no key, so the move rebalances the list first
+        move(ids.get(0), ids.get(2));
+        assertEquals(List.of("B", "C", "A"), titles());
+        assertTrue(positions(ids).stream().allMatch(position -> position != null));
+
+        jdbcTemplate.update("UPDATE tasks SET position = NULL WHERE id = ?", ids.get(1));
+        positionRebalancer.rebalancePending();
+        assertNotNull(positions(ids).get(1));
+    }
+
+    private List<Long> createTasks(String... titles) {
+        List<Long> ids = new ArrayList<>();
+        for (String title : titles) {
+            ids.add(taskService.createTask(new TaskDTO(null, title, null, false, userId)).getId());
+        }
+        return ids;
+    }
+
+    private void move(Long id, Long afterId) throws Exception {
+        mockMvc.perform(patch("/api/tasks/" + id + "/position")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(afterId != null ? Map.of("afterId", afterId) : Map.of())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(id));
+    }
+
+    private List<String> titles() throws Exception {
+        String body = mockMvc.perform(get("/api/tasks/user/" + userId))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return List.of(objectMapper.readValue(body, TaskDTO[].class)).stream().map(TaskDTO::getTitle).toList();
+    }
+
+    private List<String> positions(List<Long> ids) {
+        return ids.stream()
+            .map(id -> jdbcTemplate.queryForObject("SELECT position FROM tasks WHERE id = ?", String.class, id))
+            .toList();
+    }
+}
@@ -0,0 +1,163 @@
+package com.todoapp.purge;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.model.Task;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SuppressWarnings("null")
+class SoftDeletePurgerTest {
+
+    private static final long OLD = 1L;
+
+    @Autowired
+    private SoftDeletePurger purger;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UserDTO user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(purger, "batchSize", 500);
+        ReflectionTestUtils.setField(purger, "maxBatchesPerRun", 200);
+        ReflectionTestUtils.setField(purger, "batchPauseMs", 0L);
+        purger.purge();
+        String name = UUID.randomUUID().toString();
+        user = userService.createUser(new UserDTO(null, name, name + "@example.com"));
+    }
+
+    @Test
+    void testDeleteOnlyFlagsTheRow() {
+        TaskDTO task = createTask("x");
+
+        taskService.deleteTask(task.getId());
+
+        assertNotNull(jdbc.queryForObject("SELECT deleted_at FROM tasks WHERE id = ?", Long.class, task.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> taskService.getTaskById(task.getId()));
+        assertTrue(taskService.getTasksByUserId(user.getId()).isEmpty());
+        assertEquals(0, purger.purge());
+    }
+
+    @Test
+    void testPurgeRemovesRowsPastRetentionWithTheirDescriptionsAndTombstones() {
+        TaskDTO task = createTask("d".repeat(Task.INLINE_DESCRIPTION_LIMIT + 1));
+        Long descriptionId = jdbc.queryForObject("SELECT description_id FROM tasks WHERE id = ?", Long.class,
+            task.getId());
+        taskService.deleteTask(task.getId());
+        assertEquals(1, count("SELECT COUNT(*) FROM task_tombstones WHERE task_id = ?", task.getId()));
+        age("tasks", task.getId());
+        double purgedBefore = purgedCount("tasks");
+
+        assertEquals(1, purger.purge());
+
+        assertEquals(0, count("SELECT COUNT(*) FROM tasks WHERE id = ?", task.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM task_descriptions WHERE id = ?", descriptionId));
+        assertEquals(0, count("SELECT COUNT(*) FROM task_tombstones WHERE task_id = ?", task.getId()));
+        assertEquals(1.0, purgedCount("tasks") - purgedBefore);
+    }
+
+    @Test
+    void testDeletedUserFreesItsEmailAndKeepsItsTasksFlagged() {
+        TaskDTO task = createTask("x");
+
+        userService.deleteUser(user.getId());
+        UserDTO successor = userService.createUser(new UserDTO(null, "Successor", user.getEmail()));
+
+        assertNotEquals(user.getId(), successor.getId());
+        assertEquals("deleted:" + user.getId(),
+            jdbc.queryForObject("SELECT email FROM users WHERE id = ?", String.class, user.getId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM tasks WHERE id = ? AND deleted_at IS NOT NULL", task.getId()));
+    }
+
+    @Test
+    void testRunsAreBatchedAndBounded() {
+        for (int i = 0; i < 3; i++) {
+            TaskDTO task = createTask("x");
+            taskService.deleteTask(task.getId());
+            age("tasks", task.getId());
+        }
+        ReflectionTestUtils.setField(purger, "batchSize", 1);
+        ReflectionTestUtils.setField(purger, "maxBatchesPerRun", 2);
+
+        assertEquals(2, purger.purge());
+        assertEquals(1, purger.purge());
+        assertEquals(0, purger.purge());
+    }
+
+    @Test
+    void testScheduledRunLeavesTheSchedulerThread() throws Exception {
+        TaskDTO first = createTask("x");
+        TaskDTO second = createTask("x");
+        for (TaskDTO task : List.of(first, second)) {
+            taskService.deleteTask(task.getId());
+            age("tasks", task.getId());
+        }
+        ReflectionTestUtils.setField(purger, "batchSize", 1);
+        ReflectionTestUtils.setField(purger, "batchPauseMs", 1_000L);
+        ReflectionTestUtils.setField(purger, "enabled", true);
+        long elapsed;
+        try {
+            long start = System.nanoTime();
+            purger.scheduledPurge();
+            elapsed = System.nanoTime() - start;
+        } finally {
+            // Off again at once, so a scheduler tick cannot start a second run
+            ReflectionTestUtils.setField(purger, "enabled", false);
+        }
+        // The pause between the two batches is taken on the purger's thread
+        assertTrue(elapsed < 500_000_000L);
+        // Waits for the whole run, so it cannot purge rows a later test ages
+        AtomicBoolean running = (AtomicBoolean) ReflectionTestUtils.getField(purger, "running");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (running.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertFalse(running.get());
+        assertEquals(0, count("SELECT COUNT(*) FROM tasks WHERE id = ?", first.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM tasks WHERE id = ?", second.getId()));
+    }
+
+    private TaskDTO createTask(String description) {
+        return taskService.createTask(new TaskDTO(null, "Task", description, false, user.getId()));
+    }
+
+    private void age(String table, Long id) {
+        jdbc.update("UPDATE " + table + " SET deleted_at = ? WHERE id = ?", OLD, id);
+    }
+
+    private int count(String sql, Object id) {
+        return jdbc.queryForObject(sql, Integer.class, id);
+    }
+
+    private double purgedCount(String table) {
+        return meterRegistry.get("todoapp.purge.purged").tag("table", table).counter().count();
+    }
+}
@@ -0,0 +1,80 @@
+package com.todoapp.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.json.DtoSerializationModule;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new DtoSerializationModule());
+
+    @InjectMocks
+    private RateLimitFilter rateLimitFilter;
+
+    @Test
+    void testAdmittedRequestPassesThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.setRemoteAddr("10.0.0.5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(rateLimiter.tryAcquire("10.0.0.5")).thenReturn(0L);
+
+        rateLimitFilter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testThrottledRequestGets429WithRetryAfter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.setRemoteAddr("10.0.0.7");
+        // Client-chosen ids would let one client spread itself over any number of buckets
+        request.addHeader("X-Client-Id", "mobile-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(rateLimiter.tryAcquire("10.0.0.7")).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        rateLimitFilter.doFilter(request, response, filterChain);
+
+        verifyNoInteractions(filterChain);
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        JsonNode body = objectMapper.readTree(response.getContentAsString());
+        assertEquals(429, body.get("status").asInt());
+        assertEquals("Too many requests", body.get("message").asText());
+        assertTrue(body.has("timestamp"));
+    }
+
+    @Test
+    void testNonApiRequestsAreNotLimited() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        rateLimitFilter.doFilter(request, response, filterChain);
+
+        verify(rateLimiter, never()).tryAcquire(anyString());
+        verify(filterChain).doFilter(request, response);
+    }
+}
@@ -0,0 +1,91 @@
+package com.todoapp.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(now::get);
+        ReflectionTestUtils.setField(rateLimiter, "requestsPerSecond", 10.0);
+        ReflectionTestUtils.setField(rateLimiter, "burst", 3);
+        ReflectionTestUtils.setField(rateLimiter, "idleTimeoutMs", 1000L);
+        rateLimiter.init();
+    }
+
+    @Test
+    void testBurstIsAdmittedThenClientIsThrottled() {
+        assertEquals(0L, rateLimiter.tryAcquire("client"));
+        assertEquals(0L, rateLimiter.tryAcquire("client"));
+        assertEquals(0L, rateLimiter.tryAcquire("client"));
+
+        long wait = rateLimiter.tryAcquire("client");
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+    }
+
+    @Test
+    void testTokensRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+        assertTrue(rateLimiter.tryAcquire("client") > 0);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(0L, rateLimiter.tryAcquire("client"));
+    }
+
+    @Test
+    void testClientsHaveIndependentBuckets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("noisy");
+        }
+
+        assertTrue(rateLimiter.tryAcquire("noisy") > 0);
+        assertEquals(0L, rateLimiter.tryAcquire("quiet"));
+    }
+
+    @Test
+    void testIdleBucketsAreEvicted() {
+        rateLimiter.tryAcquire("idle");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        rateLimiter.tryAcquire("active");
+
+        rateLimiter.evictIdleBuckets();
+
+        assertEquals(1, rateLimiter.getBucketCount());
+    }
+
+    @Test
+    void testClientsBeyondTheCapShareOneBucket() {
+        ReflectionTestUtils.setField(rateLimiter, "maxBuckets", 2);
+        rateLimiter.tryAcquire("first");
+        rateLimiter.tryAcquire("second");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, rateLimiter.tryAcquire("extra-" + i));
+        }
+
+        assertTrue(rateLimiter.tryAcquire("extra-3") > 0);
+        assertEquals(2, rateLimiter.getBucketCount());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        rateLimiter.tryAcquire("first");
+        assertEquals(2, rateLimiter.getBucketCount());
+
+        rateLimiter.evictIdleBuckets();
+
+        assertEquals(0L, rateLimiter.tryAcquire("extra-3"));
+        assertEquals(2, rateLimiter.getBucketCount());
+    }
+}
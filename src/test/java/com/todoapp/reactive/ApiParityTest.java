@@ -0,0 +1,249 @@
+package com.todoapp.reactive;
+
+import com.todoapp.archive.TaskArchiver;
+import com.todoapp.dto.TaskChangesDTO;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.model.Task;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same write scenarios through {@link TaskService} and
+ * {@link ReactiveTaskService} and compares what each leaves behind: the
+ * returned tasks, the rows, tombstones and the changes feed. The reactive
+ * service writes SQL of its own, so this is where its rules are held to the
+ * servlet API's. Moves that need a rebalance are left out on purpose: the
+ * servlet API rebalances inline, the reactive one asks the client to retry.
+ */
+@SpringBootTest(properties = {
+    "todoapp.reactive.enabled=true",
+    "todoapp.reactive.port=0",
+    "todoapp.reactive.r2dbc.url=r2dbc:h2:mem:///testdb",
+    "todoapp.reactive.r2dbc.username=sa",
+    "todoapp.reactive.r2dbc.password="
+})
+@SuppressWarnings("null")
+class ApiParityTest {
+
+    private static final String LONG_DESCRIPTION = "d".repeat(Task.INLINE_DESCRIPTION_LIMIT + 1);
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ReactiveTaskService reactiveTaskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskArchiver taskArchiver;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void testTaskLifecycle() {
+        assertEquals(lifecycle(servlet()), lifecycle(reactive()));
+    }
+
+    @Test
+    void testRejectedWrites() {
+        assertEquals(rejectedWrites(servlet()), rejectedWrites(reactive()));
+    }
+
+    @Test
+    void testWritesToArchivedTasks() {
+        assertEquals(archivedWrites(servlet()), archivedWrites(reactive()));
+    }
+
+    private List<Object> lifecycle(TaskApi api) {
+        Long userId = createUser();
+        List<Object> trace = new ArrayList<>();
+        TaskDTO first = api.create(new TaskDTO(null, "First", LONG_DESCRIPTION, null, userId));
+        TaskDTO second = api.create(new TaskDTO(null, "Second", null, true, userId));
+        trace.add(view(first));
+        trace.add(view(second));
+        trace.add(row(first.getId()));
+        trace.add(row(second.getId()));
+
+        trace.add(view(api.update(first.getId(), new TaskDTO(null, "Renamed", "Short", true, userId))));
+        trace.add(row(first.getId()));
+        Long completedAt = completedAt(first.getId());
+        trace.add(view(api.updateStatus(first.getId(), true)));
+        trace.add(completedAt.equals(completedAt(first.getId())));
+        trace.add(view(api.update(first.getId(), new TaskDTO(null, "Renamed", LONG_DESCRIPTION, null, userId))));
+        trace.add(row(first.getId()));
+        trace.add(view(api.updateStatus(second.getId(), null)));
+        trace.add(row(second.getId()));
+
+        trace.add(view(api.move(first.getId(), second.getId())));
+        trace.add(view(api.move(second.getId(), null)));
+        trace.add(row(first.getId()));
+
+        api.delete(second.getId());
+        trace.add(row(second.getId()));
+        trace.add(jdbc.queryForObject("SELECT COUNT(*) FROM task_tombstones WHERE task_id = ?", Integer.class,
+            second.getId()));
+        TaskChangesDTO changes = api.changes(userId, 0L);
+        trace.add(changes.getChanged().stream().map(this::view).toList());
+        trace.add(changes.getDeletedTaskIds().equals(List.of(second.getId())));
+        trace.add(changes.getHasMore());
+        return trace;
+    }
+
+    private List<Object> rejectedWrites(TaskApi api) {
+        Long userId = createUser();
+        Long otherUserId = createUser();
+        TaskDTO task = api.create(new TaskDTO(null, "Task", null, false, userId));
+        TaskDTO other = api.create(new TaskDTO(null, "Other", null, false, otherUserId));
+        userService.deleteUser(otherUserId);
+
+        List<Object> trace = new ArrayList<>();
+        trace.add(failure(() -> api.create(new TaskDTO(null, "Orphan", null, false, otherUserId))));
+        trace.add(failure(() -> api.create(new TaskDTO(null, "Nobody", null, false, Long.MAX_VALUE))));
+        trace.add(failure(() -> api.update(Long.MAX_VALUE, new TaskDTO(null, "X", null, false, userId))));
+        trace.add(failure(() -> api.updateStatus(other.getId(), true)));
+        trace.add(failure(() -> api.move(task.getId(), task.getId())));
+        trace.add(failure(() -> api.move(task.getId(), other.getId())));
+        trace.add(failure(() -> {
+            api.delete(other.getId());
+            return null;
+        }));
+        trace.add(failure(() -> api.changes(otherUserId, 0L)));
+        trace.add(row(task.getId()));
+        return trace;
+    }
+
+    private List<Object> archivedWrites(TaskApi api) {
+        Long userId = createUser();
+        TaskDTO reopened = api.create(new TaskDTO(null, "Reopened", LONG_DESCRIPTION, true, userId));
+        TaskDTO deleted = api.create(new TaskDTO(null, "Deleted", null, true, userId));
+        jdbc.update("UPDATE tasks SET completed_at = 1 WHERE id IN (?, ?)", reopened.getId(), deleted.getId());
+        taskArchiver.archive();
+
+        List<Object> trace = new ArrayList<>();
+        trace.add(jdbc.queryForObject("SELECT COUNT(*) FROM archived_tasks WHERE user_id = ?", Integer.class, userId));
+        trace.add(view(api.updateStatus(reopened.getId(), false)));
+        trace.add(row(reopened.getId()));
+        api.delete(deleted.getId());
+        trace.add(row(deleted.getId()));
+        trace.add(jdbc.queryForObject("SELECT COUNT(*) FROM archived_tasks WHERE user_id = ?", Integer.class, userId));
+        return trace;
+    }
+
+    private Long createUser() {
+        String name = UUID.randomUUID().toString();
+        return userService.createUser(new UserDTO(null, name, name + "@example.com")).getId();
+    }
+
+    // The fields both APIs must agree on; ids differ between the two runs
+    private List<Object> view(TaskDTO task) {
+        return List.of(task.getTitle(), String.valueOf(task.getDescription()), task.getIsCompleted(),
+            String.valueOf(task.getPosition()));
+    }
+
+    private List<Object> row(Long id) {
+        Map<String, Object> row = jdbc.queryForMap("SELECT is_completed, completed_at, description, description_id,"
+            + " position, change_seq, deleted_at FROM tasks WHERE id = ?", id);
+        return List.of(row.get("is_completed"), row.get("completed_at") != null, String.valueOf(row.get("description")),
+            row.get("description_id") != null, String.valueOf(row.get("position")), row.get("change_seq") != null,
+            row.get("deleted_at") != null);
+    }
+
+    private Long completedAt(Long id) {
+        return jdbc.queryForObject("SELECT completed_at FROM tasks WHERE id = ?", Long.class, id);
+    }
+
+    private static String failure(Supplier<?> write) {
+        try {
+            write.get();
+            return "none";
+        } catch (RuntimeException ex) {
+            return ex.getClass().getSimpleName();
+        }
+    }
+
+    private TaskApi servlet() {
+        return new TaskApi() {
+            public TaskDTO create(TaskDTO task) {
+                return taskService.createTask(task);
+            }
+
+            public TaskDTO update(Long id, TaskDTO task) {
+                return taskService.updateTask(id, task);
+            }
+
+            public TaskDTO updateStatus(Long id, Boolean completed) {
+                return taskService.updateTaskStatus(id, completed);
+            }
+
+            public TaskDTO move(Long id, Long afterId) {
+                return taskService.moveTask(id, afterId);
+            }
+
+            public void delete(Long id) {
+                taskService.deleteTask(id);
+            }
+
+            public TaskChangesDTO changes(Long userId, Long since) {
+                return taskService.getTaskChanges(userId, since);
+            }
+        };
+    }
+
+    private TaskApi reactive() {
+        return new TaskApi() {
+            public TaskDTO create(TaskDTO task) {
+                return reactiveTaskService.createTask(task).block();
+            }
+
+            public TaskDTO update(Long id, TaskDTO task) {
+                return reactiveTaskService.updateTask(id, task).block();
+            }
+
+            public TaskDTO updateStatus(Long id, Boolean completed) {
+                return reactiveTaskService.updateTaskStatus(id, completed).block();
+            }
+
+            public TaskDTO move(Long id, Long afterId) {
+                return reactiveTaskService.moveTask(id, afterId).block();
+            }
+
+            public void delete(Long id) {
+                reactiveTaskService.deleteTask(id).block();
+            }
+
+            public TaskChangesDTO changes(Long userId, Long since) {
+                return reactiveTaskService.getTaskChanges(userId, since).block();
+            }
+        };
+    }
+
+    private interface TaskApi {
+        TaskDTO create(TaskDTO task);
+
+        TaskDTO update(Long id, TaskDTO task);
+
+        TaskDTO updateStatus(Long id, Boolean completed);
+
+        TaskDTO move(Long id, Long afterId);
+
+        void delete(Long id);
+
+        TaskChangesDTO changes(Long userId, Long since);
+    }
+}
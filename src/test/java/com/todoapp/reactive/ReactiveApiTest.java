@@ -0,0 +1,230 @@
+package com.todoapp.reactive;
+
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.idempotency.IdempotencyService;
+import com.todoapp.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "todoapp.reactive.enabled=true",
+    "todoapp.reactive.port=0",
+    "todoapp.reactive.r2dbc.url=r2dbc:h2:mem:///testdb",
+    "todoapp.reactive.r2dbc.username=sa",
+    "todoapp.reactive.r2dbc.password="
+})
+@SuppressWarnings("null")
+class ReactiveApiTest {
+
+    @Autowired
+    private ReactiveApiServer server;
+
+    @Autowired
+    private TaskService taskService;
+
+    private WebTestClient client;
+
+    private UserDTO user;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort()).build();
+        String name = UUID.randomUUID().toString();
+        user = client.post().uri("/api/users")
+            .bodyValue(new UserDTO(null, name, name + "@example.com"))
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(UserDTO.class).returnResult().getResponseBody();
+    }
+
+    @Test
+    void testTaskLifecycle() {
+        String longDescription = "Long description ".repeat(200);
+        TaskDTO created = createTask("Reactive task", longDescription);
+        assertNotNull(created.getId());
+
+        TaskDTO read = client.get().uri("/api/tasks/{id}", created.getId())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(TaskDTO.class).returnResult().getResponseBody();
+        assertEquals(longDescription, read.getDescription());
+
+        TaskDTO updated = client.put().uri("/api/tasks/{id}", created.getId())
+            .bodyValue(new TaskDTO(null, "Renamed", "Short", false, user.getId()))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(TaskDTO.class).returnResult().getResponseBody();
+        assertEquals("Renamed", updated.getTitle());
+
+        TaskDTO completed = client.patch().uri("/api/tasks/{id}/status", created.getId())
+            .bodyValue(Map.of("isCompleted", true))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(TaskDTO.class).returnResult().getResponseBody();
+        assertTrue(completed.getIsCompleted());
+        assertEquals("Short", completed.getDescription());
+
+        client.delete().uri("/api/tasks/{id}", created.getId()).exchange().expectStatus().isNoContent();
+        client.get().uri("/api/tasks/{id}", created.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testServletApiSeesReactiveWrites() {
+        TaskDTO created = createTask("Shared", null);
+        assertEquals("Shared", taskService.getTaskById(created.getId()).getTitle());
+        assertEquals(1, taskService.getTasksByUserId(user.getId()).size());
+
+        client.put().uri("/api/tasks/{id}", created.getId())
+            .bodyValue(new TaskDTO(null, "Changed", null, true, user.getId()))
+            .exchange()
+            .expectStatus().isOk();
+
+        assertEquals("Changed", taskService.getTaskById(created.getId()).getTitle());
+        assertEquals("Changed", taskService.getTasksByUserId(user.getId()).get(0).getTitle());
+    }
+
+    @Test
+    void testServletApiSeesReactiveDescriptionRewrites() {
+        TaskDTO created = createTask("Notes", "First draft. ".repeat(200));
+        assertEquals("First draft. ".repeat(200), taskService.getTaskById(created.getId()).getDescription());
+
+        // A long description replacing a long one is written over the same row
+        String rewritten = "Second draft. ".repeat(200);
+        client.put().uri("/api/tasks/{id}", created.getId())
+            .bodyValue(new TaskDTO(null, "Notes", rewritten, false, user.getId()))
+            .exchange()
+            .expectStatus().isOk();
+
+        assertEquals(rewritten, taskService.getTaskById(created.getId()).getDescription());
+        assertEquals(rewritten, taskService.getTasksByUserId(user.getId()).get(0).getDescription());
+    }
+
+    @Test
+    void testListsStreamAsJsonArrayOrNdjson() {
+        for (int i = 0; i < 5; i++) {
+            createTask("Task " + i, null);
+        }
+
+        List<TaskDTO> array = client.get().uri("/api/tasks/user/{userId}", user.getId())
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBodyList(TaskDTO.class).returnResult().getResponseBody();
+        assertEquals(5, array.size());
+
+        Flux<TaskDTO> stream = client.get().uri("/api/tasks/user/{userId}", user.getId())
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(TaskDTO.class).getResponseBody();
+        assertEquals(5, stream.collectList().block().size());
+    }
+
+    @Test
+    void testErrorsUseTheApiErrorBody() {
+        client.get().uri("/api/tasks/user/{userId}", Long.MAX_VALUE)
+            .exchange()
+            .expectStatus().isNotFound()
+            .expectBody().jsonPath("$.status").isEqualTo(404);
+
+        client.post().uri("/api/tasks")
+            .bodyValue(new TaskDTO(null, "", null, false, user.getId()))
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Validation failed")
+            .jsonPath("$.errors.title").exists();
+
+        client.post().uri("/api/users")
+            .bodyValue(new UserDTO(null, "Copy", user.getEmail()))
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        client.get().uri("/api/tasks/abc").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/tasks?completed=true").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/tasks/user/{userId}?sort=title", user.getId()).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testChangesIncludeTombstones() {
+        TaskDTO kept = createTask("Kept", null);
+        TaskDTO deleted = createTask("Deleted", null);
+        client.delete().uri("/api/tasks/{id}", deleted.getId()).exchange().expectStatus().isNoContent();
+
+        client.get().uri("/api/tasks/user/{userId}/changes?since=0", user.getId())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.changed.length()").isEqualTo(1)
+            .jsonPath("$.changed[0].id").isEqualTo(kept.getId())
+            .jsonPath("$.deletedTaskIds[0]").isEqualTo(deleted.getId())
+            .jsonPath("$.hasMore").isEqualTo(false);
+    }
+
+    @Test
+    void testIdempotentCreateIsReplayed() {
+        TaskDTO task = new TaskDTO(null, "Once", null, false, user.getId());
+        String key = UUID.randomUUID().toString();
+        TaskDTO first = client.post().uri("/api/tasks")
+            .header(IdempotencyService.KEY_HEADER, key)
+            .bodyValue(task)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(TaskDTO.class).returnResult().getResponseBody();
+
+        TaskDTO replayed = client.post().uri("/api/tasks")
+            .header(IdempotencyService.KEY_HEADER, key)
+            .bodyValue(task)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectHeader().valueEquals(IdempotencyService.REPLAYED_HEADER, "true")
+            .expectBody(TaskDTO.class).returnResult().getResponseBody();
+
+        assertEquals(first.getId(), replayed.getId());
+        assertEquals(1, taskService.getTasksByUserId(user.getId()).size());
+    }
+
+    @Test
+    void testBatchReportsMissingIds() {
+        TaskDTO task = createTask("Batch", null);
+
+        client.get().uri("/api/tasks/batch?ids={first},{missing}", task.getId(), Long.MAX_VALUE)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items[0].id").isEqualTo(task.getId())
+            .jsonPath("$.missingIds[0]").isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testDeleteUserRemovesTheirTasks() {
+        TaskDTO task = createTask("Owned", null);
+
+        client.delete().uri("/api/users/{id}", user.getId()).exchange().expectStatus().isNoContent();
+
+        client.get().uri("/api/users/{id}", user.getId()).exchange().expectStatus().isNotFound();
+        client.get().uri("/api/tasks/{id}", task.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    private TaskDTO createTask(String title, String description) {
+        return client.post().uri("/api/tasks")
+            .bodyValue(new TaskDTO(null, title, description, false, user.getId()))
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(TaskDTO.class).returnResult().getResponseBody();
+    }
+}
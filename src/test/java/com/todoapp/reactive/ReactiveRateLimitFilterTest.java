@@ -0,0 +1,77 @@
+package com.todoapp.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.json.DtoSerializationModule;
+import com.todoapp.ratelimit.RateLimiter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveRateLimitFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new DtoSerializationModule());
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Mock
+    private WebFilterChain chain;
+
+    @Test
+    void testAdmittedRequestPassesThrough() {
+        MockServerWebExchange exchange = exchange("/api/tasks", "10.0.0.5");
+        when(rateLimiter.tryAcquire("10.0.0.5")).thenReturn(0L);
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        new ReactiveRateLimitFilter(rateLimiter, objectMapper).filter(exchange, chain).block();
+
+        verify(chain).filter(exchange);
+        assertNull(exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void testThrottledRequestGets429WithRetryAfter() throws Exception {
+        MockServerWebExchange exchange = exchange("/api/tasks/user/1", "10.0.0.7");
+        when(rateLimiter.tryAcquire("10.0.0.7")).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        new ReactiveRateLimitFilter(rateLimiter, objectMapper).filter(exchange, chain).block();
+
+        verify(chain, never()).filter(any());
+        assertEquals(429, exchange.getResponse().getStatusCode().value());
+        assertEquals("2", exchange.getResponse().getHeaders().getFirst("Retry-After"));
+        JsonNode body = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+        assertEquals(429, body.get("status").asInt());
+        assertEquals("Too many requests", body.get("message").asText());
+    }
+
+    @Test
+    void testNonApiRequestsAreNotLimited() {
+        MockServerWebExchange exchange = exchange("/actuator/health", "10.0.0.5");
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        new ReactiveRateLimitFilter(rateLimiter, objectMapper).filter(exchange, chain).block();
+
+        verify(rateLimiter, never()).tryAcquire(anyString());
+        verify(chain).filter(exchange);
+    }
+
+    private static MockServerWebExchange exchange(String path, String remoteAddress) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)
+            .remoteAddress(new InetSocketAddress(remoteAddress, 40000)));
+    }
+}
@@ -1,24 +1,39 @@
 package com.todoapp.repository;
 
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskField;
 import com.todoapp.model.Task;
+import com.todoapp.model.TaskDescription;
 import com.todoapp.model.User;
 import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.Hibernate;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.todoapp.repository.TaskRepositoryTest$CapturedSql")
 @SuppressWarnings("null")
 class TaskRepositoryTest {
 
     @Autowired
     private TestEntityManager entityManager;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -80,6 +95,119 @@ class TaskRepositoryTest {
         assertFalse(incompleteTasks.get(0).getIsCompleted());
     }
 
+    @Test
+    void testFindByUserIdAndChangeSeqGreaterThan() {
+        task.setChangeSeq(1L);
+        Task changedTask = new Task();
+        changedTask.setTitle("Changed Task");
+        changedTask.setIsCompleted(false);
+        changedTask.setUser(user);
+        changedTask.setChangeSeq(3L);
+
+        entityManager.persist(changedTask);
+        entityManager.persist(task);
+        entityManager.flush();
+
+        List<Task> changes = taskRepository.findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(
+            user.getId(), 1L, PageRequest.of(0, 10));
+
+        assertEquals(1, changes.size());
+        assertEquals("Changed Task", changes.get(0).getTitle());
+    }
+
+    @Test
+    void testFindFieldsByUserIdSelectsOnlyRequestedColumns() {
+        entityManager.persist(task);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TaskDTO> tasks = taskRepository.findFieldsByUserId(
+            user.getId(), EnumSet.of(TaskField.ID, TaskField.TITLE, TaskField.IS_COMPLETED));
+
+        assertEquals(1, tasks.size());
+        assertEquals(task.getId(), tasks.get(0).getId());
+        assertEquals("Test Task", tasks.get(0).getTitle());
+        assertFalse(tasks.get(0).getIsCompleted());
+        assertNull(tasks.get(0).getDescription());
+        assertNull(tasks.get(0).getUserId());
+    }
+
+    @Test
+    void testFindFieldsIncludesUserId() {
+        entityManager.persist(task);
+        entityManager.flush();
+
+        List<TaskDTO> tasks = taskRepository.findFields(EnumSet.of(TaskField.ID, TaskField.USER_ID));
+
+        assertEquals(1, tasks.size());
+        assertEquals(user.getId(), tasks.get(0).getUserId());
+    }
+
+    @Test
+    void testFindFieldsIncludesPosition() {
+        task.setPosition("a0");
+        entityManager.persist(task);
+        entityManager.flush();
+
+        List<TaskDTO> tasks = taskRepository.findFieldsByUserId(user.getId(), TaskField.parse("position"));
+
+        assertEquals(1, tasks.size());
+        assertEquals("a0", tasks.get(0).getPosition());
+        assertNull(tasks.get(0).getTitle());
+    }
+
+    @Test
+    void testLongDescriptionIsStoredCompressedAndLoadedLazily() {
+        String longDescription = "Meeting notes, action items and links. ".repeat(2000);
+        task.setDescription(longDescription);
+        Task savedTask = entityManager.persistFlushFind(task);
+        entityManager.clear();
+
+        Task loaded = taskRepository.findById(savedTask.getId()).orElseThrow();
+        Object external = ReflectionTestUtils.getField(loaded, "externalDescription");
+        assertFalse(Hibernate.isInitialized(external));
+        assertEquals(longDescription, loaded.getDescription());
+
+        // Lists leave the bodies lazy too; reading one loads it in a batch
+        entityManager.clear();
+        Task listed = taskRepository.findByUserId(user.getId()).get(0);
+        assertFalse(Hibernate.isInitialized(ReflectionTestUtils.getField(listed, "externalDescription")));
+        assertEquals(longDescription, listed.getDescription());
+
+        TaskDescription stored = entityManager.getEntityManager()
+            .createQuery("select d from TaskDescription d", TaskDescription.class)
+            .getSingleResult();
+        assertTrue(stored.getCompressed());
+        assertTrue(stored.getContent().length < longDescription.length() / 10);
+        assertEquals(savedTask.getId(), loaded.getId());
+    }
+
+    @Test
+    void testShortDescriptionStaysInline() {
+        entityManager.persist(task);
+        entityManager.flush();
+
+        Long externalRows = entityManager.getEntityManager()
+            .createQuery("select count(d) from TaskDescription d", Long.class)
+            .getSingleResult();
+
+        assertEquals(0L, externalRows);
+    }
+
+    @Test
+    void testFindFieldsResolvesExternalDescription() {
+        String longDescription = "x".repeat(Task.INLINE_DESCRIPTION_LIMIT + 1);
+        task.setDescription(longDescription);
+        entityManager.persist(task);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TaskDTO> tasks = taskRepository.findFieldsByUserId(
+            user.getId(), EnumSet.of(TaskField.ID, TaskField.DESCRIPTION));
+
+        assertEquals(longDescription, tasks.get(0).getDescription());
+    }
+
     @Test
     void testDeleteTask() {
         Task savedTask = entityManager.persist(task);
@@ -90,4 +218,77 @@ class TaskRepositoryTest {
         List<Task> tasks = taskRepository.findByUserId(user.getId());
         assertEquals(0, tasks.size());
     }
+
+    @Test
+    void testFindFilteredAppliesFiltersSortAndPage() {
+        for (String title : List.of("Buy milk", "Buy bread", "Call mom", "Buy 100%_pure juice")) {
+            Task each = new Task();
+            each.setTitle(title);
+            each.setIsCompleted(!title.startsWith("Buy b"));
+            each.setUser(user);
+            entityManager.persist(each);
+        }
+        entityManager.flush();
+
+        List<Task> open = taskRepository.findFiltered(user.getId(), false, null, PageRequest.of(0, 10, Sort.by("id")));
+        List<Task> buys = taskRepository.findFiltered(user.getId(), true, "Buy",
+            PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "title")));
+        List<Task> secondPage = taskRepository.findFiltered(user.getId(), null, null,
+            PageRequest.of(1, 3, Sort.by("title")));
+        List<Task> literal = taskRepository.findFiltered(null, null, "Buy 100%_",
+            PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(List.of("Buy bread"), open.stream().map(Task::getTitle).toList());
+        assertEquals(List.of("Buy milk", "Buy 100%_pure juice"), buys.stream().map(Task::getTitle).toList());
+        assertEquals(List.of("Call mom"), secondPage.stream().map(Task::getTitle).toList());
+        assertEquals(1, literal.size());
+    }
+
+    @Test
+    void testFindFilteredFieldsAppliesFiltersAndReadsSortFields() {
+        for (String title : List.of("Buy milk", "Buy bread", "Call mom")) {
+            Task each = new Task();
+            each.setTitle(title);
+            each.setIsCompleted(!title.startsWith("Buy b"));
+            each.setUser(user);
+            entityManager.persist(each);
+        }
+        entityManager.flush();
+
+        List<TaskDTO> page = taskRepository.findFilteredFields(user.getId(), EnumSet.of(TaskField.ID), true, "Buy",
+            PageRequest.of(0, 1, Sort.by("title")));
+
+        assertEquals(1, page.size());
+        assertEquals("Buy milk", page.get(0).getTitle());
+        assertNull(page.get(0).getUserId());
+    }
+
+    @Test
+    void testFindFilteredUsesCompositeIndex() {
+        entityManager.persist(task);
+        entityManager.flush();
+        CapturedSql.STATEMENTS.clear();
+
+        taskRepository.findFiltered(user.getId(), false, "Test", PageRequest.of(0, 20, Sort.by("title")));
+
+        String sql = CapturedSql.STATEMENTS.stream()
+            .filter(statement -> statement.contains(" like "))
+            .findFirst()
+            .orElseThrow();
+        assertTrue(sql.contains("offset") || sql.contains("limit") || sql.contains("fetch"), sql);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue(plan.toUpperCase().contains("IDX_TASKS_USER_COMPLETED_TITLE"), plan);
+    }
+
+    /** Records the SQL Hibernate sends, so its plan can be checked. */
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
 }
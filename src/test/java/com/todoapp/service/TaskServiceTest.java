@@ -1,25 +1,45 @@
 package com.todoapp.service;
 
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.dto.TaskChangesDTO;
 import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskQuery;
+import com.todoapp.event.TaskChangeEvent;
+import com.todoapp.exception.InvalidRequestException;
 import com.todoapp.exception.ResourceNotFoundException;
 import com.todoapp.model.Task;
+import com.todoapp.model.TaskTombstone;
 import com.todoapp.model.User;
+import com.todoapp.repository.ArchivedTaskRepository;
+import com.todoapp.repository.ChangeSequence;
 import com.todoapp.repository.TaskRepository;
+import com.todoapp.repository.TaskTombstoneRepository;
 import com.todoapp.repository.UserRepository;
+import com.todoapp.sharding.ShardExecutor;
+import com.todoapp.sharding.ShardRing;
+import com.todoapp.sync.ChangeWatermarks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +52,24 @@ class TaskServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Mock
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Mock
+    private ChangeSequence changeSequence;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ChangeWatermarks changeWatermarks;
+
+    @Spy
+    private ShardExecutor shardExecutor = new ShardExecutor(new ShardRing(1, 1), mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private TaskService taskService;
 
@@ -62,7 +100,8 @@ class TaskServiceTest {
 
     @Test
     void testCreateTask_Success() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.lockSharedById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(taskRepository.save(any(Task.class))).thenReturn(task);
 
         TaskDTO result = taskService.createTask(taskDTO);
@@ -71,11 +110,12 @@ class TaskServiceTest {
         assertEquals("Test Task", result.getTitle());
         assertEquals(1L, result.getUserId());
         verify(taskRepository, times(1)).save(any(Task.class));
+        verify(eventPublisher).publishEvent(TaskChangeEvent.created(result));
     }
 
     @Test
     void testCreateTask_UserNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.lockSharedById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             taskService.createTask(taskDTO);
@@ -123,7 +163,7 @@ class TaskServiceTest {
 
     @Test
     void testGetTasksByUserId_Success() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(taskRepository.findByUserId(anyLong())).thenReturn(Arrays.asList(task));
 
         List<TaskDTO> results = taskService.getTasksByUserId(1L);
@@ -134,42 +174,172 @@ class TaskServiceTest {
 
     @Test
     void testGetTasksByUserId_UserNotFound() {
-        when(userRepository.existsById(anyLong())).thenReturn(false);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             taskService.getTasksByUserId(1L);
         });
     }
 
+    @Test
+    void testGetTaskChanges_MergesUpdatesAndTombstonesInSequenceOrder() {
+        task.setChangeSeq(5L);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(changeWatermarks.safeBound(0)).thenReturn(Long.MAX_VALUE);
+        when(taskRepository.findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(eq(1L), eq(3L), any()))
+            .thenReturn(Arrays.asList(task));
+        when(taskTombstoneRepository.findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(eq(1L), eq(3L), any()))
+            .thenReturn(Arrays.asList(new TaskTombstone(4L, 7L, 1L), new TaskTombstone(6L, 8L, 1L)));
+
+        TaskChangesDTO changes = taskService.getTaskChanges(1L, 3L);
+
+        assertEquals(1, changes.getChanged().size());
+        assertEquals(Arrays.asList(7L, 8L), changes.getDeletedTaskIds());
+        assertEquals(6L, changes.getWatermark());
+        assertFalse(changes.getHasMore());
+    }
+
+    @Test
+    void testGetTaskChanges_WatermarkStopsAtSafeBound() {
+        task.setChangeSeq(5L);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(changeWatermarks.safeBound(0)).thenReturn(4L);
+        when(taskRepository.findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(eq(1L), eq(3L), any()))
+            .thenReturn(Arrays.asList(task));
+        when(taskTombstoneRepository.findByUserIdAndChangeSeqGreaterThanOrderByChangeSeqAsc(eq(1L), eq(3L), any()))
+            .thenReturn(Arrays.asList(new TaskTombstone(4L, 7L, 1L), new TaskTombstone(6L, 8L, 1L)));
+
+        TaskChangesDTO changes = taskService.getTaskChanges(1L, 3L);
+
+        // Changes past the bound are still sent, and sent again from the returned watermark
+        assertEquals(1, changes.getChanged().size());
+        assertEquals(Arrays.asList(7L, 8L), changes.getDeletedTaskIds());
+        assertEquals(4L, changes.getWatermark());
+    }
+
+    @Test
+    void testGetTaskChanges_NoChangesKeepsWatermark() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+        TaskChangesDTO changes = taskService.getTaskChanges(1L, 42L);
+
+        assertTrue(changes.getChanged().isEmpty());
+        assertTrue(changes.getDeletedTaskIds().isEmpty());
+        assertEquals(42L, changes.getWatermark());
+    }
+
+    @Test
+    void testGetTaskChanges_UserNotFound() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            taskService.getTaskChanges(1L, 0L);
+        });
+    }
+
     @Test
     void testUpdateTaskStatus_Success() {
-        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(task));
+        when(taskRepository.lockById(anyLong())).thenReturn(Optional.of(task));
         when(taskRepository.save(any(Task.class))).thenReturn(task);
 
         TaskDTO result = taskService.updateTaskStatus(1L, true);
 
         assertNotNull(result);
         verify(taskRepository, times(1)).save(any(Task.class));
+        verify(eventPublisher).publishEvent(TaskChangeEvent.updated(result));
     }
 
     @Test
     void testDeleteTask_Success() {
-        when(taskRepository.existsById(anyLong())).thenReturn(true);
-        doNothing().when(taskRepository).deleteById(anyLong());
+        when(taskRepository.lockById(anyLong())).thenReturn(Optional.of(task));
 
         taskService.deleteTask(1L);
 
-        verify(taskRepository, times(1)).deleteById(1L);
+        verify(taskRepository, times(1)).softDelete(eq(1L), anyLong());
+        verify(taskRepository, never()).deleteById(anyLong());
+        verify(taskTombstoneRepository).save(new TaskTombstone(null, 1L, 1L));
+        verify(eventPublisher).publishEvent(TaskChangeEvent.deleted(1L, 1L));
     }
 
     @Test
     void testDeleteTask_NotFound() {
-        when(taskRepository.existsById(anyLong())).thenReturn(false);
+        when(taskRepository.lockById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             taskService.deleteTask(1L);
         });
         
-        verify(taskRepository, never()).deleteById(anyLong());
+        verify(taskRepository, never()).softDelete(anyLong(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testGetTasksByIds_ReturnsRequestOrderAndMissingIds() {
+        Task task3 = new Task();
+        task3.setId(3L);
+        task3.setTitle("Task 3");
+        task3.setIsCompleted(false);
+        task3.setUser(user);
+        when(taskRepository.findAllById(Arrays.asList(3L, 2L, 1L))).thenReturn(Arrays.asList(task, task3));
+
+        BatchResultDTO<TaskDTO> result = taskService.getTasksByIds(Arrays.asList(3L, 2L, 1L, 3L));
+
+        assertEquals(3L, result.getItems().get(0).getId());
+        assertEquals(1L, result.getItems().get(1).getId());
+        assertEquals(Arrays.asList(2L), result.getMissingIds());
+    }
+
+    @Test
+    void testGetTasksByIds_QueriesInChunks() {
+        ReflectionTestUtils.setField(taskService, "multiGetChunkSize", 2);
+        when(taskRepository.findAllById(any())).thenReturn(Collections.emptyList());
+
+        BatchResultDTO<TaskDTO> result = taskService.getTasksByIds(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+
+        verify(taskRepository, times(3)).findAllById(any());
+        assertEquals(5, result.getMissingIds().size());
+    }
+
+    @Test
+    void testGetTasksByIds_RejectsOversizedRequest() {
+        ReflectionTestUtils.setField(taskService, "multiGetMaxIds", 2);
+
+        assertThrows(InvalidRequestException.class, () -> {
+            taskService.getTasksByIds(Arrays.asList(1L, 2L, 3L));
+        });
+        // Duplicates count towards the limit
+        assertThrows(InvalidRequestException.class, () -> {
+            taskService.getTasksByIds(Arrays.asList(1L, 1L, 1L));
+        });
+
+        verify(taskRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testGetTasksByUserId_FilteredQueryIsPassedToTheRepository() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(taskRepository.findFiltered(1L, false, "Test", PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "title")
+            .and(Sort.by("id"))))).thenReturn(Arrays.asList(task));
+
+        List<TaskDTO> results = taskService.getTasksByUserId(1L, new TaskQuery(false, "Test", "title,desc", 2, 10),
+            false);
+
+        assertEquals(List.of("Test Task"), results.stream().map(TaskDTO::getTitle).toList());
+        verify(taskRepository, never()).findByUserId(anyLong());
+    }
+
+    @Test
+    void testGetAllTasks_InvalidQueryIsRejected() {
+        ReflectionTestUtils.setField(taskService, "maxPageSize", 50);
+
+        assertThrows(InvalidRequestException.class,
+            () -> taskService.getAllTasks(new TaskQuery(null, null, null, 0, 51), false));
+        assertThrows(InvalidRequestException.class,
+            () -> taskService.getAllTasks(new TaskQuery(null, null, "description", null, null), false));
+        assertThrows(InvalidRequestException.class,
+            () -> taskService.getAllTasks(new TaskQuery(true, null, null, null, null), true));
+        assertThrows(InvalidRequestException.class,
+            () -> taskService.getAllTasks(new TaskQuery(null, null, null, Integer.MAX_VALUE, 50), false));
+        verify(taskRepository, never()).findFiltered(any(), any(), any(), any());
     }
 }
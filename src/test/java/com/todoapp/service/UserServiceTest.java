@@ -1,7 +1,9 @@
 package com.todoapp.service;
 
+import com.todoapp.dto.BatchResultDTO;
 import com.todoapp.dto.UserDTO;
 import com.todoapp.exception.DuplicateResourceException;
+import com.todoapp.exception.InvalidRequestException;
 import com.todoapp.exception.ResourceNotFoundException;
 import com.todoapp.model.User;
 import com.todoapp.repository.UserRepository;
@@ -20,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +32,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TaskService taskService;
+
     @InjectMocks
     private UserService userService;
 
@@ -123,22 +129,41 @@ class UserServiceTest {
 
     @Test
     void testDeleteUser_Success() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        doNothing().when(userRepository).deleteById(anyLong());
+        when(userRepository.lockById(anyLong())).thenReturn(Optional.of(user));
 
         userService.deleteUser(1L);
 
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(taskService).deleteTasksOfUser(1L);
+        verify(userRepository, times(1)).softDelete(eq(1L), anyLong());
+        verify(userRepository, never()).deleteById(anyLong());
     }
 
     @Test
     void testDeleteUser_NotFound() {
-        when(userRepository.existsById(anyLong())).thenReturn(false);
+        when(userRepository.lockById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             userService.deleteUser(1L);
         });
         
-        verify(userRepository, never()).deleteById(anyLong());
+        verify(userRepository, never()).softDelete(anyLong(), anyLong());
+    }
+
+    @Test
+    void testGetUsersByIds_ReturnsRequestOrderAndMissingIds() {
+        when(userRepository.findAllById(Arrays.asList(5L, 1L))).thenReturn(Arrays.asList(user));
+
+        BatchResultDTO<UserDTO> result = userService.getUsersByIds(Arrays.asList(5L, 1L));
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("John Doe", result.getItems().get(0).getName());
+        assertEquals(Arrays.asList(5L), result.getMissingIds());
+    }
+
+    @Test
+    void testGetUsersByIds_RejectsEmptyRequest() {
+        assertThrows(InvalidRequestException.class, () -> {
+            userService.getUsersByIds(List.of());
+        });
     }
 }
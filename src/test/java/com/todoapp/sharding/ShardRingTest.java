@@ -0,0 +1,58 @@
+package com.todoapp.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRingTest {
+
+    private static final int USERS = 100_000;
+
+    @Test
+    void testSingleShardOwnsEveryUser() {
+        ShardRing ring = new ShardRing(1, 16);
+
+        assertEquals(0, ring.shardForUser(1L));
+        assertEquals(0, ring.shardForUser(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testUsersAreSpreadEvenly() {
+        ShardRing ring = new ShardRing(4, 128);
+        int[] counts = new int[4];
+        for (long userId = 1; userId <= USERS; userId++) {
+            counts[ring.shardForUser(userId)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(Math.abs(count - USERS / 4) < USERS / 4 * 0.2, "shard holds " + count + " users");
+        }
+    }
+
+    @Test
+    void testAddingAShardOnlyMovesUsersToIt() {
+        ShardRing before = new ShardRing(4, 128);
+        ShardRing after = new ShardRing(5, 128);
+        int moved = 0;
+        for (long userId = 1; userId <= USERS; userId++) {
+            int from = before.shardForUser(userId);
+            int to = after.shardForUser(userId);
+            if (from != to) {
+                assertEquals(4, to, "users only move to the new shard");
+                moved++;
+            }
+        }
+
+        assertTrue(moved > USERS / 5 * 0.8 && moved < USERS / 5 * 1.2, moved + " users moved");
+    }
+
+    @Test
+    void testTaskIdRangesIdentifyTheOriginShard() {
+        ShardRing ring = new ShardRing(3, 16);
+
+        assertEquals(1L, ShardRing.firstTaskId(0));
+        assertEquals(0, ring.originShardOfTaskId(42L));
+        assertEquals(2, ring.originShardOfTaskId(ShardRing.firstTaskId(2) + 7));
+        assertEquals(0, ring.originShardOfTaskId(ShardRing.firstTaskId(9)));
+    }
+}
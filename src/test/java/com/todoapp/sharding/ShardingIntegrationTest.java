@@ -0,0 +1,188 @@
+package com.todoapp.sharding;
+
+import com.todoapp.dto.BatchResultDTO;
+import com.todoapp.dto.TaskChangesDTO;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.TaskQuery;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.exception.ResourceNotFoundException;
+import com.todoapp.model.Task;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shard0",
+    "todoapp.sharding.shards[0].url=jdbc:h2:mem:shard1",
+    "todoapp.sharding.shards[0].username=sa",
+    "todoapp.sharding.shards[1].url=jdbc:h2:mem:shard2",
+    "todoapp.sharding.shards[1].username=sa"
+})
+@SuppressWarnings("null")
+class ShardingIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ShardRing ring;
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Test
+    void testTasksArePlacedOnTheirUsersShard() {
+        List<TaskDTO> tasks = createUsersWithTasks(30);
+
+        for (TaskDTO task : tasks) {
+            int shard = ring.shardForUser(task.getUserId());
+            assertEquals(1, countTasks(shard, task.getId()));
+            assertEquals(shard, task.getId() >>> ShardRing.TASK_ID_SHARD_SHIFT);
+            assertEquals(task, taskService.getTaskById(task.getId()));
+        }
+        assertEquals(3, tasks.stream().map(task -> ring.shardForUser(task.getUserId())).distinct().count());
+    }
+
+    @Test
+    void testGlobalQueriesGatherFromEveryShard() {
+        List<TaskDTO> tasks = createUsersWithTasks(20);
+        List<Long> ids = tasks.stream().map(TaskDTO::getId).toList();
+
+        assertTrue(taskService.getAllTasks().containsAll(tasks));
+        BatchResultDTO<TaskDTO> batch = taskService.getTasksByIds(ids);
+        assertEquals(ids, batch.getItems().stream().map(TaskDTO::getId).toList());
+        assertTrue(batch.getMissingIds().isEmpty());
+    }
+
+    @Test
+    void testFilteredPagesAreMergedAcrossShards() {
+        String prefix = UUID.randomUUID() + "-";
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            UserDTO user = createUser();
+            String title = prefix + (char) ('a' + (i * 7) % 12);
+            taskService.createTask(new TaskDTO(null, title, null, false, user.getId()));
+            titles.add(title);
+        }
+        titles.sort(null);
+
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            taskService.getAllTasks(new TaskQuery(false, prefix, "title", page, 5), false)
+                .forEach(task -> paged.add(task.getTitle()));
+        }
+
+        assertEquals(titles, paged);
+    }
+
+    @Test
+    void testWritesAndDeletesReachTheOwningShard() {
+        TaskDTO task = createUsersWithTasks(1).get(0);
+        int shard = ring.shardForUser(task.getUserId());
+
+        assertTrue(taskService.updateTaskStatus(task.getId(), true).getIsCompleted());
+        taskService.deleteTask(task.getId());
+
+        assertEquals(0, countTasks(shard, task.getId()));
+        TaskChangesDTO changes = taskService.getTaskChanges(task.getUserId(), 0L);
+        assertEquals(List.of(task.getId()), changes.getDeletedTaskIds());
+        assertThrows(ResourceNotFoundException.class, () -> taskService.getTaskById(task.getId()));
+    }
+
+    @Test
+    void testDeletingAUserRemovesItsTasksFromItsShard() {
+        TaskDTO task = createUsersWithTasks(1).get(0);
+
+        userService.deleteUser(task.getUserId());
+
+        assertEquals(0, countTasks(ring.shardForUser(task.getUserId()), task.getId()));
+    }
+
+    @Test
+    void testTaskOfAUserDeletedDuringTheInsertIsDeletedAgain() {
+        UserDTO user = createUser();
+        while (ring.shardForUser(user.getId()) == ShardContext.PRIMARY) {
+            user = createUser();
+        }
+        Long userId = user.getId();
+        // Cached, so the check before the insert still sees the user
+        userService.getUserById(userId);
+        new JdbcTemplate(shards.getShard(ShardContext.PRIMARY))
+            .update("UPDATE users SET deleted_at = ? WHERE id = ?", System.currentTimeMillis(), userId);
+
+        assertThrows(ResourceNotFoundException.class,
+            () -> taskService.createTask(new TaskDTO(null, "Orphan", null, false, userId)));
+
+        JdbcTemplate shard = new JdbcTemplate(shards.getShard(ring.shardForUser(userId)));
+        assertEquals(1, shard.queryForObject("SELECT COUNT(*) FROM tasks WHERE user_id = ?", Integer.class, userId));
+        assertEquals(0, shard.queryForObject(
+            "SELECT COUNT(*) FROM tasks WHERE user_id = ? AND deleted_at IS NULL", Integer.class, userId));
+    }
+
+    @Test
+    void testOnlyThePrimaryKeepsTheUserForeignKey() {
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            Integer keys = new JdbcTemplate(shards.getShard(shard)).queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE CONSTRAINT_NAME = ?",
+                Integer.class, Task.USER_FOREIGN_KEY.toUpperCase());
+            assertEquals(shard == ShardContext.PRIMARY ? 1 : 0, keys, "shard " + shard);
+        }
+    }
+
+    @Test
+    void testRebalanceMovesMisplacedUsersAndKeepsTaskIds() {
+        UserDTO user = createUser();
+        int home = ring.shardForUser(user.getId());
+        int wrong = (home + 1) % shards.getShardCount();
+        JdbcTemplate source = new JdbcTemplate(shards.getShard(wrong));
+        long taskId = ShardRing.firstTaskId(wrong) + 500_000 + user.getId();
+        source.update("INSERT INTO tasks (id, title, is_completed, user_id, change_seq) VALUES (?, ?, ?, ?, ?)",
+            taskId, "Misplaced", false, user.getId(), 900_000L);
+        source.update("INSERT INTO task_tombstones (change_seq, task_id, user_id) VALUES (?, ?, ?)",
+            900_001L, taskId + 1, user.getId());
+
+        assertTrue(rebalancer.rebalance() >= 1);
+
+        assertEquals(0, countTasks(wrong, taskId));
+        assertEquals(1, countTasks(home, taskId));
+        assertEquals("Misplaced", taskService.getTaskById(taskId).getTitle());
+        TaskChangesDTO changes = taskService.getTaskChanges(user.getId(), 900_001L);
+        assertEquals(List.of(taskId), changes.getChanged().stream().map(TaskDTO::getId).toList());
+        assertEquals(List.of(taskId + 1), changes.getDeletedTaskIds());
+        assertEquals(0, rebalancer.rebalance());
+    }
+
+    private List<TaskDTO> createUsersWithTasks(int count) {
+        List<TaskDTO> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UserDTO user = createUser();
+            tasks.add(taskService.createTask(new TaskDTO(null, "Task " + i, "Description", false, user.getId())));
+        }
+        return tasks;
+    }
+
+    private UserDTO createUser() {
+        String name = UUID.randomUUID().toString();
+        return userService.createUser(new UserDTO(null, name, name + "@example.com"));
+    }
+
+    private int countTasks(int shard, long taskId) {
+        return new JdbcTemplate(shards.getShard(shard))
+            .queryForObject("SELECT COUNT(*) FROM tasks WHERE id = ? AND deleted_at IS NULL", Integer.class, taskId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.todoapp.sync;
+
+import com.todoapp.dto.TaskChangesDTO;
+import com.todoapp.dto.TaskDTO;
+import com.todoapp.dto.UserDTO;
+import com.todoapp.service.TaskService;
+import com.todoapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SuppressWarnings("null")
+class ChangeSeqBackfillTest {
+
+    @Autowired
+    private ChangeSeqBackfill backfill;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void testTasksWithoutChangeSeqReachTheChangesFeed() {
+        String name = UUID.randomUUID().toString();
+        Long userId = userService.createUser(new UserDTO(null, name, name + "@example.com")).getId();
+        Long taskId = taskService.createTask(new TaskDTO(null, "Legacy", null, false, userId)).getId();
+        long watermark = taskService.getTaskChanges(userId, null).getWatermark();
+        jdbc.update("UPDATE tasks SET change_seq = NULL WHERE id = ?", taskId);
+        assertTrue(taskService.getTaskChanges(userId, null).getChanged().isEmpty());
+
+        assertTrue(backfill.backfill() >= 1);
+
+        TaskChangesDTO changes = taskService.getTaskChanges(userId, watermark);
+        assertEquals(taskId, changes.getChanged().get(0).getId());
+        assertEquals(0, backfill.backfill());
+    }
+
+    @Test
+    void testRunsAreCappedAndValuesAreDistinct() {
+        String name = UUID.randomUUID().toString();
+        Long userId = userService.createUser(new UserDTO(null, name, name + "@example.com")).getId();
+        for (int i = 0; i < 5; i++) {
+            taskService.createTask(new TaskDTO(null, "Legacy " + i, null, false, userId));
+        }
+        jdbc.update("UPDATE tasks SET change_seq = NULL WHERE user_id = ?", userId);
+        ReflectionTestUtils.setField(backfill, "chunkSize", 2);
+        ReflectionTestUtils.setField(backfill, "maxChunksPerRun", 2);
+        try {
+            assertEquals(4, backfill.backfill());
+            assertEquals(1, backfill.backfill());
+        } finally {
+            ReflectionTestUtils.setField(backfill, "chunkSize", 500);
+            ReflectionTestUtils.setField(backfill, "maxChunksPerRun", 100);
+        }
+
+        List<Long> changeSeqs = jdbc.queryForList("SELECT change_seq FROM tasks WHERE user_id = ?", Long.class,
+            userId);
+        assertEquals(5, changeSeqs.stream().distinct().count());
+    }
+}
@@ -0,0 +1,73 @@
+package com.todoapp.sync;
+
+import com.todoapp.repository.ChangeSequence;
+import com.todoapp.sharding.ShardExecutor;
+import com.todoapp.sharding.ShardRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChangeWatermarksTest {
+
+    private final AtomicLong now = new AtomicLong(10_000L);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ChangeWatermarks watermarks;
+
+    @BeforeEach
+    void setUp() {
+        watermarks = new ChangeWatermarks(now::get);
+        ReflectionTestUtils.setField(watermarks, "shardExecutor",
+            new ShardExecutor(new ShardRing(1, 1), mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(watermarks, "changeSequence", (ChangeSequence) sequence::incrementAndGet);
+        ReflectionTestUtils.setField(watermarks, "safetyWindowMs", 1_000L);
+    }
+
+    @Test
+    void testBoundTrailsTheSequenceByTheWindow() {
+        assertEquals(0L, watermarks.safeBound(0));
+
+        sequence.set(41);
+        watermarks.sample();
+        now.addAndGet(500);
+        sequence.set(99);
+        watermarks.sample();
+        assertEquals(0L, watermarks.safeBound(0));
+
+        now.addAndGet(500);
+        assertEquals(41L, watermarks.safeBound(0));
+        now.addAndGet(500);
+        assertEquals(99L, watermarks.safeBound(0));
+    }
+
+    @Test
+    void testOldSamplesAreDropped() {
+        for (int i = 0; i < 100; i++) {
+            watermarks.sample();
+            now.addAndGet(100);
+        }
+
+        Map<?, ?> samples = (Map<?, ?>) ReflectionTestUtils.getField(watermarks, "samples");
+        assertEquals(11, ((Collection<?>) samples.get(0)).size());
+        assertEquals(90L, watermarks.safeBound(0));
+    }
+
+    @Test
+    void testZeroWindowTurnsTheBoundOff() {
+        ReflectionTestUtils.setField(watermarks, "safetyWindowMs", 0L);
+
+        watermarks.sample();
+
+        assertEquals(Long.MAX_VALUE, watermarks.safeBound(0));
+        assertEquals(0L, sequence.get());
+    }
+}
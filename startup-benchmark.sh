@@ -0,0 +1,68 @@
+#!/bin/bash
+# Startup benchmark: time-to-first-request and RSS, plain JVM vs fast-startup (AOT + CDS)
+#
+# Usage: ./startup-benchmark.sh [runs]
+#
+# Builds the fast-startup jar, extracts it the same way the Dockerfile does and
+# creates the CDS archive with a training run. Each run then starts the app,
+# polls /api/users until it answers 200 and samples VmRSS at that moment.
+# The database is taken from the usual SPRING_DATASOURCE_* environment variables;
+# EXTRA_CLASSPATH can add e.g. a JDBC driver jar for a local H2 run.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+WORK_DIR=${WORK_DIR:-target/startup-benchmark}
+TRAINING_OPTS="-Dspring.context.exit=onRefresh -Dspring.jpa.hibernate.ddl-auto=none -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false"
+
+mvn -B -q clean package -DskipTests -Pfast-startup
+
+rm -rf "$WORK_DIR"
+mkdir -p "$WORK_DIR/layers" "$WORK_DIR/app"
+java -Djarmode=tools -jar target/*.jar extract --layers --destination "$WORK_DIR/layers"
+for layer in dependencies spring-boot-loader snapshot-dependencies application; do
+    cp -r "$WORK_DIR/layers/$layer/." "$WORK_DIR/app/"
+done
+
+APP_JAR=$(ls "$WORK_DIR"/app/*.jar)
+CLASSPATH="$APP_JAR${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}"
+
+java -XX:ArchiveClassesAtExit="$WORK_DIR/app/app.jsa" -Dspring.aot.enabled=true $TRAINING_OPTS \
+    -cp "$CLASSPATH" com.todoapp.TodoAppApplication > "$WORK_DIR/training.log" 2>&1
+
+# Prints "<ms to first 200> <rss kB>" for one start of the app with the given JVM options
+measure() {
+    local start pid elapsed rss
+    start=$(date +%s%N)
+    java "$@" -Dserver.port="$PORT" -cp "$CLASSPATH" com.todoapp.TodoAppApplication > "$WORK_DIR/run.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/users"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "application exited, see $WORK_DIR/run.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed $rss"
+}
+
+report() {
+    local name=$1
+    shift
+    local total_ms=0 total_rss=0 result
+    for ((i = 1; i <= RUNS; i++)); do
+        result=$(measure "$@")
+        total_ms=$((total_ms + ${result% *}))
+        total_rss=$((total_rss + ${result#* }))
+    done
+    printf "%-10s first request %6d ms   RSS %7d kB   (mean of %d)\n" \
+        "$name" $((total_ms / RUNS)) $((total_rss / RUNS)) "$RUNS"
+}
+
+report baseline
+report fast -XX:SharedArchiveFile="$WORK_DIR/app/app.jsa" -Dspring.aot.enabled=true